@@ -0,0 +1,47 @@
+package com.healthlink.ai_health_agent.benchmark;
+
+import com.healthlink.ai_health_agent.domain.entity.ChatMessage;
+import com.healthlink.ai_health_agent.service.ChatHistoryService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.ai.chat.messages.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark da conversão do histórico (ChatMessage -> Message do Spring AI)
+ * O tamanho 10 corresponde à janela de contexto padrão do ChatHistoryService
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ChatHistoryBenchmark {
+
+    @Param({"10", "50"})
+    public int historySize;
+
+    private ChatHistoryService chatHistoryService;
+    private List<ChatMessage> history;
+
+    @Setup
+    public void setup() {
+        // Repositório não é usado pela conversão
+        chatHistoryService = new ChatHistoryService(null, null, null);
+
+        history = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            history.add(i % 2 == 0
+                    ? ChatMessage.userMessage(null, null, "Hoje acordei com dor nível " + (i % 10), "msg-" + i)
+                    : ChatMessage.assistantMessage(null, null, "Sinto muito que esteja com dor. Você tomou a medicação?"));
+        }
+    }
+
+    @Benchmark
+    public List<Message> toSpringAiMessages() {
+        return chatHistoryService.toSpringAiMessages(history);
+    }
+}
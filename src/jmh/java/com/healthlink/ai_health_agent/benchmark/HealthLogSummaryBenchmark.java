@@ -0,0 +1,49 @@
+package com.healthlink.ai_health_agent.benchmark;
+
+import com.healthlink.ai_health_agent.domain.entity.HealthLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark do resumo textual de um HealthLog
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class HealthLogSummaryBenchmark {
+
+    private HealthLog completeLog;
+    private HealthLog painOnlyLog;
+
+    @Setup
+    public void setup() {
+        completeLog = HealthLog.builder()
+                .timestamp(LocalDateTime.now())
+                .painLevel(7)
+                .mood("ansioso")
+                .sleepQuality("ruim")
+                .sleepHours(5.5)
+                .medicationTaken(true)
+                .build();
+
+        painOnlyLog = HealthLog.builder()
+                .timestamp(LocalDateTime.now())
+                .painLevel(3)
+                .build();
+    }
+
+    @Benchmark
+    public String completeSummary() {
+        return completeLog.getSummary();
+    }
+
+    @Benchmark
+    public String painOnlySummary() {
+        return painOnlyLog.getSummary();
+    }
+}
@@ -0,0 +1,52 @@
+package com.healthlink.ai_health_agent.benchmark;
+
+import com.healthlink.ai_health_agent.domain.entity.Account;
+import com.healthlink.ai_health_agent.domain.enums.AccountType;
+import com.healthlink.ai_health_agent.service.PromptService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark da montagem do System Message (executada a cada mensagem recebida)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PromptBenchmark {
+
+    @Param({"B2C", "B2B_CUSTOM"})
+    public String tenant;
+
+    private PromptService promptService;
+    private Account account;
+
+    @Setup
+    public void setup() {
+        promptService = new PromptService();
+
+        account = Account.builder()
+                .id(UUID.randomUUID())
+                .name("Clínica Benchmark")
+                .type("B2C".equals(tenant) ? AccountType.B2C : AccountType.B2B)
+                .build();
+
+        if ("B2B_CUSTOM".equals(tenant)) {
+            account.setCustomPrompt("Você é um assistente de uma clínica de psicologia. ".repeat(40));
+        }
+    }
+
+    @Benchmark
+    public String buildSystemMessageWithDiagnosis() {
+        return promptService.buildSystemMessageWithContext(account, "Maria Silva", "Fibromialgia");
+    }
+
+    @Benchmark
+    public String buildSystemMessageWithoutDiagnosis() {
+        return promptService.buildSystemMessageWithContext(account, "Maria Silva", null);
+    }
+}
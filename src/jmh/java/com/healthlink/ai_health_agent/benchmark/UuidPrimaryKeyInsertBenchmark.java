@@ -0,0 +1,124 @@
+package com.healthlink.ai_health_agent.benchmark;
+
+import com.healthlink.ai_health_agent.domain.id.TimeOrderedUuidGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark de inserção com PK UUID aleatória (v4) vs ordenada por tempo (v7) no PostgreSQL local
+ * Mede linhas/s e, ao final, imprime o tamanho do índice da PK (bytes por linha)
+ *
+ * Requer o banco do docker-compose (ou -Dbenchmark.jdbc.url/user/password).
+ * Usa uma tabela própria (uuid_pk_benchmark_*) com o formato de chat_messages; nada é lido das tabelas reais.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UuidPrimaryKeyInsertBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+
+    public enum IdKind {
+        RANDOM_V4(UUID::randomUUID),
+        TIME_ORDERED_V7(TimeOrderedUuidGenerator::next);
+
+        private final Supplier<UUID> generator;
+
+        IdKind(Supplier<UUID> generator) {
+            this.generator = generator;
+        }
+    }
+
+    @Param({"RANDOM_V4", "TIME_ORDERED_V7"})
+    public IdKind idKind;
+
+    private Connection connection;
+    private PreparedStatement insert;
+    private String table;
+    private UUID accountId;
+    private UUID patientId;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5438/ai_health_agent"),
+                System.getProperty("benchmark.jdbc.user", "postgres"),
+                System.getProperty("benchmark.jdbc.password", "postgres"));
+        table = "uuid_pk_benchmark_" + idKind.name().toLowerCase();
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            statement.execute("""
+                    CREATE TABLE %s (
+                        id UUID PRIMARY KEY,
+                        account_id UUID NOT NULL,
+                        patient_id UUID NOT NULL,
+                        role VARCHAR(20) NOT NULL,
+                        content TEXT NOT NULL,
+                        timestamp TIMESTAMP NOT NULL
+                    )
+                    """.formatted(table));
+        }
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement("INSERT INTO " + table
+                + " (id, account_id, patient_id, role, content, timestamp) VALUES (?, ?, ?, ?, ?, ?)");
+
+        random = new Random(42);
+        accountId = new UUID(random.nextLong(), random.nextLong());
+        patientId = new UUID(random.nextLong(), random.nextLong());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void insertBatch() throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            insert.setObject(1, idKind.generator.get());
+            insert.setObject(2, accountId);
+            insert.setObject(3, patientId);
+            insert.setString(4, "USER");
+            insert.setString(5, "Hoje acordei com dor nível " + random.nextInt(11));
+            insert.setTimestamp(6, now);
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void report() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE " + table);
+            try (ResultSet rs = statement.executeQuery("""
+                    SELECT (SELECT COUNT(*) FROM %1$s),
+                           pg_relation_size('%1$s_pkey'),
+                           pg_relation_size('%1$s')
+                    """.formatted(table))) {
+                rs.next();
+                long rows = rs.getLong(1);
+                long indexBytes = rs.getLong(2);
+                long tableBytes = rs.getLong(3);
+                System.out.printf("%n%s: %,d linhas | índice PK %,d KB (%.1f bytes/linha) | tabela %,d KB%n",
+                        idKind, rows, indexBytes / 1024, (double) indexBytes / Math.max(rows, 1), tableBytes / 1024);
+            }
+            statement.execute("DROP TABLE " + table);
+        }
+        connection.commit();
+        connection.close();
+    }
+}
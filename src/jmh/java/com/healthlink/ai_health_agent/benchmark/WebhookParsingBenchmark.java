@@ -0,0 +1,101 @@
+package com.healthlink.ai_health_agent.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.healthlink.ai_health_agent.dto.EvolutionApiWebhookDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark do parsing do webhook da Evolution API e extração dos campos usados no fluxo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class WebhookParsingBenchmark {
+
+    private static final String CONVERSATION_PAYLOAD = """
+            {
+              "event": "messages.upsert",
+              "instance": "instance-name",
+              "data": {
+                "key": {
+                  "remoteJid": "5511999999999@s.whatsapp.net",
+                  "fromMe": false,
+                  "id": "3EB0A1B2C3D4E5F6"
+                },
+                "message": {
+                  "conversation": "Estou com dor 8 hoje e dormi só 4 horas"
+                },
+                "messageTimestamp": 1708387200,
+                "pushName": "João Silva"
+              }
+            }
+            """;
+
+    private static final String EXTENDED_PAYLOAD = """
+            {
+              "event": "messages.upsert",
+              "instance": "instance-name",
+              "data": {
+                "key": {
+                  "remoteJid": "5511999999999@c.us",
+                  "fromMe": false,
+                  "id": "3EB0F6E5D4C3B2A1"
+                },
+                "message": {
+                  "extendedTextMessage": {
+                    "text": "Respondendo: tomei o remédio sim",
+                    "contextInfo": {"stanzaId": "3EB0A1B2C3D4E5F6"}
+                  },
+                  "messageContextInfo": {"deviceListMetadata": {}}
+                },
+                "messageTimestamp": 1708387260,
+                "pushName": "João Silva",
+                "status": "DELIVERY_ACK",
+                "source": "android"
+              }
+            }
+            """;
+
+    @Param({"conversation", "extendedTextMessage"})
+    public String payloadType;
+
+    private ObjectReader reader;
+    private byte[] payload;
+    private EvolutionApiWebhookDTO parsed;
+
+    @Setup
+    public void setup() throws Exception {
+        reader = new ObjectMapper().readerFor(EvolutionApiWebhookDTO.class);
+        payload = ("conversation".equals(payloadType) ? CONVERSATION_PAYLOAD : EXTENDED_PAYLOAD)
+                .getBytes(StandardCharsets.UTF_8);
+        parsed = reader.readValue(payload);
+    }
+
+    @Benchmark
+    public EvolutionApiWebhookDTO parse() throws Exception {
+        return reader.readValue(payload);
+    }
+
+    @Benchmark
+    public void extract(Blackhole blackhole) {
+        blackhole.consume(parsed.getWhatsappNumber());
+        blackhole.consume(parsed.getMessageText());
+    }
+
+    @Benchmark
+    public void parseAndExtract(Blackhole blackhole) throws Exception {
+        EvolutionApiWebhookDTO webhook = reader.readValue(payload);
+        blackhole.consume(webhook.isFromUser());
+        blackhole.consume(webhook.getWhatsappNumber());
+        blackhole.consume(webhook.getMessageText());
+        blackhole.consume(webhook.getMessageId());
+    }
+}
@@ -0,0 +1,115 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.healthlink.ai_health_agent.domain.entity.Alert;
+import com.healthlink.ai_health_agent.domain.entity.Patient;
+import com.healthlink.ai_health_agent.dto.PatientStatsDTO;
+import com.healthlink.ai_health_agent.repository.ChatMessageRepository;
+import com.healthlink.ai_health_agent.repository.PatientDailyHealthRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark da montagem das estatísticas do dashboard a partir dos agregados por paciente
+ * Fica no pacote service para acessar AnalyticsService.assemblePatientStats
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class AnalyticsBenchmark {
+
+    private static final String[] MOODS = {"bem", "ansioso", "triste", "irritado", "deprimido"};
+
+    /**
+     * Pacientes no tenant: consultório pequeno até clínica grande
+     */
+    @Param({"20", "200", "2000"})
+    public int patientCount;
+
+    private List<Patient> patients;
+    private List<ChatMessageRepository.PatientMessageCounts> messageCounts;
+    private List<PatientDailyHealthRepository.PatientHealthAggregate> healthAggregates;
+    private List<List<String>> commonMoods;
+
+    @Setup
+    public void setup() {
+        // Seed fixa para que o relatório seja reproduzível entre execuções
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+        patients = new ArrayList<>(patientCount);
+        messageCounts = new ArrayList<>(patientCount);
+        healthAggregates = new ArrayList<>(patientCount);
+        commonMoods = new ArrayList<>(patientCount);
+
+        for (int i = 0; i < patientCount; i++) {
+            UUID patientId = UUID.randomUUID();
+            patients.add(Patient.builder()
+                    .id(patientId)
+                    .name("Paciente " + i)
+                    .whatsappNumber("5511" + (900000000 + i))
+                    .lastInteractionAt(now.minusHours(random.nextInt(24 * 30)))
+                    .build());
+            messageCounts.add(messageCounts(patientId, random));
+            healthAggregates.add(random.nextInt(10) < 8 ? healthAggregate(patientId, random) : null);
+            commonMoods.add(List.of(MOODS[random.nextInt(MOODS.length)], MOODS[random.nextInt(MOODS.length)]));
+        }
+    }
+
+    @Benchmark
+    public List<PatientStatsDTO> assembleTenantStats() {
+        List<PatientStatsDTO> stats = new ArrayList<>(patientCount);
+        for (int i = 0; i < patientCount; i++) {
+            stats.add(AnalyticsService.assemblePatientStats(
+                    patients.get(i), messageCounts.get(i), healthAggregates.get(i),
+                    commonMoods.get(i), List.<Alert>of(), 30));
+        }
+        return stats;
+    }
+
+    private static ChatMessageRepository.PatientMessageCounts messageCounts(UUID patientId, Random random) {
+        long last7 = random.nextInt(50);
+        long last30 = last7 + random.nextInt(150);
+        long total = last30 + random.nextInt(1000);
+        return new ChatMessageRepository.PatientMessageCounts() {
+            public UUID getPatientId() { return patientId; }
+            public Long getTotalMessages() { return total; }
+            public Long getMessagesLast7Days() { return last7; }
+            public Long getMessagesLast30Days() { return last30; }
+        };
+    }
+
+    private static PatientDailyHealthRepository.PatientHealthAggregate healthAggregate(UUID patientId, Random random) {
+        long totalLogs = 1 + random.nextInt(60);
+        double averagePain = random.nextInt(100) / 10.0;
+        long daysWithPain = random.nextInt(31);
+        long daysWithMedication = random.nextInt(31);
+        double averageSleep = 3 + random.nextInt(60) / 10.0;
+        double recentPain = random.nextInt(100) / 10.0;
+        double previousPain = random.nextInt(100) / 10.0;
+        double recentSleep = 3 + random.nextInt(60) / 10.0;
+        double previousSleep = 3 + random.nextInt(60) / 10.0;
+        return new PatientDailyHealthRepository.PatientHealthAggregate() {
+            public UUID getPatientId() { return patientId; }
+            public Long getTotalLogs() { return totalLogs; }
+            public Double getAveragePain() { return averagePain; }
+            public Integer getMaxPain() { return 10; }
+            public Integer getMinPain() { return 0; }
+            public Long getDaysWithPain() { return daysWithPain; }
+            public Long getDaysWithMedication() { return daysWithMedication; }
+            public Double getAverageSleep() { return averageSleep; }
+            public Double getRecentPain() { return recentPain; }
+            public Double getPreviousPain() { return previousPain; }
+            public Double getRecentSleep() { return recentSleep; }
+            public Double getPreviousSleep() { return previousSleep; }
+        };
+    }
+}
@@ -2,8 +2,10 @@ package com.healthlink.ai_health_agent;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class AiHealthAgentApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,127 @@
+package com.healthlink.ai_health_agent.config;
+
+import com.healthlink.ai_health_agent.domain.entity.Alert;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Regras de alerta avaliadas pelo AlertRuleEngine (prefixo alerts.engine)
+ * As regras padrão ficam em alert-rules.yml; um novo alerta é uma nova entrada na lista.
+ *
+ * Cada regra compara uma métrica do log recém-registrado com um limite e, opcionalmente,
+ * exige que o pior valor do dia tenha atingido o limite em vários dias da janela:
+ * <pre>
+ *   - name: medication-skip       # identificador (logs e details do alerta)
+ *     type: MEDICATION_SKIP       # Alert.AlertType gerado
+ *     metric: MEDICATION_MISSED   # PAIN_LEVEL | SLEEP_HOURS | MEDICATION_MISSED
+ *     operator: GTE               # GTE | GT | LTE | LT (padrão GTE)
+ *     threshold: 1                # limite (padrão 1)
+ *     window-days: 7              # dias considerados, incluindo hoje (padrão 1)
+ *     min-days: 3                 # dias da janela que precisam atingir o limite (padrão 1)
+ *     consecutive: false          # true = os min-days precisam ser seguidos, terminando hoje
+ *     severity: HIGH
+ *     critical-threshold: 9       # opcional: severidade CRITICAL quando o valor atinge este limite
+ *     cooldown: P3D               # não repete o alerta do mesmo tipo neste intervalo
+ *     message: "Paciente {patient} não tomou medicação por {days} dias"
+ * </pre>
+ * Placeholders da mensagem: {patient}, {value} (valor do log) e {days} (dias que atingiram o limite).
+ *
+ * Estes são os valores padrão: cada tenant pode sobrescrever threshold, critical-threshold e
+ * min-days de uma regra, ou desativá-la (AlertThresholdService, tabela alert_thresholds).
+ */
+@ConfigurationProperties(prefix = "alerts.engine")
+public record AlertRulesProperties(
+        @DefaultValue("14") int windowDays,
+        @DefaultValue("7") int inactivityDays,
+        @DefaultValue List<Rule> rules
+) {
+
+    public AlertRulesProperties {
+        if (windowDays < 1) {
+            throw new IllegalArgumentException("alerts.engine.window-days deve ser >= 1");
+        }
+        if (inactivityDays < 1) {
+            throw new IllegalArgumentException("alerts.engine.inactivity-days deve ser >= 1");
+        }
+        for (Rule rule : rules) {
+            if (rule.windowDays() > windowDays) {
+                throw new IllegalArgumentException("Regra " + rule.name() + ": window-days maior que alerts.engine.window-days ("
+                        + windowDays + ")");
+            }
+        }
+    }
+
+    /**
+     * Métrica do log avaliada pela regra
+     * O "pior valor do dia" é o maior para dor, o menor para sono e 1 se alguma dose foi perdida
+     */
+    public enum Metric {
+        PAIN_LEVEL,
+        SLEEP_HOURS,
+        MEDICATION_MISSED
+    }
+
+    public enum Operator {
+        GTE, GT, LTE, LT;
+
+        public boolean test(double value, double threshold) {
+            return switch (this) {
+                case GTE -> value >= threshold;
+                case GT -> value > threshold;
+                case LTE -> value <= threshold;
+                case LT -> value < threshold;
+            };
+        }
+    }
+
+    public record Rule(
+            String name,
+            Alert.AlertType type,
+            Metric metric,
+            @DefaultValue("GTE") Operator operator,
+            @DefaultValue("1") double threshold,
+            @DefaultValue("1") int windowDays,
+            @DefaultValue("1") int minDays,
+            @DefaultValue("false") boolean consecutive,
+            Alert.Severity severity,
+            Double criticalThreshold,
+            Duration cooldown,
+            String message
+    ) {
+
+        public Rule {
+            if (name == null || type == null || metric == null || severity == null || cooldown == null || message == null) {
+                throw new IllegalArgumentException("Regra de alerta incompleta: name, type, metric, severity, cooldown e message são obrigatórios");
+            }
+            if (windowDays < 1 || minDays < 1 || minDays > windowDays) {
+                throw new IllegalArgumentException("Regra " + name + ": exige 1 <= min-days <= window-days");
+            }
+        }
+
+        /**
+         * Cópia da regra com os limites de um tenant (valores nulos mantêm os da regra)
+         * Passa pelas mesmas validações da regra padrão
+         */
+        public Rule withThresholds(Double threshold, Double criticalThreshold, Integer minDays) {
+            return new Rule(name, type, metric, operator,
+                    threshold != null ? threshold : this.threshold,
+                    windowDays,
+                    minDays != null ? minDays : this.minDays,
+                    consecutive, severity,
+                    criticalThreshold != null ? criticalThreshold : this.criticalThreshold,
+                    cooldown, message);
+        }
+
+        /**
+         * Severidade para o valor do log (CRITICAL a partir de critical-threshold, se configurado)
+         */
+        public Alert.Severity severityFor(double value) {
+            return criticalThreshold != null && operator.test(value, criticalThreshold)
+                    ? Alert.Severity.CRITICAL
+                    : severity;
+        }
+    }
+}
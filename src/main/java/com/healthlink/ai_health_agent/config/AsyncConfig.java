@@ -0,0 +1,105 @@
+package com.healthlink.ai_health_agent.config;
+
+import com.healthlink.ai_health_agent.service.AlertService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executores dedicados para trabalho fora da thread da requisição/transação
+ *
+ * Criados a partir do ThreadPoolTaskExecutorBuilder do Spring Boot, que já aplica o
+ * TaskDecorator de propagação de contexto (ObservabilityConfig).
+ */
+@Configuration
+@EnableAsync
+@Slf4j
+public class AsyncConfig {
+
+    /**
+     * Envio dos eventos de alerta (SSE) para os dashboards conectados
+     * Isola a escrita nos sockets dos clientes da thread que fez o commit
+     */
+    @Bean
+    public ThreadPoolTaskExecutor alertStreamExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder
+                .corePoolSize(2)
+                .maxPoolSize(4)
+                .queueCapacity(1000)
+                .threadNamePrefix("alert-stream-")
+                .build();
+    }
+
+    /**
+     * Avaliação de alertas disparada pelo registro de HealthLog (@Async após o commit)
+     * Fila cheia: a avaliação vai para o alertEvaluationOverflowExecutor. Ela nunca roda na
+     * thread que publicou o evento, que é a thread da tool call que a IA está esperando.
+     * Overflow também cheio: a avaliação é descartada e registrada em log.
+     * Cada rejeição é contada em health_agent.alerts.evaluation.rejected (action=overflow|dropped).
+     * No shutdown, aguarda as avaliações pendentes.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor alertEvaluationExecutor(
+            ThreadPoolTaskExecutorBuilder builder,
+            @Qualifier("alertEvaluationOverflowExecutor") ThreadPoolTaskExecutor overflowExecutor,
+            MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = builder
+                .corePoolSize(2)
+                .maxPoolSize(4)
+                .queueCapacity(500)
+                .threadNamePrefix("alert-eval-")
+                .awaitTermination(true)
+                .awaitTerminationPeriod(Duration.ofSeconds(30))
+                .build();
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            try {
+                overflowExecutor.execute(task);
+                meterRegistry.counter(AlertService.EVALUATION_REJECTED_COUNTER, "action", "overflow").increment();
+            } catch (TaskRejectedException e) {
+                meterRegistry.counter(AlertService.EVALUATION_REJECTED_COUNTER, "action", "dropped").increment();
+                log.warn("⚠️ Avaliação de alertas descartada: filas de avaliação cheias");
+            }
+        });
+        return executor;
+    }
+
+    /**
+     * Overflow do alertEvaluationExecutor sob saturação (uma thread, fila própria)
+     */
+    @Bean
+    public ThreadPoolTaskExecutor alertEvaluationOverflowExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder
+                .corePoolSize(1)
+                .maxPoolSize(1)
+                .queueCapacity(1000)
+                .threadNamePrefix("alert-eval-overflow-")
+                .awaitTermination(true)
+                .awaitTerminationPeriod(Duration.ofSeconds(30))
+                .build();
+    }
+
+    /**
+     * Execução paralela das funções pedidas pela IA no mesmo turno (ToolRegistry)
+     * Fila cheia: a função roda na thread da mensagem, em vez de ser descartada.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor toolExecutionExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        ThreadPoolTaskExecutor executor = builder
+                .corePoolSize(4)
+                .maxPoolSize(16)
+                .queueCapacity(100)
+                .threadNamePrefix("ai-tool-")
+                .build();
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+}
@@ -1,28 +1,71 @@
 package com.healthlink.ai_health_agent.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthlink.ai_health_agent.domain.entity.HealthLog;
 import com.healthlink.ai_health_agent.dto.HealthStatsRequest;
+import com.healthlink.ai_health_agent.observability.MessageLifecycleMetrics;
 import com.healthlink.ai_health_agent.security.TenantContextHolder;
 import com.healthlink.ai_health_agent.service.HealthLogService;
+import com.healthlink.ai_health_agent.service.ToolRegistry;
+import com.healthlink.ai_health_agent.service.ToolResultCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Description;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Configuração de Function Calling para Spring AI
  * 
  * Define as funções que a IA pode chamar durante a conversa
  * para executar ações específicas (salvar dados, buscar informações, etc)
+ * e as registra no ToolRegistry, que as anexa aos prompts e mede cada execução
  */
 @Configuration
 @Slf4j
 @RequiredArgsConstructor
 public class FunctionCallingConfig {
 
+    static final String RECORD_DAILY_HEALTH_STATS =
+            "Records daily health statistics including pain level, mood, sleep quality, and medication adherence. " +
+            "Use this function when the patient mentions any health-related information such as pain levels (0-10), " +
+            "mood (bem/ansioso/triste/irritado/deprimido), sleep quality (ótimo/bom/regular/ruim/péssimo), " +
+            "or whether they took their medication. Always call this function to save important health data.";
+    static final String GET_PAIN_HISTORY =
+            "Retrieves the patient's pain history for the last 7 days. " +
+            "Use this function when you need to understand the patient's pain trends or " +
+            "when the patient asks about their pain evolution.";
+    static final String CHECK_MEDICATION_TODAY =
+            "Checks if the patient has taken their medication today. " +
+            "Use this function when you need to remind the patient about medication or " +
+            "when the patient asks if they already took their medication today.";
+
     private final HealthLogService healthLogService;
+    private final ToolResultCache toolResultCache;
+    private final MessageLifecycleMetrics messageMetrics;
+
+    /**
+     * Registro das funções anexadas aos prompts do AIService
+     * Chamadas do mesmo turno rodam em paralelo no toolExecutionExecutor
+     */
+    @Bean
+    public ToolRegistry toolRegistry(@Qualifier("toolExecutionExecutor") Executor toolExecutionExecutor,
+                                     ObjectMapper objectMapper,
+                                     @Value("${ai.tools.timeout:PT20S}") Duration timeout) {
+        return new ToolRegistry(toolExecutionExecutor, messageMetrics, objectMapper, timeout)
+                .register("recordDailyHealthStats", RECORD_DAILY_HEALTH_STATS, HealthStatsRequest.class,
+                        recordDailyHealthStats())
+                .registerReadOnly("getPainHistory", GET_PAIN_HISTORY, Void.class, getPainHistory())
+                .registerReadOnly("checkMedicationToday", CHECK_MEDICATION_TODAY, Void.class, checkMedicationToday());
+    }
 
     /**
      * Função para registrar dados de saúde diários
@@ -36,10 +79,7 @@ public class FunctionCallingConfig {
      * IA responde: "Entendi, registrei sua dor nível 8 e que você não dormiu bem..."
      */
     @Bean
-    @Description("Records daily health statistics including pain level, mood, sleep quality, and medication adherence. " +
-                 "Use this function when the patient mentions any health-related information such as pain levels (0-10), " +
-                 "mood (bem/ansioso/triste/irritado/deprimido), sleep quality (ótimo/bom/regular/ruim/péssimo), " +
-                 "or whether they took their medication. Always call this function to save important health data.")
+    @Description(RECORD_DAILY_HEALTH_STATS)
     public Function<HealthStatsRequest, String> recordDailyHealthStats() {
         return request -> {
             try {
@@ -84,9 +124,7 @@ public class FunctionCallingConfig {
      * A IA pode chamar esta função para obter contexto sobre a evolução do paciente
      */
     @Bean
-    @Description("Retrieves the patient's pain history for the last 7 days. " +
-                 "Use this function when you need to understand the patient's pain trends or " +
-                 "when the patient asks about their pain evolution.")
+    @Description(GET_PAIN_HISTORY)
     public Function<Void, String> getPainHistory() {
         return unused -> {
             try {
@@ -98,32 +136,13 @@ public class FunctionCallingConfig {
                     return "Não foi possível acessar seu histórico no momento.";
                 }
 
-                // Buscar últimos 7 registros
-                var recentLogs = healthLogService.getRecentLogs(
-                        context.getTenantId(),
-                        context.getPatientId(),
-                        7
-                );
-
-                if (recentLogs.isEmpty()) {
-                    return "Ainda não há registros de dor no seu histórico.";
-                }
-
-                // Construir resumo
-                StringBuilder summary = new StringBuilder("Seus últimos registros de dor:\n");
-                
-                recentLogs.forEach(log -> {
-                    if (log.getPainLevel() != null) {
-                        summary.append("- ")
-                               .append(log.getTimestamp().toLocalDate())
-                               .append(": dor nível ")
-                               .append(log.getPainLevel())
-                               .append("/10\n");
-                    }
-                });
-
-                log.info("✅ Histórico de dor recuperado: {} registros", recentLogs.size());
-                return summary.toString();
+                // Últimos 7 registros, em cache até o próximo HealthLog do paciente
+                return toolResultCache.get(context.getTenantId(), context.getPatientId(), "getPainHistory",
+                        () -> formatPainHistory(healthLogService.getRecentLogs(
+                                context.getTenantId(),
+                                context.getPatientId(),
+                                7
+                        )));
 
             } catch (Exception e) {
                 log.error("❌ Erro ao buscar histórico de dor: {}", e.getMessage(), e);
@@ -136,9 +155,7 @@ public class FunctionCallingConfig {
      * Função para verificar se a medicação foi tomada hoje
      */
     @Bean
-    @Description("Checks if the patient has taken their medication today. " +
-                 "Use this function when you need to remind the patient about medication or " +
-                 "when the patient asks if they already took their medication today.")
+    @Description(CHECK_MEDICATION_TODAY)
     public Function<Void, String> checkMedicationToday() {
         return unused -> {
             try {
@@ -150,20 +167,12 @@ public class FunctionCallingConfig {
                     return "Não foi possível verificar a medicação no momento.";
                 }
 
-                var todayLogs = healthLogService.getTodayLogs(
-                        context.getTenantId(),
-                        context.getPatientId()
-                );
-
-                // Verificar se há registro de medicação tomada hoje
-                boolean tookMedication = todayLogs.stream()
-                        .anyMatch(log -> Boolean.TRUE.equals(log.getMedicationTaken()));
-
-                if (tookMedication) {
-                    return "Sim, você já registrou que tomou sua medicação hoje.";
-                } else {
-                    return "Não há registro de medicação tomada hoje. Você já tomou?";
-                }
+                // Em cache até o próximo HealthLog do paciente (ou a virada do dia)
+                return toolResultCache.get(context.getTenantId(), context.getPatientId(), "checkMedicationToday",
+                        () -> formatMedicationToday(healthLogService.getTodayLogs(
+                                context.getTenantId(),
+                                context.getPatientId()
+                        )));
 
             } catch (Exception e) {
                 log.error("❌ Erro ao verificar medicação: {}", e.getMessage(), e);
@@ -171,5 +180,33 @@ public class FunctionCallingConfig {
             }
         };
     }
-}
 
+    /**
+     * Resumo do histórico de dor (resposta de getPainHistory)
+     */
+    static String formatPainHistory(List<HealthLog> recentLogs) {
+        String lines = recentLogs.stream()
+                .filter(HealthLog::hasPainData)
+                .map(healthLog -> "- " + healthLog.getTimestamp().toLocalDate()
+                        + ": dor nível " + healthLog.getPainLevel() + "/10")
+                .collect(Collectors.joining("\n"));
+
+        if (lines.isEmpty()) {
+            return "Ainda não há registros de dor no seu histórico.";
+        }
+        log.info("✅ Histórico de dor recuperado: {} registros", recentLogs.size());
+        return "Seus últimos registros de dor:\n" + lines + "\n";
+    }
+
+    /**
+     * Resposta de checkMedicationToday a partir dos logs do dia
+     */
+    static String formatMedicationToday(List<HealthLog> todayLogs) {
+        boolean tookMedication = todayLogs.stream()
+                .anyMatch(healthLog -> Boolean.TRUE.equals(healthLog.getMedicationTaken()));
+
+        return tookMedication
+                ? "Sim, você já registrou que tomou sua medicação hoje."
+                : "Não há registro de medicação tomada hoje. Você já tomou?";
+    }
+}
@@ -0,0 +1,67 @@
+package com.healthlink.ai_health_agent.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Configuração de tracing distribuído (Micrometer Tracing + OpenTelemetry)
+ *
+ * Trace típico de uma mensagem:
+ * http.server.requests (webhook) → message.tenant_resolution → ai.process-message
+ *   → message.history_load / message.prompt_build / message.llm_call → function.* → health-log.record
+ *   → alerts.analyze → message.persistence → message.evolution_send
+ *
+ * Exportação:
+ * - OTLP: defina management.otlp.tracing.endpoint (ex: http://localhost:4318/v1/traces)
+ * - Logs: tracing.logging-exporter.enabled=true imprime os spans no console (testes locais)
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ObservabilityConfig implements SchedulingConfigurer {
+
+    private final ObservationRegistry observationRegistry;
+
+    /**
+     * Habilita @Observed nos services (spans + timers por método)
+     */
+    @Bean
+    public ObservedAspect observedAspect() {
+        return new ObservedAspect(observationRegistry);
+    }
+
+    /**
+     * Propaga o contexto de observação (trace atual) para threads de executores assíncronos
+     * Aplicado automaticamente ao executor padrão do Spring Boot
+     */
+    @Bean
+    public TaskDecorator contextPropagatingTaskDecorator() {
+        return new ContextPropagatingTaskDecorator();
+    }
+
+    /**
+     * Cada execução de job @Scheduled (check-ins, flush de tokens...) vira um trace raiz
+     */
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.setObservationRegistry(observationRegistry);
+    }
+
+    /**
+     * Exporter que imprime os spans no log (sem coletor)
+     */
+    @Bean
+    @ConditionalOnProperty(name = "tracing.logging-exporter.enabled", havingValue = "true")
+    public SpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+}
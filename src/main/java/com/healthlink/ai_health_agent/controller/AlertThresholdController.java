@@ -0,0 +1,130 @@
+package com.healthlink.ai_health_agent.controller;
+
+import com.healthlink.ai_health_agent.dto.AlertThresholdDTO;
+import com.healthlink.ai_health_agent.dto.UpdateAlertThresholdRequest;
+import com.healthlink.ai_health_agent.service.AlertThresholdService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Controller para os limites de alerta por tenant
+ * As alterações valem para os próximos logs avaliados, sem redeploy
+ */
+@RestController
+@RequestMapping("/api/dashboard/alerts/thresholds")
+@Slf4j
+@RequiredArgsConstructor
+@Tag(name = "Limites de Alerta", description = "APIs para customizar os limites das regras de alerta do tenant")
+public class AlertThresholdController {
+
+    private final AlertThresholdService thresholdService;
+
+    /**
+     * GET /api/dashboard/alerts/thresholds?tenantId=xxx
+     */
+    @Operation(
+            summary = "Listar limites de alerta",
+            description = "Retorna os limites efetivos de cada regra de alerta do tenant (padrão ou customizado)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Limites retornados com sucesso"),
+            @ApiResponse(responseCode = "400", description = "TenantId inválido")
+    })
+    @GetMapping
+    public ResponseEntity<List<AlertThresholdDTO>> getThresholds(
+            @Parameter(description = "UUID do tenant (Account)", required = true)
+            @RequestParam UUID tenantId) {
+
+        return ResponseEntity.ok(thresholdService.getThresholds(tenantId));
+    }
+
+    /**
+     * PUT /api/dashboard/alerts/thresholds/{ruleName}?tenantId=xxx
+     */
+    @Operation(
+            summary = "Customizar limites de uma regra",
+            description = "Substitui os limites da regra para o tenant; campos nulos mantêm o valor padrão. Use a regra 'inactivity' para os dias sem interação"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Limites atualizados; retorna os limites efetivos do tenant"),
+            @ApiResponse(responseCode = "400", description = "Regra desconhecida ou limites inválidos"),
+            @ApiResponse(responseCode = "404", description = "Tenant não encontrado")
+    })
+    @PutMapping("/{ruleName}")
+    public ResponseEntity<List<AlertThresholdDTO>> updateThreshold(
+            @Parameter(description = "Nome da regra", required = true, example = "high-pain")
+            @PathVariable String ruleName,
+            @Parameter(description = "UUID do tenant (Account)", required = true)
+            @RequestParam UUID tenantId,
+            @Valid @RequestBody UpdateAlertThresholdRequest request) {
+
+        log.info("📐 Atualizando limites de alerta - Tenant: {}, Regra: {}", tenantId, ruleName);
+
+        thresholdService.updateThreshold(tenantId, ruleName, request);
+
+        return ResponseEntity.ok(thresholdService.getThresholds(tenantId));
+    }
+
+    /**
+     * DELETE /api/dashboard/alerts/thresholds/{ruleName}?tenantId=xxx
+     */
+    @Operation(
+            summary = "Restaurar limites padrão de uma regra",
+            description = "Remove a customização da regra para o tenant"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Limites restaurados"),
+            @ApiResponse(responseCode = "400", description = "Regra desconhecida")
+    })
+    @DeleteMapping("/{ruleName}")
+    public ResponseEntity<Void> resetThreshold(
+            @Parameter(description = "Nome da regra", required = true, example = "high-pain")
+            @PathVariable String ruleName,
+            @Parameter(description = "UUID do tenant (Account)", required = true)
+            @RequestParam UUID tenantId) {
+
+        log.info("📐 Restaurando limites de alerta - Tenant: {}, Regra: {}", tenantId, ruleName);
+
+        thresholdService.resetThreshold(tenantId, ruleName);
+
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Exception handler para regra desconhecida ou limites inválidos
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
+                "error", "VALIDATION_ERROR",
+                "message", e.getMessage()
+        ));
+    }
+
+    /**
+     * Exception handler para tenant não encontrado
+     */
+    @ExceptionHandler(RuntimeException.class)
+    public ResponseEntity<Map<String, String>> handleNotFoundException(RuntimeException e) {
+        if (e.getMessage() != null && e.getMessage().contains("não encontrad")) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "error", "NOT_FOUND",
+                    "message", e.getMessage()
+            ));
+        }
+        throw e;
+    }
+}
@@ -1,10 +1,16 @@
 package com.healthlink.ai_health_agent.controller;
 
-import com.healthlink.ai_health_agent.domain.entity.Alert;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthlink.ai_health_agent.dto.AlertDTO;
 import com.healthlink.ai_health_agent.dto.ConversationSummaryDTO;
+import com.healthlink.ai_health_agent.dto.FieldSelector;
+import com.healthlink.ai_health_agent.dto.PageResponse;
 import com.healthlink.ai_health_agent.dto.PatientStatsDTO;
+import com.healthlink.ai_health_agent.dto.TokenUsageReportDTO;
 import com.healthlink.ai_health_agent.service.AlertService;
+import com.healthlink.ai_health_agent.service.AlertStreamService;
 import com.healthlink.ai_health_agent.service.AnalyticsService;
+import com.healthlink.ai_health_agent.service.TokenUsageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,9 +21,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -36,31 +46,40 @@ public class DashboardController {
 
     private final AnalyticsService analyticsService;
     private final AlertService alertService;
+    private final AlertStreamService alertStreamService;
+    private final TokenUsageService tokenUsageService;
+    private final ObjectMapper objectMapper;
 
     /**
-     * GET /api/dashboard/patients?tenantId=xxx
-     * Lista todos os pacientes com estatísticas resumidas
+     * GET /api/dashboard/patients?tenantId=xxx&cursor=xxx&limit=50&fields=patientId,name
+     * Lista pacientes com estatísticas resumidas, paginado por cursor
      */
     @Operation(
-            summary = "Listar todos os pacientes",
-            description = "Retorna estatísticas resumidas de todos os pacientes do tenant, incluindo métricas de saúde, alertas ativos e tendências"
+            summary = "Listar pacientes",
+            description = "Retorna estatísticas resumidas dos pacientes do tenant (mais recentes primeiro), incluindo métricas de saúde, alertas ativos e tendências. Paginado por cursor: envie o nextCursor da resposta para buscar a próxima página"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de pacientes retornada com sucesso",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = PatientStatsDTO.class))),
-            @ApiResponse(responseCode = "400", description = "TenantId inválido", content = @Content),
+            @ApiResponse(responseCode = "400", description = "TenantId ou cursor inválido", content = @Content),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content)
     })
     @GetMapping("/patients")
-    public ResponseEntity<List<PatientStatsDTO>> getAllPatientsStats(
+    public ResponseEntity<PageResponse<?>> getPatientsStats(
             @Parameter(description = "UUID do tenant (Account)", required = true, example = "123e4567-e89b-12d3-a456-426614174000")
-            @RequestParam UUID tenantId) {
+            @RequestParam UUID tenantId,
+            @Parameter(description = "Cursor da próxima página (nextCursor da resposta anterior)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Itens por página (padrão 50, máximo 200)")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Campos a retornar, separados por vírgula (padrão: todos)", example = "patientId,name,activeAlerts")
+            @RequestParam(required = false) String fields) {
 
-        log.info("📊 Dashboard: Buscando estatísticas de todos os pacientes - Tenant: {}", tenantId);
+        log.info("📊 Dashboard: Buscando estatísticas dos pacientes - Tenant: {}", tenantId);
 
-        List<PatientStatsDTO> stats = analyticsService.getAllPatientsStats(tenantId);
+        PageResponse<PatientStatsDTO> page = analyticsService.getPatientsStatsPage(tenantId, cursor, limit);
 
-        return ResponseEntity.ok(stats);
+        return ResponseEntity.ok(FieldSelector.select(objectMapper, page, fields));
     }
 
     /**
@@ -91,15 +110,17 @@ public class DashboardController {
     }
 
     /**
-     * GET /api/dashboard/patients/{patientId}/conversations?tenantId=xxx&startDate=xxx&endDate=xxx
-     * Busca resumo de conversas de um paciente
+     * GET /api/dashboard/patients/{patientId}/conversations?tenantId=xxx&startDate=xxx&endDate=xxx&cursor=xxx&limit=20
+     * Busca resumo de conversas de um paciente (mensagens paginadas por cursor)
      */
     @GetMapping("/patients/{patientId}/conversations")
     public ResponseEntity<ConversationSummaryDTO> getConversationSummary(
             @PathVariable UUID patientId,
             @RequestParam UUID tenantId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         
         log.info("💬 Dashboard: Buscando conversas do paciente {} - Tenant: {}", patientId, tenantId);
         
@@ -112,48 +133,78 @@ public class DashboardController {
         }
         
         ConversationSummaryDTO summary = analyticsService.getConversationSummary(
-                tenantId, patientId, startDate, endDate);
+                tenantId, patientId, startDate, endDate, cursor, limit);
         
         return ResponseEntity.ok(summary);
     }
 
     /**
-     * GET /api/dashboard/alerts?tenantId=xxx
-     * Lista todos os alertas ativos do tenant
+     * GET /api/dashboard/alerts?tenantId=xxx&cursor=xxx&limit=50&fields=alertId,severity
+     * Lista alertas ativos do tenant, paginado por cursor
      */
     @Operation(
             summary = "Listar alertas ativos",
-            description = "Retorna todos os alertas não reconhecidos do tenant, ordenados por severidade (CRITICAL > HIGH > MEDIUM > LOW)"
+            description = "Retorna os alertas não reconhecidos do tenant, ordenados por severidade (CRITICAL > HIGH > MEDIUM > LOW) e data. Paginado por cursor"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de alertas retornada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido"),
             @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
     @GetMapping("/alerts")
-    public ResponseEntity<List<Alert>> getAllActiveAlerts(
+    public ResponseEntity<PageResponse<?>> getActiveAlerts(
             @Parameter(description = "UUID do tenant (Account)", required = true)
-            @RequestParam UUID tenantId) {
+            @RequestParam UUID tenantId,
+            @Parameter(description = "Cursor da próxima página (nextCursor da resposta anterior)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Itens por página (padrão 50, máximo 200)")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Campos a retornar, separados por vírgula (padrão: todos)")
+            @RequestParam(required = false) String fields) {
 
         log.info("🚨 Dashboard: Buscando alertas ativos - Tenant: {}", tenantId);
 
-        List<Alert> alerts = alertService.getAllActiveAlerts(tenantId);
+        PageResponse<AlertDTO> page = alertService.getActiveAlertsPage(tenantId, cursor, limit);
 
-        return ResponseEntity.ok(alerts);
+        return ResponseEntity.ok(FieldSelector.select(objectMapper, page, fields));
+    }
+
+    /**
+     * GET /api/dashboard/alerts/stream?tenantId=xxx
+     * Stream SSE de alertas criados/reconhecidos (substitui o polling de /alerts)
+     */
+    @Operation(
+            summary = "Stream de alertas em tempo real (SSE)",
+            description = "Envia eventos 'alert' quando alertas são criados ou reconhecidos. Envie o header Last-Event-ID ao reconectar para receber os eventos perdidos; o evento 'resync' indica que a lista deve ser recarregada via GET /alerts"
+    )
+    @GetMapping(value = "/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAlerts(
+            @Parameter(description = "UUID do tenant (Account)", required = true)
+            @RequestParam UUID tenantId,
+            @Parameter(description = "ID do último evento recebido (reconexão)")
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+
+        log.info("📡 Dashboard: Abrindo stream de alertas - Tenant: {}, Last-Event-ID: {}", tenantId, lastEventId);
+
+        return alertStreamService.subscribe(tenantId, lastEventId);
     }
 
     /**
-     * GET /api/dashboard/alerts/critical?tenantId=xxx
-     * Lista alertas críticos
+     * GET /api/dashboard/alerts/critical?tenantId=xxx&cursor=xxx&limit=50
+     * Lista alertas críticos, paginado por cursor
      */
     @GetMapping("/alerts/critical")
-    public ResponseEntity<List<Alert>> getCriticalAlerts(
-            @RequestParam UUID tenantId) {
+    public ResponseEntity<PageResponse<?>> getCriticalAlerts(
+            @RequestParam UUID tenantId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
         
         log.info("🚨 Dashboard: Buscando alertas críticos - Tenant: {}", tenantId);
         
-        List<Alert> alerts = alertService.getCriticalAlerts(tenantId);
+        PageResponse<AlertDTO> page = alertService.getCriticalAlertsPage(tenantId, cursor, limit);
         
-        return ResponseEntity.ok(alerts);
+        return ResponseEntity.ok(FieldSelector.select(objectMapper, page, fields));
     }
 
     /**
@@ -161,13 +212,15 @@ public class DashboardController {
      * Lista alertas ativos de um paciente específico
      */
     @GetMapping("/patients/{patientId}/alerts")
-    public ResponseEntity<List<Alert>> getPatientAlerts(
+    public ResponseEntity<List<AlertDTO>> getPatientAlerts(
             @PathVariable UUID patientId,
             @RequestParam UUID tenantId) {
         
         log.info("🚨 Dashboard: Buscando alertas do paciente {} - Tenant: {}", patientId, tenantId);
         
-        List<Alert> alerts = alertService.getActiveAlerts(tenantId, patientId);
+        List<AlertDTO> alerts = alertService.getActiveAlerts(tenantId, patientId).stream()
+                .map(AlertDTO::from)
+                .toList();
         
         return ResponseEntity.ok(alerts);
     }
@@ -206,5 +259,50 @@ public class DashboardController {
                 "alertId", alertId.toString()
         ));
     }
-}
 
+    /**
+     * GET /api/dashboard/usage?tenantId=xxx&startDate=2024-02-01&endDate=2024-02-29
+     * Consumo de tokens do LLM do tenant
+     */
+    @Operation(
+            summary = "Consumo de tokens do LLM",
+            description = "Retorna o consumo de tokens (prompt e completion) do tenant no período, agrupado por tipo de chamada, por paciente e por dia. Padrão: mês corrente."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Relatório de consumo retornado com sucesso",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = TokenUsageReportDTO.class))),
+            @ApiResponse(responseCode = "500", description = "Erro interno do servidor", content = @Content)
+    })
+    @GetMapping("/usage")
+    public ResponseEntity<TokenUsageReportDTO> getTokenUsage(
+            @Parameter(description = "UUID do tenant (Account)", required = true)
+            @RequestParam UUID tenantId,
+            @Parameter(description = "Data inicial (inclusiva)", example = "2024-02-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "Data final (inclusiva)", example = "2024-02-29")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        log.info("💰 Dashboard: Buscando consumo de tokens - Tenant: {}", tenantId);
+
+        // Padrão: mês corrente
+        if (startDate == null) {
+            startDate = LocalDate.now().withDayOfMonth(1);
+        }
+        if (endDate == null) {
+            endDate = LocalDate.now();
+        }
+
+        return ResponseEntity.ok(tokenUsageService.getUsageReport(tenantId, startDate, endDate));
+    }
+
+    /**
+     * Cursor de paginação malformado
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidCursor(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
+                "error", "INVALID_CURSOR",
+                "message", e.getMessage()
+        ));
+    }
+}
@@ -1,18 +1,31 @@
 package com.healthlink.ai_health_agent.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.healthlink.ai_health_agent.domain.entity.Patient;
+import com.healthlink.ai_health_agent.dto.FieldSelector;
+import com.healthlink.ai_health_agent.dto.HealthLogImportResult;
+import com.healthlink.ai_health_agent.dto.PageResponse;
+import com.healthlink.ai_health_agent.dto.PatientSummaryDTO;
+import com.healthlink.ai_health_agent.service.HealthLogImportService;
+import com.healthlink.ai_health_agent.service.HistoryExportService;
+import com.healthlink.ai_health_agent.service.HistoryExportService.ExportFormat;
 import com.healthlink.ai_health_agent.service.PatientService;
 import com.healthlink.ai_health_agent.service.PatientService.SlotLimitExceededException;
 import com.healthlink.ai_health_agent.service.PatientService.SlotUsageStats;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Controller para gerenciamento de pacientes
@@ -24,6 +37,9 @@ import java.util.UUID;
 public class PatientController {
 
     private final PatientService patientService;
+    private final HistoryExportService historyExportService;
+    private final HealthLogImportService healthLogImportService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Cria um novo paciente
@@ -55,25 +71,33 @@ public class PatientController {
     }
 
     /**
-     * Lista todos os pacientes de um tenant
+     * Lista os pacientes de um tenant (ordem alfabética, paginado por cursor)
      * 
-     * GET /api/patients?tenantId={tenantId}
+     * GET /api/patients?tenantId={tenantId}&cursor={nextCursor}&limit=50&fields=patientId,name
      */
     @GetMapping
-    public ResponseEntity<List<Patient>> listPatients(@RequestParam UUID tenantId) {
-        List<Patient> patients = patientService.findAllByTenant(tenantId);
-        return ResponseEntity.ok(patients);
+    public ResponseEntity<PageResponse<?>> listPatients(
+            @RequestParam UUID tenantId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        PageResponse<PatientSummaryDTO> page = patientService.findPage(tenantId, false, cursor, limit);
+        return ResponseEntity.ok(FieldSelector.select(objectMapper, page, fields));
     }
 
     /**
-     * Lista pacientes ativos de um tenant
+     * Lista pacientes ativos de um tenant (ordem alfabética, paginado por cursor)
      * 
-     * GET /api/patients/active?tenantId={tenantId}
+     * GET /api/patients/active?tenantId={tenantId}&cursor={nextCursor}&limit=50
      */
     @GetMapping("/active")
-    public ResponseEntity<List<Patient>> listActivePatients(@RequestParam UUID tenantId) {
-        List<Patient> patients = patientService.findActivePatients(tenantId);
-        return ResponseEntity.ok(patients);
+    public ResponseEntity<PageResponse<?>> listActivePatients(
+            @RequestParam UUID tenantId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        PageResponse<PatientSummaryDTO> page = patientService.findPage(tenantId, true, cursor, limit);
+        return ResponseEntity.ok(FieldSelector.select(objectMapper, page, fields));
     }
 
     /**
@@ -101,6 +125,76 @@ public class PatientController {
         return ResponseEntity.ok(stats);
     }
 
+    /**
+     * Exporta o histórico completo de mensagens do paciente (streaming)
+     * 
+     * GET /api/patients/{patientId}/export/messages?tenantId={tenantId}&format=ndjson|csv&gzip=true
+     */
+    @GetMapping("/{patientId}/export/messages")
+    public ResponseEntity<StreamingResponseBody> exportMessages(
+            @PathVariable UUID patientId,
+            @RequestParam UUID tenantId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        
+        ExportFormat exportFormat = ExportFormat.from(format);
+        historyExportService.validateAccess(tenantId, patientId);
+
+        return exportResponse("messages-" + patientId, exportFormat, gzip,
+                out -> historyExportService.exportMessages(tenantId, patientId, exportFormat, gzip, out));
+    }
+
+    /**
+     * Exporta todos os registros de saúde do paciente (streaming)
+     * 
+     * GET /api/patients/{patientId}/export/health-logs?tenantId={tenantId}&format=ndjson|csv&gzip=true
+     */
+    @GetMapping("/{patientId}/export/health-logs")
+    public ResponseEntity<StreamingResponseBody> exportHealthLogs(
+            @PathVariable UUID patientId,
+            @RequestParam UUID tenantId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        
+        ExportFormat exportFormat = ExportFormat.from(format);
+        historyExportService.validateAccess(tenantId, patientId);
+
+        return exportResponse("health-logs-" + patientId, exportFormat, gzip,
+                out -> historyExportService.exportHealthLogs(tenantId, patientId, exportFormat, gzip, out));
+    }
+
+    /**
+     * Importa HealthLogs em lote (wearables, dispositivos, diários históricos)
+     * Corpo NDJSON, uma entrada por linha; aceita Content-Encoding: gzip
+     * 
+     * POST /api/patients/health-logs/import?tenantId={tenantId}
+     */
+    @PostMapping(value = "/health-logs/import", consumes = {"application/x-ndjson", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<HealthLogImportResult> importHealthLogs(
+            @RequestParam UUID tenantId,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream body) throws IOException {
+        
+        InputStream input = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body) : body;
+        return ResponseEntity.ok(healthLogImportService.importNdjson(tenantId, input));
+    }
+
+    /**
+     * Resposta de download; o corpo é escrito fora da thread do request
+     * Com gzip, o conteúdo vai com Content-Encoding: gzip (o arquivo mantém a extensão do formato)
+     */
+    private ResponseEntity<StreamingResponseBody> exportResponse(String baseName, ExportFormat format, boolean gzip,
+                                                                 StreamingResponseBody body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + baseName + "." + format.getExtension() + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     /**
      * Desativa um paciente
      * 
@@ -143,6 +237,17 @@ public class PatientController {
         }
     }
 
+    /**
+     * Exception handler para parâmetros inválidos (cursor de paginação, formato de exportação)
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
+                "error", "VALIDATION_ERROR",
+                "message", e.getMessage()
+        ));
+    }
+
     /**
      * Exception handler para erros de segurança
      */
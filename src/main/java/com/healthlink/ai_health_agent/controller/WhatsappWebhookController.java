@@ -1,6 +1,8 @@
 package com.healthlink.ai_health_agent.controller;
 
 import com.healthlink.ai_health_agent.dto.EvolutionApiWebhookDTO;
+import com.healthlink.ai_health_agent.observability.MessageLifecycleMetrics;
+import com.healthlink.ai_health_agent.observability.MessageLifecycleMetrics.Stage;
 import com.healthlink.ai_health_agent.repository.PatientRepository;
 import com.healthlink.ai_health_agent.security.TenantContext;
 import com.healthlink.ai_health_agent.security.TenantContextHolder;
@@ -46,6 +48,7 @@ public class WhatsappWebhookController {
     private final PatientRepository patientRepository;
     private final AIService aiService;
     private final EvolutionApiService evolutionApiService;
+    private final MessageLifecycleMetrics messageMetrics;
     
     @Value("${evolution.api.webhook-key:default-secret}")
     private String webhookKey;
@@ -98,6 +101,7 @@ public class WhatsappWebhookController {
             // ========================================
             if (!webhookKey.equals(apiKey)) {
                 log.warn("⚠️ Tentativa de acesso não autorizado ao webhook");
+                messageMetrics.recordWebhookOutcome("unauthorized", null);
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("error", "UNAUTHORIZED", "message", "Invalid API Key"));
             }
@@ -108,6 +112,7 @@ public class WhatsappWebhookController {
             // Ignorar mensagens que enviamos (fromMe=true)
             if (!webhook.isFromUser()) {
                 log.debug("⏭️ Mensagem ignorada (fromMe=true)");
+                messageMetrics.recordWebhookOutcome("ignored", null);
                 return ResponseEntity.ok(Map.of("status", "ignored", "reason", "fromMe"));
             }
 
@@ -120,6 +125,7 @@ public class WhatsappWebhookController {
             
             if (whatsappNumber == null || messageText == null || messageText.isBlank()) {
                 log.warn("⚠️ Webhook inválido - número ou mensagem vazia");
+                messageMetrics.recordWebhookOutcome("invalid", null);
                 return ResponseEntity.badRequest()
                         .body(Map.of("error", "INVALID_DATA", "message", "Missing whatsapp number or message"));
             }
@@ -131,8 +137,9 @@ public class WhatsappWebhookController {
             // PASSO 4: IDENTIFICAÇÃO DE TENANT
             // ========================================
             // Usa projeção leve para performance
-            var projection = patientRepository
-                    .findTenantContextByWhatsappNumber(whatsappNumber)
+            var projection = messageMetrics
+                    .recordStage(Stage.TENANT_RESOLUTION, null,
+                            () -> patientRepository.findTenantContextByWhatsappNumber(whatsappNumber))
                     .orElseThrow(() -> new PatientNotFoundException(
                             "Paciente não cadastrado: " + whatsappNumber));
 
@@ -147,6 +154,7 @@ public class WhatsappWebhookController {
             // PASSO 5: ESTABELECER CONTEXTO DE SEGURANÇA
             // ========================================
             TenantContext context = new TenantContext(tenantId, patientName, whatsappNumber, patientId);
+            context.setAccountType(projection.getAccountType());
             TenantContextHolder.setContext(context);
 
             log.debug("✅ Contexto de segurança estabelecido: {}", context);
@@ -169,6 +177,7 @@ public class WhatsappWebhookController {
             evolutionApiService.sendMessage(whatsappNumber, aiResponse);
 
             log.info("✅ Fluxo completo executado com sucesso para {}", whatsappNumber);
+            messageMetrics.recordWebhookOutcome("success");
 
             // ========================================
             // PASSO 8: LIMPAR CONTEXTO
@@ -186,6 +195,7 @@ public class WhatsappWebhookController {
 
         } catch (PatientNotFoundException e) {
             log.error("❌ Paciente não encontrado: {}", e.getMessage());
+            messageMetrics.recordWebhookOutcome("patient_not_found");
             
             // Enviar mensagem de boas-vindas/cadastro
             String welcomeMessage = """
@@ -211,6 +221,7 @@ public class WhatsappWebhookController {
 
         } catch (Exception e) {
             log.error("❌ Erro ao processar webhook", e);
+            messageMetrics.recordWebhookOutcome(MessageLifecycleMetrics.OUTCOME_ERROR);
             
             // Enviar mensagem de erro ao usuário
             try {
@@ -91,6 +91,14 @@ public class Account {
     @Column(name = "limit_slots")
     private Integer limitSlots;
 
+    /**
+     * Retenção do histórico (mensagens, health logs, execuções de check-in) em dias
+     * Dados mais antigos são arquivados e removidos pelo DataRetentionService
+     * NULL = usa retention.default-days (sem padrão configurado, mantém tudo)
+     */
+    @Column(name = "retention_days")
+    private Integer retentionDays;
+
     /**
      * Pacientes vinculados a esta conta (tenant)
      */
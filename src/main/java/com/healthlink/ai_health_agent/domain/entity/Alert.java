@@ -1,5 +1,6 @@
 package com.healthlink.ai_health_agent.domain.entity;
 
+import com.healthlink.ai_health_agent.domain.id.TimeOrderedUuid;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -26,7 +27,7 @@ import java.util.UUID;
 public class Alert {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     /**
@@ -99,9 +100,11 @@ public class Alert {
      */
     public enum AlertType {
         HIGH_PAIN_LEVEL,           // Dor muito alta (>= 8)
+        HIGH_PAIN_STREAK,          // Dor alta por vários dias seguidos
         PAIN_INCREASE,             // Aumento significativo de dor
         MEDICATION_SKIP,           // Medicação não tomada por vários dias
         SLEEP_DEPRIVATION,         // Sono insuficiente
+        SLEEP_DEPRIVATION_STREAK,  // Sono insuficiente por várias noites seguidas
         NEGATIVE_MOOD_PATTERN,     // Padrão de humor negativo
         INACTIVITY,                // Paciente sem interagir há muito tempo
         CRISIS_KEYWORDS,           // Palavras-chave de crise detectadas
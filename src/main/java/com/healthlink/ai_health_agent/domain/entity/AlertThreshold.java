@@ -0,0 +1,54 @@
+package com.healthlink.ai_health_agent.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Limites de alerta customizados de um tenant (uma linha por tenant/regra)
+ * Campos nulos mantêm o valor padrão da regra (alert-rules.yml)
+ */
+@Entity
+@Table(name = "alert_thresholds",
+        uniqueConstraints = @UniqueConstraint(name = "uk_alert_thresholds_account_rule",
+                columnNames = {"account_id", "rule_name"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertThreshold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false)
+    private Account account;
+
+    /**
+     * Nome da regra (alerts.engine.rules[].name) ou "inactivity"
+     */
+    @Column(name = "rule_name", nullable = false, length = 100)
+    private String ruleName;
+
+    @Column(name = "threshold")
+    private Double threshold;
+
+    @Column(name = "critical_threshold")
+    private Double criticalThreshold;
+
+    @Column(name = "min_days")
+    private Integer minDays;
+
+    @Column(name = "enabled", nullable = false)
+    private Boolean enabled;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -1,5 +1,6 @@
 package com.healthlink.ai_health_agent.domain.entity;
 
+import com.healthlink.ai_health_agent.domain.id.TimeOrderedUuid;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -9,11 +10,16 @@ import java.util.UUID;
 /**
  * Entidade para armazenar histórico de mensagens do chat
  * Permite que a IA tenha contexto das conversas anteriores
+ *
+ * Tabela particionada por mês em timestamp (V9): PK (id, timestamp) no banco.
+ * Consultas devem filtrar por intervalo de timestamp sempre que possível (partition pruning)
  */
 @Entity
 @Table(name = "chat_messages", indexes = {
         @Index(name = "idx_chat_patient_timestamp", columnList = "patient_id, timestamp DESC"),
-        @Index(name = "idx_chat_account_timestamp", columnList = "account_id, timestamp DESC")
+        @Index(name = "idx_chat_account_timestamp", columnList = "account_id, timestamp DESC"),
+        @Index(name = "idx_chat_patient_timestamp_id", columnList = "patient_id, timestamp, id"),
+        @Index(name = "idx_chat_whatsapp_message", columnList = "whatsapp_message_id")
 })
 @Getter
 @Setter
@@ -23,7 +29,7 @@ import java.util.UUID;
 public class ChatMessage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     /**
@@ -41,9 +47,9 @@ public class ChatMessage {
     private Patient patient;
 
     /**
-     * Timestamp da mensagem
+     * Timestamp da mensagem (chave de partição, não muda após o insert)
      */
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private LocalDateTime timestamp;
 
     /**
@@ -0,0 +1,36 @@
+package com.healthlink.ai_health_agent.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Registro de mensagens recebidas do WhatsApp (idempotência do webhook)
+ * chat_messages é particionada por mês e não aceita UNIQUE global em whatsapp_message_id,
+ * então a unicidade fica nesta tabela
+ */
+@Entity
+@Table(name = "chat_message_receipts", indexes = {
+        @Index(name = "idx_chat_message_receipts_account_received", columnList = "account_id, received_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessageReceipt {
+
+    @Id
+    @Column(name = "whatsapp_message_id", length = 255)
+    private String whatsappMessageId;
+
+    @Column(name = "account_id", nullable = false)
+    private UUID accountId;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+}
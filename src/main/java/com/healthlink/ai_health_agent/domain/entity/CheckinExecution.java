@@ -1,5 +1,6 @@
 package com.healthlink.ai_health_agent.domain.entity;
 
+import com.healthlink.ai_health_agent.domain.id.TimeOrderedUuid;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -11,7 +12,9 @@ import java.util.UUID;
  * Armazena histórico de todas as tentativas de envio de mensagens proativas.
  */
 @Entity
-@Table(name = "checkin_executions")
+@Table(name = "checkin_executions", indexes = {
+        @Index(name = "idx_checkin_executions_account_executed", columnList = "account_id, executed_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -19,7 +22,7 @@ import java.util.UUID;
 public class CheckinExecution {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     // ============================================
@@ -1,5 +1,6 @@
 package com.healthlink.ai_health_agent.domain.entity;
 
+import com.healthlink.ai_health_agent.domain.id.TimeOrderedUuid;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,9 +18,8 @@ import java.util.UUID;
  */
 @Entity
 @Table(name = "health_logs", indexes = {
-        @Index(name = "idx_health_logs_patient", columnList = "patient_id"),
-        @Index(name = "idx_health_logs_account", columnList = "account_id"),
-        @Index(name = "idx_health_logs_timestamp", columnList = "timestamp")
+        @Index(name = "idx_health_logs_patient_account_timestamp", columnList = "patient_id, account_id, timestamp DESC"),
+        @Index(name = "idx_health_logs_account_timestamp", columnList = "account_id, timestamp DESC")
 })
 @Data
 @Builder
@@ -28,7 +28,7 @@ import java.util.UUID;
 public class HealthLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     /**
@@ -45,7 +45,7 @@ public class HealthLog {
     /**
      * DADOS DE SAÚDE ESTRUTURADOS
      */
-    @Column(name = "timestamp", nullable = false)
+    @Column(name = "timestamp", nullable = false, updatable = false)
     private LocalDateTime timestamp;
 
     @Column(name = "pain_level")
@@ -72,6 +72,9 @@ public class HealthLog {
     @Column(name = "stress_level")
     private Integer stressLevel;  // 0-10
 
+    @Column(name = "steps")
+    private Integer steps;  // Passos no dia (importação de dispositivos)
+
     @Column(name = "notes", columnDefinition = "TEXT")
     private String notes;  // Observações adicionais
 
@@ -24,7 +24,8 @@ import java.util.UUID;
     indexes = {
         @Index(name = "idx_patient_account", columnList = "account_id"),
         @Index(name = "idx_patient_whatsapp", columnList = "whatsapp_number"),
-        @Index(name = "idx_patient_active", columnList = "is_active")
+        @Index(name = "idx_patient_active", columnList = "is_active"),
+        @Index(name = "idx_patient_account_name_id", columnList = "account_id, name, id")
     }
 )
 @Getter
@@ -0,0 +1,80 @@
+package com.healthlink.ai_health_agent.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Rollup diário dos HealthLogs de um paciente
+ *
+ * Cada linha acumula somas, contagens e extremos de todos os logs do dia,
+ * permitindo que o analytics leia O(dias) linhas em vez de O(logs).
+ * As linhas são gravadas via upsert (HealthLogService e backfill), nunca via save().
+ */
+@Entity
+@Table(name = "patient_daily_health",
+        uniqueConstraints = @UniqueConstraint(name = "uk_patient_daily_health",
+                columnNames = {"account_id", "patient_id", "day"}),
+        indexes = @Index(name = "idx_patient_daily_health_account_day", columnList = "account_id, day"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientDailyHealth {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    // ============================================
+    // RELACIONAMENTOS
+    // ============================================
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false)
+    private Account account;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id", nullable = false)
+    private Patient patient;
+
+    @Column(name = "day", nullable = false)
+    private LocalDate day;
+
+    // ============================================
+    // MÉTRICAS
+    // ============================================
+
+    @Column(name = "log_count", nullable = false)
+    private Integer logCount;
+
+    @Column(name = "pain_min")
+    private Integer painMin;
+
+    @Column(name = "pain_max")
+    private Integer painMax;
+
+    @Column(name = "pain_sum", nullable = false)
+    private Long painSum;
+
+    @Column(name = "pain_count", nullable = false)
+    private Integer painCount;
+
+    @Column(name = "sleep_sum", nullable = false)
+    private Double sleepSum;
+
+    @Column(name = "sleep_count", nullable = false)
+    private Integer sleepCount;
+
+    @Column(name = "medication_taken", nullable = false)
+    private Boolean medicationTaken;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,47 @@
+package com.healthlink.ai_health_agent.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Contagem diária de humores de um paciente
+ * Complementa o PatientDailyHealth (uma linha por paciente/dia/humor)
+ */
+@Entity
+@Table(name = "patient_daily_mood",
+        uniqueConstraints = @UniqueConstraint(name = "uk_patient_daily_mood",
+                columnNames = {"account_id", "patient_id", "day", "mood"}),
+        indexes = @Index(name = "idx_patient_daily_mood_account_day", columnList = "account_id, day"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientDailyMood {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false)
+    private Account account;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id", nullable = false)
+    private Patient patient;
+
+    @Column(name = "day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "mood", nullable = false, length = 50)
+    private String mood;
+
+    @Column(name = "occurrences", nullable = false)
+    private Integer occurrences;
+}
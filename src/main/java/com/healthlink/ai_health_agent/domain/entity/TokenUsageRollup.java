@@ -0,0 +1,73 @@
+package com.healthlink.ai_health_agent.domain.entity;
+
+import com.healthlink.ai_health_agent.domain.enums.LlmCallType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Consumo de tokens do LLM agregado por minuto
+ *
+ * Cada linha acumula todas as chamadas de um paciente/tipo de chamada
+ * dentro de um mesmo minuto (bucketStart). As linhas são gravadas via
+ * upsert pelo TokenUsageService, nunca uma linha por chamada.
+ */
+@Entity
+@Table(name = "token_usage_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_token_usage_bucket",
+                columnNames = {"account_id", "patient_id", "call_type", "bucket_start"}),
+        indexes = @Index(name = "idx_token_usage_account_bucket", columnList = "account_id, bucket_start"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenUsageRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    // ============================================
+    // RELACIONAMENTOS
+    // ============================================
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false)
+    private Account account;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id", nullable = false)
+    private Patient patient;
+
+    // ============================================
+    // DIMENSÕES
+    // ============================================
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "call_type", nullable = false, length = 20)
+    private LlmCallType callType;
+
+    /**
+     * Início do minuto agregado (segundos e nanos zerados)
+     */
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    // ============================================
+    // MÉTRICAS
+    // ============================================
+
+    @Column(name = "prompt_tokens", nullable = false)
+    private Long promptTokens;
+
+    @Column(name = "completion_tokens", nullable = false)
+    private Long completionTokens;
+
+    @Column(name = "call_count", nullable = false)
+    private Integer callCount;
+}
@@ -0,0 +1,21 @@
+package com.healthlink.ai_health_agent.domain.enums;
+
+/**
+ * Tipo de chamada ao LLM (usado em métricas e medição de consumo de tokens)
+ */
+public enum LlmCallType {
+    /**
+     * Resposta a uma mensagem recebida do paciente
+     */
+    REPLY,
+
+    /**
+     * Mensagem proativa gerada pelos check-ins agendados
+     */
+    PROACTIVE,
+
+    /**
+     * Resumos gerados para o dashboard
+     */
+    SUMMARY
+}
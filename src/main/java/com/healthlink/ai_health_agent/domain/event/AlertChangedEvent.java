@@ -0,0 +1,38 @@
+package com.healthlink.ai_health_agent.domain.event;
+
+import com.healthlink.ai_health_agent.domain.entity.Alert;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Publicado quando um alerta é criado ou reconhecido
+ */
+public record AlertChangedEvent(
+        UUID tenantId,
+        UUID patientId,
+        UUID alertId,
+        Alert.AlertType alertType,
+        Alert.Severity severity,
+        String message,
+        LocalDateTime createdAt,
+        Change change
+) {
+
+    public enum Change {
+        CREATED,
+        ACKNOWLEDGED
+    }
+
+    public static AlertChangedEvent of(Alert alert, Change change) {
+        return new AlertChangedEvent(
+                alert.getAccount().getId(),
+                alert.getPatient().getId(),
+                alert.getId(),
+                alert.getAlertType(),
+                alert.getSeverity(),
+                alert.getMessage(),
+                alert.getCreatedAt(),
+                change);
+    }
+}
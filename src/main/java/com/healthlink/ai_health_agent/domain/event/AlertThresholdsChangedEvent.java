@@ -0,0 +1,9 @@
+package com.healthlink.ai_health_agent.domain.event;
+
+import java.util.UUID;
+
+/**
+ * Publicado quando os limites de alerta de um tenant são alterados
+ */
+public record AlertThresholdsChangedEvent(UUID tenantId) {
+}
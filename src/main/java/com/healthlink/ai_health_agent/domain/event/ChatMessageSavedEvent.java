@@ -0,0 +1,27 @@
+package com.healthlink.ai_health_agent.domain.event;
+
+import com.healthlink.ai_health_agent.domain.entity.ChatMessage;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Publicado quando uma mensagem (paciente ou IA) é persistida no histórico
+ */
+public record ChatMessageSavedEvent(
+        UUID tenantId,
+        UUID patientId,
+        UUID messageId,
+        ChatMessage.MessageRole role,
+        LocalDateTime timestamp
+) {
+
+    public static ChatMessageSavedEvent from(ChatMessage message) {
+        return new ChatMessageSavedEvent(
+                message.getAccount().getId(),
+                message.getPatient().getId(),
+                message.getId(),
+                message.getRole(),
+                message.getTimestamp());
+    }
+}
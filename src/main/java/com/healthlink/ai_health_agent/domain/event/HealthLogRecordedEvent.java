@@ -0,0 +1,37 @@
+package com.healthlink.ai_health_agent.domain.event;
+
+import com.healthlink.ai_health_agent.domain.entity.HealthLog;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Publicado quando um HealthLog é registrado
+ * Carrega um snapshot dos valores (e o nome do paciente, já resolvido na checagem de posse)
+ * para que os listeners não precisem recarregar as entidades
+ */
+public record HealthLogRecordedEvent(
+        UUID tenantId,
+        UUID patientId,
+        UUID healthLogId,
+        LocalDateTime timestamp,
+        Integer painLevel,
+        String mood,
+        Double sleepHours,
+        Boolean medicationTaken,
+        String patientName
+) {
+
+    public static HealthLogRecordedEvent from(HealthLog healthLog, String patientName) {
+        return new HealthLogRecordedEvent(
+                healthLog.getAccount().getId(),
+                healthLog.getPatient().getId(),
+                healthLog.getId(),
+                healthLog.getTimestamp(),
+                healthLog.getPainLevel(),
+                healthLog.getMood(),
+                healthLog.getSleepHours(),
+                healthLog.getMedicationTaken(),
+                patientName);
+    }
+}
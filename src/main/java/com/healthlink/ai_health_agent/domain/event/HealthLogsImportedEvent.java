@@ -0,0 +1,16 @@
+package com.healthlink.ai_health_agent.domain.event;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Publicado quando um lote de HealthLogs de um paciente é importado (HealthLogImportService)
+ * Um evento por paciente e lote: os listeners processam o lote de uma vez, não log a log
+ */
+public record HealthLogsImportedEvent(
+        UUID tenantId,
+        UUID patientId,
+        String patientName,
+        List<HealthLogRecordedEvent> logs
+) {
+}
@@ -0,0 +1,19 @@
+package com.healthlink.ai_health_agent.domain.event;
+
+import java.util.UUID;
+
+/**
+ * Publicado quando um paciente entra ou sai da lista ativa do tenant
+ */
+public record PatientChangedEvent(
+        UUID tenantId,
+        UUID patientId,
+        Change change
+) {
+
+    public enum Change {
+        CREATED,
+        DEACTIVATED,
+        REACTIVATED
+    }
+}
@@ -0,0 +1,19 @@
+package com.healthlink.ai_health_agent.domain.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Gera o ID da entidade como UUID ordenado por tempo (versão 7)
+ * Usar no lugar de @GeneratedValue(strategy = GenerationType.UUID) em tabelas append-only
+ * de alto volume: IDs novos entram sempre no fim da PK, sem fragmentar o índice
+ */
+@IdGeneratorType(TimeOrderedUuidGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedUuid {
+}
@@ -0,0 +1,47 @@
+package com.healthlink.ai_health_agent.domain.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gerador de UUID versão 7 (RFC 9562)
+ *
+ * Layout: 48 bits de timestamp Unix em ms | versão 7 | 12 bits de contador | variante | 62 bits aleatórios
+ * O contador garante ordem crescente dentro do mesmo milissegundo nesta JVM; ao esgotar
+ * os 12 bits, o timestamp avança 1 ms (método 3 da RFC). Entre instâncias, a ordem é
+ * aproximada pelo relógio, o que basta para a localidade do índice.
+ * A parte aleatória vem de SecureRandom, como no UUID v4: o ID continua não adivinhável.
+ */
+public class TimeOrderedUuidGenerator implements IdentifierGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * Último (timestamp << 12 | contador) emitido
+     */
+    private static final AtomicLong LAST = new AtomicLong();
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return next();
+    }
+
+    /**
+     * Novo UUID v7; também usado fora do Hibernate (ex: inserts via JDBC)
+     */
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long state = LAST.updateAndGet(last -> Math.max(now, last + 1));
+
+        long millis = state >>> 12;
+        long counter = state & 0xFFF;
+
+        long msb = (millis << 16) | 0x7000L | counter;
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
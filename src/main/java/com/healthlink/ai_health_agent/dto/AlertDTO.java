@@ -0,0 +1,47 @@
+package com.healthlink.ai_health_agent.dto;
+
+import com.healthlink.ai_health_agent.domain.entity.Alert;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO de alerta para o dashboard
+ * Expõe apenas o ID do paciente, sem inicializar as associações lazy (Account/Patient)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertDTO {
+
+    private UUID alertId;
+    private UUID patientId;
+    private String type;
+    private String severity;
+    private String message;
+    private String details;
+    private LocalDateTime createdAt;
+    private Boolean acknowledged;
+    private LocalDateTime acknowledgedAt;
+    private String acknowledgedBy;
+
+    public static AlertDTO from(Alert alert) {
+        return AlertDTO.builder()
+                .alertId(alert.getId())
+                .patientId(alert.getPatient().getId())
+                .type(alert.getAlertType().name())
+                .severity(alert.getSeverity().name())
+                .message(alert.getMessage())
+                .details(alert.getDetails())
+                .createdAt(alert.getCreatedAt())
+                .acknowledged(alert.getAcknowledged())
+                .acknowledgedAt(alert.getAcknowledgedAt())
+                .acknowledgedBy(alert.getAcknowledgedBy())
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.healthlink.ai_health_agent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Payload dos eventos de alerta enviados via SSE ao dashboard
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertStreamEventDTO {
+
+    private UUID alertId;
+    private UUID patientId;
+    private String type;
+    private String severity;
+    private String message;
+    private LocalDateTime createdAt;
+
+    /**
+     * CREATED ou ACKNOWLEDGED
+     */
+    private String change;
+}
@@ -0,0 +1,31 @@
+package com.healthlink.ai_health_agent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Limites efetivos de uma regra de alerta para um tenant
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertThresholdDTO {
+
+    private String ruleName;
+    private String alertType;
+    private String metric;
+    private String operator;
+    private Double threshold;
+    private Double criticalThreshold;
+    private Integer windowDays;
+    private Integer minDays;
+    private Boolean enabled;
+
+    /**
+     * true quando o tenant sobrescreveu os valores padrão da regra
+     */
+    private Boolean customized;
+}
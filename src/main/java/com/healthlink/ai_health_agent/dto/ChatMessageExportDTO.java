@@ -0,0 +1,28 @@
+package com.healthlink.ai_health_agent.dto;
+
+import com.healthlink.ai_health_agent.domain.entity.ChatMessage;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Linha da exportação do histórico de mensagens
+ * Preenchida por projeção de construtor (SELECT new ...), sem carregar a entidade
+ */
+@Getter
+@AllArgsConstructor
+public class ChatMessageExportDTO {
+
+    public static final String[] CSV_HEADER = {"id", "timestamp", "role", "content"};
+
+    private UUID id;
+    private LocalDateTime timestamp;
+    private ChatMessage.MessageRole role;
+    private String content;
+
+    public Object[] toCsvRow() {
+        return new Object[]{id, timestamp, role, content};
+    }
+}
@@ -25,6 +25,11 @@ public class ConversationSummaryDTO {
     private LocalDateTime endDate;
     private Integer totalMessages;
     private List<MessageDTO> recentMessages;
+
+    // Paginação keyset das mensagens (ver PageResponse)
+    private String nextCursor;
+    private boolean hasMore;
+
     private List<TopicDTO> mainTopics;
     private SentimentAnalysisDTO sentimentAnalysis;
 
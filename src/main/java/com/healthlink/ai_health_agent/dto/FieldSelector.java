@@ -0,0 +1,54 @@
+package com.healthlink.ai_health_agent.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Seleção de campos (?fields=a,b,c) para respostas de listagem
+ *
+ * Converte cada DTO em um mapa com apenas os campos pedidos (nomes de primeiro nível do JSON).
+ * Sem o parâmetro, o DTO é devolvido inalterado.
+ */
+public final class FieldSelector {
+
+    private FieldSelector() {
+    }
+
+    /**
+     * Interpreta o parâmetro fields (separado por vírgulas)
+     *
+     * @return Conjunto de campos, ou vazio quando todos devem ser retornados
+     */
+    public static Set<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Aplica a seleção em uma página de DTOs
+     */
+    public static PageResponse<?> select(ObjectMapper objectMapper, PageResponse<?> page, String fields) {
+        Set<String> selected = parse(fields);
+        if (selected.isEmpty()) {
+            return page;
+        }
+        return page.map(item -> selectFields(objectMapper, item, selected));
+    }
+
+    private static Map<String, Object> selectFields(ObjectMapper objectMapper, Object item, Set<String> selected) {
+        Map<String, Object> all = objectMapper.convertValue(item, objectMapper.getTypeFactory()
+                .constructMapType(LinkedHashMap.class, String.class, Object.class));
+        all.keySet().retainAll(selected);
+        return all;
+    }
+}
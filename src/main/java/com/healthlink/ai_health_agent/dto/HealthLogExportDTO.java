@@ -0,0 +1,40 @@
+package com.healthlink.ai_health_agent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Linha da exportação dos registros de saúde
+ * Preenchida por projeção de construtor (SELECT new ...), sem carregar a entidade
+ */
+@Getter
+@AllArgsConstructor
+public class HealthLogExportDTO {
+
+    public static final String[] CSV_HEADER = {
+            "id", "timestamp", "painLevel", "mood", "sleepQuality", "sleepHours",
+            "medicationTaken", "medicationName", "energyLevel", "stressLevel", "notes"
+    };
+
+    private UUID id;
+    private LocalDateTime timestamp;
+    private Integer painLevel;
+    private String mood;
+    private String sleepQuality;
+    private Double sleepHours;
+    private Boolean medicationTaken;
+    private String medicationName;
+    private Integer energyLevel;
+    private Integer stressLevel;
+    private String notes;
+
+    public Object[] toCsvRow() {
+        return new Object[]{
+                id, timestamp, painLevel, mood, sleepQuality, sleepHours,
+                medicationTaken, medicationName, energyLevel, stressLevel, notes
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.healthlink.ai_health_agent.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Linha da importação em lote de HealthLogs (uma por linha do NDJSON)
+ * Exemplo: {"patientId":"...","timestamp":"2024-03-10T07:00:00","sleepHours":6.5,"steps":8200}
+ */
+@Data
+public class HealthLogImportEntry {
+
+    private UUID patientId;
+    private LocalDateTime timestamp;
+    private Integer painLevel;       // 0-10
+    private String mood;
+    private String sleepQuality;
+    private Double sleepHours;       // 0-24
+    private Boolean medicationTaken;
+    private String medicationName;
+    private Integer energyLevel;     // 0-10
+    private Integer stressLevel;     // 0-10
+    private Integer steps;           // >= 0
+    private String notes;
+
+    /**
+     * Verifica se a linha tem algum dado de saúde
+     */
+    public boolean hasAnyData() {
+        return painLevel != null || mood != null || sleepQuality != null || sleepHours != null
+                || medicationTaken != null || energyLevel != null || stressLevel != null
+                || steps != null || notes != null;
+    }
+}
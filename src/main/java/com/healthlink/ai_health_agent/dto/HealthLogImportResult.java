@@ -0,0 +1,28 @@
+package com.healthlink.ai_health_agent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado da importação em lote de HealthLogs
+ * Linhas rejeitadas não interrompem a importação; os erros são listados por número de linha
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HealthLogImportResult {
+
+    private long accepted;
+    private long rejected;
+    private int patients;
+
+    /**
+     * Erros no formato "linha N: motivo" (limitados a HealthLogImportService.MAX_REPORTED_ERRORS)
+     */
+    private List<String> errors;
+}
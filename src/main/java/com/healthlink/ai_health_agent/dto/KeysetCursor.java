@@ -0,0 +1,96 @@
+package com.healthlink.ai_health_agent.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Cursor opaco da paginação keyset
+ *
+ * Codifica em Base64 (URL-safe) os valores da chave de ordenação do último item
+ * retornado, separados por '|'. Cada endpoint define quais valores compõem a chave;
+ * o desempate é sempre o ID, para a ordenação ser total.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String[] parts;
+
+    private KeysetCursor(String[] parts) {
+        this.parts = parts;
+    }
+
+    /**
+     * Gera o cursor a partir dos valores da chave (toString de cada um)
+     */
+    public static String encode(Object... values) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                raw.append(SEPARATOR);
+            }
+            raw.append(values[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica um cursor recebido do cliente
+     *
+     * @param cursor Cursor ou null (primeira página)
+     * @param expectedParts Quantidade de valores da chave do endpoint
+     * @return Cursor decodificado, ou null na primeira página
+     * @throws IllegalArgumentException se o cursor for inválido
+     */
+    public static KeysetCursor decode(String cursor, int expectedParts) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+
+            // O último valor é sempre o ID; o valor anterior a ele pode conter '|' (ex: nome do paciente)
+            String[] parts = new String[expectedParts];
+            int idSeparator = raw.lastIndexOf(SEPARATOR);
+            if (expectedParts == 1) {
+                parts[0] = raw;
+            } else {
+                String[] head = idSeparator < 0 ? new String[0] : raw.substring(0, idSeparator).split("\\|", expectedParts - 1);
+                if (head.length != expectedParts - 1) {
+                    throw new IllegalArgumentException("Cursor inválido");
+                }
+                System.arraycopy(head, 0, parts, 0, head.length);
+                parts[expectedParts - 1] = raw.substring(idSeparator + 1);
+            }
+
+            UUID.fromString(parts[expectedParts - 1]);
+            return new KeysetCursor(parts);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+
+    public String getString(int index) {
+        return parts[index];
+    }
+
+    public int getInt(int index) {
+        return Integer.parseInt(parts[index]);
+    }
+
+    public LocalDateTime getTimestamp(int index) {
+        try {
+            return LocalDateTime.parse(parts[index]);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+
+    public UUID getId() {
+        return UUID.fromString(parts[parts.length - 1]);
+    }
+}
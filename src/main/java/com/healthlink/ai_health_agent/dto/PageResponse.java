@@ -0,0 +1,74 @@
+package com.healthlink.ai_health_agent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados com paginação por cursor (keyset)
+ *
+ * O cliente repete a requisição enviando nextCursor até hasMore = false.
+ * O cursor é opaco: codifica a chave de ordenação do último item (ver KeysetCursor).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResponse<T> {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private int limit;
+
+    /**
+     * Normaliza o limite informado pelo cliente (padrão 50, máximo 200)
+     */
+    public static int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    /**
+     * Monta a página a partir de uma consulta que buscou limit + 1 linhas
+     * A linha extra só indica que existe próxima página e é descartada
+     *
+     * @param rows Linhas retornadas (até limit + 1)
+     * @param limit Tamanho da página
+     * @param mapper Conversão da linha para o item da resposta
+     * @param cursorOf Cursor que aponta para depois de uma linha
+     */
+    public static <E, T> PageResponse<T> of(List<E> rows, int limit,
+                                            Function<E, T> mapper, Function<E, String> cursorOf) {
+        boolean hasMore = rows.size() > limit;
+        List<E> page = hasMore ? rows.subList(0, limit) : rows;
+
+        return PageResponse.<T>builder()
+                .items(page.stream().map(mapper).toList())
+                .nextCursor(hasMore ? cursorOf.apply(page.get(page.size() - 1)) : null)
+                .hasMore(hasMore)
+                .limit(limit)
+                .build();
+    }
+
+    /**
+     * Converte os itens mantendo os dados de paginação
+     */
+    public <R> PageResponse<R> map(Function<T, R> mapper) {
+        return PageResponse.<R>builder()
+                .items(items.stream().map(mapper).toList())
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .limit(limit)
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.healthlink.ai_health_agent.dto;
+
+import com.healthlink.ai_health_agent.domain.entity.Patient;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO de listagem de pacientes (sem referências lazy da entidade)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientSummaryDTO {
+
+    private UUID patientId;
+    private String name;
+    private String whatsappNumber;
+    private String email;
+    private LocalDate birthDate;
+    private String diagnosis;
+    private Boolean isActive;
+    private LocalDateTime lastInteractionAt;
+    private LocalDateTime createdAt;
+
+    public static PatientSummaryDTO from(Patient patient) {
+        return PatientSummaryDTO.builder()
+                .patientId(patient.getId())
+                .name(patient.getName())
+                .whatsappNumber(patient.getWhatsappNumber())
+                .email(patient.getEmail())
+                .birthDate(patient.getBirthDate())
+                .diagnosis(patient.getDiagnosis())
+                .isActive(patient.getIsActive())
+                .lastInteractionAt(patient.getLastInteractionAt())
+                .createdAt(patient.getCreatedAt())
+                .build();
+    }
+}
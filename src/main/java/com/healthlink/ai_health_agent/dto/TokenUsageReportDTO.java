@@ -0,0 +1,95 @@
+package com.healthlink.ai_health_agent.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO com o consumo de tokens do LLM de um tenant no período
+ * Usado no dashboard para acompanhar custo e limites do plano
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Consumo de tokens do LLM de um tenant no período")
+public class TokenUsageReportDTO {
+
+    @Schema(description = "ID do tenant (Account)")
+    private UUID tenantId;
+
+    @Schema(description = "Data inicial (inclusiva)", example = "2024-02-01")
+    private LocalDate startDate;
+
+    @Schema(description = "Data final (inclusiva)", example = "2024-02-29")
+    private LocalDate endDate;
+
+    @Schema(description = "Total de tokens de prompt", example = "182340")
+    private Long totalPromptTokens;
+
+    @Schema(description = "Total de tokens de completion", example = "45210")
+    private Long totalCompletionTokens;
+
+    @Schema(description = "Total de tokens (prompt + completion)", example = "227550")
+    private Long totalTokens;
+
+    @Schema(description = "Total de chamadas ao LLM", example = "512")
+    private Long totalCalls;
+
+    @Schema(description = "Consumo por tipo de chamada (REPLY, PROACTIVE, SUMMARY)")
+    private List<CallTypeUsageDTO> byCallType;
+
+    @Schema(description = "Consumo por paciente, maiores consumidores primeiro")
+    private List<PatientUsageDTO> byPatient;
+
+    @Schema(description = "Série diária de consumo")
+    private List<DailyUsageDTO> daily;
+
+    /**
+     * Consumo por tipo de chamada
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CallTypeUsageDTO {
+        private String callType;
+        private Long promptTokens;
+        private Long completionTokens;
+        private Long calls;
+    }
+
+    /**
+     * Consumo por paciente
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PatientUsageDTO {
+        private UUID patientId;
+        private Long promptTokens;
+        private Long completionTokens;
+        private Long calls;
+    }
+
+    /**
+     * Consumo por dia
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DailyUsageDTO {
+        private LocalDate day;
+        private Long promptTokens;
+        private Long completionTokens;
+        private Long calls;
+    }
+}
@@ -0,0 +1,27 @@
+package com.healthlink.ai_health_agent.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+/**
+ * Request para customizar os limites de uma regra de alerta do tenant
+ * Campos nulos mantêm o valor padrão da regra
+ */
+@Data
+@Schema(description = "Request para customizar limites de uma regra de alerta")
+public class UpdateAlertThresholdRequest {
+
+    @Schema(description = "Limite que dispara a regra (na regra inactivity: dias sem interação)", example = "7")
+    private Double threshold;
+
+    @Schema(description = "Limite a partir do qual o alerta é CRITICAL", example = "9")
+    private Double criticalThreshold;
+
+    @Min(1)
+    @Schema(description = "Dias da janela que precisam atingir o limite", example = "3")
+    private Integer minDays;
+
+    @Schema(description = "Ativar/desativar a regra para o tenant", example = "true")
+    private Boolean enabled;
+}
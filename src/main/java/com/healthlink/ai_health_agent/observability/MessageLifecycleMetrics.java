@@ -0,0 +1,214 @@
+package com.healthlink.ai_health_agent.observability;
+
+import com.healthlink.ai_health_agent.domain.enums.AccountType;
+import com.healthlink.ai_health_agent.domain.enums.LlmCallType;
+import com.healthlink.ai_health_agent.security.TenantContext;
+import com.healthlink.ai_health_agent.security.TenantContextHolder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Métricas e tracing (Micrometer Observation) do ciclo de vida das mensagens
+ *
+ * Cobre cada etapa do fluxo do webhook e dos check-ins proativos:
+ * resolução de tenant → histórico → prompt → LLM → function calling → persistência → envio
+ *
+ * Cada etapa é uma Observation: gera o timer (Prometheus) e um span filho do trace atual.
+ * Todas as métricas são tagueadas por tipo de tenant (b2b/b2c) e resultado (success/error).
+ * O tipo de tenant é lido do TenantContextHolder quando não é informado explicitamente.
+ */
+@Component
+@RequiredArgsConstructor
+public class MessageLifecycleMetrics {
+
+    public static final String STAGE_TIMER = "health_agent.message.stage";
+    public static final String FUNCTION_TIMER = "health_agent.function.call";
+    public static final String TOKENS_COUNTER = "health_agent.llm.tokens";
+    public static final String WEBHOOK_COUNTER = "health_agent.webhook.messages";
+    public static final String CHECKIN_TIMER = "health_agent.checkin.execution";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_ERROR = "error";
+
+    private static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+
+    /**
+     * Etapas do processamento de uma mensagem
+     */
+    public enum Stage {
+        TENANT_RESOLUTION,
+        HISTORY_LOAD,
+        PROMPT_BUILD,
+        LLM_CALL,
+        TOOL_EXECUTION,
+        PERSISTENCE,
+        EVOLUTION_SEND;
+
+        String tagValue() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Mede uma etapa usando o tipo de tenant do contexto atual
+     */
+    public <T> T recordStage(Stage stage, Supplier<T> action) {
+        return recordStage(stage, currentTenantType(), action);
+    }
+
+    /**
+     * Mede uma etapa com tipo de tenant explícito
+     * Exceções são propagadas e contabilizadas com outcome=error
+     */
+    public <T> T recordStage(Stage stage, AccountType tenantType, Supplier<T> action) {
+        Observation observation = Observation.createNotStarted(STAGE_TIMER, observationRegistry)
+                .contextualName("message." + stage.tagValue())
+                .lowCardinalityKeyValue("stage", stage.tagValue())
+                .lowCardinalityKeyValue("tenant_type", tenantTypeTag(tenantType));
+
+        return observe(observation, action);
+    }
+
+    /**
+     * Variante sem retorno usando o tipo de tenant do contexto atual
+     */
+    public void runStage(Stage stage, Runnable action) {
+        runStage(stage, currentTenantType(), action);
+    }
+
+    /**
+     * Variante sem retorno de {@link #recordStage(Stage, AccountType, Supplier)}
+     */
+    public void runStage(Stage stage, AccountType tenantType, Runnable action) {
+        recordStage(stage, tenantType, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Mede a execução de uma função chamada pela IA (Function Calling)
+     */
+    public <T> T recordFunctionCall(String functionName, Supplier<T> action) {
+        Observation observation = Observation.createNotStarted(FUNCTION_TIMER, observationRegistry)
+                .contextualName("function." + functionName)
+                .lowCardinalityKeyValue("function", functionName)
+                .lowCardinalityKeyValue("tenant_type", tenantTypeTag(currentTenantType()));
+
+        return observe(observation, action);
+    }
+
+    /**
+     * Registra tokens usando o tipo de tenant do contexto atual
+     */
+    public void recordTokenUsage(LlmCallType callType, ChatResponse response) {
+        recordTokenUsage(callType, currentTenantType(), response);
+    }
+
+    /**
+     * Registra tokens de prompt e completion informados no metadata da resposta
+     */
+    public void recordTokenUsage(LlmCallType callType, AccountType tenantType, ChatResponse response) {
+        if (response == null || response.getMetadata() == null) {
+            return;
+        }
+
+        Usage usage = response.getMetadata().getUsage();
+        if (usage == null) {
+            return;
+        }
+
+        incrementTokens(callType, tenantType, "prompt", usage.getPromptTokens());
+        incrementTokens(callType, tenantType, "completion", usage.getCompletionTokens());
+    }
+
+    /**
+     * Contabiliza o resultado de um webhook usando o tipo de tenant do contexto atual
+     */
+    public void recordWebhookOutcome(String outcome) {
+        recordWebhookOutcome(outcome, currentTenantType());
+    }
+
+    /**
+     * Contabiliza o resultado final de um webhook recebido
+     * (success, ignored, unauthorized, invalid, patient_not_found, error)
+     * Sem tipo de tenant (falha antes da resolução do tenant) o tag fica unknown
+     */
+    public void recordWebhookOutcome(String outcome, AccountType tenantType) {
+        Counter.builder(WEBHOOK_COUNTER)
+                .description("Webhooks recebidos da Evolution API por tipo de tenant e resultado")
+                .tag("tenant_type", tenantTypeTag(tenantType))
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Registra uma execução de check-in proativo (success, failed, skipped)
+     */
+    public void recordCheckin(AccountType tenantType, String outcome, Duration duration) {
+        Timer.builder(CHECKIN_TIMER)
+                .description("Duração das execuções de check-in proativo")
+                .tag("tenant_type", tenantTypeTag(tenantType))
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(duration);
+    }
+
+    private void incrementTokens(LlmCallType callType, AccountType tenantType, String tokenType, Integer tokens) {
+        if (tokens == null || tokens <= 0) {
+            return;
+        }
+
+        Counter.builder(TOKENS_COUNTER)
+                .description("Tokens consumidos nas chamadas ao LLM")
+                .baseUnit("tokens")
+                .tag("call_type", callType.name().toLowerCase(Locale.ROOT))
+                .tag("token_type", tokenType)
+                .tag("tenant_type", tenantTypeTag(tenantType))
+                .register(meterRegistry)
+                .increment(tokens);
+    }
+
+    /**
+     * Executa a ação dentro da observação (timer + span) registrando o outcome
+     * O escopo aberto torna o span atual o pai das chamadas feitas pela ação (JDBC, HTTP, LLM)
+     */
+    private <T> T observe(Observation observation, Supplier<T> action) {
+        observation.start();
+        try (Observation.Scope scope = observation.openScope()) {
+            T result = action.get();
+            observation.lowCardinalityKeyValue("outcome", OUTCOME_SUCCESS);
+            return result;
+        } catch (RuntimeException e) {
+            observation.lowCardinalityKeyValue("outcome", OUTCOME_ERROR);
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private AccountType currentTenantType() {
+        TenantContext context = TenantContextHolder.getContext();
+        return context != null ? context.getAccountType() : null;
+    }
+
+    private String tenantTypeTag(AccountType tenantType) {
+        return tenantType != null ? tenantType.name().toLowerCase(Locale.ROOT) : UNKNOWN;
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -32,15 +33,19 @@ public interface AlertRepository extends JpaRepository<Alert, UUID> {
     );
 
     /**
-     * Busca todos os alertas ativos de um tenant
+     * Busca alertas ativos de um conjunto de pacientes (dashboard)
      */
     @Query("""
         SELECT a FROM Alert a
         WHERE a.account.id = :tenantId
+        AND a.patient.id IN :patientIds
         AND a.acknowledged = false
-        ORDER BY a.severity DESC, a.createdAt DESC
+        ORDER BY a.createdAt DESC
         """)
-    List<Alert> findActiveAlertsByTenant(@Param("tenantId") UUID tenantId);
+    List<Alert> findActiveAlertsByPatients(
+            @Param("tenantId") UUID tenantId,
+            @Param("patientIds") Collection<UUID> patientIds
+    );
 
     /**
      * Busca alertas por severidade
@@ -57,18 +62,6 @@ public interface AlertRepository extends JpaRepository<Alert, UUID> {
             @Param("severity") Alert.Severity severity
     );
 
-    /**
-     * Busca alertas críticos não reconhecidos
-     */
-    @Query("""
-        SELECT a FROM Alert a
-        WHERE a.account.id = :tenantId
-        AND a.severity = 'CRITICAL'
-        AND a.acknowledged = false
-        ORDER BY a.createdAt DESC
-        """)
-    List<Alert> findCriticalAlerts(@Param("tenantId") UUID tenantId);
-
     /**
      * Conta alertas ativos por paciente
      */
@@ -116,8 +109,37 @@ public interface AlertRepository extends JpaRepository<Alert, UUID> {
     );
 
     /**
-     * Verifica se já existe alerta similar recente (últimas 24h)
-     * Evita duplicação de alertas
+     * Data do alerta mais recente do tipo para o paciente (null se não houver)
+     * Usado para popular o AlertCooldownCache na primeira avaliação do par paciente/tipo
+     */
+    @Query("""
+        SELECT MAX(a.createdAt) FROM Alert a
+        WHERE a.patient.id = :patientId
+        AND a.account.id = :tenantId
+        AND a.alertType = :alertType
+        """)
+    LocalDateTime findLastAlertAt(
+            @Param("patientId") UUID patientId,
+            @Param("tenantId") UUID tenantId,
+            @Param("alertType") Alert.AlertType alertType
+    );
+
+    /**
+     * Lock transacional (pg_advisory_xact_lock) do par paciente/tipo de alerta
+     * Serializa a criação de alertas do mesmo tipo para o paciente entre instâncias;
+     * liberado no fim da transação
+     */
+    @Query(value = """
+        SELECT 1 FROM pg_advisory_xact_lock(hashtextextended(CAST(:patientId AS text) || '/' || :alertType, 0))
+        """, nativeQuery = true)
+    int lockPatientAlertType(
+            @Param("patientId") UUID patientId,
+            @Param("alertType") String alertType
+    );
+
+    /**
+     * Verifica se já existe alerta similar recente
+     * Checagem final, sob lockPatientAlertType, antes de criar um alerta
      */
     @Query("""
         SELECT COUNT(a) > 0 FROM Alert a
@@ -162,5 +184,75 @@ public interface AlertRepository extends JpaRepository<Alert, UUID> {
             @Param("tenantId") UUID tenantId,
             @Param("since") LocalDateTime since
     );
-}
 
+    // ============================================
+    // PAGINAÇÃO KEYSET
+    // ============================================
+
+    /**
+     * Primeira página de alertas ativos do tenant
+     * Ordenada por severidade (CRITICAL > HIGH > MEDIUM > LOW), depois mais recentes primeiro
+     */
+    @Query(value = """
+            SELECT a.* FROM alerts a
+            WHERE a.account_id = :tenantId
+            AND a.acknowledged = FALSE
+            ORDER BY CASE a.severity WHEN 'CRITICAL' THEN 4 WHEN 'HIGH' THEN 3 WHEN 'MEDIUM' THEN 2 ELSE 1 END DESC,
+                     a.created_at DESC, a.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Alert> findActivePageByTenant(@Param("tenantId") UUID tenantId,
+                                       @Param("limit") int limit);
+
+    /**
+     * Página seguinte de alertas ativos, a partir da última (severidade, criação, id) retornada
+     *
+     * @param afterSeverityRank Severity.ordinal() + 1 do último alerta
+     */
+    @Query(value = """
+            SELECT a.* FROM alerts a
+            WHERE a.account_id = :tenantId
+            AND a.acknowledged = FALSE
+            AND (CASE a.severity WHEN 'CRITICAL' THEN 4 WHEN 'HIGH' THEN 3 WHEN 'MEDIUM' THEN 2 ELSE 1 END, a.created_at, a.id)
+                < (:afterSeverityRank, :afterCreatedAt, :afterId)
+            ORDER BY CASE a.severity WHEN 'CRITICAL' THEN 4 WHEN 'HIGH' THEN 3 WHEN 'MEDIUM' THEN 2 ELSE 1 END DESC,
+                     a.created_at DESC, a.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Alert> findActivePageByTenantAfter(@Param("tenantId") UUID tenantId,
+                                            @Param("afterSeverityRank") int afterSeverityRank,
+                                            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                            @Param("afterId") UUID afterId,
+                                            @Param("limit") int limit);
+
+    /**
+     * Primeira página de alertas críticos ativos (mais recentes primeiro)
+     */
+    @Query(value = """
+            SELECT a.* FROM alerts a
+            WHERE a.account_id = :tenantId
+            AND a.acknowledged = FALSE
+            AND a.severity = 'CRITICAL'
+            ORDER BY a.created_at DESC, a.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Alert> findCriticalPage(@Param("tenantId") UUID tenantId,
+                                 @Param("limit") int limit);
+
+    /**
+     * Página seguinte de alertas críticos, a partir da última (criação, id) retornada
+     */
+    @Query(value = """
+            SELECT a.* FROM alerts a
+            WHERE a.account_id = :tenantId
+            AND a.acknowledged = FALSE
+            AND a.severity = 'CRITICAL'
+            AND (a.created_at, a.id) < (:afterCreatedAt, :afterId)
+            ORDER BY a.created_at DESC, a.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Alert> findCriticalPageAfter(@Param("tenantId") UUID tenantId,
+                                      @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                      @Param("afterId") UUID afterId,
+                                      @Param("limit") int limit);
+}
@@ -0,0 +1,85 @@
+package com.healthlink.ai_health_agent.repository;
+
+import com.healthlink.ai_health_agent.domain.entity.AlertThreshold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository para os limites de alerta por tenant (alert_thresholds)
+ * Lido apenas na montagem do snapshot do AlertThresholdService
+ */
+@Repository
+public interface AlertThresholdRepository extends JpaRepository<AlertThreshold, UUID> {
+
+    /**
+     * Todos os limites customizados (carga completa do snapshot)
+     */
+    @Query("""
+            SELECT t.account.id AS tenantId, t.ruleName AS ruleName, t.threshold AS threshold,
+                   t.criticalThreshold AS criticalThreshold, t.minDays AS minDays, t.enabled AS enabled
+            FROM AlertThreshold t
+            """)
+    List<ThresholdOverride> findAllOverrides();
+
+    /**
+     * Limites customizados de um tenant (recarga após alteração)
+     */
+    @Query("""
+            SELECT t.account.id AS tenantId, t.ruleName AS ruleName, t.threshold AS threshold,
+                   t.criticalThreshold AS criticalThreshold, t.minDays AS minDays, t.enabled AS enabled
+            FROM AlertThreshold t
+            WHERE t.account.id = :tenantId
+            """)
+    List<ThresholdOverride> findOverridesByTenant(@Param("tenantId") UUID tenantId);
+
+    /**
+     * Cria ou substitui o limite customizado de uma regra do tenant
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO alert_thresholds (id, account_id, rule_name, threshold, critical_threshold, min_days, enabled, updated_at)
+            VALUES (gen_random_uuid(), :tenantId, :ruleName, :threshold, :criticalThreshold, :minDays, :enabled, CURRENT_TIMESTAMP)
+            ON CONFLICT (account_id, rule_name) DO UPDATE SET
+                threshold = EXCLUDED.threshold,
+                critical_threshold = EXCLUDED.critical_threshold,
+                min_days = EXCLUDED.min_days,
+                enabled = EXCLUDED.enabled,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    void upsert(@Param("tenantId") UUID tenantId,
+                @Param("ruleName") String ruleName,
+                @Param("threshold") Double threshold,
+                @Param("criticalThreshold") Double criticalThreshold,
+                @Param("minDays") Integer minDays,
+                @Param("enabled") boolean enabled);
+
+    /**
+     * Remove o limite customizado (a regra volta ao padrão)
+     *
+     * @return Número de linhas removidas
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AlertThreshold t WHERE t.account.id = :tenantId AND t.ruleName = :ruleName")
+    int deleteOverride(@Param("tenantId") UUID tenantId, @Param("ruleName") String ruleName);
+
+    /**
+     * Projection com o limite customizado de uma regra
+     */
+    interface ThresholdOverride {
+        UUID getTenantId();
+        String getRuleName();
+        Double getThreshold();
+        Double getCriticalThreshold();
+        Integer getMinDays();
+        Boolean getEnabled();
+    }
+}
@@ -0,0 +1,55 @@
+package com.healthlink.ai_health_agent.repository;
+
+import com.healthlink.ai_health_agent.domain.entity.ChatMessageReceipt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Repository para os recibos de mensagens do WhatsApp (idempotência)
+ */
+@Repository
+public interface ChatMessageReceiptRepository extends JpaRepository<ChatMessageReceipt, String> {
+
+    /**
+     * Registra o recebimento de uma mensagem do WhatsApp
+     * Com entregas concorrentes do mesmo ID, a segunda aguarda o commit da primeira e não insere
+     *
+     * @return 1 se a mensagem é nova, 0 se já foi recebida
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO chat_message_receipts (whatsapp_message_id, account_id, received_at)
+            VALUES (:whatsappMessageId, :tenantId, CURRENT_TIMESTAMP)
+            ON CONFLICT (whatsapp_message_id) DO NOTHING
+            """, nativeQuery = true)
+    int claim(@Param("whatsappMessageId") String whatsappMessageId,
+              @Param("tenantId") UUID tenantId);
+
+    /**
+     * Deleta um lote de recibos antigos (retenção de dados)
+     * Reentregas do WhatsApp acontecem em minutos, não após o período de retenção
+     *
+     * @return Número de recibos deletados
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            DELETE FROM chat_message_receipts
+            WHERE whatsapp_message_id IN (
+                SELECT r.whatsapp_message_id FROM chat_message_receipts r
+                WHERE r.account_id = :tenantId
+                AND r.received_at < :before
+                LIMIT :limit
+            )
+            """, nativeQuery = true)
+    int deleteOldReceipts(@Param("tenantId") UUID tenantId,
+                          @Param("before") LocalDateTime before,
+                          @Param("limit") int limit);
+}
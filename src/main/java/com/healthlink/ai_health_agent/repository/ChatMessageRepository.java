@@ -1,19 +1,28 @@
 package com.healthlink.ai_health_agent.repository;
 
 import com.healthlink.ai_health_agent.domain.entity.ChatMessage;
+import com.healthlink.ai_health_agent.dto.ChatMessageExportDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository para ChatMessage com queries multi-tenant
+ * chat_messages é particionada por mês: consultas com intervalo de timestamp leem só as partições do período
  */
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, UUID> {
@@ -63,22 +72,51 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, UUID>
     );
 
     /**
-     * Busca mensagens de hoje
+     * Conta mensagens de um paciente em um período (sem carregar as entidades)
      *
      * @param patientId ID do paciente
      * @param tenantId ID do tenant
-     * @return Lista de mensagens de hoje
+     * @param start Data/hora inicial
+     * @param end Data/hora final
+     * @return Total de mensagens no período
+     */
+    @Query("""
+            SELECT COUNT(cm) FROM ChatMessage cm
+            WHERE cm.patient.id = :patientId
+            AND cm.account.id = :tenantId
+            AND cm.timestamp BETWEEN :start AND :end
+            """)
+    long countByPatientAndPeriod(
+            @Param("patientId") UUID patientId,
+            @Param("tenantId") UUID tenantId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    /**
+     * Busca mensagens de um dia
+     * Intervalo semiaberto [dayStart, dayEnd) em vez de CAST(timestamp AS date),
+     * para usar o índice (patient_id, timestamp) e o partition pruning
+     *
+     * @param patientId ID do paciente
+     * @param tenantId ID do tenant
+     * @param dayStart Início do dia (inclusivo)
+     * @param dayEnd Início do dia seguinte (exclusivo)
+     * @return Lista de mensagens do dia
      */
     @Query("""
             SELECT cm FROM ChatMessage cm
             WHERE cm.patient.id = :patientId
             AND cm.account.id = :tenantId
-            AND CAST(cm.timestamp AS date) = CURRENT_DATE
+            AND cm.timestamp >= :dayStart
+            AND cm.timestamp < :dayEnd
             ORDER BY cm.timestamp ASC
             """)
-    List<ChatMessage> findTodayMessages(
+    List<ChatMessage> findMessagesOfDay(
             @Param("patientId") UUID patientId,
-            @Param("tenantId") UUID tenantId
+            @Param("tenantId") UUID tenantId,
+            @Param("dayStart") LocalDateTime dayStart,
+            @Param("dayEnd") LocalDateTime dayEnd
     );
 
     /**
@@ -116,38 +154,114 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, UUID>
     );
 
     /**
-     * Deleta mensagens antigas (limpeza de dados)
+     * Deleta um lote de mensagens antigas (retenção de dados)
+     * Em lotes para manter as transações e os locks curtos; chamar até retornar 0
      * 
-     * @param before Data limite
      * @param tenantId ID do tenant
+     * @param before Data limite (exclusiva)
+     * @param limit Tamanho do lote
      * @return Número de mensagens deletadas
      */
-    @Query("""
-            DELETE FROM ChatMessage cm
-            WHERE cm.timestamp < :before
-            AND cm.account.id = :tenantId
-            """)
+    @Modifying
+    @Transactional
+    @Query(value = """
+            DELETE FROM chat_messages
+            WHERE (id, timestamp) IN (
+                SELECT cm.id, cm.timestamp FROM chat_messages cm
+                WHERE cm.account_id = :tenantId
+                AND cm.timestamp < :before
+                LIMIT :limit
+            )
+            """, nativeQuery = true)
     int deleteOldMessages(
+            @Param("tenantId") UUID tenantId,
             @Param("before") LocalDateTime before,
-            @Param("tenantId") UUID tenantId
+            @Param("limit") int limit
     );
 
     /**
-     * Busca todas as mensagens de um paciente (para exportação)
-     * 
+     * Stream de todas as mensagens de um paciente para exportação (ordem cronológica)
+     * Projeção em DTO: nada fica no contexto de persistência, e o fetch size faz o driver
+     * ler em lotes pelo cursor. Precisa de transação aberta durante todo o consumo do Stream
+     *
      * @param patientId ID do paciente
      * @param tenantId ID do tenant
-     * @return Lista completa de mensagens
+     * @return Stream de mensagens (fechar após o uso)
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
     @Query("""
-            SELECT cm FROM ChatMessage cm
+            SELECT new com.healthlink.ai_health_agent.dto.ChatMessageExportDTO(
+                cm.id, cm.timestamp, cm.role, cm.content)
+            FROM ChatMessage cm
             WHERE cm.patient.id = :patientId
             AND cm.account.id = :tenantId
-            ORDER BY cm.timestamp ASC
+            ORDER BY cm.timestamp ASC, cm.id ASC
             """)
-    List<ChatMessage> findAllByPatient(
+    Stream<ChatMessageExportDTO> streamForExport(
             @Param("patientId") UUID patientId,
             @Param("tenantId") UUID tenantId
     );
-}
 
+    /**
+     * Contagem de mensagens agrupada por paciente (dashboard)
+     * Uma única agregação para todos os pacientes, evitando N+1 na listagem do dashboard
+     *
+     * @param tenantId ID do tenant
+     * @param patientIds IDs dos pacientes (não pode ser vazio)
+     * @param since7Days Início da janela de 7 dias
+     * @param since30Days Início da janela de 30 dias
+     * @return Uma linha por paciente que possui mensagens
+     */
+    @Query("""
+            SELECT cm.patient.id AS patientId,
+                   COUNT(cm) AS totalMessages,
+                   SUM(CASE WHEN cm.timestamp >= :since7Days THEN 1 ELSE 0 END) AS messagesLast7Days,
+                   SUM(CASE WHEN cm.timestamp >= :since30Days THEN 1 ELSE 0 END) AS messagesLast30Days
+            FROM ChatMessage cm
+            WHERE cm.account.id = :tenantId
+            AND cm.patient.id IN :patientIds
+            GROUP BY cm.patient.id
+            """)
+    List<PatientMessageCounts> countMessagesByPatients(
+            @Param("tenantId") UUID tenantId,
+            @Param("patientIds") Collection<UUID> patientIds,
+            @Param("since7Days") LocalDateTime since7Days,
+            @Param("since30Days") LocalDateTime since30Days
+    );
+
+    /**
+     * Projection com contagens de mensagens de um paciente
+     */
+    interface PatientMessageCounts {
+        UUID getPatientId();
+        Long getTotalMessages();
+        Long getMessagesLast7Days();
+        Long getMessagesLast30Days();
+    }
+
+    /**
+     * Página de mensagens de um paciente em um período (ordem cronológica), paginação keyset
+     * Primeira página: afterTimestamp = start e afterId = UUID zero (nenhuma mensagem é excluída)
+     */
+    @Query(value = """
+            SELECT cm.* FROM chat_messages cm
+            WHERE cm.patient_id = :patientId
+            AND cm.account_id = :tenantId
+            AND cm.timestamp BETWEEN :start AND :end
+            AND (cm.timestamp, cm.id) > (:afterTimestamp, :afterId)
+            ORDER BY cm.timestamp ASC, cm.id ASC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ChatMessage> findPageByPatientAndPeriod(
+            @Param("patientId") UUID patientId,
+            @Param("tenantId") UUID tenantId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("afterTimestamp") LocalDateTime afterTimestamp,
+            @Param("afterId") UUID afterId,
+            @Param("limit") int limit
+    );
+}
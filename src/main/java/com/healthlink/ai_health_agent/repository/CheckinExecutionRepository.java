@@ -127,4 +127,3 @@ public interface CheckinExecutionRepository extends JpaRepository<CheckinExecuti
         return executions.isEmpty() ? null : executions.get(0);
     }
 }
-
@@ -2,9 +2,11 @@ package com.healthlink.ai_health_agent.repository;
 
 import com.healthlink.ai_health_agent.domain.entity.CheckinSchedule;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -82,18 +84,21 @@ public interface CheckinScheduleRepository extends JpaRepository<CheckinSchedule
     );
 
     /**
-     * Conta mensagens enviadas hoje por um tenant
-     * Usado para rate limiting no nível de tenant
+     * Conta mensagens enviadas por um tenant em um intervalo [start, end)
+     * Usado para rate limiting no nível de tenant (intervalo = dia atual)
+     * Intervalo semiaberto em executed_at para usar o índice (account_id, executed_at)
      */
     @Query("""
         SELECT COUNT(ce) FROM CheckinExecution ce
         WHERE ce.account.id = :tenantId
-        AND CAST(ce.executedAt AS date) = :date
+        AND ce.executedAt >= :start
+        AND ce.executedAt < :end
         AND ce.status = 'SUCCESS'
         """)
-    long countMessagesSentTodayByTenant(
+    long countMessagesSentByTenant(
         @Param("tenantId") UUID tenantId,
-        @Param("date") LocalDate date
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
     );
 
     /**
@@ -122,14 +127,19 @@ public interface CheckinScheduleRepository extends JpaRepository<CheckinSchedule
     );
 
     /**
-     * Busca agendamentos que precisam de reset diário
-     * (para resetar contador de mensagens)
+     * Reseta os contadores diários de todos os schedules ativos em um único UPDATE
+     * (em vez de carregar e salvar cada schedule)
+     *
+     * @return Número de schedules resetados
      */
+    @Modifying
+    @Transactional
     @Query("""
-        SELECT cs FROM CheckinSchedule cs
+        UPDATE CheckinSchedule cs
+        SET cs.messagesSentToday = 0, cs.lastResetDate = :today
         WHERE cs.isActive = true
         AND cs.lastResetDate < :today
         """)
-    List<CheckinSchedule> findSchedulesNeedingReset(@Param("today") LocalDate today);
+    int resetDailyCounters(@Param("today") LocalDate today);
 }
 
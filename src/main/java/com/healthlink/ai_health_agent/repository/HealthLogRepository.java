@@ -1,18 +1,25 @@
 package com.healthlink.ai_health_agent.repository;
 
 import com.healthlink.ai_health_agent.domain.entity.HealthLog;
+import com.healthlink.ai_health_agent.dto.HealthLogExportDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository para HealthLog com isolamento multi-tenant
+ * health_logs é particionada por mês: consultas com intervalo de timestamp leem só as partições do período
  */
 @Repository
 public interface HealthLogRepository extends JpaRepository<HealthLog, UUID> {
@@ -27,6 +34,29 @@ public interface HealthLogRepository extends JpaRepository<HealthLog, UUID> {
             @Param("tenantId") UUID tenantId
     );
 
+    /**
+     * Stream de todos os logs de um paciente para exportação (ordem cronológica)
+     * Projeção em DTO com fetch size: lido em lotes pelo cursor, sem materializar a lista.
+     * Precisa de transação aberta durante todo o consumo do Stream
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT new com.healthlink.ai_health_agent.dto.HealthLogExportDTO(
+                h.id, h.timestamp, h.painLevel, h.mood, h.sleepQuality, h.sleepHours,
+                h.medicationTaken, h.medicationName, h.energyLevel, h.stressLevel, h.notes)
+            FROM HealthLog h
+            WHERE h.patient.id = :patientId
+            AND h.account.id = :tenantId
+            ORDER BY h.timestamp ASC, h.id ASC
+            """)
+    Stream<HealthLogExportDTO> streamForExport(
+            @Param("patientId") UUID patientId,
+            @Param("tenantId") UUID tenantId
+    );
+
     /**
      * Buscar últimos N logs de um paciente
      * Útil para contexto da IA
@@ -118,10 +148,64 @@ public interface HealthLogRepository extends JpaRepository<HealthLog, UUID> {
     /**
      * Buscar logs de hoje de um paciente
      */
-    @Query("SELECT h FROM HealthLog h WHERE h.patient.id = :patientId AND h.account.id = :tenantId AND CAST(h.timestamp AS date) = CURRENT_DATE ORDER BY h.timestamp DESC")
-    List<HealthLog> findTodayLogs(
+    @Query("SELECT h FROM HealthLog h WHERE h.patient.id = :patientId AND h.account.id = :tenantId AND h.timestamp >= :dayStart AND h.timestamp < :dayEnd ORDER BY h.timestamp DESC")
+    List<HealthLog> findLogsOfDay(
             @Param("patientId") UUID patientId,
-            @Param("tenantId") UUID tenantId
+            @Param("tenantId") UUID tenantId,
+            @Param("dayStart") LocalDateTime dayStart,
+            @Param("dayEnd") LocalDateTime dayEnd
     );
-}
 
+
+    /**
+     * Pior valor de cada dia por paciente desde :since (dor máxima, sono mínimo, dose perdida)
+     * Usado na reconstrução das janelas do AlertRuleEngine no startup
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+            SELECT h.patient_id AS patientId,
+                   CAST(h.timestamp AS date) AS day,
+                   MAX(h.pain_level) AS maxPain,
+                   MIN(h.sleep_hours) AS minSleep,
+                   BOOL_OR(h.medication_taken = false) AS medicationMissed
+            FROM health_logs h
+            WHERE h.timestamp >= :since
+            GROUP BY h.patient_id, CAST(h.timestamp AS date)
+            """, nativeQuery = true)
+    Stream<DailyWorstValues> streamDailyWorstValues(@Param("since") LocalDateTime since);
+
+    /**
+     * Pior valor de cada dia de um paciente desde :since
+     * Carrega a janela do AlertRuleEngine de um paciente sem histórico na instância
+     * (índice patient_id, account_id, timestamp)
+     */
+    @Query(value = """
+            SELECT h.patient_id AS patientId,
+                   CAST(h.timestamp AS date) AS day,
+                   MAX(h.pain_level) AS maxPain,
+                   MIN(h.sleep_hours) AS minSleep,
+                   BOOL_OR(h.medication_taken = false) AS medicationMissed
+            FROM health_logs h
+            WHERE h.patient_id = :patientId
+            AND h.account_id = :tenantId
+            AND h.timestamp >= :since
+            GROUP BY h.patient_id, CAST(h.timestamp AS date)
+            """, nativeQuery = true)
+    List<DailyWorstValues> findDailyWorstValues(@Param("tenantId") UUID tenantId,
+                                                @Param("patientId") UUID patientId,
+                                                @Param("since") LocalDateTime since);
+
+    /**
+     * Projeção do pior valor diário por paciente
+     */
+    interface DailyWorstValues {
+        UUID getPatientId();
+        LocalDate getDay();
+        Integer getMaxPain();
+        Double getMinSleep();
+        Boolean getMedicationMissed();
+    }
+}
@@ -0,0 +1,146 @@
+package com.healthlink.ai_health_agent.repository;
+
+import com.healthlink.ai_health_agent.domain.entity.PatientDailyHealth;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository para o rollup diário de saúde (patient_daily_health)
+ * IMPORTANTE: Todas as consultas filtram por tenantId (account_id)
+ */
+@Repository
+public interface PatientDailyHealthRepository extends JpaRepository<PatientDailyHealth, UUID> {
+
+    /**
+     * Acumula um HealthLog recém-salvo na linha do dia do paciente
+     * Cria a linha do dia ou soma nos contadores existentes (chave natural).
+     * LEAST/GREATEST ignoram NULL, então logs sem dor não alteram min/max.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO patient_daily_health
+                (id, account_id, patient_id, day, log_count, pain_min, pain_max, pain_sum, pain_count,
+                 sleep_sum, sleep_count, medication_taken, updated_at)
+            VALUES
+                (gen_random_uuid(), :tenantId, :patientId, :day, 1,
+                 CAST(:painLevel AS INTEGER), CAST(:painLevel AS INTEGER), :painSum, :painCount,
+                 :sleepSum, :sleepCount, :medicationTaken, CURRENT_TIMESTAMP)
+            ON CONFLICT (account_id, patient_id, day) DO UPDATE SET
+                log_count = patient_daily_health.log_count + 1,
+                pain_min = LEAST(patient_daily_health.pain_min, EXCLUDED.pain_min),
+                pain_max = GREATEST(patient_daily_health.pain_max, EXCLUDED.pain_max),
+                pain_sum = patient_daily_health.pain_sum + EXCLUDED.pain_sum,
+                pain_count = patient_daily_health.pain_count + EXCLUDED.pain_count,
+                sleep_sum = patient_daily_health.sleep_sum + EXCLUDED.sleep_sum,
+                sleep_count = patient_daily_health.sleep_count + EXCLUDED.sleep_count,
+                medication_taken = patient_daily_health.medication_taken OR EXCLUDED.medication_taken,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    void upsertLog(@Param("tenantId") UUID tenantId,
+                   @Param("patientId") UUID patientId,
+                   @Param("day") LocalDate day,
+                   @Param("painLevel") Integer painLevel,
+                   @Param("painSum") long painSum,
+                   @Param("painCount") int painCount,
+                   @Param("sleepSum") double sleepSum,
+                   @Param("sleepCount") int sleepCount,
+                   @Param("medicationTaken") boolean medicationTaken);
+
+    /**
+     * Reconstrói o rollup de um tenant a partir dos health_logs (backfill)
+     * Idempotente: sobrescreve as linhas existentes com os valores recalculados
+     *
+     * @return Número de linhas (paciente/dia) gravadas
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO patient_daily_health
+                (id, account_id, patient_id, day, log_count, pain_min, pain_max, pain_sum, pain_count,
+                 sleep_sum, sleep_count, medication_taken, updated_at)
+            SELECT gen_random_uuid(), h.account_id, h.patient_id, CAST(h.timestamp AS date),
+                   COUNT(*), MIN(h.pain_level), MAX(h.pain_level),
+                   COALESCE(SUM(h.pain_level), 0), COUNT(h.pain_level),
+                   COALESCE(SUM(h.sleep_hours), 0), COUNT(h.sleep_hours),
+                   COALESCE(BOOL_OR(h.medication_taken), FALSE), CURRENT_TIMESTAMP
+            FROM health_logs h
+            WHERE h.account_id = :tenantId
+            GROUP BY h.account_id, h.patient_id, CAST(h.timestamp AS date)
+            ON CONFLICT (account_id, patient_id, day) DO UPDATE SET
+                log_count = EXCLUDED.log_count,
+                pain_min = EXCLUDED.pain_min,
+                pain_max = EXCLUDED.pain_max,
+                pain_sum = EXCLUDED.pain_sum,
+                pain_count = EXCLUDED.pain_count,
+                sleep_sum = EXCLUDED.sleep_sum,
+                sleep_count = EXCLUDED.sleep_count,
+                medication_taken = EXCLUDED.medication_taken,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    int rebuildForTenant(@Param("tenantId") UUID tenantId);
+
+    /**
+     * Agregados de saúde por paciente em um intervalo de dias (dashboard)
+     * Calcula em uma única varredura as estatísticas do período e as médias das duas janelas
+     * de tendência ([trendStart, trendMid) e [trendMid, end]), que devem estar contidas no período
+     */
+    @Query(value = """
+            SELECT d.patient_id AS "patientId",
+                   CAST(SUM(d.log_count) AS bigint) AS "totalLogs",
+                   CAST(SUM(d.pain_sum) AS double precision) / NULLIF(SUM(d.pain_count), 0) AS "averagePain",
+                   MAX(d.pain_max) AS "maxPain",
+                   MIN(d.pain_min) AS "minPain",
+                   COUNT(*) FILTER (WHERE d.pain_max > 0) AS "daysWithPain",
+                   COUNT(*) FILTER (WHERE d.medication_taken) AS "daysWithMedication",
+                   SUM(d.sleep_sum) / NULLIF(SUM(d.sleep_count), 0) AS "averageSleep",
+                   CAST(SUM(d.pain_sum) FILTER (WHERE d.day >= :trendMid) AS double precision)
+                       / NULLIF(SUM(d.pain_count) FILTER (WHERE d.day >= :trendMid), 0) AS "recentPain",
+                   CAST(SUM(d.pain_sum) FILTER (WHERE d.day >= :trendStart AND d.day < :trendMid) AS double precision)
+                       / NULLIF(SUM(d.pain_count) FILTER (WHERE d.day >= :trendStart AND d.day < :trendMid), 0) AS "previousPain",
+                   SUM(d.sleep_sum) FILTER (WHERE d.day >= :trendMid)
+                       / NULLIF(SUM(d.sleep_count) FILTER (WHERE d.day >= :trendMid), 0) AS "recentSleep",
+                   SUM(d.sleep_sum) FILTER (WHERE d.day >= :trendStart AND d.day < :trendMid)
+                       / NULLIF(SUM(d.sleep_count) FILTER (WHERE d.day >= :trendStart AND d.day < :trendMid), 0) AS "previousSleep"
+            FROM patient_daily_health d
+            WHERE d.account_id = :tenantId
+            AND d.patient_id IN (:patientIds)
+            AND d.day BETWEEN :start AND :end
+            GROUP BY d.patient_id
+            """, nativeQuery = true)
+    List<PatientHealthAggregate> aggregateByPatients(
+            @Param("tenantId") UUID tenantId,
+            @Param("patientIds") Collection<UUID> patientIds,
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end,
+            @Param("trendStart") LocalDate trendStart,
+            @Param("trendMid") LocalDate trendMid
+    );
+
+    /**
+     * Projection com agregados de saúde de um paciente
+     */
+    interface PatientHealthAggregate {
+        UUID getPatientId();
+        Long getTotalLogs();
+        Double getAveragePain();
+        Integer getMaxPain();
+        Integer getMinPain();
+        Long getDaysWithPain();
+        Long getDaysWithMedication();
+        Double getAverageSleep();
+        Double getRecentPain();
+        Double getPreviousPain();
+        Double getRecentSleep();
+        Double getPreviousSleep();
+    }
+}
@@ -0,0 +1,86 @@
+package com.healthlink.ai_health_agent.repository;
+
+import com.healthlink.ai_health_agent.domain.entity.PatientDailyMood;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository para o rollup diário de humores (patient_daily_mood)
+ * IMPORTANTE: Todas as consultas filtram por tenantId (account_id)
+ */
+@Repository
+public interface PatientDailyMoodRepository extends JpaRepository<PatientDailyMood, UUID> {
+
+    /**
+     * Incrementa a contagem de um humor no dia do paciente
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO patient_daily_mood (id, account_id, patient_id, day, mood, occurrences)
+            VALUES (gen_random_uuid(), :tenantId, :patientId, :day, :mood, 1)
+            ON CONFLICT (account_id, patient_id, day, mood) DO UPDATE SET
+                occurrences = patient_daily_mood.occurrences + 1
+            """, nativeQuery = true)
+    void incrementMood(@Param("tenantId") UUID tenantId,
+                       @Param("patientId") UUID patientId,
+                       @Param("day") LocalDate day,
+                       @Param("mood") String mood);
+
+    /**
+     * Reconstrói as contagens de humor de um tenant a partir dos health_logs (backfill)
+     * Idempotente: sobrescreve as contagens existentes
+     *
+     * @return Número de linhas (paciente/dia/humor) gravadas
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO patient_daily_mood (id, account_id, patient_id, day, mood, occurrences)
+            SELECT gen_random_uuid(), h.account_id, h.patient_id, CAST(h.timestamp AS date), h.mood, COUNT(*)
+            FROM health_logs h
+            WHERE h.account_id = :tenantId
+            AND h.mood IS NOT NULL AND TRIM(h.mood) <> ''
+            GROUP BY h.account_id, h.patient_id, CAST(h.timestamp AS date), h.mood
+            ON CONFLICT (account_id, patient_id, day, mood) DO UPDATE SET
+                occurrences = EXCLUDED.occurrences
+            """, nativeQuery = true)
+    int rebuildForTenant(@Param("tenantId") UUID tenantId);
+
+    /**
+     * Frequência de humores por paciente em um intervalo de dias (ordenada por ocorrências DESC)
+     */
+    @Query("""
+            SELECT m.patient.id AS patientId, m.mood AS mood, SUM(m.occurrences) AS occurrences
+            FROM PatientDailyMood m
+            WHERE m.account.id = :tenantId
+            AND m.patient.id IN :patientIds
+            AND m.day BETWEEN :start AND :end
+            GROUP BY m.patient.id, m.mood
+            ORDER BY SUM(m.occurrences) DESC
+            """)
+    List<PatientMoodCount> countMoodsByPatients(
+            @Param("tenantId") UUID tenantId,
+            @Param("patientIds") Collection<UUID> patientIds,
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end
+    );
+
+    /**
+     * Projection com a contagem de um humor de um paciente
+     */
+    interface PatientMoodCount {
+        UUID getPatientId();
+        String getMood();
+        Long getOccurrences();
+    }
+}
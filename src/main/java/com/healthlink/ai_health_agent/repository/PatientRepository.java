@@ -1,12 +1,14 @@
 package com.healthlink.ai_health_agent.repository;
 
 import com.healthlink.ai_health_agent.domain.entity.Patient;
+import com.healthlink.ai_health_agent.domain.enums.AccountType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -40,9 +42,33 @@ public interface PatientRepository extends JpaRepository<Patient, UUID> {
      * Retorna apenas os dados essenciais para estabelecer o contexto de segurança
      * Evita carregar toda a entidade Patient na identificação inicial
      */
-    @Query("SELECT p.id as id, p.whatsappNumber as whatsappNumber, p.account.id as tenantId, p.name as name FROM Patient p WHERE p.whatsappNumber = :whatsappNumber")
+    @Query("SELECT p.id as id, p.whatsappNumber as whatsappNumber, p.account.id as tenantId, p.account.type as accountType, p.name as name FROM Patient p WHERE p.whatsappNumber = :whatsappNumber")
     Optional<PatientTenantProjection> findTenantContextByWhatsappNumber(@Param("whatsappNumber") String whatsappNumber);
 
+    /**
+     * Checagem de posse em uma única query: retorna o paciente somente se pertence ao tenant
+     * Usado nos caminhos de escrita, que gravam com getReferenceById sem carregar a entidade
+     */
+    @Query("SELECT p.id as id, p.name as name FROM Patient p WHERE p.id = :patientId AND p.account.id = :tenantId")
+    Optional<PatientIdentity> findIdentityByIdAndTenantId(@Param("patientId") UUID patientId,
+                                                          @Param("tenantId") UUID tenantId);
+
+    /**
+     * Checagem de posse em lote: retorna apenas os pacientes do conjunto que pertencem ao tenant
+     * Usado na importação em lote de HealthLogs (uma query por lote, não por linha)
+     */
+    @Query("SELECT p.id as id, p.name as name FROM Patient p WHERE p.account.id = :tenantId AND p.id IN :patientIds")
+    List<PatientIdentity> findIdentitiesByTenantIdAndIdIn(@Param("tenantId") UUID tenantId,
+                                                          @Param("patientIds") Collection<UUID> patientIds);
+
+    /**
+     * Identidade do paciente já validada no tenant
+     */
+    interface PatientIdentity {
+        UUID getId();
+        String getName();
+    }
+
     /**
      * Interface de projeção para identificação do tenant
      * Usado no fluxo inicial de autenticação
@@ -51,6 +77,7 @@ public interface PatientRepository extends JpaRepository<Patient, UUID> {
         UUID getId();
         String getWhatsappNumber();
         UUID getTenantId();
+        AccountType getAccountType();
         String getName();
     }
 
@@ -155,5 +182,72 @@ public interface PatientRepository extends JpaRepository<Patient, UUID> {
      */
     @Query("SELECT p FROM Patient p WHERE p.account.id = :accountId ORDER BY p.name ASC")
     List<Patient> findByAccountId(@Param("accountId") UUID accountId);
-}
 
+    // ============================================
+    // PAGINAÇÃO KEYSET
+    // ============================================
+
+    /**
+     * Valor usado no lugar de last_interaction_at nulo na ordenação do dashboard
+     * (pacientes sem interação ficam no fim da lista)
+     */
+    LocalDateTime NO_INTERACTION = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * Primeira página de pacientes do tenant, ordenada por (nome, id)
+     */
+    @Query(value = """
+            SELECT p.* FROM patients p
+            WHERE p.account_id = :tenantId
+            AND (:activeOnly = FALSE OR p.is_active = TRUE)
+            ORDER BY p.name ASC, p.id ASC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Patient> findPageByTenant(@Param("tenantId") UUID tenantId,
+                                   @Param("activeOnly") boolean activeOnly,
+                                   @Param("limit") int limit);
+
+    /**
+     * Página seguinte de pacientes do tenant, a partir do último (nome, id) retornado
+     */
+    @Query(value = """
+            SELECT p.* FROM patients p
+            WHERE p.account_id = :tenantId
+            AND (:activeOnly = FALSE OR p.is_active = TRUE)
+            AND (p.name, p.id) > (:afterName, :afterId)
+            ORDER BY p.name ASC, p.id ASC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Patient> findPageByTenantAfter(@Param("tenantId") UUID tenantId,
+                                        @Param("activeOnly") boolean activeOnly,
+                                        @Param("afterName") String afterName,
+                                        @Param("afterId") UUID afterId,
+                                        @Param("limit") int limit);
+
+    /**
+     * Primeira página do dashboard: pacientes por última interação (mais recente primeiro)
+     */
+    @Query(value = """
+            SELECT p.* FROM patients p
+            WHERE p.account_id = :tenantId
+            ORDER BY COALESCE(p.last_interaction_at, TIMESTAMP '1970-01-01 00:00:00') DESC, p.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Patient> findPageByLastInteraction(@Param("tenantId") UUID tenantId,
+                                            @Param("limit") int limit);
+
+    /**
+     * Página seguinte do dashboard, a partir da última (interação, id) retornada
+     */
+    @Query(value = """
+            SELECT p.* FROM patients p
+            WHERE p.account_id = :tenantId
+            AND (COALESCE(p.last_interaction_at, TIMESTAMP '1970-01-01 00:00:00'), p.id) < (:afterInteraction, :afterId)
+            ORDER BY COALESCE(p.last_interaction_at, TIMESTAMP '1970-01-01 00:00:00') DESC, p.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Patient> findPageByLastInteractionAfter(@Param("tenantId") UUID tenantId,
+                                                 @Param("afterInteraction") LocalDateTime afterInteraction,
+                                                 @Param("afterId") UUID afterId,
+                                                 @Param("limit") int limit);
+}
@@ -0,0 +1,131 @@
+package com.healthlink.ai_health_agent.repository;
+
+import com.healthlink.ai_health_agent.domain.entity.TokenUsageRollup;
+import com.healthlink.ai_health_agent.domain.enums.LlmCallType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository para o ledger de consumo de tokens (rollups por minuto)
+ * IMPORTANTE: Todas as consultas filtram por tenantId (account_id)
+ */
+@Repository
+public interface TokenUsageRollupRepository extends JpaRepository<TokenUsageRollup, UUID> {
+
+    /**
+     * Soma um bucket agregado em memória à linha do minuto correspondente
+     * Cria a linha do minuto ou acumula nos contadores existentes (chave natural)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO token_usage_rollups
+                (id, account_id, patient_id, call_type, bucket_start, prompt_tokens, completion_tokens, call_count)
+            VALUES
+                (:id, :tenantId, :patientId, :callType, :bucketStart, :promptTokens, :completionTokens, :callCount)
+            ON CONFLICT (account_id, patient_id, call_type, bucket_start) DO UPDATE SET
+                prompt_tokens = token_usage_rollups.prompt_tokens + EXCLUDED.prompt_tokens,
+                completion_tokens = token_usage_rollups.completion_tokens + EXCLUDED.completion_tokens,
+                call_count = token_usage_rollups.call_count + EXCLUDED.call_count
+            """, nativeQuery = true)
+    void upsertBucket(@Param("id") UUID id,
+                      @Param("tenantId") UUID tenantId,
+                      @Param("patientId") UUID patientId,
+                      @Param("callType") String callType,
+                      @Param("bucketStart") LocalDateTime bucketStart,
+                      @Param("promptTokens") long promptTokens,
+                      @Param("completionTokens") long completionTokens,
+                      @Param("callCount") int callCount);
+
+    /**
+     * Consumo do tenant no período agrupado por tipo de chamada
+     */
+    @Query("""
+            SELECT t.callType as callType,
+                   SUM(t.promptTokens) as promptTokens,
+                   SUM(t.completionTokens) as completionTokens,
+                   SUM(t.callCount) as calls
+            FROM TokenUsageRollup t
+            WHERE t.account.id = :tenantId
+            AND t.bucketStart >= :start AND t.bucketStart < :end
+            GROUP BY t.callType
+            """)
+    List<CallTypeUsage> sumByCallType(@Param("tenantId") UUID tenantId,
+                                      @Param("start") LocalDateTime start,
+                                      @Param("end") LocalDateTime end);
+
+    /**
+     * Consumo do tenant no período agrupado por paciente (maiores consumidores primeiro)
+     */
+    @Query("""
+            SELECT t.patient.id as patientId,
+                   SUM(t.promptTokens) as promptTokens,
+                   SUM(t.completionTokens) as completionTokens,
+                   SUM(t.callCount) as calls
+            FROM TokenUsageRollup t
+            WHERE t.account.id = :tenantId
+            AND t.bucketStart >= :start AND t.bucketStart < :end
+            GROUP BY t.patient.id
+            ORDER BY SUM(t.promptTokens) + SUM(t.completionTokens) DESC
+            """)
+    List<PatientUsage> sumByPatient(@Param("tenantId") UUID tenantId,
+                                    @Param("start") LocalDateTime start,
+                                    @Param("end") LocalDateTime end);
+
+    /**
+     * Série diária de consumo do tenant no período
+     */
+    @Query("""
+            SELECT CAST(t.bucketStart AS date) as day,
+                   SUM(t.promptTokens) as promptTokens,
+                   SUM(t.completionTokens) as completionTokens,
+                   SUM(t.callCount) as calls
+            FROM TokenUsageRollup t
+            WHERE t.account.id = :tenantId
+            AND t.bucketStart >= :start AND t.bucketStart < :end
+            GROUP BY CAST(t.bucketStart AS date)
+            ORDER BY CAST(t.bucketStart AS date)
+            """)
+    List<DailyUsage> sumByDay(@Param("tenantId") UUID tenantId,
+                              @Param("start") LocalDateTime start,
+                              @Param("end") LocalDateTime end);
+
+    /**
+     * Projeção: consumo por tipo de chamada
+     */
+    interface CallTypeUsage {
+        LlmCallType getCallType();
+        Long getPromptTokens();
+        Long getCompletionTokens();
+        Long getCalls();
+    }
+
+    /**
+     * Projeção: consumo por paciente
+     */
+    interface PatientUsage {
+        UUID getPatientId();
+        Long getPromptTokens();
+        Long getCompletionTokens();
+        Long getCalls();
+    }
+
+    /**
+     * Projeção: consumo por dia
+     */
+    interface DailyUsage {
+        LocalDate getDay();
+        Long getPromptTokens();
+        Long getCompletionTokens();
+        Long getCalls();
+    }
+}
@@ -3,15 +3,24 @@ package com.healthlink.ai_health_agent.service;
 import com.healthlink.ai_health_agent.domain.entity.Account;
 import com.healthlink.ai_health_agent.domain.entity.ChatMessage;
 import com.healthlink.ai_health_agent.domain.entity.Patient;
+import com.healthlink.ai_health_agent.domain.enums.AccountType;
+import com.healthlink.ai_health_agent.domain.enums.LlmCallType;
+import com.healthlink.ai_health_agent.observability.MessageLifecycleMetrics;
+import com.healthlink.ai_health_agent.observability.MessageLifecycleMetrics.Stage;
 import com.healthlink.ai_health_agent.repository.AccountRepository;
 import com.healthlink.ai_health_agent.repository.PatientRepository;
+import com.healthlink.ai_health_agent.security.TenantContext;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.stereotype.Service;
 
@@ -29,11 +38,19 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class AIService {
 
+    /**
+     * Limite de turnos de Function Calling por mensagem (evita loops do modelo)
+     */
+    private static final int MAX_TOOL_ROUNDS = 5;
+
     private final ChatModel chatModel;
     private final PromptService promptService;
     private final PatientRepository patientRepository;
     private final AccountRepository accountRepository;
     private final ChatHistoryService chatHistoryService;
+    private final MessageLifecycleMetrics messageMetrics;
+    private final TokenUsageService tokenUsageService;
+    private final ToolRegistry toolRegistry;
 
     /**
      * Processa uma mensagem do paciente com contexto multi-tenant
@@ -73,7 +90,10 @@ public class AIService {
 
         // 5. Chamar a IA
         Prompt prompt = new Prompt(messages);
-        ChatResponse response = chatModel.call(prompt);
+        ChatResponse response = messageMetrics.recordStage(Stage.LLM_CALL, account.getType(),
+                () -> chatModel.call(prompt));
+        messageMetrics.recordTokenUsage(LlmCallType.REPLY, account.getType(), response);
+        tokenUsageService.record(tenantId, patient.getId(), LlmCallType.REPLY, response);
         String aiResponse = response.getResult().getOutput().getText();
         log.info("Resposta da IA gerada para {}: {} caracteres", whatsappNumber, aiResponse.length());
 
@@ -94,6 +114,7 @@ public class AIService {
      * @param whatsappMessageId ID da mensagem do WhatsApp (para idempotência)
      * @return Resposta da IA
      */
+    @Observed(name = "health_agent.ai.process_message", contextualName = "ai.process-message")
     public String processMessageWithTenant(UUID tenantId, UUID patientId, String userMessage, String whatsappMessageId) {
         log.info("🤖 Processando mensagem com tenant pré-identificado: {}", tenantId);
 
@@ -110,21 +131,94 @@ public class AIService {
         Account account = accountRepository.findById(tenantId)
                 .orElseThrow(() -> new RuntimeException("Account não encontrada"));
 
+        AccountType tenantType = account.getType();
+
         // 3. Salvar mensagem do usuário no histórico
-        chatHistoryService.saveUserMessage(account, patient, userMessage, whatsappMessageId);
+        messageMetrics.runStage(Stage.PERSISTENCE, tenantType,
+                () -> chatHistoryService.saveUserMessage(account, patient, userMessage, whatsappMessageId));
 
         // 4. Buscar histórico de conversas (últimas 10 mensagens)
-        List<ChatMessage> recentMessages = chatHistoryService.getRecentMessages(tenantId, patientId);
+        List<ChatMessage> recentMessages = messageMetrics.recordStage(Stage.HISTORY_LOAD, tenantType,
+                () -> chatHistoryService.getRecentMessages(tenantId, patientId));
         log.info("📖 Histórico carregado: {} mensagens", recentMessages.size());
 
-        // 5. Construir System Message
+        // 5 e 6. Construir System Message e lista de mensagens com contexto
+        List<Message> messages = messageMetrics.recordStage(Stage.PROMPT_BUILD, tenantType,
+                () -> buildConversation(account, patient, recentMessages, userMessage));
+
+        log.debug("📊 Total de mensagens no contexto: {}", messages.size());
+
+        // 7. Chamar IA COM HISTÓRICO E FUNCTION CALLING
+        // Contexto passado explicitamente às funções (executadas em outras threads)
+        TenantContext toolContext = new TenantContext(tenantId, patient.getName(), patient.getWhatsappNumber(), patientId);
+        toolContext.setAccountType(tenantType);
+        ChatResponse response = callWithTools(tenantId, patientId, tenantType, messages, toolContext);
+        String aiResponse = response.getResult().getOutput().getText();
+
+        log.info("✅ Resposta da IA gerada: {} caracteres", aiResponse.length());
+
+        // 8 e 9. Salvar resposta da IA no histórico e atualizar última interação
+        messageMetrics.runStage(Stage.PERSISTENCE, tenantType, () -> {
+            chatHistoryService.saveAssistantMessage(account, patient, aiResponse);
+            patient.updateLastInteraction();
+            patientRepository.save(patient);
+        });
+
+        return aiResponse;
+    }
+
+    /**
+     * Chama a IA com as funções do ToolRegistry anexadas
+     * Enquanto o modelo pedir funções (até MAX_TOOL_ROUNDS turnos), executa as chamadas do turno
+     * em paralelo e reenvia a conversa com as respostas. Se o limite for atingido, a conversa é
+     * reenviada sem funções para que a resposta final seja texto. Cada chamada ao modelo é contabilizada.
+     */
+    private ChatResponse callWithTools(UUID tenantId, UUID patientId, AccountType tenantType,
+                                       List<Message> messages, TenantContext toolContext) {
+        ChatOptions options = toolRegistry.chatOptions();
+        List<Message> conversation = new ArrayList<>(messages);
+
+        ChatResponse response = callModel(tenantId, patientId, tenantType, new Prompt(conversation, options));
+        for (int round = 1; response.hasToolCalls() && round <= MAX_TOOL_ROUNDS; round++) {
+            AssistantMessage toolRequest = response.getResult().getOutput();
+            log.info("🔧 Turno {} de Function Calling: {}", round,
+                    toolRequest.getToolCalls().stream().map(AssistantMessage.ToolCall::name).toList());
+
+            ToolResponseMessage toolResponses = messageMetrics.recordStage(Stage.TOOL_EXECUTION, tenantType,
+                    () -> toolRegistry.executeToolCalls(toolRequest.getToolCalls(), toolContext));
+            conversation.add(toolRequest);
+            conversation.add(toolResponses);
+
+            response = callModel(tenantId, patientId, tenantType, new Prompt(conversation, options));
+        }
+
+        if (response.hasToolCalls()) {
+            // Limite de turnos atingido: última chamada sem funções, para obter a resposta em texto
+            log.warn("⚠️ Limite de {} turnos de Function Calling atingido - Patient: {}", MAX_TOOL_ROUNDS, patientId);
+            response = callModel(tenantId, patientId, tenantType, new Prompt(conversation));
+        }
+        return response;
+    }
+
+    private ChatResponse callModel(UUID tenantId, UUID patientId, AccountType tenantType, Prompt prompt) {
+        ChatResponse response = messageMetrics.recordStage(Stage.LLM_CALL, tenantType,
+                () -> chatModel.call(prompt));
+        messageMetrics.recordTokenUsage(LlmCallType.REPLY, tenantType, response);
+        tokenUsageService.record(tenantId, patientId, LlmCallType.REPLY, response);
+        return response;
+    }
+
+    /**
+     * Monta a lista de mensagens enviada à IA: System Message + histórico + mensagem atual
+     */
+    private List<Message> buildConversation(Account account, Patient patient,
+                                            List<ChatMessage> recentMessages, String userMessage) {
         String systemPrompt = promptService.buildSystemMessageWithContext(
                 account,
                 patient.getName(),
                 patient.getDiagnosis()
         );
 
-        // 6. Construir lista de mensagens com contexto
         List<Message> messages = new ArrayList<>();
 
         // System message sempre primeiro
@@ -139,25 +233,8 @@ public class AIService {
         // Adicionar mensagem atual do usuário
         messages.add(new UserMessage(userMessage));
 
-        log.debug("📊 Total de mensagens no contexto: {}", messages.size());
         log.debug("System Prompt: {} caracteres", systemPrompt.length());
-
-        // 7. Chamar IA COM HISTÓRICO
-        // TODO: Function calling será adicionado em versão futura do Spring AI
-        Prompt prompt = new Prompt(messages);
-        ChatResponse response = chatModel.call(prompt);
-        String aiResponse = response.getResult().getOutput().getText();
-
-        log.info("✅ Resposta da IA gerada: {} caracteres", aiResponse.length());
-
-        // 8. Salvar resposta da IA no histórico
-        chatHistoryService.saveAssistantMessage(account, patient, aiResponse);
-
-        // 9. Atualizar última interação
-        patient.updateLastInteraction();
-        patientRepository.save(patient);
-
-        return aiResponse;
+        return messages;
     }
 
     /**
@@ -214,6 +291,7 @@ public class AIService {
      * @param recentHistory Histórico recente de mensagens
      * @return Mensagem proativa gerada pela IA
      */
+    @Observed(name = "health_agent.ai.proactive_message", contextualName = "ai.proactive-message")
     public String generateProactiveMessage(
             UUID tenantId,
             UUID patientId,
@@ -240,7 +318,9 @@ public class AIService {
 
         // Chamar IA
         Prompt prompt = new Prompt(messages);
-        ChatResponse response = chatModel.call(prompt);
+        ChatResponse response = messageMetrics.recordStage(Stage.LLM_CALL, () -> chatModel.call(prompt));
+        messageMetrics.recordTokenUsage(LlmCallType.PROACTIVE, response);
+        tokenUsageService.record(tenantId, patientId, LlmCallType.PROACTIVE, response);
         String aiMessage = response.getResult().getOutput().getText();
 
         log.info("Mensagem proativa gerada com sucesso");
@@ -0,0 +1,99 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.healthlink.ai_health_agent.config.AlertRulesProperties;
+import com.healthlink.ai_health_agent.config.AlertRulesProperties.Rule;
+import com.healthlink.ai_health_agent.domain.entity.Alert;
+import com.healthlink.ai_health_agent.repository.AlertRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cooldown dos alertas em memória: (paciente, tipo) -> data do último alerta
+ *
+ * Substitui a consulta existsRecentAlert antes de cada alerta candidato: um alerta dentro do
+ * cooldown é descartado sem acesso ao banco. Cada par é populado do banco (findLastAlertAt)
+ * na primeira vez que é consultado na instância.
+ *
+ * A reserva do cooldown é atômica por par (ConcurrentHashMap.compute): dois logs simultâneos
+ * do mesmo paciente não criam o mesmo alerta duas vezes. Entre instâncias, a garantia final
+ * é o lock transacional do AlertService (lockPatientAlertType + existsRecentAlert), executado
+ * apenas quando um alerta vai de fato ser criado.
+ */
+@Component
+@Slf4j
+public class AlertCooldownCache {
+
+    /**
+     * Par sem alertas no banco (populado, mas sem cooldown ativo)
+     */
+    private static final LocalDateTime NEVER = LocalDateTime.MIN;
+
+    private final AlertRepository alertRepository;
+    private final Duration maxCooldown;
+
+    private final Map<Key, LocalDateTime> lastAlertAt = new ConcurrentHashMap<>();
+
+    public AlertCooldownCache(AlertRepository alertRepository, AlertRulesProperties properties) {
+        this.alertRepository = alertRepository;
+        this.maxCooldown = properties.rules().stream()
+                .map(Rule::cooldown)
+                .max(Duration::compareTo)
+                .orElse(Duration.ofDays(1));
+    }
+
+    private record Key(UUID patientId, Alert.AlertType alertType) {
+    }
+
+    /**
+     * Reserva o cooldown do par se não houver alerta dentro do cooldown
+     *
+     * @return true se o alerta pode ser criado (o cooldown passa a contar de now);
+     *         false se já existe alerta do tipo para o paciente dentro do cooldown
+     */
+    public boolean tryAcquire(UUID tenantId, UUID patientId, Alert.AlertType alertType,
+                              Duration cooldown, LocalDateTime now) {
+        Key key = new Key(patientId, alertType);
+        if (!lastAlertAt.containsKey(key)) {
+            // Fora do compute: a consulta não bloqueia outras chaves do mesmo bucket
+            LocalDateTime persisted = alertRepository.findLastAlertAt(patientId, tenantId, alertType);
+            lastAlertAt.putIfAbsent(key, persisted != null ? persisted : NEVER);
+        }
+
+        boolean[] acquired = new boolean[1];
+        lastAlertAt.compute(key, (k, last) -> {
+            if (last != null && last.isAfter(now.minus(cooldown))) {
+                return last;
+            }
+            acquired[0] = true;
+            return now;
+        });
+        return acquired[0];
+    }
+
+    /**
+     * Desfaz uma reserva cujo alerta não foi criado (ex: rollback)
+     * O par volta a ser populado do banco na próxima consulta
+     */
+    public void release(UUID patientId, Alert.AlertType alertType, LocalDateTime reservedAt) {
+        lastAlertAt.computeIfPresent(new Key(patientId, alertType),
+                (k, last) -> last.equals(reservedAt) ? null : last);
+    }
+
+    /**
+     * Remove pares cujo último alerta já saiu do maior cooldown das regras
+     */
+    @Scheduled(cron = "${alerts.engine.purge-cron:0 15 3 * * *}")
+    public void purgeExpired() {
+        LocalDateTime oldestKept = LocalDateTime.now().minus(maxCooldown);
+        int before = lastAlertAt.size();
+        lastAlertAt.values().removeIf(last -> last.isBefore(oldestKept));
+        log.info("🧹 Cooldowns de alerta expirados removidos: {}", before - lastAlertAt.size());
+    }
+}
@@ -0,0 +1,263 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.healthlink.ai_health_agent.config.AlertRulesProperties;
+import com.healthlink.ai_health_agent.config.AlertRulesProperties.Rule;
+import com.healthlink.ai_health_agent.domain.entity.Alert;
+import com.healthlink.ai_health_agent.domain.event.HealthLogRecordedEvent;
+import com.healthlink.ai_health_agent.repository.HealthLogRepository;
+import com.healthlink.ai_health_agent.repository.HealthLogRepository.DailyWorstValues;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Motor de regras de alerta em streaming
+ *
+ * Mantém em memória uma janela diária por paciente (PatientHealthWindow), alimentada por cada
+ * HealthLog registrado, e avalia as regras configuradas (AlertRulesProperties, alert-rules.yml)
+ * com os limites do tenant (snapshot do AlertThresholdService) sem consultar o banco. As janelas são reconstruídas a partir de health_logs no startup.
+ *
+ * As janelas são locais à instância. Um paciente sem janela carregada do banco (primeiro log
+ * após o startup nesta instância, ou janela expirada) tem o histórico carregado com uma
+ * consulta indexada antes da avaliação de regras de vários dias (min-days > 1).
+ * Limitação: logs processados por outra instância depois dessa carga não são vistos.
+ */
+@Service
+@Slf4j
+public class AlertRuleEngine {
+
+    private final HealthLogRepository healthLogRepository;
+    private final AlertThresholdService thresholdService;
+    private final int windowDays;
+
+    private final Map<UUID, PatientHealthWindow> windows = new ConcurrentHashMap<>();
+
+    public AlertRuleEngine(HealthLogRepository healthLogRepository, AlertThresholdService thresholdService,
+                           AlertRulesProperties properties) {
+        this.healthLogRepository = healthLogRepository;
+        this.thresholdService = thresholdService;
+        this.windowDays = properties.windowDays();
+        log.info("📐 {} regras de alerta carregadas: {}", properties.rules().size(),
+                properties.rules().stream().map(Rule::name).toList());
+    }
+
+    /**
+     * Regra atingida por um log
+     *
+     * @param value Valor do log para a métrica da regra
+     * @param days Dias da janela que atingiram o limite (incluindo o dia do log)
+     */
+    public record RuleMatch(Rule rule, double value, int days) {
+
+        public Alert.Severity severity() {
+            return rule.severityFor(value);
+        }
+
+        public String message(String patientName) {
+            return rule.message()
+                    .replace("{patient}", patientName)
+                    .replace("{value}", formatValue())
+                    .replace("{days}", String.valueOf(days));
+        }
+
+        public String details() {
+            return String.format("{\"rule\": \"%s\", \"value\": %s, \"days\": %d}",
+                    rule.name(), formatValue().replace(',', '.'), days);
+        }
+
+        private String formatValue() {
+            return value == Math.rint(value) ? String.valueOf((long) value) : String.format("%.1f", value);
+        }
+    }
+
+    // ============================================
+    // AVALIAÇÃO
+    // ============================================
+
+    /**
+     * Acumula o log na janela do paciente e retorna as regras atingidas
+     * Uma regra só é avaliada quando o próprio log atinge o limite (o log é o gatilho);
+     * as demais condições (dias na janela, sequência) vêm da janela em memória
+     * Os limites são os do tenant do log (regras desativadas no tenant não são avaliadas)
+     */
+    public List<RuleMatch> evaluate(HealthLogRecordedEvent event) {
+        List<Rule> rules = thresholdService.rulesFor(event.tenantId());
+        LocalDate day = event.timestamp().toLocalDate();
+        List<RuleMatch> matches = new ArrayList<>();
+        seedIfNeeded(event.tenantId(), event.patientId(), rules, LocalDate.now());
+
+        // compute: atualização e leitura da janela atômicas por paciente (e com a limpeza)
+        windows.compute(event.patientId(), (id, current) -> {
+            PatientHealthWindow window = current != null ? current : new PatientHealthWindow(windowDays);
+            record(window, event);
+
+            for (Rule rule : rules) {
+                Double value = metricValue(rule, event);
+                if (value == null || !rule.operator().test(value, rule.threshold())) {
+                    continue;
+                }
+
+                int days = window.matchingDays(rule, day);
+                if (days >= rule.minDays()) {
+                    matches.add(new RuleMatch(rule, value, days));
+                }
+            }
+            return window;
+        });
+
+        if (!matches.isEmpty()) {
+            log.debug("📐 Regras atingidas - Patient: {}, Regras: {}", event.patientId(),
+                    matches.stream().map(m -> m.rule().name()).toList());
+        }
+        return matches;
+    }
+
+    /**
+     * Acumula um lote de logs do mesmo paciente (importação em lote) e avalia as regras uma vez
+     * Para cada regra, o gatilho é o log mais severo do lote que atinge o limite, considerando
+     * apenas logs dentro da janela da regra: histórico antigo importado não gera alertas
+     */
+    public List<RuleMatch> evaluateBatch(UUID tenantId, UUID patientId, List<HealthLogRecordedEvent> logs) {
+        return evaluateBatch(tenantId, patientId, logs, LocalDate.now());
+    }
+
+    List<RuleMatch> evaluateBatch(UUID tenantId, UUID patientId, List<HealthLogRecordedEvent> logs, LocalDate today) {
+        List<Rule> rules = thresholdService.rulesFor(tenantId);
+        List<RuleMatch> matches = new ArrayList<>();
+        seedIfNeeded(tenantId, patientId, rules, today);
+
+        windows.compute(patientId, (id, current) -> {
+            PatientHealthWindow window = current != null ? current : new PatientHealthWindow(windowDays);
+            logs.forEach(event -> record(window, event));
+
+            for (Rule rule : rules) {
+                LocalDate oldest = today.minusDays(rule.windowDays() - 1L);
+                Double worst = null;
+                LocalDate triggerDay = null;
+
+                for (HealthLogRecordedEvent event : logs) {
+                    LocalDate day = event.timestamp().toLocalDate();
+                    Double value = metricValue(rule, event);
+                    if (value == null || day.isBefore(oldest) || day.isAfter(today)
+                            || !rule.operator().test(value, rule.threshold())) {
+                        continue;
+                    }
+                    // Mais severo vence; no empate, o mais recente
+                    boolean moreSevere = worst == null || (!value.equals(worst) && rule.operator().test(value, worst));
+                    if (moreSevere || (value.equals(worst) && day.isAfter(triggerDay))) {
+                        worst = value;
+                        triggerDay = day;
+                    }
+                }
+
+                if (worst != null) {
+                    int days = window.matchingDays(rule, triggerDay);
+                    if (days >= rule.minDays()) {
+                        matches.add(new RuleMatch(rule, worst, days));
+                    }
+                }
+            }
+            return window;
+        });
+
+        log.debug("📐 Lote avaliado - Patient: {}, Logs: {}, Regras atingidas: {}", patientId, logs.size(),
+                matches.stream().map(m -> m.rule().name()).toList());
+        return matches;
+    }
+
+    /**
+     * Carrega o histórico do paciente se a janela ainda não tem os dados do banco e alguma regra
+     * depende de outros dias. A consulta roda fora do compute; os agregados idempotentes permitem
+     * aplicar o histórico sobre logs já registrados na janela (inclusive o log atual, já gravado)
+     */
+    private void seedIfNeeded(UUID tenantId, UUID patientId, List<Rule> rules, LocalDate today) {
+        if (rules.stream().noneMatch(rule -> rule.minDays() > 1)) {
+            return;
+        }
+        PatientHealthWindow existing = windows.get(patientId);
+        if (existing != null && existing.isSeeded()) {
+            return;
+        }
+
+        LocalDate since = today.minusDays(windowDays - 1L);
+        List<DailyWorstValues> history = healthLogRepository.findDailyWorstValues(tenantId, patientId, since.atStartOfDay());
+        windows.compute(patientId, (id, current) -> {
+            PatientHealthWindow window = current != null ? current : new PatientHealthWindow(windowDays);
+            history.forEach(day -> window.record(day.getDay(), day.getMaxPain(), day.getMinSleep(), day.getMedicationMissed()));
+            window.markSeeded();
+            return window;
+        });
+        log.debug("📐 Janela carregada do banco - Patient: {}, Dias: {}", patientId, history.size());
+    }
+
+    private static void record(PatientHealthWindow window, HealthLogRecordedEvent event) {
+        Boolean medicationMissed = event.medicationTaken() == null ? null : !event.medicationTaken();
+        window.record(event.timestamp().toLocalDate(), event.painLevel(), event.sleepHours(), medicationMissed);
+    }
+
+    /**
+     * Valor do log para a métrica da regra (null se o log não informa a métrica)
+     */
+    private static Double metricValue(Rule rule, HealthLogRecordedEvent event) {
+        return switch (rule.metric()) {
+            case PAIN_LEVEL -> event.painLevel() == null ? null : event.painLevel().doubleValue();
+            case SLEEP_HOURS -> event.sleepHours();
+            case MEDICATION_MISSED -> event.medicationTaken() == null ? null : (event.medicationTaken() ? 0.0 : 1.0);
+        };
+    }
+
+    // ============================================
+    // RECONSTRUÇÃO E LIMPEZA
+    // ============================================
+
+    /**
+     * Reconstrói as janelas a partir dos últimos windowDays dias de health_logs
+     * Logs registrados durante a reconstrução não são perdidos nem contados em dobro:
+     * os agregados da janela são idempotentes
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        LocalDate since = LocalDate.now().minusDays(windowDays - 1L);
+        long start = System.currentTimeMillis();
+        long rows = 0;
+
+        try (Stream<DailyWorstValues> days = healthLogRepository.streamDailyWorstValues(since.atStartOfDay())) {
+            for (DailyWorstValues day : (Iterable<DailyWorstValues>) days::iterator) {
+                windows.compute(day.getPatientId(), (id, current) -> {
+                    PatientHealthWindow window = current != null ? current : new PatientHealthWindow(windowDays);
+                    window.record(day.getDay(), day.getMaxPain(), day.getMinSleep(), day.getMedicationMissed());
+                    window.markSeeded();
+                    return window;
+                });
+                rows++;
+            }
+        }
+
+        log.info("📐 Janelas de alerta reconstruídas - Pacientes: {}, Dias: {}, Tempo: {}ms",
+                windows.size(), rows, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Remove janelas de pacientes sem logs dentro da janela (memória local, sem lock distribuído)
+     */
+    @Scheduled(cron = "${alerts.engine.purge-cron:0 15 3 * * *}")
+    public void purgeStaleWindows() {
+        long oldestKept = LocalDate.now().minusDays(windowDays - 1L).toEpochDay();
+        int before = windows.size();
+        windows.forEach((patientId, window) ->
+                windows.computeIfPresent(patientId, (id, current) -> current.newestDay() < oldestKept ? null : current));
+        log.info("🧹 Janelas de alerta expiradas removidas: {}", before - windows.size());
+    }
+}
@@ -2,17 +2,28 @@ package com.healthlink.ai_health_agent.service;
 
 import com.healthlink.ai_health_agent.domain.entity.Account;
 import com.healthlink.ai_health_agent.domain.entity.Alert;
-import com.healthlink.ai_health_agent.domain.entity.HealthLog;
 import com.healthlink.ai_health_agent.domain.entity.Patient;
+import com.healthlink.ai_health_agent.domain.event.AlertChangedEvent;
+import com.healthlink.ai_health_agent.domain.event.HealthLogRecordedEvent;
+import com.healthlink.ai_health_agent.domain.event.HealthLogsImportedEvent;
+import com.healthlink.ai_health_agent.dto.AlertDTO;
+import com.healthlink.ai_health_agent.dto.KeysetCursor;
+import com.healthlink.ai_health_agent.dto.PageResponse;
 import com.healthlink.ai_health_agent.repository.AccountRepository;
 import com.healthlink.ai_health_agent.repository.AlertRepository;
-import com.healthlink.ai_health_agent.repository.HealthLogRepository;
 import com.healthlink.ai_health_agent.repository.PatientRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -26,149 +37,128 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class AlertService {
 
+    /**
+     * Tempo entre o registro do HealthLog e o início da avaliação de alertas (commit + fila)
+     */
+    public static final String EVALUATION_DELAY_TIMER = "health_agent.alerts.evaluation.delay";
+
+    /**
+     * Avaliações rejeitadas pelo alertEvaluationExecutor com a fila cheia (action=overflow|dropped)
+     */
+    public static final String EVALUATION_REJECTED_COUNTER = "health_agent.alerts.evaluation.rejected";
+
     private final AlertRepository alertRepository;
-    private final HealthLogRepository healthLogRepository;
     private final PatientRepository patientRepository;
     private final AccountRepository accountRepository;
-
-    // Thresholds configuráveis
-    private static final int HIGH_PAIN_THRESHOLD = 8;
-    private static final int CRITICAL_PAIN_THRESHOLD = 9;
-    private static final int MEDICATION_SKIP_DAYS_THRESHOLD = 3;
-    private static final int INACTIVITY_DAYS_THRESHOLD = 7;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final AlertRuleEngine ruleEngine;
+    private final AlertCooldownCache cooldownCache;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Analisa HealthLog recém-criado e gera alertas se necessário
-     * Chamado após salvar um HealthLog
+     *
+     * Roda no alertEvaluationExecutor após o commit do HealthLog: o function calling devolve
+     * a confirmação para a IA sem esperar a análise. As regras são avaliadas em memória pelo
+     * AlertRuleEngine e o cooldown pelo AlertCooldownCache; o banco só é acessado quando
+     * algum alerta vai ser criado.
+     * O atraso entre o registro e a avaliação é medido em EVALUATION_DELAY_TIMER.
      */
-    @Transactional
-    public void analyzeHealthLogAndCreateAlerts(UUID tenantId, UUID patientId, HealthLog healthLog) {
-        log.debug("🔍 Analisando HealthLog para alertas - Patient: {}", patientId);
-
-        Patient patient = patientRepository.findById(patientId)
-                .orElseThrow(() -> new RuntimeException("Paciente não encontrado"));
-
-        Account account = accountRepository.findById(tenantId)
-                .orElseThrow(() -> new RuntimeException("Account não encontrada"));
-
-        // Verificar dor alta
-        if (healthLog.getPainLevel() != null && healthLog.getPainLevel() >= HIGH_PAIN_THRESHOLD) {
-            createHighPainAlert(account, patient, healthLog.getPainLevel());
-        }
-
-        // Verificar medicação não tomada
-        if (Boolean.FALSE.equals(healthLog.getMedicationTaken())) {
-            checkMedicationSkipPattern(account, patient);
-        }
+    @Async("alertEvaluationExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    @Observed(name = "health_agent.alerts.analyze", contextualName = "alerts.analyze")
+    public void onHealthLogRecorded(HealthLogRecordedEvent event) {
+        meterRegistry.timer(EVALUATION_DELAY_TIMER)
+                .record(Duration.between(event.timestamp(), LocalDateTime.now()));
+        log.debug("🔍 Analisando HealthLog para alertas - Patient: {}", event.patientId());
+
+        createAlerts(event.tenantId(), event.patientId(), event.patientName(), ruleEngine.evaluate(event));
+    }
 
-        // Verificar sono insuficiente
-        if (healthLog.getSleepHours() != null && healthLog.getSleepHours() < 4) {
-            createSleepDeprivationAlert(account, patient, healthLog.getSleepHours());
-        }
+    /**
+     * Analisa um lote importado de HealthLogs de um paciente (uma avaliação por lote)
+     * Mesmo fluxo de onHealthLogRecorded, após o commit do lote
+     */
+    @Async("alertEvaluationExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    @Observed(name = "health_agent.alerts.analyze_batch", contextualName = "alerts.analyze-batch")
+    public void onHealthLogsImported(HealthLogsImportedEvent event) {
+        log.debug("🔍 Analisando lote importado para alertas - Patient: {}, Logs: {}",
+                event.patientId(), event.logs().size());
+
+        createAlerts(event.tenantId(), event.patientId(), event.patientName(),
+                ruleEngine.evaluateBatch(event.tenantId(), event.patientId(), event.logs()));
     }
 
     /**
-     * Cria alerta de dor alta
+     * Reserva o cooldown das regras atingidas e cria os alertas que passaram
      */
-    private void createHighPainAlert(Account account, Patient patient, int painLevel) {
-        // Verificar se já existe alerta similar nas últimas 24h
-        if (alertRepository.existsRecentAlert(
-                patient.getId(),
-                account.getId(),
-                Alert.AlertType.HIGH_PAIN_LEVEL,
-                LocalDateTime.now().minusHours(24))) {
-            log.debug("⚠️ Alerta de dor alta já existe (últimas 24h)");
+    private void createAlerts(UUID tenantId, UUID patientId, String patientName,
+                              List<AlertRuleEngine.RuleMatch> ruleMatches) {
+        LocalDateTime now = LocalDateTime.now();
+        List<AlertRuleEngine.RuleMatch> matches = ruleMatches.stream()
+                .filter(match -> cooldownCache.tryAcquire(tenantId, patientId,
+                        match.rule().type(), match.rule().cooldown(), now))
+                .toList();
+        if (matches.isEmpty()) {
             return;
         }
 
-        Alert alert = Alert.highPainAlert(account, patient, painLevel);
-        alertRepository.save(alert);
-
-        log.warn("🚨 ALERTA CRIADO: Dor nível {} - Paciente: {}", painLevel, patient.getName());
+        try {
+            transactionTemplate.executeWithoutResult(status -> createRuleAlerts(tenantId, patientId, patientName, matches, now));
+        } catch (RuntimeException e) {
+            // Alertas não criados: libera os cooldowns reservados
+            matches.forEach(match -> cooldownCache.release(patientId, match.rule().type(), now));
+            throw e;
+        }
     }
 
     /**
-     * Verifica padrão de medicação não tomada
+     * Cria os alertas das regras atingidas (cooldown já reservado no AlertCooldownCache)
+     * Sob lock do par paciente/tipo, confere no banco alertas criados por outra instância
+     * Paciente e account já foram validados no registro do log: usa referências (sem SELECT)
+     * e o nome do paciente que veio no evento
      */
-    private void checkMedicationSkipPattern(Account account, Patient patient) {
-        LocalDateTime last7Days = LocalDateTime.now().minusDays(7);
-        var recentLogs = healthLogRepository.findByPatientAndPeriod(
-                patient.getId(),
-                account.getId(),
-                last7Days,
-                LocalDateTime.now()
-        );
-
-        long daysWithoutMedication = recentLogs.stream()
-                .filter(hl -> Boolean.FALSE.equals(hl.getMedicationTaken()))
-                .map(hl -> hl.getTimestamp().toLocalDate())
-                .distinct()
-                .count();
-
-        if (daysWithoutMedication >= MEDICATION_SKIP_DAYS_THRESHOLD) {
-            // Verificar se já existe alerta similar
+    private void createRuleAlerts(UUID tenantId, UUID patientId, String patientName,
+                                  List<AlertRuleEngine.RuleMatch> matches, LocalDateTime now) {
+        Patient patient = patientRepository.getReferenceById(patientId);
+        Account account = accountRepository.getReferenceById(tenantId);
+
+        for (AlertRuleEngine.RuleMatch match : matches) {
+            Alert.AlertType type = match.rule().type();
+            alertRepository.lockPatientAlertType(patientId, type.name());
             if (alertRepository.existsRecentAlert(
-                    patient.getId(),
-                    account.getId(),
-                    Alert.AlertType.MEDICATION_SKIP,
-                    LocalDateTime.now().minusDays(3))) {
-                return;
+                    patientId,
+                    tenantId,
+                    type,
+                    now.minus(match.rule().cooldown()))) {
+                log.debug("⚠️ Alerta {} já existe (cooldown {})", type, match.rule().cooldown());
+                continue;
             }
 
-            Alert alert = Alert.medicationSkipAlert(account, patient, (int) daysWithoutMedication);
-            alertRepository.save(alert);
-
-            log.warn("🚨 ALERTA CRIADO: Medicação não tomada por {} dias - Paciente: {}",
-                    daysWithoutMedication, patient.getName());
+            Alert alert = Alert.builder()
+                    .account(account)
+                    .patient(patient)
+                    .alertType(type)
+                    .severity(match.severity())
+                    .message(match.message(patientName))
+                    .details(match.details())
+                    .createdAt(now)
+                    .acknowledged(false)
+                    .build();
+            saveNewAlert(alert);
+
+            log.warn("🚨 ALERTA CRIADO: {} ({}) - Paciente: {}", type, match.rule().name(), patientName);
         }
     }
 
     /**
-     * Cria alerta de privação de sono
+     * Persiste um alerta recém-criado e publica o evento correspondente
      */
-    private void createSleepDeprivationAlert(Account account, Patient patient, double sleepHours) {
-        if (alertRepository.existsRecentAlert(
-                patient.getId(),
-                account.getId(),
-                Alert.AlertType.SLEEP_DEPRIVATION,
-                LocalDateTime.now().minusHours(24))) {
-            return;
-        }
-
-        Alert alert = Alert.builder()
-                .account(account)
-                .patient(patient)
-                .alertType(Alert.AlertType.SLEEP_DEPRIVATION)
-                .severity(Alert.Severity.MEDIUM)
-                .message(String.format("Paciente %s dormiu apenas %.1f horas", patient.getName(), sleepHours))
-                .details(String.format("{\"sleepHours\": %.1f}", sleepHours))
-                .createdAt(LocalDateTime.now())
-                .acknowledged(false)
-                .build();
-
+    private void saveNewAlert(Alert alert) {
         alertRepository.save(alert);
-
-        log.warn("🚨 ALERTA CRIADO: Privação de sono ({} horas) - Paciente: {}",
-                sleepHours, patient.getName());
-    }
-
-    /**
-     * Cria alerta de inatividade
-     */
-    private void createInactivityAlert(Account account, Patient patient, int daysInactive) {
-        if (alertRepository.existsRecentAlert(
-                patient.getId(),
-                account.getId(),
-                Alert.AlertType.INACTIVITY,
-                LocalDateTime.now().minusDays(7))) {
-            return;
-        }
-
-        Alert alert = Alert.inactivityAlert(account, patient, daysInactive);
-        alertRepository.save(alert);
-
-        log.warn("🚨 ALERTA CRIADO: Inatividade de {} dias - Paciente: {}",
-                daysInactive, patient.getName());
+        eventPublisher.publishEvent(AlertChangedEvent.of(alert, AlertChangedEvent.Change.CREATED));
     }
 
     /**
@@ -186,6 +176,7 @@ public class AlertService {
 
         alert.acknowledge(acknowledgedBy);
         alertRepository.save(alert);
+        eventPublisher.publishEvent(AlertChangedEvent.of(alert, AlertChangedEvent.Change.ACKNOWLEDGED));
 
         log.info("✅ Alerta reconhecido - ID: {}, Por: {}", alertId, acknowledgedBy);
     }
@@ -198,55 +189,48 @@ public class AlertService {
     }
 
     /**
-     * Busca todos os alertas ativos de um tenant
+     * Busca alertas ativos de um tenant, paginado por cursor
+     * Ordem: severidade (CRITICAL > HIGH > MEDIUM > LOW), depois mais recentes primeiro
      */
-    public List<Alert> getAllActiveAlerts(UUID tenantId) {
-        return alertRepository.findActiveAlertsByTenant(tenantId);
+    public PageResponse<AlertDTO> getActiveAlertsPage(UUID tenantId, String cursor, Integer limit) {
+        int pageSize = PageResponse.clampLimit(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor, 3);
+
+        List<Alert> rows = after == null
+                ? alertRepository.findActivePageByTenant(tenantId, pageSize + 1)
+                : alertRepository.findActivePageByTenantAfter(tenantId, after.getInt(0), after.getTimestamp(1),
+                        after.getId(), pageSize + 1);
+
+        return PageResponse.of(rows, pageSize, AlertDTO::from,
+                alert -> KeysetCursor.encode(severityRank(alert.getSeverity()), alert.getCreatedAt(), alert.getId()));
     }
 
     /**
-     * Busca alertas críticos
+     * Busca alertas críticos, paginado por cursor (mais recentes primeiro)
      */
-    public List<Alert> getCriticalAlerts(UUID tenantId) {
-        return alertRepository.findCriticalAlerts(tenantId);
+    public PageResponse<AlertDTO> getCriticalAlertsPage(UUID tenantId, String cursor, Integer limit) {
+        int pageSize = PageResponse.clampLimit(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor, 2);
+
+        List<Alert> rows = after == null
+                ? alertRepository.findCriticalPage(tenantId, pageSize + 1)
+                : alertRepository.findCriticalPageAfter(tenantId, after.getTimestamp(0), after.getId(), pageSize + 1);
+
+        return PageResponse.of(rows, pageSize, AlertDTO::from,
+                alert -> KeysetCursor.encode(alert.getCreatedAt(), alert.getId()));
     }
 
     /**
-     * Conta alertas ativos de um paciente
+     * Peso da severidade na ordenação (mesmo CASE usado nas queries de página)
      */
-    public Long countActiveAlerts(UUID tenantId, UUID patientId) {
-        return alertRepository.countActiveAlertsByPatient(patientId, tenantId);
+    private static int severityRank(Alert.Severity severity) {
+        return severity.ordinal() + 1;
     }
 
     /**
-     * Verifica inatividade de pacientes
-     * Deve ser executado periodicamente (cron job)
+     * Conta alertas ativos de um paciente
      */
-    @Transactional
-    public void checkInactivePatients(UUID tenantId) {
-        log.info("🔍 Verificando pacientes inativos - Tenant: {}", tenantId);
-
-        var patients = patientRepository.findByAccountId(tenantId);
-        Account account = accountRepository.findById(tenantId)
-                .orElseThrow(() -> new RuntimeException("Account não encontrada"));
-
-        for (Patient patient : patients) {
-            if (!patient.getIsActive()) {
-                continue;
-            }
-
-            if (patient.getLastInteractionAt() == null) {
-                continue;
-            }
-
-            long daysInactive = java.time.temporal.ChronoUnit.DAYS.between(
-                    patient.getLastInteractionAt(),
-                    LocalDateTime.now()
-            );
-
-            if (daysInactive >= INACTIVITY_DAYS_THRESHOLD) {
-                createInactivityAlert(account, patient, (int) daysInactive);
-            }
-        }
+    public Long countActiveAlerts(UUID tenantId, UUID patientId) {
+        return alertRepository.countActiveAlertsByPatient(patientId, tenantId);
     }
 }
@@ -0,0 +1,253 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.healthlink.ai_health_agent.domain.event.AlertChangedEvent;
+import com.healthlink.ai_health_agent.dto.AlertStreamEventDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Canal SSE de alertas em tempo real para o dashboard
+ *
+ * Cada tenant tem sua lista de conexões (SseEmitter) e um buffer circular com os últimos
+ * eventos, usado para retomar a conexão a partir do header Last-Event-ID.
+ * O envio acontece no alertStreamExecutor, nunca na thread que fez o commit do alerta:
+ * cada tenant tem uma fila de entregas drenada por uma única tarefa por vez, de modo que os
+ * eventos chegam na ordem dos IDs (requisito do replay por Last-Event-ID).
+ *
+ * Limitação: eventos e conexões são locais à instância. Com múltiplas instâncias, um dashboard
+ * só recebe os alertas gerados na instância em que está conectado.
+ */
+@Service
+@Slf4j
+public class AlertStreamService {
+
+    public static final String EVENT_ALERT = "alert";
+    public static final String EVENT_RESYNC = "resync";
+    public static final String CONNECTIONS_GAUGE = "health_agent.alerts.stream.connections";
+
+    private final TaskExecutor executor;
+    private final int replayBufferSize;
+    private final long emitterTimeoutMillis;
+
+    private final Map<UUID, TenantStream> streams = new ConcurrentHashMap<>();
+
+    public AlertStreamService(@Qualifier("alertStreamExecutor") TaskExecutor executor,
+                              MeterRegistry meterRegistry,
+                              @Value("${alerts.stream.replay-buffer-size:100}") int replayBufferSize,
+                              @Value("${alerts.stream.timeout:PT30M}") Duration emitterTimeout) {
+        this.executor = executor;
+        this.replayBufferSize = replayBufferSize;
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+        Gauge.builder(CONNECTIONS_GAUGE, streams,
+                        s -> s.values().stream().mapToInt(t -> t.emitters.size()).sum())
+                .register(meterRegistry);
+    }
+
+    // ============================================
+    // CONEXÃO
+    // ============================================
+
+    /**
+     * Abre uma conexão SSE para o tenant
+     *
+     * @param lastEventId Último ID recebido pelo cliente (header Last-Event-ID), ou null
+     *                    Se o ID não estiver mais no buffer, envia um evento "resync" para o
+     *                    cliente recarregar a lista via GET /api/dashboard/alerts
+     */
+    public SseEmitter subscribe(UUID tenantId, Long lastEventId) {
+        TenantStream stream = streams.computeIfAbsent(tenantId, id -> new TenantStream());
+        SseEmitter emitter = createEmitter();
+
+        emitter.onCompletion(() -> stream.emitters.remove(emitter));
+        emitter.onTimeout(() -> stream.emitters.remove(emitter));
+        emitter.onError(e -> stream.emitters.remove(emitter));
+
+        // Replay antes de registrar o emitter, com o lock do buffer, para não intercalar com o broadcast
+        synchronized (stream) {
+            if (lastEventId != null) {
+                replay(stream, emitter, lastEventId);
+            }
+            stream.emitters.add(emitter);
+        }
+
+        log.info("📡 Dashboard conectado ao stream de alertas - Tenant: {}, Conexões: {}",
+                tenantId, stream.emitters.size());
+        return emitter;
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(emitterTimeoutMillis);
+    }
+
+    private void replay(TenantStream stream, SseEmitter emitter, long lastEventId) {
+        try {
+            SequencedEvent oldest = stream.buffer.peekFirst();
+            if (lastEventId > stream.sequence || (oldest != null && lastEventId < oldest.id() - 1)) {
+                // ID desconhecido (reinício da instância) ou eventos já descartados do buffer
+                emitter.send(SseEmitter.event().name(EVENT_RESYNC).data("resync"));
+                return;
+            }
+            for (SequencedEvent event : stream.buffer) {
+                if (event.id() > lastEventId) {
+                    emitter.send(toSseEvent(event));
+                }
+            }
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    // ============================================
+    // BROADCAST
+    // ============================================
+
+    /**
+     * Publica alertas criados/reconhecidos após o commit da transação
+     * O evento entra na fila do tenant; se nenhuma tarefa estiver drenando a fila, uma é agendada
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAlertChanged(AlertChangedEvent event) {
+        TenantStream stream = streams.get(event.tenantId());
+        if (stream == null) {
+            return;
+        }
+
+        synchronized (stream) {
+            SequencedEvent sequenced = new SequencedEvent(++stream.sequence, toDto(event));
+            stream.buffer.addLast(sequenced);
+            while (stream.buffer.size() > replayBufferSize) {
+                stream.buffer.removeFirst();
+            }
+            if (stream.emitters.isEmpty()) {
+                return;
+            }
+            stream.pending.addLast(new Delivery(new ArrayList<>(stream.emitters), sequenced));
+            if (stream.draining) {
+                return;
+            }
+            stream.draining = true;
+        }
+
+        try {
+            executor.execute(() -> drain(stream));
+        } catch (TaskRejectedException e) {
+            // Clientes recuperam pelo Last-Event-ID na reconexão
+            int dropped;
+            synchronized (stream) {
+                dropped = stream.pending.size();
+                stream.pending.clear();
+                stream.draining = false;
+            }
+            log.warn("⚠️ Fila do stream de alertas cheia, {} evento(s) não enviados - Tenant: {}",
+                    dropped, event.tenantId());
+        }
+    }
+
+    /**
+     * Envia as entregas pendentes do tenant, em ordem, até esvaziar a fila
+     */
+    private void drain(TenantStream stream) {
+        while (true) {
+            Delivery delivery;
+            synchronized (stream) {
+                delivery = stream.pending.pollFirst();
+                if (delivery == null) {
+                    stream.draining = false;
+                    return;
+                }
+            }
+            broadcast(stream, delivery.targets(), delivery.event());
+        }
+    }
+
+    private void broadcast(TenantStream stream, List<SseEmitter> targets, SequencedEvent event) {
+        for (SseEmitter emitter : targets) {
+            try {
+                emitter.send(toSseEvent(event));
+            } catch (IOException | IllegalStateException e) {
+                stream.emitters.remove(emitter);
+                log.debug("Conexão SSE encerrada durante envio: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Heartbeat para manter as conexões abertas em proxies e detectar clientes desconectados
+     * Roda em todas as instâncias (sem ShedLock): cada uma mantém suas próprias conexões
+     */
+    @Scheduled(fixedRateString = "${alerts.stream.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        streams.forEach((tenantId, stream) -> {
+            for (SseEmitter emitter : stream.emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    stream.emitters.remove(emitter);
+                }
+            }
+        });
+    }
+
+    private static SseEmitter.SseEventBuilder toSseEvent(SequencedEvent event) {
+        return SseEmitter.event()
+                .id(String.valueOf(event.id()))
+                .name(EVENT_ALERT)
+                .data(event.payload());
+    }
+
+    private static AlertStreamEventDTO toDto(AlertChangedEvent event) {
+        return AlertStreamEventDTO.builder()
+                .alertId(event.alertId())
+                .patientId(event.patientId())
+                .type(event.alertType().name())
+                .severity(event.severity().name())
+                .message(event.message())
+                .createdAt(event.createdAt())
+                .change(event.change().name())
+                .build();
+    }
+
+    // ============================================
+    // ESTRUTURAS INTERNAS
+    // ============================================
+
+    /**
+     * Estado de um tenant; sequence, buffer, pending e draining são protegidos pelo monitor da instância
+     */
+    private static final class TenantStream {
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private final Deque<SequencedEvent> buffer = new ArrayDeque<>();
+        private final Deque<Delivery> pending = new ArrayDeque<>();
+        private long sequence;
+        private boolean draining;
+    }
+
+    private record SequencedEvent(long id, AlertStreamEventDTO payload) {
+    }
+
+    /**
+     * Evento a enviar às conexões abertas no momento da publicação
+     */
+    private record Delivery(List<SseEmitter> targets, SequencedEvent event) {
+    }
+}
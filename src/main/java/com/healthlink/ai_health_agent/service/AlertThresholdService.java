@@ -0,0 +1,309 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.healthlink.ai_health_agent.config.AlertRulesProperties;
+import com.healthlink.ai_health_agent.config.AlertRulesProperties.Rule;
+import com.healthlink.ai_health_agent.domain.entity.Alert;
+import com.healthlink.ai_health_agent.domain.event.AlertThresholdsChangedEvent;
+import com.healthlink.ai_health_agent.dto.AlertThresholdDTO;
+import com.healthlink.ai_health_agent.dto.UpdateAlertThresholdRequest;
+import com.healthlink.ai_health_agent.repository.AccountRepository;
+import com.healthlink.ai_health_agent.repository.AlertThresholdRepository;
+import com.healthlink.ai_health_agent.repository.AlertThresholdRepository.ThresholdOverride;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Limites de alerta por tenant
+ *
+ * Os valores padrão vêm das regras de alert-rules.yml (AlertRulesProperties); cada tenant pode
+ * sobrescrever threshold, critical-threshold e min-days de uma regra ou desativá-la
+ * (tabela alert_thresholds). A regra "inactivity" controla os dias sem interação do alerta
+ * de inatividade.
+ *
+ * Os limites efetivos ficam em um snapshot imutável em memória, trocado atomicamente:
+ * a avaliação de regras só lê o snapshot, sem acesso ao banco. O snapshot é recarregado
+ * após cada alteração pela API (somente o tenant alterado) e periodicamente por completo,
+ * para que outras instâncias vejam as alterações em até alerts.thresholds.refresh-interval-ms.
+ */
+@Service
+@Slf4j
+public class AlertThresholdService {
+
+    /**
+     * Nome da regra de inatividade (threshold = dias sem interação)
+     */
+    public static final String INACTIVITY_RULE = "inactivity";
+
+    private final AlertThresholdRepository thresholdRepository;
+    private final AccountRepository accountRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, Rule> defaultRules;
+    private final TenantThresholds defaults;
+
+    /**
+     * Limites efetivos dos tenants com customização (demais tenants usam os padrões)
+     */
+    private final AtomicReference<Map<UUID, TenantThresholds>> snapshot = new AtomicReference<>(Map.of());
+
+    public AlertThresholdService(AlertThresholdRepository thresholdRepository,
+                                 AccountRepository accountRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 AlertRulesProperties properties) {
+        this.thresholdRepository = thresholdRepository;
+        this.accountRepository = accountRepository;
+        this.eventPublisher = eventPublisher;
+        this.defaultRules = properties.rules().stream()
+                .collect(Collectors.toMap(Rule::name, Function.identity(), (a, b) -> {
+                    throw new IllegalArgumentException("Regra de alerta duplicada: " + a.name());
+                }, LinkedHashMap::new));
+        this.defaults = new TenantThresholds(List.copyOf(properties.rules()), properties.inactivityDays(), Map.of());
+    }
+
+    /**
+     * Limite customizado de uma regra (campos nulos mantêm o padrão)
+     */
+    record TenantOverride(String ruleName, Double threshold, Double criticalThreshold, Integer minDays, boolean enabled) {
+
+        static TenantOverride from(ThresholdOverride row) {
+            return new TenantOverride(row.getRuleName(), row.getThreshold(), row.getCriticalThreshold(), row.getMinDays(),
+                    !Boolean.FALSE.equals(row.getEnabled()));
+        }
+    }
+
+    /**
+     * Limites efetivos de um tenant
+     *
+     * @param rules Regras ativas, já com os limites do tenant
+     * @param inactivityDays Dias para o alerta de inatividade (null = desativado)
+     * @param overrides Customizações do tenant por nome de regra
+     */
+    record TenantThresholds(List<Rule> rules, Integer inactivityDays, Map<String, TenantOverride> overrides) {
+    }
+
+    // ============================================
+    // LEITURA (snapshot em memória)
+    // ============================================
+
+    /**
+     * Regras ativas do tenant com os limites efetivos
+     */
+    public List<Rule> rulesFor(UUID tenantId) {
+        return snapshot.get().getOrDefault(tenantId, defaults).rules();
+    }
+
+    /**
+     * Dias sem interação para o alerta de inatividade (vazio = alerta desativado no tenant)
+     */
+    public OptionalInt inactivityDays(UUID tenantId) {
+        Integer days = snapshot.get().getOrDefault(tenantId, defaults).inactivityDays();
+        return days == null ? OptionalInt.empty() : OptionalInt.of(days);
+    }
+
+    /**
+     * Limites efetivos de todas as regras do tenant, incluindo as desativadas
+     */
+    public List<AlertThresholdDTO> getThresholds(UUID tenantId) {
+        TenantThresholds tenant = snapshot.get().getOrDefault(tenantId, defaults);
+        List<AlertThresholdDTO> thresholds = new ArrayList<>();
+
+        for (Rule rule : defaultRules.values()) {
+            TenantOverride override = tenant.overrides().get(rule.name());
+            Rule effective = override == null ? rule : applyOrDefault(rule, override);
+            thresholds.add(AlertThresholdDTO.builder()
+                    .ruleName(rule.name())
+                    .alertType(rule.type().name())
+                    .metric(rule.metric().name())
+                    .operator(rule.operator().name())
+                    .threshold(effective.threshold())
+                    .criticalThreshold(effective.criticalThreshold())
+                    .windowDays(effective.windowDays())
+                    .minDays(effective.minDays())
+                    .enabled(override == null || override.enabled())
+                    .customized(override != null)
+                    .build());
+        }
+
+        TenantOverride inactivity = tenant.overrides().get(INACTIVITY_RULE);
+        thresholds.add(AlertThresholdDTO.builder()
+                .ruleName(INACTIVITY_RULE)
+                .alertType(Alert.AlertType.INACTIVITY.name())
+                .threshold((double) (tenant.inactivityDays() != null ? tenant.inactivityDays() : defaults.inactivityDays()))
+                .enabled(tenant.inactivityDays() != null)
+                .customized(inactivity != null)
+                .build());
+
+        return thresholds;
+    }
+
+    // ============================================
+    // ALTERAÇÃO
+    // ============================================
+
+    /**
+     * Cria ou substitui os limites de uma regra do tenant
+     * O snapshot é recarregado após o commit (onThresholdsChanged)
+     */
+    @Transactional
+    public void updateThreshold(UUID tenantId, String ruleName, UpdateAlertThresholdRequest request) {
+        validate(ruleName, request);
+        if (!accountRepository.existsById(tenantId)) {
+            throw new RuntimeException("Account não encontrada: " + tenantId);
+        }
+
+        thresholdRepository.upsert(tenantId, ruleName, request.getThreshold(), request.getCriticalThreshold(),
+                request.getMinDays(), !Boolean.FALSE.equals(request.getEnabled()));
+        eventPublisher.publishEvent(new AlertThresholdsChangedEvent(tenantId));
+
+        log.info("📐 Limites de alerta atualizados - Tenant: {}, Regra: {}, Threshold: {}, Crítico: {}, Min dias: {}, Ativa: {}",
+                tenantId, ruleName, request.getThreshold(), request.getCriticalThreshold(), request.getMinDays(),
+                request.getEnabled());
+    }
+
+    /**
+     * Remove a customização de uma regra (volta aos valores padrão)
+     */
+    @Transactional
+    public void resetThreshold(UUID tenantId, String ruleName) {
+        if (!INACTIVITY_RULE.equals(ruleName) && !defaultRules.containsKey(ruleName)) {
+            throw new IllegalArgumentException("Regra de alerta desconhecida: " + ruleName);
+        }
+
+        if (thresholdRepository.deleteOverride(tenantId, ruleName) > 0) {
+            eventPublisher.publishEvent(new AlertThresholdsChangedEvent(tenantId));
+            log.info("📐 Limites de alerta restaurados ao padrão - Tenant: {}, Regra: {}", tenantId, ruleName);
+        }
+    }
+
+    private void validate(String ruleName, UpdateAlertThresholdRequest request) {
+        if (INACTIVITY_RULE.equals(ruleName)) {
+            if (request.getCriticalThreshold() != null || request.getMinDays() != null) {
+                throw new IllegalArgumentException("Regra inactivity aceita apenas threshold (dias) e enabled");
+            }
+            Double days = request.getThreshold();
+            if (days != null && (days < 1 || days != Math.rint(days))) {
+                throw new IllegalArgumentException("Regra inactivity: threshold deve ser um número inteiro de dias >= 1");
+            }
+            return;
+        }
+
+        Rule rule = defaultRules.get(ruleName);
+        if (rule == null) {
+            throw new IllegalArgumentException("Regra de alerta desconhecida: " + ruleName);
+        }
+        // Mesmas validações da regra padrão (ex: min-days <= window-days)
+        rule.withThresholds(request.getThreshold(), request.getCriticalThreshold(), request.getMinDays());
+    }
+
+    // ============================================
+    // SNAPSHOT
+    // ============================================
+
+    /**
+     * Recarrega o snapshot do tenant alterado, após o commit
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onThresholdsChanged(AlertThresholdsChangedEvent event) {
+        replaceTenant(event.tenantId(), thresholdRepository.findOverridesByTenant(event.tenantId()).stream()
+                .map(TenantOverride::from)
+                .toList());
+    }
+
+    /**
+     * Recarrega o snapshot completo (startup e periodicamente, sem lock distribuído: é memória local)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${alerts.thresholds.refresh-interval-ms:60000}",
+            initialDelayString = "${alerts.thresholds.refresh-interval-ms:60000}")
+    public void reloadAll() {
+        Map<UUID, List<TenantOverride>> byTenant = new HashMap<>();
+        for (ThresholdOverride row : thresholdRepository.findAllOverrides()) {
+            byTenant.computeIfAbsent(row.getTenantId(), id -> new ArrayList<>()).add(TenantOverride.from(row));
+        }
+
+        Map<UUID, TenantThresholds> tenants = new HashMap<>();
+        byTenant.forEach((tenantId, overrides) -> tenants.put(tenantId, build(tenantId, overrides)));
+        snapshot.set(Map.copyOf(tenants));
+
+        log.debug("📐 Snapshot de limites de alerta recarregado - Tenants customizados: {}", tenants.size());
+    }
+
+    /**
+     * Troca os limites de um tenant no snapshot (copy-on-write)
+     */
+    void replaceTenant(UUID tenantId, List<TenantOverride> overrides) {
+        TenantThresholds tenant = overrides.isEmpty() ? null : build(tenantId, overrides);
+        snapshot.updateAndGet(current -> {
+            Map<UUID, TenantThresholds> next = new HashMap<>(current);
+            if (tenant == null) {
+                next.remove(tenantId);
+            } else {
+                next.put(tenantId, tenant);
+            }
+            return Map.copyOf(next);
+        });
+    }
+
+    /**
+     * Monta os limites efetivos de um tenant
+     * Customizações inválidas para as regras atuais (regra removida do yml, min-days acima da
+     * nova janela...) são ignoradas e a regra usa os valores padrão
+     */
+    private TenantThresholds build(UUID tenantId, List<TenantOverride> overrideList) {
+        Map<String, TenantOverride> overrides = new HashMap<>();
+        for (TenantOverride override : overrideList) {
+            if (INACTIVITY_RULE.equals(override.ruleName()) || defaultRules.containsKey(override.ruleName())) {
+                overrides.put(override.ruleName(), override);
+            } else {
+                log.warn("⚠️ Limite de alerta para regra inexistente ignorado - Tenant: {}, Regra: {}",
+                        tenantId, override.ruleName());
+            }
+        }
+
+        List<Rule> rules = new ArrayList<>();
+        for (Rule rule : defaultRules.values()) {
+            TenantOverride override = overrides.get(rule.name());
+            if (override == null) {
+                rules.add(rule);
+            } else if (override.enabled()) {
+                rules.add(applyOrDefault(rule, override));
+            }
+        }
+
+        Integer inactivityDays = defaults.inactivityDays();
+        TenantOverride inactivity = overrides.get(INACTIVITY_RULE);
+        if (inactivity != null && !inactivity.enabled()) {
+            inactivityDays = null;
+        } else if (inactivity != null && inactivity.threshold() != null) {
+            inactivityDays = (int) Math.max(1, Math.round(inactivity.threshold()));
+        }
+
+        return new TenantThresholds(List.copyOf(rules), inactivityDays, Map.copyOf(overrides));
+    }
+
+    private static Rule applyOrDefault(Rule rule, TenantOverride override) {
+        try {
+            return rule.withThresholds(override.threshold(), override.criticalThreshold(), override.minDays());
+        } catch (IllegalArgumentException e) {
+            log.warn("⚠️ Limite de alerta inválido ignorado - Regra: {}: {}", rule.name(), e.getMessage());
+            return rule;
+        }
+    }
+}
@@ -1,18 +1,21 @@
 package com.healthlink.ai_health_agent.service;
 
 import com.healthlink.ai_health_agent.domain.entity.Alert;
-import com.healthlink.ai_health_agent.domain.entity.HealthLog;
 import com.healthlink.ai_health_agent.domain.entity.Patient;
 import com.healthlink.ai_health_agent.dto.ConversationSummaryDTO;
+import com.healthlink.ai_health_agent.dto.KeysetCursor;
+import com.healthlink.ai_health_agent.dto.PageResponse;
 import com.healthlink.ai_health_agent.dto.PatientStatsDTO;
 import com.healthlink.ai_health_agent.repository.AlertRepository;
 import com.healthlink.ai_health_agent.repository.ChatMessageRepository;
-import com.healthlink.ai_health_agent.repository.HealthLogRepository;
+import com.healthlink.ai_health_agent.repository.PatientDailyHealthRepository;
+import com.healthlink.ai_health_agent.repository.PatientDailyMoodRepository;
 import com.healthlink.ai_health_agent.repository.PatientRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
@@ -29,173 +32,204 @@ public class AnalyticsService {
 
     private final PatientRepository patientRepository;
     private final ChatMessageRepository chatMessageRepository;
-    private final HealthLogRepository healthLogRepository;
+    private final PatientDailyHealthRepository dailyHealthRepository;
+    private final PatientDailyMoodRepository dailyMoodRepository;
     private final AlertRepository alertRepository;
+    private final DashboardStatsCache statsCache;
+
+    /**
+     * Janela das estatísticas de saúde e mensagens do dashboard
+     */
+    private static final int STATS_WINDOW_DAYS = 30;
+
+    /**
+     * Tamanho de cada janela de tendência (recente vs anterior)
+     */
+    private static final int TREND_WINDOW_DAYS = 14;
+
+    /**
+     * Quantidade de humores mais comuns exibidos por paciente
+     */
+    private static final int COMMON_MOODS_LIMIT = 3;
+
+    /**
+     * Quantidade padrão de mensagens por página no resumo de conversas
+     */
+    private static final int CONVERSATION_SAMPLE_SIZE = 20;
+
+    /**
+     * ID usado no cursor da primeira página (menor UUID possível)
+     */
+    private static final UUID FIRST_PAGE_ID = new UUID(0L, 0L);
 
     /**
      * Calcula estatísticas completas de um paciente
+     * Servido pelo DashboardStatsCache; entradas só existem sob o tenant dono do paciente
      */
     public PatientStatsDTO calculatePatientStats(UUID tenantId, UUID patientId) {
-        log.info("📊 Calculando estatísticas - Tenant: {}, Patient: {}", tenantId, patientId);
+        return statsCache.getPatientStats(tenantId, patientId, () -> {
+            log.info("📊 Calculando estatísticas - Tenant: {}, Patient: {}", tenantId, patientId);
 
-        // Buscar paciente
-        Patient patient = patientRepository.findById(patientId)
-                .orElseThrow(() -> new RuntimeException("Paciente não encontrado"));
+            // Buscar paciente
+            Patient patient = patientRepository.findById(patientId)
+                    .orElseThrow(() -> new RuntimeException("Paciente não encontrado"));
 
-        // Validar tenant
-        if (!patient.getTenantId().equals(tenantId)) {
-            throw new SecurityException("Acesso negado");
+            // Validar tenant
+            if (!patient.getTenantId().equals(tenantId)) {
+                throw new SecurityException("Acesso negado");
+            }
+
+            return calculateStats(tenantId, List.of(patient)).get(0);
+        });
+    }
+
+    /**
+     * Calcula as estatísticas de um conjunto de pacientes do mesmo tenant
+     * Executa um número fixo de queries agregadas (GROUP BY paciente), independente
+     * da quantidade de pacientes, e monta os DTOs em memória.
+     * Dados de saúde vêm dos rollups diários (O(dias) linhas por paciente), então as
+     * janelas de saúde e tendência são alinhadas por dia.
+     */
+    private List<PatientStatsDTO> calculateStats(UUID tenantId, List<Patient> patients) {
+        if (patients.isEmpty()) {
+            return new ArrayList<>();
         }
 
-        // Calcular estatísticas de mensagens
-        Long totalMessages = chatMessageRepository.countByPatient(patientId, tenantId);
+        List<UUID> patientIds = patients.stream().map(Patient::getId).toList();
 
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime last7Days = now.minusDays(7);
-        LocalDateTime last30Days = now.minusDays(30);
-
-        var messagesLast7 = chatMessageRepository.findByPatientAndPeriod(patientId, tenantId, last7Days, now);
-        var messagesLast30 = chatMessageRepository.findByPatientAndPeriod(patientId, tenantId, last30Days, now);
+        LocalDateTime last30Days = now.minusDays(STATS_WINDOW_DAYS);
+        LocalDate today = now.toLocalDate();
+        LocalDate statsStart = today.minusDays(STATS_WINDOW_DAYS - 1L);
+        LocalDate trendMid = today.minusDays(TREND_WINDOW_DAYS - 1L);
+        LocalDate trendStart = trendMid.minusDays(TREND_WINDOW_DAYS);
+
+        Map<UUID, ChatMessageRepository.PatientMessageCounts> messageCounts = chatMessageRepository
+                .countMessagesByPatients(tenantId, patientIds, last7Days, last30Days)
+                .stream()
+                .collect(Collectors.toMap(ChatMessageRepository.PatientMessageCounts::getPatientId, c -> c));
 
-        Double avgMessagesPerDay = messagesLast30.size() / 30.0;
+        Map<UUID, PatientDailyHealthRepository.PatientHealthAggregate> healthAggregates = dailyHealthRepository
+                .aggregateByPatients(tenantId, patientIds, statsStart, today, trendStart, trendMid)
+                .stream()
+                .collect(Collectors.toMap(PatientDailyHealthRepository.PatientHealthAggregate::getPatientId, h -> h));
 
-        // Calcular estatísticas de saúde
-        var healthStats = calculateHealthStats(tenantId, patientId, last30Days, now);
+        Map<UUID, List<String>> commonMoods = topMoodsByPatient(
+                dailyMoodRepository.countMoodsByPatients(tenantId, patientIds, statsStart, today));
 
-        // Buscar alertas ativos
-        var activeAlerts = alertRepository.findActiveAlertsByPatient(patientId, tenantId)
+        Map<UUID, List<Alert>> activeAlerts = alertRepository.findActiveAlertsByPatients(tenantId, patientIds)
                 .stream()
-                .map(this::toAlertSummary)
+                .collect(Collectors.groupingBy(alert -> alert.getPatient().getId()));
+
+        long totalDays = ChronoUnit.DAYS.between(statsStart, today) + 1;
+
+        return patients.stream()
+                .map(patient -> assemblePatientStats(
+                        patient,
+                        messageCounts.get(patient.getId()),
+                        healthAggregates.get(patient.getId()),
+                        commonMoods.getOrDefault(patient.getId(), List.of()),
+                        activeAlerts.getOrDefault(patient.getId(), List.of()),
+                        totalDays))
                 .collect(Collectors.toList());
+    }
 
-        // Calcular tendências
-        var painTrend = calculatePainTrend(tenantId, patientId);
-        var moodTrend = calculateMoodTrend(tenantId, patientId);
-        var sleepTrend = calculateSleepTrend(tenantId, patientId);
+    /**
+     * Monta o PatientStatsDTO a partir dos agregados já carregados (sem acesso ao banco)
+     * Package-private para permitir benchmarks isolados da camada de persistência
+     */
+    static PatientStatsDTO assemblePatientStats(Patient patient,
+                                                ChatMessageRepository.PatientMessageCounts messageCounts,
+                                                PatientDailyHealthRepository.PatientHealthAggregate health,
+                                                List<String> commonMoods,
+                                                List<Alert> activeAlerts,
+                                                long totalDays) {
+        long totalMessages = messageCounts != null ? messageCounts.getTotalMessages() : 0L;
+        long messagesLast7 = messageCounts != null ? messageCounts.getMessagesLast7Days() : 0L;
+        long messagesLast30 = messageCounts != null ? messageCounts.getMessagesLast30Days() : 0L;
+
+        PatientStatsDTO.TrendDTO painTrend;
+        PatientStatsDTO.TrendDTO sleepTrend;
+        if (health != null) {
+            painTrend = calculateTrend(orZero(health.getRecentPain()), orZero(health.getPreviousPain()), "dor");
+            sleepTrend = calculateTrend(orZero(health.getRecentSleep()), orZero(health.getPreviousSleep()), "sono");
+        } else {
+            painTrend = calculateTrend(0.0, 0.0, "dor");
+            sleepTrend = calculateTrend(0.0, 0.0, "sono");
+        }
 
         return PatientStatsDTO.builder()
-                .patientId(patientId)
+                .patientId(patient.getId())
                 .name(patient.getName())
                 .whatsappNumber(patient.getWhatsappNumber())
                 .diagnosis(patient.getDiagnosis())
                 .lastInteractionAt(patient.getLastInteractionAt())
                 .isActive(patient.getIsActive())
                 .totalMessages(totalMessages)
-                .messagesLast7Days((long) messagesLast7.size())
-                .messagesLast30Days((long) messagesLast30.size())
-                .averageMessagesPerDay(avgMessagesPerDay)
-                .healthStats(healthStats)
-                .activeAlerts(activeAlerts)
+                .messagesLast7Days(messagesLast7)
+                .messagesLast30Days(messagesLast30)
+                .averageMessagesPerDay(messagesLast30 / (double) STATS_WINDOW_DAYS)
+                .healthStats(toHealthStats(health, commonMoods, totalDays))
+                .activeAlerts(activeAlerts.stream()
+                        .map(AnalyticsService::toAlertSummary)
+                        .collect(Collectors.toList()))
                 .painTrend(painTrend)
-                .moodTrend(moodTrend)
+                .moodTrend(calculateMoodTrend())
                 .sleepTrend(sleepTrend)
                 .build();
     }
 
     /**
-     * Calcula estatísticas de saúde
+     * Converte os agregados de saúde em HealthStatsDTO
      */
-    private PatientStatsDTO.HealthStatsDTO calculateHealthStats(UUID tenantId, UUID patientId,
-                                                                  LocalDateTime start, LocalDateTime end) {
-        var healthLogs = healthLogRepository.findByPatientAndPeriod(patientId, tenantId, start, end);
-
-        if (healthLogs.isEmpty()) {
+    private static PatientStatsDTO.HealthStatsDTO toHealthStats(PatientDailyHealthRepository.PatientHealthAggregate health,
+                                                                List<String> commonMoods,
+                                                                long totalDays) {
+        if (health == null || health.getTotalLogs() == 0) {
             return PatientStatsDTO.HealthStatsDTO.builder()
                     .totalHealthLogs(0)
                     .build();
         }
 
-        // Calcular médias de dor
-        var painLevels = healthLogs.stream()
-                .filter(hl -> hl.getPainLevel() != null)
-                .map(HealthLog::getPainLevel)
-                .collect(Collectors.toList());
-
-        Double avgPain = painLevels.isEmpty() ? null :
-                painLevels.stream().mapToInt(Integer::intValue).average().orElse(0.0);
-        Double maxPain = painLevels.isEmpty() ? null :
-                Double.valueOf(painLevels.stream().mapToInt(Integer::intValue).max().orElse(0));
-        Double minPain = painLevels.isEmpty() ? null :
-                Double.valueOf(painLevels.stream().mapToInt(Integer::intValue).min().orElse(0));
-
-        // Contar dias com dor
-        int daysWithPain = (int) healthLogs.stream()
-                .filter(hl -> hl.getPainLevel() != null && hl.getPainLevel() > 0)
-                .map(hl -> hl.getTimestamp().toLocalDate())
-                .distinct()
-                .count();
-
-        // Calcular aderência à medicação
-        long totalDays = ChronoUnit.DAYS.between(start, end);
-        int daysWithMedication = (int) healthLogs.stream()
-                .filter(hl -> Boolean.TRUE.equals(hl.getMedicationTaken()))
-                .map(hl -> hl.getTimestamp().toLocalDate())
-                .distinct()
-                .count();
-
+        int daysWithMedication = health.getDaysWithMedication().intValue();
         Double medicationAdherence = totalDays > 0 ? (daysWithMedication * 100.0 / totalDays) : 0.0;
 
-        // Moods mais comuns
-        List<String> commonMoods = healthLogs.stream()
-                .filter(hl -> hl.getMood() != null && !hl.getMood().isBlank())
-                .map(HealthLog::getMood)
-                .collect(Collectors.groupingBy(mood -> mood, Collectors.counting()))
-                .entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                .limit(3)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
-
-        // Média de horas de sono
-        Double avgSleep = healthLogs.stream()
-                .filter(hl -> hl.getSleepHours() != null)
-                .mapToDouble(HealthLog::getSleepHours)
-                .average()
-                .orElse(0.0);
-
         return PatientStatsDTO.HealthStatsDTO.builder()
-                .averagePainLevel(avgPain)
-                .maxPainLevel(maxPain)
-                .minPainLevel(minPain)
-                .totalHealthLogs(healthLogs.size())
-                .daysWithPain(daysWithPain)
+                .averagePainLevel(health.getAveragePain())
+                .maxPainLevel(health.getMaxPain() != null ? Double.valueOf(health.getMaxPain()) : null)
+                .minPainLevel(health.getMinPain() != null ? Double.valueOf(health.getMinPain()) : null)
+                .totalHealthLogs(health.getTotalLogs().intValue())
+                .daysWithPain(health.getDaysWithPain().intValue())
                 .daysWithMedication(daysWithMedication)
                 .medicationAdherence(medicationAdherence)
                 .commonMoods(commonMoods)
-                .averageSleepHours(avgSleep)
+                .averageSleepHours(orZero(health.getAverageSleep()))
                 .build();
     }
 
     /**
-     * Calcula tendência de dor (últimos 14 dias vs 14 dias anteriores)
+     * Agrupa as contagens de humor (já ordenadas por ocorrências DESC) nos mais comuns de cada paciente
      */
-    private PatientStatsDTO.TrendDTO calculatePainTrend(UUID tenantId, UUID patientId) {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime last14Days = now.minusDays(14);
-        LocalDateTime previous14Days = now.minusDays(28);
-
-        var recentLogs = healthLogRepository.findByPatientAndPeriod(patientId, tenantId, last14Days, now);
-        var previousLogs = healthLogRepository.findByPatientAndPeriod(patientId, tenantId, previous14Days, last14Days);
-
-        Double recentAvg = recentLogs.stream()
-                .filter(hl -> hl.getPainLevel() != null)
-                .mapToInt(HealthLog::getPainLevel)
-                .average()
-                .orElse(0.0);
-
-        Double previousAvg = previousLogs.stream()
-                .filter(hl -> hl.getPainLevel() != null)
-                .mapToInt(HealthLog::getPainLevel)
-                .average()
-                .orElse(0.0);
+    private static Map<UUID, List<String>> topMoodsByPatient(List<PatientDailyMoodRepository.PatientMoodCount> moodCounts) {
+        Map<UUID, List<String>> moods = new HashMap<>();
+        for (var moodCount : moodCounts) {
+            List<String> patientMoods = moods.computeIfAbsent(moodCount.getPatientId(), id -> new ArrayList<>());
+            if (patientMoods.size() < COMMON_MOODS_LIMIT) {
+                patientMoods.add(moodCount.getMood());
+            }
+        }
+        return moods;
+    }
 
-        return calculateTrend(recentAvg, previousAvg, "dor");
+    private static double orZero(Double value) {
+        return value != null ? value : 0.0;
     }
 
     /**
      * Calcula tendência de humor
      */
-    private PatientStatsDTO.TrendDTO calculateMoodTrend(UUID tenantId, UUID patientId) {
+    private static PatientStatsDTO.TrendDTO calculateMoodTrend() {
         // Simplificado: retorna STABLE por enquanto
         // Implementação completa requer análise de sentimento
         return PatientStatsDTO.TrendDTO.builder()
@@ -205,36 +239,10 @@ public class AnalyticsService {
                 .build();
     }
 
-    /**
-     * Calcula tendência de sono
-     */
-    private PatientStatsDTO.TrendDTO calculateSleepTrend(UUID tenantId, UUID patientId) {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime last14Days = now.minusDays(14);
-        LocalDateTime previous14Days = now.minusDays(28);
-
-        var recentLogs = healthLogRepository.findByPatientAndPeriod(patientId, tenantId, last14Days, now);
-        var previousLogs = healthLogRepository.findByPatientAndPeriod(patientId, tenantId, previous14Days, last14Days);
-
-        Double recentAvg = recentLogs.stream()
-                .filter(hl -> hl.getSleepHours() != null)
-                .mapToDouble(HealthLog::getSleepHours)
-                .average()
-                .orElse(0.0);
-
-        Double previousAvg = previousLogs.stream()
-                .filter(hl -> hl.getSleepHours() != null)
-                .mapToDouble(HealthLog::getSleepHours)
-                .average()
-                .orElse(0.0);
-
-        return calculateTrend(recentAvg, previousAvg, "sono");
-    }
-
     /**
      * Calcula tendência genérica
      */
-    private PatientStatsDTO.TrendDTO calculateTrend(Double recent, Double previous, String metric) {
+    private static PatientStatsDTO.TrendDTO calculateTrend(Double recent, Double previous, String metric) {
         if (previous == 0.0) {
             return PatientStatsDTO.TrendDTO.builder()
                     .direction("STABLE")
@@ -268,7 +276,7 @@ public class AnalyticsService {
     /**
      * Converte Alert para AlertSummaryDTO
      */
-    private PatientStatsDTO.AlertSummaryDTO toAlertSummary(Alert alert) {
+    private static PatientStatsDTO.AlertSummaryDTO toAlertSummary(Alert alert) {
         return PatientStatsDTO.AlertSummaryDTO.builder()
                 .alertId(alert.getId())
                 .type(alert.getAlertType().name())
@@ -281,9 +289,11 @@ public class AnalyticsService {
 
     /**
      * Busca resumo de conversas de um paciente
+     * As mensagens são paginadas por cursor em ordem cronológica (timestamp, id)
      */
     public ConversationSummaryDTO getConversationSummary(UUID tenantId, UUID patientId,
-                                                          LocalDateTime startDate, LocalDateTime endDate) {
+                                                          LocalDateTime startDate, LocalDateTime endDate,
+                                                          String cursor, Integer limit) {
         log.info("💬 Gerando resumo de conversas - Patient: {}", patientId);
 
         Patient patient = patientRepository.findById(patientId)
@@ -293,43 +303,75 @@ public class AnalyticsService {
             throw new SecurityException("Acesso negado");
         }
 
-        var messages = chatMessageRepository.findByPatientAndPeriod(patientId, tenantId, startDate, endDate);
+        int pageSize = limit != null ? PageResponse.clampLimit(limit) : CONVERSATION_SAMPLE_SIZE;
+        KeysetCursor after = KeysetCursor.decode(cursor, 2);
+
+        long totalMessages = chatMessageRepository.countByPatientAndPeriod(patientId, tenantId, startDate, endDate);
+        var rows = chatMessageRepository.findPageByPatientAndPeriod(patientId, tenantId, startDate, endDate,
+                after != null ? after.getTimestamp(0) : startDate,
+                after != null ? after.getId() : FIRST_PAGE_ID,
+                pageSize + 1);
 
-        var recentMessages = messages.stream()
-                .limit(20)
-                .map(cm -> ConversationSummaryDTO.MessageDTO.builder()
+        PageResponse<ConversationSummaryDTO.MessageDTO> page = PageResponse.of(rows, pageSize,
+                cm -> ConversationSummaryDTO.MessageDTO.builder()
                         .messageId(cm.getId())
                         .role(cm.getRole().name())
                         .content(cm.getContent())
                         .timestamp(cm.getTimestamp())
                         .contentLength(cm.getContent() != null ? cm.getContent().length() : 0)
-                        .build())
-                .collect(Collectors.toList());
+                        .build(),
+                cm -> KeysetCursor.encode(cm.getTimestamp(), cm.getId()));
 
         return ConversationSummaryDTO.builder()
                 .patientId(patientId)
                 .patientName(patient.getName())
                 .startDate(startDate)
                 .endDate(endDate)
-                .totalMessages(messages.size())
-                .recentMessages(recentMessages)
+                .totalMessages((int) totalMessages)
+                .recentMessages(page.getItems())
+                .nextCursor(page.getNextCursor())
+                .hasMore(page.isHasMore())
                 .mainTopics(new ArrayList<>()) // Implementar análise de tópicos futuramente
                 .sentimentAnalysis(null) // Implementar análise de sentimento futuramente
                 .build();
     }
 
     /**
-     * Lista todos os pacientes de um tenant com estatísticas resumidas
+     * Lista os pacientes de um tenant com estatísticas resumidas, paginado por cursor
+     * Ordem: última interação mais recente primeiro (pacientes sem interação no fim).
+     * As estatísticas da página vêm do DashboardStatsCache; só os ausentes/expirados são recalculados
      */
-    public List<PatientStatsDTO> getAllPatientsStats(UUID tenantId) {
-        log.info("📊 Calculando estatísticas de todos os pacientes - Tenant: {}", tenantId);
-
-        var patients = patientRepository.findByAccountId(tenantId);
-
-        return patients.stream()
-                .map(patient -> calculatePatientStats(tenantId, patient.getId()))
-                .sorted(Comparator.comparing(PatientStatsDTO::getLastInteractionAt,
-                        Comparator.nullsLast(Comparator.reverseOrder())))
-                .collect(Collectors.toList());
+    public PageResponse<PatientStatsDTO> getPatientsStatsPage(UUID tenantId, String cursor, Integer limit) {
+        int pageSize = PageResponse.clampLimit(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor, 2);
+
+        log.debug("📊 Buscando página de estatísticas - Tenant: {}, Limit: {}", tenantId, pageSize);
+
+        List<Patient> rows = after == null
+                ? patientRepository.findPageByLastInteraction(tenantId, pageSize + 1)
+                : patientRepository.findPageByLastInteractionAfter(tenantId, after.getTimestamp(0), after.getId(), pageSize + 1);
+
+        PageResponse<Patient> page = PageResponse.of(rows, pageSize, patient -> patient,
+                patient -> KeysetCursor.encode(
+                        patient.getLastInteractionAt() != null ? patient.getLastInteractionAt() : PatientRepository.NO_INTERACTION,
+                        patient.getId()));
+
+        Map<UUID, Patient> patientsById = page.getItems().stream()
+                .collect(Collectors.toMap(Patient::getId, patient -> patient));
+
+        List<PatientStatsDTO> stats = statsCache.getStats(
+                tenantId,
+                page.getItems().stream().map(Patient::getId).toList(),
+                missingIds -> {
+                    log.info("📊 Calculando estatísticas de {} pacientes - Tenant: {}", missingIds.size(), tenantId);
+                    return calculateStats(tenantId, missingIds.stream().map(patientsById::get).toList());
+                });
+
+        return PageResponse.<PatientStatsDTO>builder()
+                .items(stats)
+                .nextCursor(page.getNextCursor())
+                .hasMore(page.isHasMore())
+                .limit(pageSize)
+                .build();
     }
 }
@@ -3,16 +3,21 @@ package com.healthlink.ai_health_agent.service;
 import com.healthlink.ai_health_agent.domain.entity.Account;
 import com.healthlink.ai_health_agent.domain.entity.ChatMessage;
 import com.healthlink.ai_health_agent.domain.entity.Patient;
+import com.healthlink.ai_health_agent.domain.event.ChatMessageSavedEvent;
+import com.healthlink.ai_health_agent.repository.ChatMessageReceiptRepository;
 import com.healthlink.ai_health_agent.repository.ChatMessageRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -28,6 +33,8 @@ import java.util.UUID;
 public class ChatHistoryService {
 
     private final ChatMessageRepository chatMessageRepository;
+    private final ChatMessageReceiptRepository receiptRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Número de mensagens a manter no contexto (últimas N mensagens)
@@ -47,17 +54,16 @@ public class ChatHistoryService {
     public ChatMessage saveUserMessage(Account account, Patient patient, String content, String whatsappMessageId) {
         log.debug("💾 Salvando mensagem do usuário - Patient: {}, Length: {}", patient.getId(), content.length());
 
-        // Verificar se já existe (idempotência)
-        if (whatsappMessageId != null) {
-            var existing = chatMessageRepository.findByWhatsappMessageId(whatsappMessageId, account.getId());
-            if (existing.isPresent()) {
-                log.warn("⚠️ Mensagem duplicada detectada: {}", whatsappMessageId);
-                return existing.get();
-            }
+        // Verificar se já existe (idempotência): o recibo é gravado na mesma transação da mensagem
+        if (whatsappMessageId != null && receiptRepository.claim(whatsappMessageId, account.getId()) == 0) {
+            log.warn("⚠️ Mensagem duplicada detectada: {}", whatsappMessageId);
+            return chatMessageRepository.findByWhatsappMessageId(whatsappMessageId, account.getId())
+                    .orElseThrow(() -> new RuntimeException("Mensagem do WhatsApp já recebida: " + whatsappMessageId));
         }
 
         ChatMessage message = ChatMessage.userMessage(account, patient, content, whatsappMessageId);
         ChatMessage saved = chatMessageRepository.save(message);
+        eventPublisher.publishEvent(ChatMessageSavedEvent.from(saved));
 
         log.info("✅ Mensagem do usuário salva - ID: {}", saved.getId());
         return saved;
@@ -77,6 +83,7 @@ public class ChatHistoryService {
 
         ChatMessage message = ChatMessage.assistantMessage(account, patient, content);
         ChatMessage saved = chatMessageRepository.save(message);
+        eventPublisher.publishEvent(ChatMessageSavedEvent.from(saved));
 
         log.info("✅ Mensagem do assistente salva - ID: {}", saved.getId());
         return saved;
@@ -140,7 +147,8 @@ public class ChatHistoryService {
      * Busca mensagens de hoje
      */
     public List<ChatMessage> getTodayMessages(UUID tenantId, UUID patientId) {
-        return chatMessageRepository.findTodayMessages(patientId, tenantId);
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        return chatMessageRepository.findMessagesOfDay(patientId, tenantId, today, today.plusDays(1));
     }
 
     /**
@@ -150,15 +158,6 @@ public class ChatHistoryService {
         return chatMessageRepository.countByPatient(patientId, tenantId);
     }
 
-    /**
-     * Exporta todas as mensagens de um paciente
-     * Útil para relatórios e análises
-     */
-    public List<ChatMessage> exportAllMessages(UUID tenantId, UUID patientId) {
-        log.info("📤 Exportando todas as mensagens - Tenant: {}, Patient: {}", tenantId, patientId);
-        return chatMessageRepository.findAllByPatient(patientId, tenantId);
-    }
-
     /**
      * Carrega mensagens recentes e converte para formato Spring AI
      * Usado em ProactiveCheckinService
@@ -0,0 +1,218 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.healthlink.ai_health_agent.domain.event.AlertChangedEvent;
+import com.healthlink.ai_health_agent.domain.event.ChatMessageSavedEvent;
+import com.healthlink.ai_health_agent.domain.event.HealthLogRecordedEvent;
+import com.healthlink.ai_health_agent.domain.event.HealthLogsImportedEvent;
+import com.healthlink.ai_health_agent.domain.event.PatientChangedEvent;
+import com.healthlink.ai_health_agent.dto.PatientStatsDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache das estatísticas do dashboard por tenant, com uma entrada por paciente
+ *
+ * Invalidação orientada a eventos de domínio (após o commit): nova mensagem, HealthLog registrado,
+ * alerta criado/reconhecido e mudanças de status dos pacientes. Como parte dos campos depende do
+ * relógio (janelas de 7/30 dias, tendências), cada entrada também expira após um TTL (soft TTL)
+ * e é recalculada na próxima leitura.
+ *
+ * Concorrência: cada tenant tem um contador de geração incrementado a cada invalidação.
+ * Um cálculo iniciado antes de uma invalidação não permanece no cache (ver storeIfCurrent).
+ */
+@Service
+@Slf4j
+public class DashboardStatsCache {
+
+    public static final String CACHE_REQUESTS = "health_agent.dashboard.cache.requests";
+    public static final String CACHE_INVALIDATIONS = "health_agent.dashboard.cache.invalidations";
+    public static final String CACHE_ENTRIES = "health_agent.dashboard.cache.entries";
+
+    private final Map<UUID, TenantEntry> tenants = new ConcurrentHashMap<>();
+    private final long softTtlNanos;
+    private final MeterRegistry meterRegistry;
+    private final Counter hits;
+    private final Counter misses;
+
+    public DashboardStatsCache(MeterRegistry meterRegistry,
+                               @Value("${dashboard.cache.soft-ttl:PT5M}") Duration softTtl) {
+        this.meterRegistry = meterRegistry;
+        this.softTtlNanos = softTtl.toNanos();
+        this.hits = Counter.builder(CACHE_REQUESTS).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder(CACHE_REQUESTS).tag("result", "miss").register(meterRegistry);
+        Gauge.builder(CACHE_ENTRIES, tenants, DashboardStatsCache::countEntries).register(meterRegistry);
+    }
+
+    // ============================================
+    // LEITURA
+    // ============================================
+
+    /**
+     * Estatísticas de um conjunto de pacientes do tenant (ex: uma página do dashboard)
+     * Hits e misses são contados por paciente; só os ausentes ou expirados são recalculados, em lote.
+     * Retorna na mesma ordem de patientIds
+     *
+     * @param statsLoader Calcula as estatísticas dos pacientes informados
+     */
+    public List<PatientStatsDTO> getStats(UUID tenantId, List<UUID> patientIds,
+                                          Function<Collection<UUID>, List<PatientStatsDTO>> statsLoader) {
+        TenantEntry tenant = tenants.computeIfAbsent(tenantId, id -> new TenantEntry());
+        long generation = tenant.generation.get();
+        long now = System.nanoTime();
+
+        return collect(tenant, patientIds, now, statsLoader,
+                computed -> storeIfCurrent(tenant, generation, now, computed));
+    }
+
+    /**
+     * Separa hits e misses, calcula os misses em lote e devolve na ordem de patientIds
+     */
+    private List<PatientStatsDTO> collect(TenantEntry tenant, List<UUID> patientIds, long now,
+                                          Function<Collection<UUID>, List<PatientStatsDTO>> statsLoader,
+                                          Consumer<List<PatientStatsDTO>> store) {
+        Map<UUID, PatientStatsDTO> found = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID patientId : patientIds) {
+            CachedStats cached = tenant.patients.get(patientId);
+            if (cached != null && !isExpired(cached.computedAt, now)) {
+                found.put(patientId, cached.stats);
+            } else {
+                missing.add(patientId);
+            }
+        }
+        hits.increment(found.size());
+        misses.increment(missing.size());
+
+        List<PatientStatsDTO> computed = missing.isEmpty() ? List.of() : statsLoader.apply(missing);
+        computed.forEach(stats -> found.put(stats.getPatientId(), stats));
+        store.accept(computed);
+
+        List<PatientStatsDTO> result = new ArrayList<>(patientIds.size());
+        for (UUID patientId : patientIds) {
+            PatientStatsDTO stats = found.get(patientId);
+            if (stats != null) {
+                result.add(stats);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Estatísticas de um paciente (mesmas entradas usadas pela listagem do tenant)
+     */
+    public PatientStatsDTO getPatientStats(UUID tenantId, UUID patientId, Supplier<PatientStatsDTO> statsLoader) {
+        TenantEntry tenant = tenants.computeIfAbsent(tenantId, id -> new TenantEntry());
+        long generation = tenant.generation.get();
+        long now = System.nanoTime();
+
+        CachedStats cached = tenant.patients.get(patientId);
+        if (cached != null && !isExpired(cached.computedAt, now)) {
+            hits.increment();
+            return cached.stats;
+        }
+        misses.increment();
+
+        PatientStatsDTO stats = statsLoader.get();
+        storeIfCurrent(tenant, generation, now, List.of(stats));
+        return stats;
+    }
+
+    /**
+     * Grava os valores calculados e desfaz a gravação se houve invalidação durante o cálculo
+     * (a invalidação incrementa a geração antes de remover as entradas)
+     */
+    private void storeIfCurrent(TenantEntry tenant, long generation, long computedAt,
+                                List<PatientStatsDTO> computed) {
+        Map<UUID, CachedStats> stored = new HashMap<>();
+        for (PatientStatsDTO stats : computed) {
+            CachedStats entry = new CachedStats(stats, computedAt);
+            tenant.patients.put(stats.getPatientId(), entry);
+            stored.put(stats.getPatientId(), entry);
+        }
+        if (tenant.generation.get() != generation) {
+            stored.forEach(tenant.patients::remove);
+        }
+    }
+
+    private boolean isExpired(long timestamp, long now) {
+        return now - timestamp > softTtlNanos;
+    }
+
+    // ============================================
+    // INVALIDAÇÃO (eventos de domínio, após o commit)
+    // ============================================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChatMessageSaved(ChatMessageSavedEvent event) {
+        invalidatePatient(event.tenantId(), event.patientId(), "chat_message");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHealthLogRecorded(HealthLogRecordedEvent event) {
+        invalidatePatient(event.tenantId(), event.patientId(), "health_log");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHealthLogsImported(HealthLogsImportedEvent event) {
+        invalidatePatient(event.tenantId(), event.patientId(), "health_log_import");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAlertChanged(AlertChangedEvent event) {
+        invalidatePatient(event.tenantId(), event.patientId(), "alert");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        invalidatePatient(event.tenantId(), event.patientId(), "patient");
+    }
+
+    private void invalidatePatient(UUID tenantId, UUID patientId, String reason) {
+        TenantEntry tenant = tenants.get(tenantId);
+        if (tenant == null) {
+            return;
+        }
+        tenant.generation.incrementAndGet();
+        tenant.patients.remove(patientId);
+        countInvalidation(reason);
+        log.debug("🧹 Cache do dashboard invalidado - Tenant: {}, Patient: {}, Motivo: {}", tenantId, patientId, reason);
+    }
+
+    private void countInvalidation(String reason) {
+        meterRegistry.counter(CACHE_INVALIDATIONS, "reason", reason).increment();
+    }
+
+    private static double countEntries(Map<UUID, TenantEntry> tenants) {
+        return tenants.values().stream().mapToInt(t -> t.patients.size()).sum();
+    }
+
+    // ============================================
+    // ESTRUTURAS INTERNAS
+    // ============================================
+
+    private static final class TenantEntry {
+        private final AtomicLong generation = new AtomicLong();
+        private final Map<UUID, CachedStats> patients = new ConcurrentHashMap<>();
+    }
+
+    private record CachedStats(PatientStatsDTO stats, long computedAt) {
+    }
+}
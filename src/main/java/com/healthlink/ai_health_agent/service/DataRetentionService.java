@@ -0,0 +1,359 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.healthlink.ai_health_agent.domain.entity.Account;
+import com.healthlink.ai_health_agent.repository.AccountRepository;
+import com.healthlink.ai_health_agent.repository.ChatMessageReceiptRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Retenção do histórico dos pacientes
+ *
+ * Para cada tenant com período de retenção (Account.retentionDays ou retention.default-days),
+ * os meses inteiros anteriores ao limite são movidos das tabelas ativas para
+ * {archive-dir}/{tenantId}/{tabela}/{yyyy-MM}.ndjson.gz, em lotes (transações e locks curtos)
+ *
+ * O corte é arredondado para o início do mês: os dados ficam disponíveis por pelo menos
+ * retentionDays. Nenhuma linha é removida sem ter sido arquivada: cada lote é removido com
+ * DELETE ... RETURNING, gravado no arquivo (fsync) e só então a transação é confirmada.
+ * Linhas gravadas no mês durante a execução (ex: importação de histórico) entram nos lotes
+ * seguintes ou ficam para a próxima execução. Se o mês já tem arquivo, a execução grava em
+ * uma nova parte {yyyy-MM}.partN.ndjson.gz. Se o commit de um lote falha depois da gravação,
+ * as linhas continuam no banco e aparecem de novo na parte seguinte; o id identifica as duplicatas.
+ * Ao final, partições antigas de chat_messages/health_logs que ficaram vazias são removidas.
+ */
+@Service
+@Slf4j
+public class DataRetentionService {
+
+    public static final String RETENTION_ROWS = "health_agent.retention.rows";
+
+    private static final DateTimeFormatter ARCHIVE_MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("^(chat_messages|health_logs)_y(\\d{4})m(\\d{2})$");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final AccountRepository accountRepository;
+    private final ChatMessageReceiptRepository receiptRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter jsonWriter;
+    private final MeterRegistry meterRegistry;
+    private final List<ArchivedTable> archivedTables;
+
+    private final Integer defaultRetentionDays;
+    private final Path archiveDir;
+    private final int deleteChunkSize;
+
+    public DataRetentionService(AccountRepository accountRepository,
+                                ChatMessageReceiptRepository receiptRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${retention.default-days:#{null}}") Integer defaultRetentionDays,
+                                @Value("${retention.archive-dir:./data/archive}") String archiveDir,
+                                @Value("${retention.delete-chunk-size:5000}") int deleteChunkSize) {
+        this.accountRepository = accountRepository;
+        this.receiptRepository = receiptRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jsonWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.meterRegistry = meterRegistry;
+        this.defaultRetentionDays = defaultRetentionDays;
+        this.archiveDir = Paths.get(archiveDir);
+        this.deleteChunkSize = deleteChunkSize;
+        this.archivedTables = List.of(
+                new ArchivedTable("chat_messages", "timestamp"),
+                new ArchivedTable("health_logs", "timestamp"),
+                new ArchivedTable("checkin_executions", "executed_at")
+        );
+    }
+
+    // ============================================
+    // JOB
+    // ============================================
+
+    /**
+     * Executa a retenção de todos os tenants
+     * Lock distribuído (ShedLock) garante uma única instância executando
+     */
+    @Scheduled(cron = "${retention.cron:0 0 4 * * *}")
+    @SchedulerLock(
+        name = "dataRetention",
+        lockAtMostFor = "6h"
+    )
+    public void applyRetention() {
+        log.info("🗄️ Iniciando retenção de dados");
+
+        int tenants = 0;
+        for (Account account : accountRepository.findAll()) {
+            Integer retentionDays = account.getRetentionDays() != null ? account.getRetentionDays() : defaultRetentionDays;
+            if (retentionDays == null || retentionDays <= 0) {
+                continue;
+            }
+            try {
+                applyRetention(account.getId(), cutoffFor(LocalDate.now(), retentionDays));
+                tenants++;
+            } catch (Exception e) {
+                log.error("❌ Erro na retenção do tenant {}: {}", account.getId(), e.getMessage(), e);
+            }
+        }
+
+        dropEmptyPartitions();
+        log.info("✅ Retenção concluída - Tenants: {}", tenants);
+    }
+
+    /**
+     * Início do mês que contém (hoje - retentionDays): tudo antes disso é arquivado
+     */
+    static LocalDateTime cutoffFor(LocalDate today, int retentionDays) {
+        return today.minusDays(retentionDays).withDayOfMonth(1).atStartOfDay();
+    }
+
+    private void applyRetention(UUID tenantId, LocalDateTime cutoff) throws IOException {
+        for (ArchivedTable table : archivedTables) {
+            LocalDateTime oldest = jdbcTemplate.queryForObject(
+                    "SELECT MIN(" + table.timestampColumn() + ") FROM " + table.name()
+                            + " WHERE account_id = ? AND " + table.timestampColumn() + " < ?",
+                    LocalDateTime.class, tenantId, cutoff);
+            if (oldest == null) {
+                continue;
+            }
+
+            for (LocalDateTime month = oldest.toLocalDate().withDayOfMonth(1).atStartOfDay();
+                 month.isBefore(cutoff);
+                 month = month.plusMonths(1)) {
+                archiveMonth(tenantId, table, month);
+            }
+        }
+
+        int receipts = deleteInChunks(tenantId, "chat_message_receipts", receiptRepository::deleteOldReceipts, cutoff);
+        if (receipts > 0) {
+            log.info("🧹 {} recibos de mensagens removidos - Tenant: {}", receipts, tenantId);
+        }
+    }
+
+    // ============================================
+    // ARQUIVO
+    // ============================================
+
+    /**
+     * Move as linhas do mês para o arquivo, em uma nova parte se o mês já tem arquivo
+     * Cada lote é um membro gzip anexado à parte (o GZIPInputStream lê os membros em sequência);
+     * um mês sem linhas não gera arquivo
+     */
+    private void archiveMonth(UUID tenantId, ArchivedTable table, LocalDateTime month) throws IOException {
+        Path directory = archiveDir.resolve(tenantId.toString()).resolve(table.name());
+        Files.createDirectories(directory);
+        Path target = archivePart(directory, month.format(ARCHIVE_MONTH));
+        long rows = 0;
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            int moved;
+            do {
+                moved = moveChunk(channel, tenantId, table, month);
+                rows += moved;
+            } while (moved == deleteChunkSize);
+        } finally {
+            // Parte vazia: nenhum lote gravado (um lote cujo commit falhou continua no arquivo)
+            if (Files.size(target) == 0) {
+                Files.delete(target);
+            }
+        }
+
+        countRows(table.name(), "archived", rows);
+        countRows(table.name(), "deleted", rows);
+        if (rows > 0) {
+            log.info("🗄️ {} linhas arquivadas e removidas - Tabela: {}, Tenant: {}, Arquivo: {}",
+                    rows, table.name(), tenantId, target.getFileName());
+        }
+    }
+
+    /**
+     * Remove um lote do mês e grava as linhas removidas no arquivo antes do commit
+     * Falha antes do commit: o lote é descartado do arquivo e as linhas ficam no banco
+     */
+    private int moveChunk(FileChannel channel, UUID tenantId, ArchivedTable table, LocalDateTime month) throws IOException {
+        long position = channel.size();
+        Integer moved = transactionTemplate.execute(status -> {
+            try {
+                return appendChunk(channel, tenantId, table, month);
+            } catch (IOException e) {
+                truncate(channel, position);
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                truncate(channel, position);
+                throw e;
+            }
+        });
+        return moved != null ? moved : 0;
+    }
+
+    private int appendChunk(FileChannel channel, UUID tenantId, ArchivedTable table, LocalDateTime month) throws IOException {
+        String column = table.timestampColumn();
+        ByteArrayOutputStream member = new ByteArrayOutputStream(BUFFER_SIZE);
+        int[] rows = {0};
+
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(member, BUFFER_SIZE), StandardCharsets.UTF_8)) {
+            jdbcTemplate.query(
+                    "WITH moved AS (DELETE FROM " + table.name() + " WHERE (id, " + column + ") IN ("
+                            + "SELECT id, " + column + " FROM " + table.name()
+                            + " WHERE account_id = ? AND " + column + " >= ? AND " + column + " < ?"
+                            + " ORDER BY " + column + " LIMIT ?) RETURNING *)"
+                            + " SELECT * FROM moved ORDER BY " + column,
+                    rs -> {
+                        ResultSetMetaData metaData = rs.getMetaData();
+                        Map<String, Object> row = new LinkedHashMap<>();
+                        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                            Object value = rs.getObject(i);
+                            row.put(metaData.getColumnName(i),
+                                    value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : value);
+                        }
+                        try {
+                            writer.write(jsonWriter.writeValueAsString(row));
+                            writer.write('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        rows[0]++;
+                    },
+                    tenantId, month, month.plusMonths(1), deleteChunkSize);
+        }
+
+        if (rows[0] > 0) {
+            ByteBuffer buffer = ByteBuffer.wrap(member.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, channel.size());
+            }
+            channel.force(false);
+        }
+        return rows[0];
+    }
+
+    private static void truncate(FileChannel channel, long position) {
+        try {
+            channel.truncate(position);
+        } catch (IOException e) {
+            log.warn("⚠️ Falha ao descartar lote incompleto do arquivo: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Próximo arquivo livre do mês: {yyyy-MM}.ndjson.gz e depois {yyyy-MM}.partN.ndjson.gz (N >= 2)
+     */
+    static Path archivePart(Path directory, String month) {
+        Path target = directory.resolve(month + ".ndjson.gz");
+        for (int part = 2; Files.exists(target); part++) {
+            target = directory.resolve(month + ".part" + part + ".ndjson.gz");
+        }
+        return target;
+    }
+
+    // ============================================
+    // REMOÇÃO
+    // ============================================
+
+    /**
+     * Remove em lotes até não restar nada antes do limite; cada lote é uma transação
+     */
+    private int deleteInChunks(UUID tenantId, String table, ChunkDeleter deleter, LocalDateTime before) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = deleter.delete(tenantId, before, deleteChunkSize);
+            total += deleted;
+        } while (deleted == deleteChunkSize);
+
+        countRows(table, "deleted", total);
+        return total;
+    }
+
+    /**
+     * Remove partições mensais já vazias de meses anteriores ao mês passado
+     * DETACH CONCURRENTLY evita o lock exclusivo na tabela pai durante o detach
+     */
+    private void dropEmptyPartitions() {
+        LocalDate keepFrom = LocalDate.now().withDayOfMonth(1).minusMonths(1);
+
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent IN (to_regclass('chat_messages'), to_regclass('health_logs'))
+                """, String.class);
+
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            LocalDate month = LocalDate.of(Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)), 1);
+            if (!month.isBefore(keepFrom)) {
+                continue;
+            }
+            try {
+                Boolean empty = jdbcTemplate.queryForObject(
+                        "SELECT NOT EXISTS (SELECT 1 FROM " + partition + ")", Boolean.class);
+                if (Boolean.TRUE.equals(empty)) {
+                    jdbcTemplate.execute("ALTER TABLE " + matcher.group(1) + " DETACH PARTITION " + partition + " CONCURRENTLY");
+                    jdbcTemplate.execute("DROP TABLE " + partition);
+                    log.info("🗂️ Partição vazia removida - {}", partition);
+                }
+            } catch (Exception e) {
+                log.error("❌ Erro ao remover partição {}: {}", partition, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void countRows(String table, String action, long rows) {
+        if (rows > 0) {
+            meterRegistry.counter(RETENTION_ROWS, "table", table, "action", action).increment(rows);
+        }
+    }
+
+    // ============================================
+    // ESTRUTURAS INTERNAS
+    // ============================================
+
+    @FunctionalInterface
+    private interface ChunkDeleter {
+        int delete(UUID tenantId, LocalDateTime before, int limit);
+    }
+
+    private record ArchivedTable(String name, String timestampColumn) {
+    }
+}
@@ -1,6 +1,8 @@
 package com.healthlink.ai_health_agent.service;
 
 import com.healthlink.ai_health_agent.dto.EvolutionApiSendMessageDTO;
+import com.healthlink.ai_health_agent.observability.MessageLifecycleMetrics;
+import com.healthlink.ai_health_agent.observability.MessageLifecycleMetrics.Stage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -31,6 +33,8 @@ public class EvolutionApiService {
 
     private final RestTemplate restTemplate = new RestTemplate();
 
+    private final MessageLifecycleMetrics messageMetrics;
+
     /**
      * Envia mensagem de texto via Evolution API
      * 
@@ -38,6 +42,10 @@ public class EvolutionApiService {
      * @param message Texto da mensagem
      */
     public void sendMessage(String whatsappNumber, String message) {
+        messageMetrics.runStage(Stage.EVOLUTION_SEND, () -> doSendMessage(whatsappNumber, message));
+    }
+
+    private void doSendMessage(String whatsappNumber, String message) {
         try {
             String url = String.format("%s/message/sendText/%s", evolutionApiUrl, instanceName);
 
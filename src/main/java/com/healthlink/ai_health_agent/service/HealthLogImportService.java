@@ -0,0 +1,439 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.healthlink.ai_health_agent.domain.event.HealthLogRecordedEvent;
+import com.healthlink.ai_health_agent.domain.event.HealthLogsImportedEvent;
+import com.healthlink.ai_health_agent.domain.id.TimeOrderedUuidGenerator;
+import com.healthlink.ai_health_agent.dto.HealthLogImportEntry;
+import com.healthlink.ai_health_agent.dto.HealthLogImportResult;
+import com.healthlink.ai_health_agent.repository.AccountRepository;
+import com.healthlink.ai_health_agent.repository.PatientRepository;
+import com.healthlink.ai_health_agent.repository.PatientRepository.PatientIdentity;
+import io.micrometer.observation.annotation.Observed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Importação em lote de HealthLogs (wearables, dispositivos, diários históricos)
+ *
+ * O corpo NDJSON é lido em streaming, linha a linha: cada linha é validada isoladamente e as
+ * linhas válidas são agrupadas em lotes de chunk-size. Por lote:
+ * 1. checagem de posse dos pacientes em uma query (pacientes já vistos ficam em memória)
+ * 2. partições mensais dos períodos importados (fora da transação)
+ * 3. em uma transação: INSERT em lote via JDBC (reWriteBatchedInserts), soma dos agregados
+ *    do lote nos rollups diários (um upsert por paciente/dia) e um HealthLogsImportedEvent
+ *    por paciente
+ *
+ * Após o commit de cada lote, os alertas são avaliados uma vez por paciente
+ * (AlertService.onHealthLogsImported) e o cache do dashboard é invalidado.
+ * Linhas inválidas não interrompem a importação: são contadas e listadas no resultado.
+ */
+@Service
+@Slf4j
+public class HealthLogImportService {
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    static final String INSERT_HEALTH_LOG = """
+            INSERT INTO health_logs
+                (id, account_id, patient_id, timestamp, pain_level, mood, sleep_quality, sleep_hours,
+                 medication_taken, medication_name, energy_level, stress_level, steps, notes, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final int[] INSERT_TYPES = {
+            Types.OTHER, Types.OTHER, Types.OTHER, Types.TIMESTAMP, Types.INTEGER, Types.VARCHAR, Types.VARCHAR,
+            Types.DOUBLE, Types.BOOLEAN, Types.VARCHAR, Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.VARCHAR,
+            Types.TIMESTAMP
+    };
+
+    /**
+     * Soma os agregados de um paciente/dia do lote no rollup (mesma regra de
+     * PatientDailyHealthRepository.upsertLog, para vários logs de uma vez)
+     */
+    static final String ADD_DAILY_HEALTH = """
+            INSERT INTO patient_daily_health
+                (id, account_id, patient_id, day, log_count, pain_min, pain_max, pain_sum, pain_count,
+                 sleep_sum, sleep_count, medication_taken, updated_at)
+            VALUES (gen_random_uuid(), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+            ON CONFLICT (account_id, patient_id, day) DO UPDATE SET
+                log_count = patient_daily_health.log_count + EXCLUDED.log_count,
+                pain_min = LEAST(patient_daily_health.pain_min, EXCLUDED.pain_min),
+                pain_max = GREATEST(patient_daily_health.pain_max, EXCLUDED.pain_max),
+                pain_sum = patient_daily_health.pain_sum + EXCLUDED.pain_sum,
+                pain_count = patient_daily_health.pain_count + EXCLUDED.pain_count,
+                sleep_sum = patient_daily_health.sleep_sum + EXCLUDED.sleep_sum,
+                sleep_count = patient_daily_health.sleep_count + EXCLUDED.sleep_count,
+                medication_taken = patient_daily_health.medication_taken OR EXCLUDED.medication_taken,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final int[] DAILY_HEALTH_TYPES = {
+            Types.OTHER, Types.OTHER, Types.DATE, Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.BIGINT,
+            Types.INTEGER, Types.DOUBLE, Types.INTEGER, Types.BOOLEAN
+    };
+
+    /**
+     * Soma as ocorrências de um humor no paciente/dia (mesma regra de PatientDailyMoodRepository.incrementMood)
+     */
+    static final String ADD_DAILY_MOOD = """
+            INSERT INTO patient_daily_mood (id, account_id, patient_id, day, mood, occurrences)
+            VALUES (gen_random_uuid(), ?, ?, ?, ?, ?)
+            ON CONFLICT (account_id, patient_id, day, mood) DO UPDATE SET
+                occurrences = patient_daily_mood.occurrences + EXCLUDED.occurrences
+            """;
+
+    private static final int[] DAILY_MOOD_TYPES = {
+            Types.OTHER, Types.OTHER, Types.DATE, Types.VARCHAR, Types.INTEGER
+    };
+
+    private static final int MAX_LABEL_LENGTH = 50;
+    private static final int MAX_MEDICATION_NAME_LENGTH = 255;
+
+    private final AccountRepository accountRepository;
+    private final PatientRepository patientRepository;
+    private final PartitionMaintenanceService partitionMaintenanceService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader entryReader;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public HealthLogImportService(AccountRepository accountRepository,
+                                  PatientRepository patientRepository,
+                                  PartitionMaintenanceService partitionMaintenanceService,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  ObjectMapper objectMapper,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${health-logs.import.chunk-size:1000}") int chunkSize) {
+        this.accountRepository = accountRepository;
+        this.patientRepository = patientRepository;
+        this.partitionMaintenanceService = partitionMaintenanceService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entryReader = objectMapper.readerFor(HealthLogImportEntry.class);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Linha válida aguardando gravação
+     */
+    private record ImportRow(int lineNumber, HealthLogImportEntry entry) {
+    }
+
+    /**
+     * Paciente/dia do lote (chave das linhas dos rollups)
+     */
+    private record PatientDay(UUID patientId, LocalDate day) {
+        private static final Comparator<PatientDay> ORDER =
+                Comparator.comparing(PatientDay::patientId).thenComparing(PatientDay::day);
+    }
+
+    /**
+     * Agregados dos logs de um paciente/dia do lote, somados ao rollup existente
+     * Mesmos critérios do rollup incremental (HealthLogService.updateDailyRollup)
+     */
+    private static class DailyAggregate {
+        private final Map<String, Integer> moods = new TreeMap<>();
+        private int logCount;
+        private Integer painMin;
+        private Integer painMax;
+        private long painSum;
+        private int painCount;
+        private double sleepSum;
+        private int sleepCount;
+        private boolean medicationTaken;
+
+        private void add(HealthLogImportEntry entry) {
+            logCount++;
+            Integer pain = entry.getPainLevel();
+            if (pain != null) {
+                painMin = painMin == null ? pain : Math.min(painMin, pain);
+                painMax = painMax == null ? pain : Math.max(painMax, pain);
+                painSum += pain;
+                painCount++;
+            }
+            if (entry.getSleepHours() != null) {
+                sleepSum += entry.getSleepHours();
+                sleepCount++;
+            }
+            medicationTaken |= Boolean.TRUE.equals(entry.getMedicationTaken());
+            if (entry.getMood() != null && !entry.getMood().isBlank()) {
+                moods.merge(entry.getMood(), 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Estado de uma importação: contadores, erros e pacientes já verificados no tenant
+     */
+    private static class ImportProgress {
+        private final Map<UUID, String> patientNames = new HashMap<>();
+        private final Set<UUID> foreignPatients = new HashSet<>();
+        private final Set<UUID> importedPatients = new HashSet<>();
+        private final List<String> errors = new ArrayList<>();
+        private long accepted;
+        private long rejected;
+
+        void reject(int lineNumber, String reason) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("linha " + lineNumber + ": " + reason);
+            }
+        }
+
+        HealthLogImportResult toResult() {
+            return HealthLogImportResult.builder()
+                    .accepted(accepted)
+                    .rejected(rejected)
+                    .patients(importedPatients.size())
+                    .errors(errors)
+                    .build();
+        }
+    }
+
+    // ============================================
+    // IMPORTAÇÃO
+    // ============================================
+
+    /**
+     * Importa um stream NDJSON de HealthLogs do tenant (uma entrada por linha)
+     * Lotes já gravados permanecem se a leitura do stream falhar no meio
+     *
+     * @return Contagem de linhas aceitas/rejeitadas e os erros por linha
+     */
+    @Observed(name = "health_agent.health_log.import", contextualName = "health-log.import")
+    public HealthLogImportResult importNdjson(UUID tenantId, InputStream input) {
+        if (!accountRepository.existsById(tenantId)) {
+            throw new RuntimeException("Account não encontrada: " + tenantId);
+        }
+        log.info("📥 Importando HealthLogs em lote - Tenant: {}", tenantId);
+
+        LocalDateTime now = LocalDateTime.now();
+        ImportProgress progress = new ImportProgress();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    HealthLogImportEntry entry = entryReader.readValue(line);
+                    validate(entry, now);
+                    chunk.add(new ImportRow(lineNumber, entry));
+                } catch (JsonProcessingException e) {
+                    progress.reject(lineNumber, "JSON inválido");
+                } catch (IllegalArgumentException e) {
+                    progress.reject(lineNumber, e.getMessage());
+                }
+
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(tenantId, chunk, progress, now);
+                    chunk.clear();
+                }
+            }
+            writeChunk(tenantId, chunk, progress, now);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao ler a importação de HealthLogs", e);
+        }
+
+        log.info("✅ Importação concluída - Tenant: {}, Aceitas: {}, Rejeitadas: {}, Pacientes: {}",
+                tenantId, progress.accepted, progress.rejected, progress.importedPatients.size());
+        return progress.toResult();
+    }
+
+    /**
+     * Valida uma linha (mesmos limites das colunas de health_logs)
+     *
+     * @throws IllegalArgumentException com o motivo da rejeição
+     */
+    static void validate(HealthLogImportEntry entry, LocalDateTime now) {
+        if (entry == null) {
+            throw new IllegalArgumentException("linha vazia");
+        }
+        if (entry.getPatientId() == null) {
+            throw new IllegalArgumentException("patientId é obrigatório");
+        }
+        if (entry.getTimestamp() == null) {
+            throw new IllegalArgumentException("timestamp é obrigatório");
+        }
+        if (entry.getTimestamp().isAfter(now)) {
+            throw new IllegalArgumentException("timestamp no futuro");
+        }
+        if (!entry.hasAnyData()) {
+            throw new IllegalArgumentException("nenhum dado de saúde informado");
+        }
+        checkRange("painLevel", entry.getPainLevel(), 0, 10);
+        checkRange("energyLevel", entry.getEnergyLevel(), 0, 10);
+        checkRange("stressLevel", entry.getStressLevel(), 0, 10);
+        if (entry.getSleepHours() != null
+                && (entry.getSleepHours().isNaN() || entry.getSleepHours() < 0 || entry.getSleepHours() > 24)) {
+            throw new IllegalArgumentException("sleepHours deve estar entre 0 e 24");
+        }
+        if (entry.getSteps() != null && entry.getSteps() < 0) {
+            throw new IllegalArgumentException("steps não pode ser negativo");
+        }
+        checkLength("mood", entry.getMood(), MAX_LABEL_LENGTH);
+        checkLength("sleepQuality", entry.getSleepQuality(), MAX_LABEL_LENGTH);
+        checkLength("medicationName", entry.getMedicationName(), MAX_MEDICATION_NAME_LENGTH);
+    }
+
+    private static void checkRange(String field, Integer value, int min, int max) {
+        if (value != null && (value < min || value > max)) {
+            throw new IllegalArgumentException(field + " deve estar entre " + min + " e " + max);
+        }
+    }
+
+    private static void checkLength(String field, String value, int max) {
+        if (value != null && value.length() > max) {
+            throw new IllegalArgumentException(field + " excede " + max + " caracteres");
+        }
+    }
+
+    // ============================================
+    // GRAVAÇÃO POR LOTE
+    // ============================================
+
+    private void writeChunk(UUID tenantId, List<ImportRow> chunk, ImportProgress progress, LocalDateTime now) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        List<ImportRow> rows = ownedRows(tenantId, chunk, progress);
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        LocalDate firstDay = rows.stream().map(row -> row.entry().getTimestamp().toLocalDate())
+                .min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate lastDay = rows.stream().map(row -> row.entry().getTimestamp().toLocalDate())
+                .max(Comparator.naturalOrder()).orElseThrow();
+        // Dados históricos podem cair em meses sem partição (DDL fora da transação do lote)
+        partitionMaintenanceService.ensurePartitions("health_logs", firstDay, lastDay);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<UUID, List<HealthLogRecordedEvent>> logsByPatient = new LinkedHashMap<>();
+            // Ordenado por paciente/dia: importações concorrentes travam as linhas do rollup na mesma ordem
+            Map<PatientDay, DailyAggregate> dailyAggregates = new TreeMap<>(PatientDay.ORDER);
+            List<Object[]> batchArgs = new ArrayList<>(rows.size());
+            Timestamp createdAt = Timestamp.valueOf(now);
+
+            for (ImportRow row : rows) {
+                HealthLogImportEntry entry = row.entry();
+                UUID id = TimeOrderedUuidGenerator.next();
+                batchArgs.add(new Object[]{
+                        id, tenantId, entry.getPatientId(), Timestamp.valueOf(entry.getTimestamp()),
+                        entry.getPainLevel(), entry.getMood(), entry.getSleepQuality(), entry.getSleepHours(),
+                        entry.getMedicationTaken(), entry.getMedicationName(), entry.getEnergyLevel(),
+                        entry.getStressLevel(), entry.getSteps(), entry.getNotes(), createdAt
+                });
+                logsByPatient.computeIfAbsent(entry.getPatientId(), k -> new ArrayList<>())
+                        .add(new HealthLogRecordedEvent(tenantId, entry.getPatientId(), id, entry.getTimestamp(),
+                                entry.getPainLevel(), entry.getMood(), entry.getSleepHours(),
+                                entry.getMedicationTaken(), progress.patientNames.get(entry.getPatientId())));
+                dailyAggregates.computeIfAbsent(
+                                new PatientDay(entry.getPatientId(), entry.getTimestamp().toLocalDate()),
+                                key -> new DailyAggregate())
+                        .add(entry);
+            }
+
+            jdbcTemplate.batchUpdate(INSERT_HEALTH_LOG, batchArgs, INSERT_TYPES);
+
+            // Rollups: soma apenas os logs inseridos, um upsert por paciente/dia do lote
+            List<Object[]> healthArgs = new ArrayList<>(dailyAggregates.size());
+            List<Object[]> moodArgs = new ArrayList<>();
+            dailyAggregates.forEach((key, aggregate) -> {
+                Date day = Date.valueOf(key.day());
+                healthArgs.add(new Object[]{
+                        tenantId, key.patientId(), day, aggregate.logCount, aggregate.painMin, aggregate.painMax,
+                        aggregate.painSum, aggregate.painCount, aggregate.sleepSum, aggregate.sleepCount,
+                        aggregate.medicationTaken
+                });
+                aggregate.moods.forEach((mood, occurrences) ->
+                        moodArgs.add(new Object[]{tenantId, key.patientId(), day, mood, occurrences}));
+            });
+            jdbcTemplate.batchUpdate(ADD_DAILY_HEALTH, healthArgs, DAILY_HEALTH_TYPES);
+            if (!moodArgs.isEmpty()) {
+                jdbcTemplate.batchUpdate(ADD_DAILY_MOOD, moodArgs, DAILY_MOOD_TYPES);
+            }
+
+            // Um evento por paciente: alertas avaliados uma vez por lote, após o commit
+            logsByPatient.forEach((patientId, logs) -> eventPublisher.publishEvent(
+                    new HealthLogsImportedEvent(tenantId, patientId, progress.patientNames.get(patientId), logs)));
+        });
+
+        progress.accepted += rows.size();
+        rows.forEach(row -> progress.importedPatients.add(row.entry().getPatientId()));
+        log.debug("📦 Lote importado - Tenant: {}, Linhas: {}", tenantId, rows.size());
+    }
+
+    /**
+     * Checagem de posse do lote em uma query (apenas pacientes ainda não vistos na importação)
+     * Linhas de pacientes de outro tenant ou inexistentes são rejeitadas
+     */
+    private List<ImportRow> ownedRows(UUID tenantId, List<ImportRow> chunk, ImportProgress progress) {
+        Set<UUID> unknown = new HashSet<>();
+        for (ImportRow row : chunk) {
+            UUID patientId = row.entry().getPatientId();
+            if (!progress.patientNames.containsKey(patientId) && !progress.foreignPatients.contains(patientId)) {
+                unknown.add(patientId);
+            }
+        }
+
+        if (!unknown.isEmpty()) {
+            for (PatientIdentity patient : patientRepository.findIdentitiesByTenantIdAndIdIn(tenantId, unknown)) {
+                progress.patientNames.put(patient.getId(), patient.getName());
+                unknown.remove(patient.getId());
+            }
+            if (!unknown.isEmpty()) {
+                log.warn("⚠️ Importação com pacientes fora do tenant - Tenant: {}, Pacientes: {}", tenantId, unknown);
+                progress.foreignPatients.addAll(unknown);
+            }
+        }
+
+        List<ImportRow> owned = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (progress.patientNames.containsKey(row.entry().getPatientId())) {
+                owned.add(row);
+            } else {
+                progress.reject(row.lineNumber(), "paciente não encontrado no tenant: " + row.entry().getPatientId());
+            }
+        }
+        return owned;
+    }
+}
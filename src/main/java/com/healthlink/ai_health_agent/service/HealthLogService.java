@@ -2,19 +2,24 @@ package com.healthlink.ai_health_agent.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.healthlink.ai_health_agent.domain.entity.Account;
 import com.healthlink.ai_health_agent.domain.entity.HealthLog;
-import com.healthlink.ai_health_agent.domain.entity.Patient;
+import com.healthlink.ai_health_agent.domain.event.HealthLogRecordedEvent;
 import com.healthlink.ai_health_agent.dto.HealthStatsRequest;
 import com.healthlink.ai_health_agent.repository.AccountRepository;
 import com.healthlink.ai_health_agent.repository.HealthLogRepository;
+import com.healthlink.ai_health_agent.repository.PatientDailyHealthRepository;
+import com.healthlink.ai_health_agent.repository.PatientDailyMoodRepository;
 import com.healthlink.ai_health_agent.repository.PatientRepository;
+import com.healthlink.ai_health_agent.repository.PatientRepository.PatientIdentity;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -31,8 +36,10 @@ public class HealthLogService {
     private final HealthLogRepository healthLogRepository;
     private final PatientRepository patientRepository;
     private final AccountRepository accountRepository;
+    private final PatientDailyHealthRepository dailyHealthRepository;
+    private final PatientDailyMoodRepository dailyMoodRepository;
     private final ObjectMapper objectMapper;
-    private final AlertService alertService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Registra dados de saúde extraídos pela IA
@@ -44,6 +51,7 @@ public class HealthLogService {
      * @return Mensagem de confirmação
      */
     @Transactional
+    @Observed(name = "health_agent.health_log.record", contextualName = "health-log.record")
     public String recordHealthStats(UUID tenantId, UUID patientId, HealthStatsRequest request) {
         log.info("📊 Registrando dados de saúde - Tenant: {}, Patient: {}", tenantId, patientId);
         log.debug("Dados recebidos: {}", request.getSummary());
@@ -54,25 +62,14 @@ public class HealthLogService {
             return "Nenhum dado de saúde foi identificado para registro.";
         }
 
-        // Buscar paciente com validação de tenant
-        Patient patient = patientRepository.findById(patientId)
-                .orElseThrow(() -> new RuntimeException("Paciente não encontrado: " + patientId));
+        // Validação de segurança em uma query: o paciente precisa pertencer ao tenant
+        PatientIdentity patient = patientRepository.findIdentityByIdAndTenantId(patientId, tenantId)
+                .orElseThrow(() -> ownershipFailure(tenantId, patientId));
 
-        // Validação de segurança: garantir que o paciente pertence ao tenant
-        if (!patient.getTenantId().equals(tenantId)) {
-            log.error("🚨 Tentativa de acesso cross-tenant! Patient: {}, Tenant esperado: {}, Tenant real: {}",
-                      patientId, tenantId, patient.getTenantId());
-            throw new SecurityException("Acesso negado: paciente não pertence ao tenant");
-        }
-
-        // Buscar account
-        Account account = accountRepository.findById(tenantId)
-                .orElseThrow(() -> new RuntimeException("Account não encontrada: " + tenantId));
-
-        // Criar HealthLog
+        // Criar HealthLog com referências (proxies): account e paciente já validados, sem SELECT
         HealthLog healthLog = HealthLog.builder()
-                .account(account)
-                .patient(patient)
+                .account(accountRepository.getReferenceById(tenantId))
+                .patient(patientRepository.getReferenceById(patientId))
                 .timestamp(LocalDateTime.now())
                 .painLevel(request.getPainLevel())
                 .mood(request.getMood())
@@ -91,13 +88,51 @@ public class HealthLogService {
 
         log.info("✅ Dados de saúde registrados com sucesso - ID: {}", saved.getId());
 
-        // Analisar e criar alertas se necessário
-        alertService.analyzeHealthLogAndCreateAlerts(tenantId, patientId, saved);
+        // Atualizar rollup diário (mesma transação do log)
+        updateDailyRollup(tenantId, patientId, saved);
+        // Alertas são avaliados após o commit, em background (AlertService.onHealthLogRecorded)
+        eventPublisher.publishEvent(HealthLogRecordedEvent.from(saved, patient.getName()));
 
         // Retornar mensagem de confirmação para a IA
         return buildConfirmationMessage(request);
     }
 
+    /**
+     * Erro da checagem de posse: distingue paciente inexistente de acesso cross-tenant
+     * (consulta extra apenas no caminho de erro)
+     */
+    private RuntimeException ownershipFailure(UUID tenantId, UUID patientId) {
+        if (!patientRepository.existsById(patientId)) {
+            return new RuntimeException("Paciente não encontrado: " + patientId);
+        }
+        log.error("🚨 Tentativa de acesso cross-tenant! Patient: {}, Tenant esperado: {}", patientId, tenantId);
+        return new SecurityException("Acesso negado: paciente não pertence ao tenant");
+    }
+
+    /**
+     * Acumula o log nos rollups diários usados pelo analytics
+     */
+    private void updateDailyRollup(UUID tenantId, UUID patientId, HealthLog saved) {
+        var day = saved.getTimestamp().toLocalDate();
+        Integer painLevel = saved.getPainLevel();
+        Double sleepHours = saved.getSleepHours();
+
+        dailyHealthRepository.upsertLog(
+                tenantId,
+                patientId,
+                day,
+                painLevel,
+                painLevel != null ? painLevel : 0L,
+                painLevel != null ? 1 : 0,
+                sleepHours != null ? sleepHours : 0.0,
+                sleepHours != null ? 1 : 0,
+                Boolean.TRUE.equals(saved.getMedicationTaken()));
+
+        if (saved.getMood() != null && !saved.getMood().isBlank()) {
+            dailyMoodRepository.incrementMood(tenantId, patientId, day, saved.getMood());
+        }
+    }
+
     /**
      * Busca últimos N logs de um paciente
      * Útil para contexto da IA
@@ -110,7 +145,8 @@ public class HealthLogService {
      * Busca logs de hoje
      */
     public List<HealthLog> getTodayLogs(UUID tenantId, UUID patientId) {
-        return healthLogRepository.findTodayLogs(patientId, tenantId);
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        return healthLogRepository.findLogsOfDay(patientId, tenantId, today, today.plusDays(1));
     }
 
     /**
@@ -0,0 +1,61 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.healthlink.ai_health_agent.domain.entity.Account;
+import com.healthlink.ai_health_agent.repository.AccountRepository;
+import com.healthlink.ai_health_agent.repository.PatientDailyHealthRepository;
+import com.healthlink.ai_health_agent.repository.PatientDailyMoodRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Backfill único dos rollups diários de saúde (patient_daily_health / patient_daily_mood)
+ *
+ * Recalcula os rollups a partir dos health_logs existentes, um tenant por transação.
+ * É idempotente (sobrescreve as linhas), então pode ser reexecutado com segurança.
+ * Habilitar com health-rollup.backfill-on-startup=true no deploy que introduz os rollups
+ * (ou para corrigir divergências) e desabilitar em seguida.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "health-rollup.backfill-on-startup", havingValue = "true")
+public class HealthRollupBackfillService {
+
+    private final AccountRepository accountRepository;
+    private final PatientDailyHealthRepository dailyHealthRepository;
+    private final PatientDailyMoodRepository dailyMoodRepository;
+
+    /**
+     * Executa o backfill após a inicialização
+     * Lock distribuído (ShedLock) garante uma única instância executando
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @SchedulerLock(
+        name = "healthRollupBackfill",
+        lockAtMostFor = "1h"
+    )
+    public void backfill() {
+        log.info("🔄 Iniciando backfill dos rollups diários de saúde");
+
+        int tenants = 0;
+        int healthRows = 0;
+        int moodRows = 0;
+
+        for (Account account : accountRepository.findAll()) {
+            try {
+                healthRows += dailyHealthRepository.rebuildForTenant(account.getId());
+                moodRows += dailyMoodRepository.rebuildForTenant(account.getId());
+                tenants++;
+            } catch (Exception e) {
+                log.error("❌ Erro no backfill do tenant {}: {}", account.getId(), e.getMessage(), e);
+            }
+        }
+
+        log.info("✅ Backfill concluído - Tenants: {}, Dias: {}, Humores: {}", tenants, healthRows, moodRows);
+    }
+}
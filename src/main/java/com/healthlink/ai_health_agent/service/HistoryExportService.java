@@ -0,0 +1,212 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.healthlink.ai_health_agent.domain.entity.Patient;
+import com.healthlink.ai_health_agent.dto.ChatMessageExportDTO;
+import com.healthlink.ai_health_agent.dto.HealthLogExportDTO;
+import com.healthlink.ai_health_agent.repository.ChatMessageRepository;
+import com.healthlink.ai_health_agent.repository.HealthLogRepository;
+import com.healthlink.ai_health_agent.repository.PatientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportação do histórico completo de um paciente (mensagens e registros de saúde)
+ *
+ * As linhas são lidas do banco como Stream (projeção em DTO com fetch size) e escritas
+ * direto no OutputStream da resposta, em NDJSON ou CSV, com gzip opcional.
+ * A memória usada é limitada ao lote do driver e ao buffer de escrita, independente
+ * do tamanho do histórico.
+ */
+@Service
+@Slf4j
+public class HistoryExportService {
+
+    /**
+     * Buffer de escrita (e do gzip); o conteúdo é enviado ao cliente a cada buffer cheio
+     */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private final PatientRepository patientRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final HealthLogRepository healthLogRepository;
+    private final ObjectWriter jsonWriter;
+
+    public HistoryExportService(PatientRepository patientRepository,
+                                ChatMessageRepository chatMessageRepository,
+                                HealthLogRepository healthLogRepository,
+                                ObjectMapper objectMapper) {
+        this.patientRepository = patientRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.healthLogRepository = healthLogRepository;
+        // NDJSON: um objeto por linha, nunca indentado
+        this.jsonWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * Formatos de exportação suportados
+     */
+    public enum ExportFormat {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static ExportFormat from(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Formato de exportação inválido: " + value + " (use ndjson ou csv)");
+            }
+        }
+    }
+
+    // ============================================
+    // EXPORTAÇÃO
+    // ============================================
+
+    /**
+     * Valida que o paciente pertence ao tenant
+     * Chamado antes de iniciar o streaming, enquanto ainda é possível responder 403/404
+     */
+    public void validateAccess(UUID tenantId, UUID patientId) {
+        Patient patient = patientRepository.findById(patientId)
+                .orElseThrow(() -> new RuntimeException("Paciente não encontrado: " + patientId));
+
+        if (!patient.getTenantId().equals(tenantId)) {
+            log.error("🚨 Tentativa de exportação cross-tenant! Patient: {}, Tenant: {}", patientId, tenantId);
+            throw new SecurityException("Acesso negado: paciente não pertence ao tenant");
+        }
+    }
+
+    /**
+     * Exporta todas as mensagens do paciente em ordem cronológica
+     * A transação fica aberta durante a escrita: o cursor do banco é consumido aos poucos
+     *
+     * @return Número de mensagens exportadas
+     */
+    @Transactional(readOnly = true)
+    public long exportMessages(UUID tenantId, UUID patientId, ExportFormat format, boolean gzip,
+                               OutputStream out) throws IOException {
+        log.info("📤 Exportando mensagens - Tenant: {}, Patient: {}, Formato: {}", tenantId, patientId, format);
+
+        try (Stream<ChatMessageExportDTO> rows = chatMessageRepository.streamForExport(patientId, tenantId)) {
+            long count = writeRows(rows, format, gzip, ChatMessageExportDTO.CSV_HEADER,
+                    ChatMessageExportDTO::toCsvRow, out);
+            log.info("📤 {} mensagens exportadas - Patient: {}", count, patientId);
+            return count;
+        }
+    }
+
+    /**
+     * Exporta todos os registros de saúde do paciente em ordem cronológica
+     *
+     * @return Número de registros exportados
+     */
+    @Transactional(readOnly = true)
+    public long exportHealthLogs(UUID tenantId, UUID patientId, ExportFormat format, boolean gzip,
+                                 OutputStream out) throws IOException {
+        log.info("📤 Exportando registros de saúde - Tenant: {}, Patient: {}, Formato: {}", tenantId, patientId, format);
+
+        try (Stream<HealthLogExportDTO> rows = healthLogRepository.streamForExport(patientId, tenantId)) {
+            long count = writeRows(rows, format, gzip, HealthLogExportDTO.CSV_HEADER,
+                    HealthLogExportDTO::toCsvRow, out);
+            log.info("📤 {} registros de saúde exportados - Patient: {}", count, patientId);
+            return count;
+        }
+    }
+
+    // ============================================
+    // ESCRITA
+    // ============================================
+
+    /**
+     * Escreve as linhas à medida que o Stream as produz
+     * Não fecha o OutputStream (pertence ao container); apenas faz flush e finaliza o gzip
+     *
+     * @return Número de linhas escritas (sem o cabeçalho do CSV)
+     */
+    <T> long writeRows(Stream<T> rows, ExportFormat format, boolean gzip, String[] csvHeader,
+                       Function<T, Object[]> csvRow, OutputStream out) throws IOException {
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(gzipOut != null ? gzipOut : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        if (format == ExportFormat.CSV) {
+            writeCsvLine(writer, csvHeader);
+        }
+
+        long count = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            if (format == ExportFormat.NDJSON) {
+                writer.write(jsonWriter.writeValueAsString(row));
+                writer.write('\n');
+            } else {
+                writeCsvLine(writer, csvRow.apply(row));
+            }
+            count++;
+        }
+
+        writer.flush();
+        if (gzipOut != null) {
+            gzipOut.finish();
+        }
+        return count;
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values[i]));
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Campo CSV (RFC 4180): entre aspas quando contém separador, aspas ou quebra de linha
+     */
+    static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
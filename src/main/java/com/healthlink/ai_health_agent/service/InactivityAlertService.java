@@ -0,0 +1,138 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.healthlink.ai_health_agent.config.AlertRulesProperties;
+import com.healthlink.ai_health_agent.domain.entity.Alert;
+import com.healthlink.ai_health_agent.domain.event.AlertChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Detecção de pacientes inativos em todos os tenants
+ *
+ * Um único INSERT ... SELECT encontra os pacientes ativos sem interação há pelo menos os dias
+ * da regra "inactivity" do tenant (alert_thresholds ou alerts.engine.inactivity-days), descarta
+ * os que já têm alerta INACTIVITY dentro do cooldown (anti-join) e grava os novos alertas.
+ * Nenhuma entidade é carregada: o custo é uma varredura de faixa em
+ * idx_patient_active_last_interaction (V14), independente do número de tenants.
+ */
+@Service
+@Slf4j
+public class InactivityAlertService {
+
+    /**
+     * Intervalo mínimo entre dois alertas de inatividade do mesmo paciente
+     */
+    static final Duration INACTIVITY_COOLDOWN = Duration.ofDays(7);
+
+    /**
+     * Dias sem interação a partir dos quais o alerta é HIGH (mesmo critério de Alert.inactivityAlert)
+     */
+    static final int HIGH_SEVERITY_DAYS = 14;
+
+    /**
+     * O limite inferior de last_interaction_at usa o menor limite entre os tenants (subquery
+     * escalar, avaliada uma vez), para que a faixa seja lida pelo índice; o limite exato de
+     * cada tenant é aplicado em seguida. Override sem threshold (NULL) mantém o padrão, como em
+     * AlertThresholdService (GREATEST ignora NULL, por isso o CASE). Mensagem e details no formato
+     * de Alert.inactivityAlert.
+     * O id vem do DEFAULT uuid_generate_v7() da tabela (V12).
+     */
+    static final String INSERT_INACTIVITY_ALERTS = """
+            WITH candidates AS (
+                SELECT p.id AS patient_id, p.account_id, p.name,
+                       EXTRACT(DAY FROM (CAST(:now AS timestamp) - p.last_interaction_at))::int AS days_inactive,
+                       CASE WHEN t.threshold IS NULL THEN :defaultDays
+                            ELSE GREATEST(1, ROUND(t.threshold)::int) END AS threshold_days
+                FROM patients p
+                LEFT JOIN alert_thresholds t ON t.account_id = p.account_id AND t.rule_name = 'inactivity'
+                WHERE p.is_active = true
+                AND p.last_interaction_at IS NOT NULL
+                AND p.last_interaction_at <= CAST(:now AS timestamp) - make_interval(days => (
+                    SELECT LEAST(:defaultDays, MIN(GREATEST(1, ROUND(threshold))::int))
+                    FROM alert_thresholds
+                    WHERE rule_name = 'inactivity' AND enabled = true AND threshold IS NOT NULL))
+                AND COALESCE(t.enabled, true)
+            )
+            INSERT INTO alerts (account_id, patient_id, alert_type, severity, message, details, created_at, acknowledged)
+            SELECT c.account_id, c.patient_id, 'INACTIVITY',
+                   CASE WHEN c.days_inactive >= :highSeverityDays THEN 'HIGH' ELSE 'MEDIUM' END,
+                   format('Paciente %s sem interagir há %s dias', c.name, c.days_inactive),
+                   format('{"daysInactive": %s}', c.days_inactive),
+                   CAST(:now AS timestamp), false
+            FROM candidates c
+            WHERE c.days_inactive >= c.threshold_days
+            AND NOT EXISTS (
+                SELECT 1 FROM alerts a
+                WHERE a.patient_id = c.patient_id
+                AND a.account_id = c.account_id
+                AND a.alert_type = 'INACTIVITY'
+                AND a.created_at >= CAST(:cooldownSince AS timestamp)
+            )
+            RETURNING id, account_id, patient_id, severity, message, created_at
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int defaultInactivityDays;
+
+    public InactivityAlertService(NamedParameterJdbcTemplate jdbcTemplate,
+                                  ApplicationEventPublisher eventPublisher,
+                                  AlertRulesProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.defaultInactivityDays = properties.inactivityDays();
+    }
+
+    /**
+     * Cria os alertas de inatividade de todos os tenants
+     * Lock distribuído (ShedLock) garante uma única instância executando; os eventos
+     * AlertChangedEvent (SSE, cache do dashboard) são entregues após o commit
+     *
+     * @return Número de alertas criados
+     */
+    @Scheduled(cron = "${alerts.inactivity.cron:0 0 8 * * *}")
+    @SchedulerLock(
+        name = "inactivityAlerts",
+        lockAtMostFor = "30m"
+    )
+    @Transactional
+    public int detectInactivePatients() {
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("now", Timestamp.valueOf(now))
+                .addValue("cooldownSince", Timestamp.valueOf(now.minus(INACTIVITY_COOLDOWN)))
+                .addValue("defaultDays", defaultInactivityDays)
+                .addValue("highSeverityDays", HIGH_SEVERITY_DAYS);
+
+        List<AlertChangedEvent> created = jdbcTemplate.query(INSERT_INACTIVITY_ALERTS, params, (rs, rowNum) ->
+                new AlertChangedEvent(
+                        rs.getObject("account_id", UUID.class),
+                        rs.getObject("patient_id", UUID.class),
+                        rs.getObject("id", UUID.class),
+                        Alert.AlertType.INACTIVITY,
+                        Alert.Severity.valueOf(rs.getString("severity")),
+                        rs.getString("message"),
+                        rs.getTimestamp("created_at").toLocalDateTime(),
+                        AlertChangedEvent.Change.CREATED));
+
+        created.forEach(eventPublisher::publishEvent);
+
+        log.info("🚨 Detecção de inatividade concluída - Alertas criados: {}, Tempo: {}ms",
+                created.size(), System.currentTimeMillis() - start);
+        return created.size();
+    }
+}
@@ -0,0 +1,83 @@
+package com.healthlink.ai_health_agent.service;
+
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Manutenção das partições mensais de chat_messages e health_logs
+ *
+ * Cria com antecedência as partições dos próximos meses (função create_monthly_partitions, V9).
+ * Sem a partição do mês, inserts falhariam. Roda na inicialização e diariamente;
+ * a função é idempotente e ignora tabelas não particionadas.
+ */
+@Service
+@Slf4j
+public class PartitionMaintenanceService {
+
+    static final List<String> PARTITIONED_TABLES = List.of("chat_messages", "health_logs");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+
+    public PartitionMaintenanceService(JdbcTemplate jdbcTemplate,
+                                       @Value("${partitions.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * Garante as partições do mês atual até monthsAhead meses à frente
+     * Lock distribuído (ShedLock) garante uma única instância executando
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${partitions.maintenance-cron:0 30 2 * * *}")
+    @SchedulerLock(
+        name = "partitionMaintenance",
+        lockAtMostFor = "10m"
+    )
+    public void ensureFuturePartitions() {
+        LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+
+        for (String table : PARTITIONED_TABLES) {
+            try {
+                Integer created = jdbcTemplate.queryForObject(
+                        "SELECT create_monthly_partitions(?, ?, ?)",
+                        Integer.class, table, currentMonth, monthsAhead + 1);
+                if (created != null && created > 0) {
+                    log.info("🗂️ {} partições criadas - Tabela: {}", created, table);
+                }
+            } catch (Exception e) {
+                log.error("❌ Erro ao criar partições de {}: {}", table, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Garante as partições de uma tabela para os meses do intervalo [from, to]
+     * Usado antes de inserir dados históricos (importação em lote), fora dos meses mantidos pelo job
+     *
+     * @return Número de partições criadas
+     */
+    public int ensurePartitions(String table, LocalDate from, LocalDate to) {
+        LocalDate firstMonth = from.withDayOfMonth(1);
+        int months = (int) ChronoUnit.MONTHS.between(firstMonth, to.withDayOfMonth(1)) + 1;
+
+        Integer created = jdbcTemplate.queryForObject(
+                "SELECT create_monthly_partitions(?, ?, ?)",
+                Integer.class, table, firstMonth, months);
+        if (created != null && created > 0) {
+            log.info("🗂️ {} partições criadas - Tabela: {}, Período: {} a {}", created, table, from, to);
+        }
+        return created != null ? created : 0;
+    }
+}
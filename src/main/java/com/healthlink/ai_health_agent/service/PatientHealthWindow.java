@@ -0,0 +1,125 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.healthlink.ai_health_agent.config.AlertRulesProperties.Metric;
+import com.healthlink.ai_health_agent.config.AlertRulesProperties.Rule;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Janela deslizante dos últimos N dias de um paciente, usada pelo AlertRuleEngine
+ *
+ * Buffer circular indexado por dia (epochDay % N), com o pior valor de cada métrica no dia.
+ * Registrar um log e avaliar uma regra custa O(N), com N fixo (alerts.engine.window-days):
+ * nenhum acesso ao banco. Agregados são idempotentes (máximo, mínimo, "alguma dose perdida"),
+ * então reaplicar o mesmo log (ex: na reconstrução do startup) não altera a janela.
+ * Não é thread-safe: o AlertRuleEngine só acessa a janela dentro de ConcurrentHashMap.compute.
+ */
+final class PatientHealthWindow {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long[] days;
+    private final double[] maxPain;
+    private final double[] minSleep;
+    private final boolean[] missedMedication;
+
+    /**
+     * true quando a janela contém o histórico do banco (reconstrução ou carga sob demanda),
+     * e não só os logs processados por esta instância
+     */
+    private volatile boolean seeded;
+
+    PatientHealthWindow(int size) {
+        days = new long[size];
+        maxPain = new double[size];
+        minSleep = new double[size];
+        missedMedication = new boolean[size];
+        Arrays.fill(days, EMPTY);
+    }
+
+    /**
+     * Acumula os valores de um log (ou de um dia inteiro, na reconstrução) no dia informado
+     */
+    void record(LocalDate day, Integer painLevel, Double sleepHours, Boolean medicationMissed) {
+        long epochDay = day.toEpochDay();
+        int slot = slot(epochDay);
+
+        if (days[slot] != epochDay) {
+            if (days[slot] != EMPTY && days[slot] > epochDay) {
+                // Dia mais antigo que a janela atual: já saiu da janela
+                return;
+            }
+            days[slot] = epochDay;
+            maxPain[slot] = Double.NaN;
+            minSleep[slot] = Double.NaN;
+            missedMedication[slot] = false;
+        }
+
+        if (painLevel != null && !(painLevel <= maxPain[slot])) {
+            maxPain[slot] = painLevel;
+        }
+        if (sleepHours != null && !(sleepHours >= minSleep[slot])) {
+            minSleep[slot] = sleepHours;
+        }
+        if (Boolean.TRUE.equals(medicationMissed)) {
+            missedMedication[slot] = true;
+        }
+    }
+
+    /**
+     * Quantos dias da janela da regra (terminando em today) atingiram o limite
+     * Com consecutive=true, conta só a sequência de dias seguidos que termina em today
+     */
+    int matchingDays(Rule rule, LocalDate today) {
+        long end = today.toEpochDay();
+        int matching = 0;
+        for (long day = end; day > end - rule.windowDays(); day--) {
+            double value = worstValue(rule.metric(), day);
+            if (!Double.isNaN(value) && rule.operator().test(value, rule.threshold())) {
+                matching++;
+            } else if (rule.consecutive()) {
+                break;
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Pior valor da métrica no dia, ou NaN se não há registro
+     */
+    double worstValue(Metric metric, long epochDay) {
+        int slot = slot(epochDay);
+        if (days[slot] != epochDay) {
+            return Double.NaN;
+        }
+        return switch (metric) {
+            case PAIN_LEVEL -> maxPain[slot];
+            case SLEEP_HOURS -> minSleep[slot];
+            case MEDICATION_MISSED -> missedMedication[slot] ? 1 : 0;
+        };
+    }
+
+    /**
+     * Dia mais recente com registro (epochDay), ou Long.MIN_VALUE se vazia
+     */
+    long newestDay() {
+        long newest = EMPTY;
+        for (long day : days) {
+            newest = Math.max(newest, day);
+        }
+        return newest;
+    }
+
+    boolean isSeeded() {
+        return seeded;
+    }
+
+    void markSeeded() {
+        seeded = true;
+    }
+
+    private int slot(long epochDay) {
+        return (int) Math.floorMod(epochDay, (long) days.length);
+    }
+}
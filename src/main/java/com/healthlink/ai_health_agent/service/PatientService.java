@@ -2,10 +2,15 @@ package com.healthlink.ai_health_agent.service;
 
 import com.healthlink.ai_health_agent.domain.entity.Account;
 import com.healthlink.ai_health_agent.domain.entity.Patient;
+import com.healthlink.ai_health_agent.domain.event.PatientChangedEvent;
+import com.healthlink.ai_health_agent.dto.KeysetCursor;
+import com.healthlink.ai_health_agent.dto.PageResponse;
+import com.healthlink.ai_health_agent.dto.PatientSummaryDTO;
 import com.healthlink.ai_health_agent.repository.AccountRepository;
 import com.healthlink.ai_health_agent.repository.PatientRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +27,7 @@ public class PatientService {
 
     private final PatientRepository patientRepository;
     private final AccountRepository accountRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Cria um novo paciente com validação de limit_slots
@@ -52,6 +58,7 @@ public class PatientService {
 
         // 5. Salvar o paciente
         Patient savedPatient = patientRepository.save(patient);
+        eventPublisher.publishEvent(new PatientChangedEvent(tenantId, savedPatient.getId(), PatientChangedEvent.Change.CREATED));
         log.info("Paciente criado com sucesso: {} (Tenant: {})", savedPatient.getId(), tenantId);
 
         return savedPatient;
@@ -107,23 +114,24 @@ public class PatientService {
     }
 
     /**
-     * Lista todos os pacientes de um tenant
+     * Lista pacientes de um tenant, paginado por cursor (ordem alfabética)
      * 
      * @param tenantId ID do tenant
-     * @return Lista de pacientes
+     * @param activeOnly Retornar apenas pacientes ativos
+     * @param cursor Cursor da página anterior (null na primeira página)
+     * @param limit Tamanho da página (padrão 50, máximo 200)
+     * @return Página de pacientes
      */
-    public List<Patient> findAllByTenant(UUID tenantId) {
-        return patientRepository.findAllByTenantId(tenantId);
-    }
+    public PageResponse<PatientSummaryDTO> findPage(UUID tenantId, boolean activeOnly, String cursor, Integer limit) {
+        int pageSize = PageResponse.clampLimit(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor, 2);
 
-    /**
-     * Lista pacientes ativos de um tenant
-     * 
-     * @param tenantId ID do tenant
-     * @return Lista de pacientes ativos
-     */
-    public List<Patient> findActivePatients(UUID tenantId) {
-        return patientRepository.findActivePatientsByTenantId(tenantId);
+        List<Patient> rows = after == null
+                ? patientRepository.findPageByTenant(tenantId, activeOnly, pageSize + 1)
+                : patientRepository.findPageByTenantAfter(tenantId, activeOnly, after.getString(0), after.getId(), pageSize + 1);
+
+        return PageResponse.of(rows, pageSize, PatientSummaryDTO::from,
+                patient -> KeysetCursor.encode(patient.getName(), patient.getId()));
     }
 
     /**
@@ -170,6 +178,7 @@ public class PatientService {
 
         patient.deactivate();
         patientRepository.save(patient);
+        eventPublisher.publishEvent(new PatientChangedEvent(tenantId, patientId, PatientChangedEvent.Change.DEACTIVATED));
 
         log.info("Paciente {} desativado (Tenant: {})", patientId, tenantId);
     }
@@ -198,6 +207,7 @@ public class PatientService {
 
         patient.activate();
         patientRepository.save(patient);
+        eventPublisher.publishEvent(new PatientChangedEvent(tenantId, patientId, PatientChangedEvent.Change.REACTIVATED));
 
         log.info("Paciente {} reativado (Tenant: {})", patientId, tenantId);
     }
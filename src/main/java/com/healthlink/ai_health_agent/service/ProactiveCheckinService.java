@@ -2,6 +2,7 @@ package com.healthlink.ai_health_agent.service;
 
 import com.healthlink.ai_health_agent.domain.entity.CheckinExecution;
 import com.healthlink.ai_health_agent.domain.entity.CheckinSchedule;
+import com.healthlink.ai_health_agent.observability.MessageLifecycleMetrics;
 import com.healthlink.ai_health_agent.repository.CheckinExecutionRepository;
 import com.healthlink.ai_health_agent.repository.CheckinScheduleRepository;
 import com.healthlink.ai_health_agent.security.TenantContext;
@@ -15,6 +16,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -35,6 +37,7 @@ public class ProactiveCheckinService {
     private final EvolutionApiService evolutionApiService;
     private final ChatHistoryService chatHistoryService;
     private final RateLimitService rateLimitService;
+    private final MessageLifecycleMetrics messageMetrics;
 
     /**
      * Executa check-ins agendados
@@ -74,11 +77,15 @@ public class ProactiveCheckinService {
                     case SKIPPED -> skippedCount++;
                 }
 
+                messageMetrics.recordCheckin(schedule.getAccount().getType(),
+                        result.name().toLowerCase(), Duration.ofMillis(duration));
                 log.debug("Check-in executado em {}ms - Status: {}", duration, result);
 
             } catch (Exception e) {
                 log.error("❌ Erro ao executar check-in: {}", schedule.getId(), e);
                 recordFailedExecution(schedule, e.getMessage(), 0);
+                messageMetrics.recordCheckin(schedule.getAccount().getType(),
+                        MessageLifecycleMetrics.OUTCOME_ERROR, Duration.ZERO);
                 failedCount++;
             }
         }
@@ -109,8 +116,9 @@ public class ProactiveCheckinService {
         );
         TenantContextHolder.setContext(context);
 
+        long startTime = System.currentTimeMillis();
+
         try {
-            long startTime = System.currentTimeMillis();
 
             // PASSO 3: Gerar mensagem proativa
             String message = generateProactiveMessage(schedule);
@@ -132,7 +140,7 @@ public class ProactiveCheckinService {
 
         } catch (Exception e) {
             log.error("❌ Erro ao processar check-in", e);
-            long duration = System.currentTimeMillis() - System.currentTimeMillis();
+            long duration = System.currentTimeMillis() - startTime;
             recordFailedExecution(schedule, e.getMessage(), (int) duration);
             return ExecutionResult.FAILED;
 
@@ -9,6 +9,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 /**
  * Service responsável por gerenciar rate limiting de mensagens proativas.
@@ -84,10 +85,7 @@ public class RateLimitService {
      */
     private boolean checkTenantLimit(Account account) {
         // Contar mensagens enviadas hoje pelo tenant
-        long count = scheduleRepository.countMessagesSentTodayByTenant(
-            account.getId(),
-            LocalDate.now()
-        );
+        long count = countMessagesSentToday(account);
 
         // Determinar limite baseado no tipo de conta
         int limit = account.getType() == AccountType.B2B
@@ -115,28 +113,23 @@ public class RateLimitService {
      * Pode ser chamado por um job separado à meia-noite
      */
     public void resetDailyCounters() {
-        LocalDate today = LocalDate.now();
-        var schedules = scheduleRepository.findSchedulesNeedingReset(today);
-
-        log.info("Resetando contadores diários de {} schedules", schedules.size());
-
-        for (var schedule : schedules) {
-            schedule.setMessagesSentToday(0);
-            schedule.setLastResetDate(today);
-        }
+        int reset = scheduleRepository.resetDailyCounters(LocalDate.now());
+        log.info("Contadores diários resetados - {} schedules", reset);
+    }
 
-        scheduleRepository.saveAll(schedules);
-        log.info("Contadores resetados com sucesso");
+    /**
+     * Mensagens enviadas hoje pelo tenant (intervalo [hoje 00:00, amanhã 00:00))
+     */
+    private long countMessagesSentToday(Account account) {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        return scheduleRepository.countMessagesSentByTenant(account.getId(), today, today.plusDays(1));
     }
 
     /**
      * Obtém estatísticas de uso de um tenant
      */
     public RateLimitStats getTenantStats(Account account) {
-        long messagesUsed = scheduleRepository.countMessagesSentTodayByTenant(
-            account.getId(),
-            LocalDate.now()
-        );
+        long messagesUsed = countMessagesSentToday(account);
 
         int limit = account.getType() == AccountType.B2B
                     ? B2B_DAILY_LIMIT
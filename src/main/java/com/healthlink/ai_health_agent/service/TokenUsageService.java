@@ -0,0 +1,219 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.healthlink.ai_health_agent.domain.enums.LlmCallType;
+import com.healthlink.ai_health_agent.dto.TokenUsageReportDTO;
+import com.healthlink.ai_health_agent.repository.TokenUsageRollupRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ledger de consumo de tokens do LLM por tenant
+ *
+ * Cada chamada ao LLM é acumulada em memória por (tenant, paciente, tipo de chamada, minuto).
+ * Periodicamente os buckets são gravados como rollups via upsert, evitando uma linha por chamada.
+ *
+ * O flush roda em TODAS as instâncias (sem ShedLock): cada instância só grava o que ela mesma acumulou,
+ * e o upsert soma os valores quando duas instâncias gravam o mesmo minuto.
+ */
+@Service
+@Slf4j
+public class TokenUsageService {
+
+    private final TokenUsageRollupRepository tokenUsageRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Buckets ainda não persistidos
+     * Mutações só acontecem dentro de compute()/merge(), que são atômicos por chave
+     */
+    private final Map<BucketKey, BucketTotals> pendingBuckets = new ConcurrentHashMap<>();
+
+    public TokenUsageService(TokenUsageRollupRepository tokenUsageRollupRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.tokenUsageRollupRepository = tokenUsageRollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Registra o consumo informado no metadata de uma resposta do LLM
+     */
+    public void record(UUID tenantId, UUID patientId, LlmCallType callType, ChatResponse response) {
+        if (tenantId == null || patientId == null || response == null || response.getMetadata() == null) {
+            return;
+        }
+
+        Usage usage = response.getMetadata().getUsage();
+        if (usage == null) {
+            return;
+        }
+
+        record(tenantId, patientId, callType, toLong(usage.getPromptTokens()), toLong(usage.getCompletionTokens()));
+    }
+
+    /**
+     * Acumula tokens no bucket do minuto atual
+     */
+    public void record(UUID tenantId, UUID patientId, LlmCallType callType, long promptTokens, long completionTokens) {
+        BucketKey key = new BucketKey(tenantId, patientId, callType,
+                LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES));
+
+        pendingBuckets.compute(key, (k, totals) -> {
+            BucketTotals current = totals != null ? totals : new BucketTotals();
+            current.add(promptTokens, completionTokens, 1);
+            return current;
+        });
+    }
+
+    /**
+     * Grava os buckets acumulados como rollups por minuto, em uma transação
+     * Em caso de falha (inclusive no commit), os buckets voltam para a fila e são regravados
+     * no próximo ciclo
+     */
+    @Scheduled(fixedDelayString = "${token-usage.flush-interval-ms:60000}")
+    public void flush() {
+        if (pendingBuckets.isEmpty()) {
+            return;
+        }
+
+        Map<BucketKey, BucketTotals> drained = new HashMap<>();
+        for (BucketKey key : List.copyOf(pendingBuckets.keySet())) {
+            BucketTotals totals = pendingBuckets.remove(key);
+            if (totals != null) {
+                drained.put(key, totals);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> drained.forEach((key, totals) ->
+                    tokenUsageRollupRepository.upsertBucket(
+                            UUID.randomUUID(),
+                            key.tenantId(),
+                            key.patientId(),
+                            key.callType().name(),
+                            key.bucketStart(),
+                            totals.promptTokens,
+                            totals.completionTokens,
+                            totals.calls
+                    )));
+
+            log.debug("💾 Consumo de tokens gravado: {} buckets", drained.size());
+
+        } catch (RuntimeException e) {
+            log.error("❌ Erro ao gravar consumo de tokens, {} buckets serão regravados: {}",
+                    drained.size(), e.getMessage());
+            drained.forEach((key, totals) -> pendingBuckets.merge(key, totals, BucketTotals::merge));
+            throw e;
+        }
+    }
+
+    /**
+     * Garante que o consumo acumulado não seja perdido no shutdown
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("❌ Consumo de tokens não gravado no shutdown: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Relatório de consumo do tenant no período [startDate, endDate]
+     */
+    @Transactional(readOnly = true)
+    public TokenUsageReportDTO getUsageReport(UUID tenantId, LocalDate startDate, LocalDate endDate) {
+        LocalDateTime start = startDate.atStartOfDay();
+        LocalDateTime end = endDate.plusDays(1).atStartOfDay();
+
+        var byCallType = tokenUsageRollupRepository.sumByCallType(tenantId, start, end).stream()
+                .map(row -> TokenUsageReportDTO.CallTypeUsageDTO.builder()
+                        .callType(row.getCallType().name())
+                        .promptTokens(row.getPromptTokens())
+                        .completionTokens(row.getCompletionTokens())
+                        .calls(row.getCalls())
+                        .build())
+                .toList();
+
+        var byPatient = tokenUsageRollupRepository.sumByPatient(tenantId, start, end).stream()
+                .map(row -> TokenUsageReportDTO.PatientUsageDTO.builder()
+                        .patientId(row.getPatientId())
+                        .promptTokens(row.getPromptTokens())
+                        .completionTokens(row.getCompletionTokens())
+                        .calls(row.getCalls())
+                        .build())
+                .toList();
+
+        var daily = tokenUsageRollupRepository.sumByDay(tenantId, start, end).stream()
+                .map(row -> TokenUsageReportDTO.DailyUsageDTO.builder()
+                        .day(row.getDay())
+                        .promptTokens(row.getPromptTokens())
+                        .completionTokens(row.getCompletionTokens())
+                        .calls(row.getCalls())
+                        .build())
+                .toList();
+
+        long promptTokens = byCallType.stream().mapToLong(TokenUsageReportDTO.CallTypeUsageDTO::getPromptTokens).sum();
+        long completionTokens = byCallType.stream().mapToLong(TokenUsageReportDTO.CallTypeUsageDTO::getCompletionTokens).sum();
+        long calls = byCallType.stream().mapToLong(TokenUsageReportDTO.CallTypeUsageDTO::getCalls).sum();
+
+        return TokenUsageReportDTO.builder()
+                .tenantId(tenantId)
+                .startDate(startDate)
+                .endDate(endDate)
+                .totalPromptTokens(promptTokens)
+                .totalCompletionTokens(completionTokens)
+                .totalTokens(promptTokens + completionTokens)
+                .totalCalls(calls)
+                .byCallType(byCallType)
+                .byPatient(byPatient)
+                .daily(daily)
+                .build();
+    }
+
+    private static long toLong(Integer tokens) {
+        return tokens != null ? tokens : 0L;
+    }
+
+    /**
+     * Chave de agregação: tenant + paciente + tipo de chamada + minuto
+     */
+    private record BucketKey(UUID tenantId, UUID patientId, LlmCallType callType, LocalDateTime bucketStart) {
+    }
+
+    /**
+     * Totais acumulados de um bucket
+     */
+    private static final class BucketTotals {
+        private long promptTokens;
+        private long completionTokens;
+        private int calls;
+
+        void add(long prompt, long completion, int callCount) {
+            promptTokens += prompt;
+            completionTokens += completion;
+            calls += callCount;
+        }
+
+        BucketTotals merge(BucketTotals other) {
+            add(other.promptTokens, other.completionTokens, other.calls);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthlink.ai_health_agent.observability.MessageLifecycleMetrics;
+import com.healthlink.ai_health_agent.security.TenantContext;
+import com.healthlink.ai_health_agent.security.TenantContextHolder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.util.json.schema.JsonSchemaGenerator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Registro das funções que a IA pode chamar (Function Calling)
+ *
+ * As funções são anexadas a cada prompt (chatOptions) com a execução interna do Spring AI
+ * desativada: quando o modelo pede várias funções no mesmo turno, o AIService as executa aqui,
+ * em paralelo no toolExecutionExecutor, e devolve as respostas ao modelo.
+ *
+ * As funções leem o paciente do TenantContextHolder (ThreadLocal). Como rodam em outras
+ * threads, o contexto da mensagem é passado explicitamente e estabelecido em cada execução,
+ * restaurando o contexto anterior da thread ao final.
+ * Só funções de consulta (registerReadOnly) têm tempo limite: uma função que grava dados
+ * (ex: recordDailyHealthStats) sempre tem o resultado aguardado, para que o modelo não
+ * receba um erro sobre uma gravação que ainda pode ser concluída.
+ * Cada execução é medida em health_agent.function.call (tag function).
+ */
+@Slf4j
+public class ToolRegistry {
+
+    /**
+     * Schema de funções sem parâmetros
+     */
+    static final String EMPTY_INPUT_SCHEMA = "{\"type\": \"object\", \"properties\": {}}";
+
+    private final Executor executor;
+    private final MessageLifecycleMetrics messageMetrics;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+
+    private final Map<String, RegisteredTool> tools = new LinkedHashMap<>();
+
+    public ToolRegistry(Executor executor, MessageLifecycleMetrics messageMetrics,
+                        ObjectMapper objectMapper, Duration timeout) {
+        this.executor = executor;
+        this.messageMetrics = messageMetrics;
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Função registrada: definição enviada ao modelo + função executada localmente
+     */
+    private record RegisteredTool(ToolDefinition definition, Class<?> inputType, Function<Object, String> function,
+                                  boolean readOnly) {
+    }
+
+    /**
+     * Registra uma função que grava dados (executada sem tempo limite)
+     *
+     * @param inputType Tipo dos argumentos (Void para funções sem parâmetros)
+     */
+    public <I> ToolRegistry register(String name, String description, Class<I> inputType, Function<I, String> function) {
+        return register(name, description, inputType, function, false);
+    }
+
+    /**
+     * Registra uma função somente de consulta (sujeita ao tempo limite ai.tools.timeout)
+     *
+     * @param inputType Tipo dos argumentos (Void para funções sem parâmetros)
+     */
+    public <I> ToolRegistry registerReadOnly(String name, String description, Class<I> inputType, Function<I, String> function) {
+        return register(name, description, inputType, function, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <I> ToolRegistry register(String name, String description, Class<I> inputType, Function<I, String> function,
+                                      boolean readOnly) {
+        String inputSchema = inputType == Void.class
+                ? EMPTY_INPUT_SCHEMA
+                : JsonSchemaGenerator.generateForType(inputType);
+        ToolDefinition definition = ToolDefinition.builder()
+                .name(name)
+                .description(description)
+                .inputSchema(inputSchema)
+                .build();
+        tools.put(name, new RegisteredTool(definition, inputType, (Function<Object, String>) function, readOnly));
+        return this;
+    }
+
+    /**
+     * Opções do prompt com as funções registradas (execução feita por executeToolCalls)
+     */
+    public ToolCallingChatOptions chatOptions() {
+        List<ToolCallback> callbacks = tools.values().stream()
+                .map(tool -> (ToolCallback) new DefinitionOnlyCallback(tool.definition()))
+                .toList();
+        return ToolCallingChatOptions.builder()
+                .toolCallbacks(callbacks)
+                .internalToolExecutionEnabled(false)
+                .build();
+    }
+
+    // ============================================
+    // EXECUÇÃO
+    // ============================================
+
+    /**
+     * Executa as funções pedidas pelo modelo em um turno, em paralelo
+     * Uma chamada única roda na própria thread (sem troca de thread); funções de consulta
+     * que excedem o tempo limite respondem com erro, as de gravação são sempre aguardadas
+     *
+     * @param context Contexto do tenant/paciente da mensagem
+     * @return Respostas na ordem das chamadas
+     */
+    public ToolResponseMessage executeToolCalls(List<AssistantMessage.ToolCall> toolCalls, TenantContext context) {
+        if (toolCalls.size() == 1) {
+            AssistantMessage.ToolCall toolCall = toolCalls.get(0);
+            return new ToolResponseMessage(List.of(toResponse(toolCall, execute(toolCall, context))));
+        }
+
+        List<CompletableFuture<String>> futures = new ArrayList<>(toolCalls.size());
+        for (AssistantMessage.ToolCall toolCall : toolCalls) {
+            CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> execute(toolCall, context), executor);
+            RegisteredTool tool = tools.get(toolCall.name());
+            if (tool != null && tool.readOnly()) {
+                future = future.completeOnTimeout("Erro: a função " + toolCall.name() + " excedeu o tempo limite.",
+                        timeout.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            futures.add(future);
+        }
+
+        List<ToolResponseMessage.ToolResponse> responses = new ArrayList<>(toolCalls.size());
+        for (int i = 0; i < toolCalls.size(); i++) {
+            responses.add(toResponse(toolCalls.get(i), futures.get(i).join()));
+        }
+        log.debug("🔧 {} funções executadas em paralelo: {}", toolCalls.size(),
+                toolCalls.stream().map(AssistantMessage.ToolCall::name).toList());
+        return new ToolResponseMessage(responses);
+    }
+
+    /**
+     * Executa uma função com o contexto do tenant estabelecido na thread atual
+     * Erros viram a resposta da função: as demais chamadas do turno não são afetadas
+     */
+    String execute(AssistantMessage.ToolCall toolCall, TenantContext context) {
+        RegisteredTool tool = tools.get(toolCall.name());
+        if (tool == null) {
+            log.warn("⚠️ Função desconhecida solicitada pela IA: {}", toolCall.name());
+            return "Erro: função desconhecida " + toolCall.name() + ".";
+        }
+
+        TenantContext previous = TenantContextHolder.getContext();
+        TenantContextHolder.setContext(context);
+        try {
+            return messageMetrics.recordFunctionCall(toolCall.name(),
+                    () -> tool.function().apply(parseInput(tool, toolCall.arguments())));
+        } catch (Exception e) {
+            log.error("❌ Erro ao executar função {}: {}", toolCall.name(), e.getMessage(), e);
+            return "Erro ao executar " + toolCall.name() + ".";
+        } finally {
+            if (previous != null) {
+                TenantContextHolder.setContext(previous);
+            } else {
+                TenantContextHolder.clear();
+            }
+        }
+    }
+
+    private Object parseInput(RegisteredTool tool, String arguments) {
+        if (tool.inputType() == Void.class) {
+            return null;
+        }
+        try {
+            String json = arguments == null || arguments.isBlank() ? "{}" : arguments;
+            return objectMapper.readValue(json, tool.inputType());
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Argumentos inválidos para " + tool.definition().name(), e);
+        }
+    }
+
+    private static ToolResponseMessage.ToolResponse toResponse(AssistantMessage.ToolCall toolCall, String result) {
+        return new ToolResponseMessage.ToolResponse(toolCall.id(), toolCall.name(), result);
+    }
+
+    /**
+     * Callback enviado ao modelo com a definição da função
+     * A execução interna do Spring AI está desativada (internalToolExecutionEnabled=false); se o
+     * callback for chamado diretamente, executa a função com o TenantContext da thread atual
+     */
+    private final class DefinitionOnlyCallback implements ToolCallback {
+
+        private final ToolDefinition definition;
+
+        private DefinitionOnlyCallback(ToolDefinition definition) {
+            this.definition = definition;
+        }
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return definition;
+        }
+
+        @Override
+        public String call(String toolInput) {
+            TenantContext context = TenantContextHolder.getContext();
+            if (context == null) {
+                throw new IllegalStateException("Função " + definition.name() + " chamada sem TenantContext");
+            }
+            return execute(new AssistantMessage.ToolCall("", "function", definition.name(), toolInput), context);
+        }
+    }
+}
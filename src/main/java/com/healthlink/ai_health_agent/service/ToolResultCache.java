@@ -0,0 +1,130 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.healthlink.ai_health_agent.domain.event.HealthLogRecordedEvent;
+import com.healthlink.ai_health_agent.domain.event.HealthLogsImportedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache por paciente das respostas das funções de consulta da IA (getPainHistory, checkMedicationToday)
+ *
+ * O modelo costuma chamar as mesmas funções várias vezes na mesma conversa; a resposta já formatada
+ * fica em memória por um TTL curto (ai.tools.cache-ttl) e vale só no dia em que foi calculada.
+ * Um novo HealthLog do paciente (registro pela IA ou importação) invalida todas as respostas dele,
+ * após o commit.
+ *
+ * Concorrência: como no DashboardStatsCache, cada paciente tem um contador de geração incrementado
+ * a cada invalidação; uma resposta calculada antes de uma invalidação não permanece no cache.
+ */
+@Service
+@Slf4j
+public class ToolResultCache {
+
+    public static final String CACHE_REQUESTS = "health_agent.ai.tool_cache.requests";
+
+    private final Map<PatientKey, PatientEntry> patients = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final MeterRegistry meterRegistry;
+
+    public ToolResultCache(MeterRegistry meterRegistry,
+                           @Value("${ai.tools.cache-ttl:PT2M}") Duration ttl) {
+        this.meterRegistry = meterRegistry;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Resposta da função para o paciente, calculada por loader apenas se ausente ou expirada
+     */
+    public String get(UUID tenantId, UUID patientId, String toolName, Supplier<String> loader) {
+        PatientEntry patient = patients.computeIfAbsent(new PatientKey(tenantId, patientId), key -> new PatientEntry());
+        long generation = patient.generation.get();
+        long now = System.nanoTime();
+        LocalDate today = LocalDate.now();
+
+        CachedResult cached = patient.results.get(toolName);
+        if (cached != null && isFresh(cached, now, today)) {
+            countRequest(toolName, "hit");
+            return cached.result();
+        }
+        countRequest(toolName, "miss");
+
+        String result = loader.get();
+        CachedResult computed = new CachedResult(result, now, today);
+        patient.results.put(toolName, computed);
+        if (patient.generation.get() != generation) {
+            // Invalidado durante o cálculo: a resposta serve a esta chamada, mas não fica no cache
+            patient.results.remove(toolName, computed);
+        }
+        return result;
+    }
+
+    private boolean isFresh(CachedResult cached, long now, LocalDate today) {
+        return now - cached.computedAt() < ttlNanos && cached.day().equals(today);
+    }
+
+    private void countRequest(String toolName, String result) {
+        meterRegistry.counter(CACHE_REQUESTS, "tool", toolName, "result", result).increment();
+    }
+
+    // ============================================
+    // INVALIDAÇÃO (eventos de domínio, após o commit)
+    // ============================================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHealthLogRecorded(HealthLogRecordedEvent event) {
+        invalidatePatient(event.tenantId(), event.patientId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHealthLogsImported(HealthLogsImportedEvent event) {
+        invalidatePatient(event.tenantId(), event.patientId());
+    }
+
+    private void invalidatePatient(UUID tenantId, UUID patientId) {
+        PatientEntry patient = patients.get(new PatientKey(tenantId, patientId));
+        if (patient == null) {
+            return;
+        }
+        patient.generation.incrementAndGet();
+        patient.results.clear();
+        log.debug("🧹 Respostas de funções invalidadas - Tenant: {}, Patient: {}", tenantId, patientId);
+    }
+
+    /**
+     * Remove respostas expiradas e pacientes sem respostas
+     */
+    @Scheduled(cron = "${ai.tools.cache-purge-cron:0 */10 * * * *}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        patients.values().forEach(patient -> patient.results.values().removeIf(cached -> !isFresh(cached, now, today)));
+        patients.values().removeIf(patient -> patient.results.isEmpty());
+    }
+
+    // ============================================
+    // ESTRUTURAS INTERNAS
+    // ============================================
+
+    private record PatientKey(UUID tenantId, UUID patientId) {
+    }
+
+    private static final class PatientEntry {
+        private final AtomicLong generation = new AtomicLong();
+        private final Map<String, CachedResult> results = new ConcurrentHashMap<>();
+    }
+
+    private record CachedResult(String result, long computedAt, LocalDate day) {
+    }
+}
@@ -0,0 +1,16 @@
+-- ============================================
+-- RETENÇÃO DE DADOS
+-- Período de retenção por tenant e índices usados pelo DataRetentionService
+-- (busca e remoção em lotes por account_id + data)
+-- ============================================
+
+-- NULL = usa retention.default-days da aplicação
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS retention_days INTEGER CHECK (retention_days > 0);
+
+CREATE INDEX IF NOT EXISTS idx_checkin_executions_account_executed
+    ON checkin_executions(account_id, executed_at);
+
+CREATE INDEX IF NOT EXISTS idx_chat_message_receipts_account_received
+    ON chat_message_receipts(account_id, received_at);
+
+COMMENT ON COLUMN accounts.retention_days IS 'Dias de histórico mantidos nas tabelas ativas (o restante vai para o arquivo)';
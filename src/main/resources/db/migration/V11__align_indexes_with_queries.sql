@@ -0,0 +1,30 @@
+-- ============================================
+-- ÍNDICES ALINHADOS ÀS QUERIES DOS REPOSITORIES
+-- Todas as consultas de health_logs filtram patient_id AND account_id e ordenam por timestamp;
+-- consultas "de hoje" usam intervalo semiaberto [início do dia, início do dia seguinte)
+-- ============================================
+
+-- health_logs: igualdade em (patient_id, account_id) + ordem por timestamp
+-- Substitui (patient_id, timestamp DESC) e permite index-only scan nas contagens por paciente
+CREATE INDEX IF NOT EXISTS idx_health_logs_patient_account_timestamp
+    ON health_logs(patient_id, account_id, timestamp DESC);
+DROP INDEX IF EXISTS idx_health_logs_patient_timestamp;
+
+-- calculateAveragePain: index-only scan (pain_level no índice, só logs com dor informada)
+CREATE INDEX IF NOT EXISTS idx_health_logs_patient_pain
+    ON health_logs(patient_id, account_id, timestamp)
+    INCLUDE (pain_level)
+    WHERE pain_level IS NOT NULL;
+
+-- findMissedMedicationLogs: apenas os logs sem medicação
+CREATE INDEX IF NOT EXISTS idx_health_logs_patient_missed_medication
+    ON health_logs(patient_id, account_id, timestamp DESC)
+    WHERE medication_taken = false;
+
+-- countMessagesSentByTenant (rate limit): apenas execuções com sucesso
+CREATE INDEX IF NOT EXISTS idx_checkin_executions_account_success
+    ON checkin_executions(account_id, executed_at)
+    WHERE status = 'SUCCESS';
+
+ANALYZE health_logs;
+ANALYZE checkin_executions;
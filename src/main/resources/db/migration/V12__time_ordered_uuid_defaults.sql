@@ -0,0 +1,29 @@
+-- ============================================
+-- UUID ORDENADO POR TEMPO (v7) NAS TABELAS APPEND-ONLY
+-- A aplicação gera os IDs com TimeOrderedUuidGenerator; o DEFAULT cobre inserts feitos
+-- direto no banco (SQL nativo, scripts), para que as PKs continuem crescentes.
+-- IDs v4 já existentes permanecem válidos.
+-- ============================================
+
+-- ============================================
+-- FUNÇÃO: uuid_generate_v7
+-- 48 bits de timestamp Unix (ms) sobre um UUID aleatório, com os bits de versão ajustados para 7
+-- (PostgreSQL 16 não tem uuidv7() nativo)
+-- ============================================
+CREATE OR REPLACE FUNCTION uuid_generate_v7()
+RETURNS UUID AS $$
+    SELECT encode(
+        set_bit(
+            set_bit(
+                overlay(uuid_send(gen_random_uuid())
+                        PLACING substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::BIGINT) FROM 3)
+                        FROM 1 FOR 6),
+                52, 1),
+            53, 1),
+        'hex')::UUID;
+$$ LANGUAGE sql VOLATILE;
+
+ALTER TABLE chat_messages ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE health_logs ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE alerts ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE checkin_executions ALTER COLUMN id SET DEFAULT uuid_generate_v7();
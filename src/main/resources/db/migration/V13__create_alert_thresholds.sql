@@ -0,0 +1,26 @@
+-- ============================================
+-- TABELA: alert_thresholds
+-- Limites de alerta por tenant (sobrescrevem as regras padrão de alert-rules.yml)
+-- Lidos em um snapshot em memória pelo AlertThresholdService; a avaliação não consulta o banco
+-- ============================================
+CREATE TABLE IF NOT EXISTS alert_thresholds (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+
+    -- Multi-tenancy
+    account_id UUID NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+
+    -- Nome da regra (alerts.engine.rules[].name) ou 'inactivity'
+    rule_name VARCHAR(100) NOT NULL,
+
+    -- NULL = mantém o valor padrão da regra
+    threshold DOUBLE PRECISION,
+    critical_threshold DOUBLE PRECISION,
+    min_days INTEGER CHECK (min_days > 0),
+
+    enabled BOOLEAN NOT NULL DEFAULT TRUE,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT uk_alert_thresholds_account_rule UNIQUE (account_id, rule_name)
+);
+
+COMMENT ON TABLE alert_thresholds IS 'Limites de alerta customizados por tenant';
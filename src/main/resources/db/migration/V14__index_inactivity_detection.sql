@@ -0,0 +1,15 @@
+-- ============================================
+-- DETECÇÃO DE INATIVIDADE (InactivityAlertService)
+-- Uma única query para todos os tenants: faixa de last_interaction_at dos pacientes ativos
+-- e anti-join com os alertas INACTIVITY recentes
+-- ============================================
+
+-- Pacientes ativos por última interação (pacientes sem interação não entram no índice)
+CREATE INDEX IF NOT EXISTS idx_patient_active_last_interaction
+    ON patients(last_interaction_at)
+    WHERE is_active = true AND last_interaction_at IS NOT NULL;
+
+-- Anti-join: alertas de inatividade recentes do paciente
+CREATE INDEX IF NOT EXISTS idx_alerts_inactivity_patient_created
+    ON alerts(patient_id, created_at)
+    WHERE alert_type = 'INACTIVITY';
@@ -0,0 +1,10 @@
+-- ============================================
+-- PASSOS DIÁRIOS (importação de wearables/dispositivos)
+-- Coluna opcional: logs registrados pela IA não informam passos
+-- Em health_logs particionada, o ALTER propaga para todas as partições
+-- ============================================
+
+ALTER TABLE health_logs ADD COLUMN IF NOT EXISTS steps INTEGER;
+
+ALTER TABLE health_logs DROP CONSTRAINT IF EXISTS chk_health_logs_steps;
+ALTER TABLE health_logs ADD CONSTRAINT chk_health_logs_steps CHECK (steps IS NULL OR steps >= 0);
@@ -0,0 +1,29 @@
+-- ============================================
+-- TABELA: token_usage_rollups
+-- Consumo de tokens do LLM agregado por minuto
+-- (uma linha por tenant/paciente/tipo de chamada/minuto, não por chamada)
+-- ============================================
+CREATE TABLE IF NOT EXISTS token_usage_rollups (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+
+    -- Multi-tenancy
+    account_id UUID NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+    patient_id UUID NOT NULL REFERENCES patients(id) ON DELETE CASCADE,
+
+    -- Dimensões
+    call_type VARCHAR(20) NOT NULL,     -- 'REPLY', 'PROACTIVE', 'SUMMARY'
+    bucket_start TIMESTAMP NOT NULL,    -- Início do minuto agregado
+
+    -- Métricas
+    prompt_tokens BIGINT NOT NULL DEFAULT 0,
+    completion_tokens BIGINT NOT NULL DEFAULT 0,
+    call_count INTEGER NOT NULL DEFAULT 0,
+
+    -- Chave natural usada no upsert (ON CONFLICT)
+    CONSTRAINT uk_token_usage_bucket UNIQUE (account_id, patient_id, call_type, bucket_start)
+);
+
+-- Consultas do dashboard filtram por tenant e período
+CREATE INDEX IF NOT EXISTS idx_token_usage_account_bucket ON token_usage_rollups(account_id, bucket_start);
+
+COMMENT ON TABLE token_usage_rollups IS 'Consumo de tokens do LLM por tenant/paciente/tipo de chamada, agregado por minuto';
@@ -0,0 +1,61 @@
+-- ============================================
+-- TABELA: patient_daily_health
+-- Rollup diário dos health_logs por paciente
+-- (mantido incrementalmente pelo HealthLogService e reconstruído pelo backfill)
+-- ============================================
+CREATE TABLE IF NOT EXISTS patient_daily_health (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+
+    -- Multi-tenancy
+    account_id UUID NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+    patient_id UUID NOT NULL REFERENCES patients(id) ON DELETE CASCADE,
+
+    -- Dia agregado (CAST(health_logs.timestamp AS date))
+    day DATE NOT NULL,
+
+    -- Logs do dia
+    log_count INTEGER NOT NULL DEFAULT 0,
+
+    -- Dor (somente logs com pain_level informado)
+    pain_min INTEGER,
+    pain_max INTEGER,
+    pain_sum BIGINT NOT NULL DEFAULT 0,
+    pain_count INTEGER NOT NULL DEFAULT 0,
+
+    -- Sono (somente logs com sleep_hours informado)
+    sleep_sum DOUBLE PRECISION NOT NULL DEFAULT 0,
+    sleep_count INTEGER NOT NULL DEFAULT 0,
+
+    -- Medicação: algum log do dia com medication_taken = true
+    medication_taken BOOLEAN NOT NULL DEFAULT FALSE,
+
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    -- Chave natural usada no upsert (ON CONFLICT)
+    CONSTRAINT uk_patient_daily_health UNIQUE (account_id, patient_id, day)
+);
+
+CREATE INDEX IF NOT EXISTS idx_patient_daily_health_account_day ON patient_daily_health(account_id, day);
+
+COMMENT ON TABLE patient_daily_health IS 'Rollup diário de dor, sono e medicação por paciente (fonte: health_logs)';
+
+-- ============================================
+-- TABELA: patient_daily_mood
+-- Contagem diária de humores por paciente
+-- ============================================
+CREATE TABLE IF NOT EXISTS patient_daily_mood (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+
+    account_id UUID NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+    patient_id UUID NOT NULL REFERENCES patients(id) ON DELETE CASCADE,
+
+    day DATE NOT NULL,
+    mood VARCHAR(50) NOT NULL,
+    occurrences INTEGER NOT NULL DEFAULT 0,
+
+    CONSTRAINT uk_patient_daily_mood UNIQUE (account_id, patient_id, day, mood)
+);
+
+CREATE INDEX IF NOT EXISTS idx_patient_daily_mood_account_day ON patient_daily_mood(account_id, day);
+
+COMMENT ON TABLE patient_daily_mood IS 'Rollup diário de humores por paciente (fonte: health_logs)';
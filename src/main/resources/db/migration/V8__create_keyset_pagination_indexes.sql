@@ -0,0 +1,22 @@
+-- ============================================
+-- ÍNDICES: paginação keyset (cursor) das listagens
+-- Cada índice segue a mesma ordenação da query de página correspondente,
+-- para que a página seja lida direto do índice, sem ordenar o tenant inteiro
+-- ============================================
+
+-- GET /api/patients e /api/patients/active: (name, id) ASC
+CREATE INDEX IF NOT EXISTS idx_patient_account_name_id
+    ON patients(account_id, name, id);
+
+-- GET /api/dashboard/patients: última interação (nulos por último), id DESC
+CREATE INDEX IF NOT EXISTS idx_patient_account_last_interaction
+    ON patients(account_id, (COALESCE(last_interaction_at, TIMESTAMP '1970-01-01 00:00:00')) DESC, id DESC);
+
+-- GET /api/dashboard/alerts e /alerts/critical: apenas alertas não reconhecidos
+CREATE INDEX IF NOT EXISTS idx_alerts_account_active_created
+    ON alerts(account_id, created_at DESC, id DESC)
+    WHERE acknowledged = false;
+
+-- Conversas do paciente: (timestamp, id) ASC
+CREATE INDEX IF NOT EXISTS idx_chat_patient_timestamp_id
+    ON chat_messages(patient_id, timestamp, id);
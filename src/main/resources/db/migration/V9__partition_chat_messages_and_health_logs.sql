@@ -0,0 +1,165 @@
+-- ============================================
+-- PARTICIONAMENTO MENSAL: chat_messages e health_logs
+-- Tabelas particionadas por RANGE(timestamp), uma partição por mês.
+-- Consultas com intervalo de datas leem apenas as partições do período (partition pruning).
+-- Partições futuras são criadas pelo PartitionMaintenanceService (create_monthly_partitions).
+--
+-- Restrição do PostgreSQL: PK e UNIQUE de tabela particionada precisam incluir a chave de
+-- partição. A PK passa a ser (id, timestamp) e a unicidade global de whatsapp_message_id
+-- passa para a tabela chat_message_receipts (não particionada).
+-- ============================================
+
+-- ============================================
+-- FUNÇÃO: create_monthly_partitions
+-- Cria as partições mensais de parent_table a partir do mês de from_month.
+-- Idempotente; ignora tabelas que não são particionadas (ex: schema gerado pelo Hibernate)
+-- Retorna o número de partições criadas
+-- ============================================
+CREATE OR REPLACE FUNCTION create_monthly_partitions(parent_table TEXT, from_month DATE, months INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    month_start DATE;
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1 FROM pg_partitioned_table pt
+        WHERE pt.partrelid = to_regclass(parent_table)
+    ) THEN
+        RETURN 0;
+    END IF;
+
+    FOR i IN 0..months - 1 LOOP
+        month_start := (date_trunc('month', from_month) + make_interval(months => i))::date;
+        partition_name := format('%s_y%sm%s', parent_table, to_char(month_start, 'YYYY'), to_char(month_start, 'MM'));
+
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format(
+                'CREATE TABLE IF NOT EXISTS %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                partition_name, parent_table, month_start, (month_start + INTERVAL '1 month')::date
+            );
+            created := created + 1;
+        END IF;
+    END LOOP;
+
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- ============================================
+-- TABELA: chat_message_receipts
+-- Idempotência das mensagens recebidas do WhatsApp (antes: UNIQUE em chat_messages)
+-- ============================================
+CREATE TABLE IF NOT EXISTS chat_message_receipts (
+    whatsapp_message_id VARCHAR(255) PRIMARY KEY,
+    account_id UUID NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+    received_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO chat_message_receipts (whatsapp_message_id, account_id, received_at)
+SELECT whatsapp_message_id, account_id, MIN(timestamp)
+FROM chat_messages
+WHERE whatsapp_message_id IS NOT NULL
+GROUP BY whatsapp_message_id, account_id
+ON CONFLICT (whatsapp_message_id) DO NOTHING;
+
+-- ============================================
+-- TABELA: chat_messages (particionada)
+-- ============================================
+ALTER TABLE chat_messages ADD COLUMN IF NOT EXISTS metadata TEXT;
+ALTER TABLE chat_messages RENAME TO chat_messages_legacy;
+ALTER INDEX IF EXISTS chat_messages_pkey RENAME TO chat_messages_legacy_pkey;
+
+CREATE TABLE chat_messages (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    account_id UUID NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+    patient_id UUID NOT NULL REFERENCES patients(id) ON DELETE CASCADE,
+    whatsapp_message_id VARCHAR(255),
+    role VARCHAR(20) NOT NULL CHECK (role IN ('USER', 'ASSISTANT', 'SYSTEM')),
+    content TEXT NOT NULL,
+    metadata TEXT,
+    timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+-- ============================================
+-- TABELA: health_logs (particionada)
+-- ============================================
+ALTER TABLE health_logs RENAME TO health_logs_legacy;
+ALTER INDEX IF EXISTS health_logs_pkey RENAME TO health_logs_legacy_pkey;
+
+CREATE TABLE health_logs (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    account_id UUID NOT NULL REFERENCES accounts(id) ON DELETE CASCADE,
+    patient_id UUID NOT NULL REFERENCES patients(id) ON DELETE CASCADE,
+    timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    pain_level INTEGER CHECK (pain_level BETWEEN 0 AND 10),
+    mood VARCHAR(50),
+    sleep_quality VARCHAR(50),
+    sleep_hours DOUBLE PRECISION,
+    medication_taken BOOLEAN,
+    medication_name VARCHAR(255),
+    energy_level INTEGER CHECK (energy_level BETWEEN 0 AND 10),
+    stress_level INTEGER CHECK (stress_level BETWEEN 0 AND 10),
+    notes TEXT,
+    raw_ai_extraction TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+-- ============================================
+-- PARTIÇÕES: do mês mais antigo com dados até 3 meses à frente
+-- ============================================
+DO $$
+DECLARE
+    first_month DATE;
+    months INTEGER;
+BEGIN
+    SELECT date_trunc('month', LEAST(
+               COALESCE((SELECT MIN(timestamp) FROM chat_messages_legacy), CURRENT_TIMESTAMP),
+               COALESCE((SELECT MIN(timestamp) FROM health_logs_legacy), CURRENT_TIMESTAMP)
+           ))::date
+    INTO first_month;
+
+    months := (EXTRACT(YEAR FROM age(date_trunc('month', CURRENT_DATE), first_month)) * 12
+             + EXTRACT(MONTH FROM age(date_trunc('month', CURRENT_DATE), first_month)))::INTEGER + 4;
+
+    PERFORM create_monthly_partitions('chat_messages', first_month, months);
+    PERFORM create_monthly_partitions('health_logs', first_month, months);
+END;
+$$;
+
+-- ============================================
+-- MIGRAÇÃO DOS DADOS
+-- ============================================
+INSERT INTO chat_messages (id, account_id, patient_id, whatsapp_message_id, role, content, metadata, timestamp)
+SELECT id, account_id, patient_id, whatsapp_message_id, role, content, metadata, timestamp
+FROM chat_messages_legacy;
+
+INSERT INTO health_logs (id, account_id, patient_id, timestamp, pain_level, mood, sleep_quality, sleep_hours,
+                         medication_taken, medication_name, energy_level, stress_level, notes,
+                         raw_ai_extraction, created_at)
+SELECT id, account_id, patient_id, timestamp, pain_level, mood, sleep_quality, sleep_hours,
+       medication_taken, medication_name, energy_level, stress_level, notes,
+       raw_ai_extraction, created_at
+FROM health_logs_legacy;
+
+DROP TABLE chat_messages_legacy;
+DROP TABLE health_logs_legacy;
+
+-- ============================================
+-- ÍNDICES (criados no pai, replicados em cada partição)
+-- ============================================
+CREATE INDEX IF NOT EXISTS idx_chat_patient_timestamp ON chat_messages(patient_id, timestamp DESC);
+CREATE INDEX IF NOT EXISTS idx_chat_account_timestamp ON chat_messages(account_id, timestamp DESC);
+CREATE INDEX IF NOT EXISTS idx_chat_patient_timestamp_id ON chat_messages(patient_id, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_chat_whatsapp_message ON chat_messages(whatsapp_message_id)
+    WHERE whatsapp_message_id IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_health_logs_patient_timestamp ON health_logs(patient_id, timestamp DESC);
+CREATE INDEX IF NOT EXISTS idx_health_logs_account_timestamp ON health_logs(account_id, timestamp DESC);
+
+ANALYZE chat_messages;
+ANALYZE health_logs;
@@ -0,0 +1,50 @@
+package com.healthlink.ai_health_agent.domain.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para TimeOrderedUuidGenerator
+ */
+class TimeOrderedUuidGeneratorTest {
+
+    @Test
+    @DisplayName("Deve gerar UUID versão 7 com variante RFC 9562")
+    void shouldGenerateVersion7() {
+        UUID id = TimeOrderedUuidGenerator.next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+    }
+
+    @Test
+    @DisplayName("Deve codificar o timestamp atual nos 48 bits iniciais")
+    void shouldEncodeCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = TimeOrderedUuidGenerator.next();
+        long after = System.currentTimeMillis();
+
+        long millis = id.getMostSignificantBits() >>> 16;
+        assertTrue(millis >= before && millis <= after + 1, "Timestamp: " + millis);
+    }
+
+    @Test
+    @DisplayName("IDs gerados em sequência devem ser únicos e crescentes, inclusive no mesmo milissegundo")
+    void shouldBeStrictlyIncreasing() {
+        Set<UUID> seen = new HashSet<>();
+        UUID previous = TimeOrderedUuidGenerator.next();
+
+        for (int i = 0; i < 100_000; i++) {
+            UUID current = TimeOrderedUuidGenerator.next();
+            assertTrue(current.compareTo(previous) > 0, previous + " >= " + current);
+            assertTrue(seen.add(current));
+            previous = current;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.healthlink.ai_health_agent.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthlink.ai_health_agent.domain.entity.Account;
+import com.healthlink.ai_health_agent.service.DataRetentionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.zip.GZIPInputStream;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes de integração de DataRetentionService (V9, V10)
+ * Foco em arquivar antes de remover, na retomada após interrupção, nas linhas gravadas em um
+ * mês durante ou depois do arquivamento e na remoção das partições que ficaram vazias
+ * Ignorado quando não há Docker disponível
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class DataRetentionIntegrationTest {
+
+    private static final int RETENTION_DAYS = 90;
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static DriverManagerDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    /**
+     * Mês inteiro anterior ao corte da retenção: arquivado e removido
+     */
+    private static final LocalDateTime OLD_MONTH =
+            LocalDate.now().minusDays(RETENTION_DAYS).withDayOfMonth(1).minusMonths(1).atStartOfDay();
+
+    @TempDir
+    Path archiveDir;
+
+    private InterceptingTransactionManager transactionManager;
+    private DataRetentionService service;
+    private UUID tenantId;
+    private UUID patientId;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            MigrationScripts.applyAll(statement);
+        }
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE accounts CASCADE");
+        createPartitions();
+
+        tenantId = UUID.randomUUID();
+        patientId = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO accounts (id, cpf, name, email, type, status)
+                VALUES (?, '00000000001', 'Clínica', 'clinica@example.com', 'B2B', 'ACTIVE')
+                """, tenantId);
+        jdbcTemplate.update("""
+                INSERT INTO patients (id, account_id, whatsapp_number, name)
+                VALUES (?, ?, '5511999990000', 'Maria')
+                """, patientId, tenantId);
+
+        AccountRepository accountRepository = mock(AccountRepository.class);
+        when(accountRepository.findAll()).thenReturn(List.of(Account.builder().id(tenantId).retentionDays(RETENTION_DAYS).build()));
+        transactionManager = new InterceptingTransactionManager(dataSource);
+
+        service = new DataRetentionService(accountRepository, mock(ChatMessageReceiptRepository.class), jdbcTemplate,
+                transactionManager, new ObjectMapper().findAndRegisterModules(),
+                new SimpleMeterRegistry(), null, archiveDir.toString(), 2);
+    }
+
+    @Test
+    @DisplayName("Deve arquivar os meses anteriores ao corte e só então removê-los")
+    void shouldArchiveThenDelete() throws IOException {
+        List<UUID> old = List.of(insertLog(OLD_MONTH.plusDays(1)), insertLog(OLD_MONTH.plusDays(10)), insertLog(OLD_MONTH.plusDays(20)));
+        UUID recent = insertLog(LocalDateTime.now().minusHours(1));
+
+        service.applyRetention();
+
+        assertEquals(old, archivedIds("health_logs", OLD_MONTH, ""));
+        assertEquals(List.of(recent), remainingLogs());
+        assertFalse(Files.exists(archiveFile("health_logs", OLD_MONTH, ".part2")));
+    }
+
+    @Test
+    @DisplayName("Remoção interrompida deve ser retomada sem perder linhas do arquivo")
+    void shouldResumeAfterInterruptedDelete() throws IOException {
+        Set<UUID> old = Set.of(insertLog(OLD_MONTH.plusDays(1)), insertLog(OLD_MONTH.plusDays(2)), insertLog(OLD_MONTH.plusDays(3)));
+        // Primeiro lote removido; o commit do segundo falha depois da gravação no arquivo
+        transactionManager.beforeCommit = commit -> {
+            if (commit == 2) {
+                throw new TransactionSystemException("conexão perdida");
+            }
+        };
+
+        service.applyRetention();
+        assertEquals(1, remainingLogs().size());
+
+        transactionManager.beforeCommit = commit -> { };
+        service.applyRetention();
+
+        assertTrue(remainingLogs().isEmpty());
+        Set<UUID> archived = new HashSet<>(archivedIds("health_logs", OLD_MONTH, ""));
+        archived.addAll(archivedIds("health_logs", OLD_MONTH, ".part2"));
+        assertEquals(old, archived);
+    }
+
+    @Test
+    @DisplayName("Linhas gravadas em um mês já arquivado devem ir para uma nova parte antes da remoção")
+    void shouldArchiveLateRowsInNewPart() throws IOException {
+        UUID first = insertLog(OLD_MONTH.plusDays(1));
+        service.applyRetention();
+
+        // Ex: importação de histórico com datas antigas (a partição vazia foi removida na execução anterior)
+        createPartitions();
+        UUID late = insertLog(OLD_MONTH.plusDays(5));
+        service.applyRetention();
+
+        assertEquals(List.of(first), archivedIds("health_logs", OLD_MONTH, ""));
+        assertEquals(List.of(late), archivedIds("health_logs", OLD_MONTH, ".part2"));
+        assertTrue(remainingLogs().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Linha gravada no mês durante o arquivamento deve ser arquivada ou mantida, nunca só removida")
+    void shouldNotDeleteRowsWrittenDuringArchive() throws IOException {
+        Set<UUID> old = new HashSet<>(Set.of(insertLog(OLD_MONTH.plusDays(1)), insertLog(OLD_MONTH.plusDays(2)),
+                insertLog(OLD_MONTH.plusDays(3))));
+        // Importação de histórico concorrente (outra conexão): grava no mês entre o primeiro lote e o restante
+        JdbcTemplate importer = new JdbcTemplate(
+                new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+        UUID[] late = new UUID[1];
+        transactionManager.beforeCommit = commit -> {
+            if (commit == 1) {
+                late[0] = insertLog(importer, OLD_MONTH.plusDays(15));
+            }
+        };
+
+        service.applyRetention();
+
+        Set<UUID> archived = new HashSet<>(archivedIds("health_logs", OLD_MONTH, ""));
+        List<UUID> remaining = remainingLogs();
+        assertTrue(archived.contains(late[0]) || remaining.contains(late[0]));
+        old.add(late[0]);
+        Set<UUID> all = new HashSet<>(archived);
+        all.addAll(remaining);
+        assertEquals(old, all);
+    }
+
+    @Test
+    @DisplayName("Partições antigas que ficaram vazias devem ser removidas, mantendo as recentes")
+    void shouldDropEmptyOldPartitions() {
+        insertLog(OLD_MONTH.plusDays(1));
+        insertLog(LocalDateTime.now().minusHours(1));
+
+        service.applyRetention();
+
+        assertFalse(partitionExists("health_logs_" + OLD_MONTH.format(PARTITION_MONTH)));
+        assertFalse(partitionExists("chat_messages_" + OLD_MONTH.format(PARTITION_MONTH)));
+        assertTrue(partitionExists("health_logs_" + LocalDate.now().format(PARTITION_MONTH)));
+    }
+
+    /**
+     * Partições do mês antigo até o atual (recriadas após a remoção das vazias)
+     */
+    private static void createPartitions() {
+        jdbcTemplate.execute("SELECT create_monthly_partitions('chat_messages', '" + OLD_MONTH.toLocalDate() + "', 8)");
+        jdbcTemplate.execute("SELECT create_monthly_partitions('health_logs', '" + OLD_MONTH.toLocalDate() + "', 8)");
+    }
+
+    private UUID insertLog(LocalDateTime timestamp) {
+        return insertLog(jdbcTemplate, timestamp);
+    }
+
+    private UUID insertLog(JdbcTemplate template, LocalDateTime timestamp) {
+        UUID id = UUID.randomUUID();
+        template.update("""
+                INSERT INTO health_logs (id, account_id, patient_id, timestamp, pain_level, medication_taken)
+                VALUES (?, ?, ?, ?, 4, true)
+                """, id, tenantId, patientId, Timestamp.valueOf(timestamp));
+        return id;
+    }
+
+    private List<UUID> remainingLogs() {
+        return jdbcTemplate.queryForList("SELECT id FROM health_logs WHERE account_id = ? ORDER BY timestamp",
+                UUID.class, tenantId);
+    }
+
+    private Path archiveFile(String table, LocalDateTime month, String part) {
+        return archiveDir.resolve(tenantId.toString()).resolve(table)
+                .resolve(month.format(DateTimeFormatter.ofPattern("yyyy-MM")) + part + ".ndjson.gz");
+    }
+
+    private List<UUID> archivedIds(String table, LocalDateTime month, String part) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<UUID> ids = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(archiveFile(table, month, part))), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                ids.add(UUID.fromString(objectMapper.readTree(line).get("id").asText()));
+            }
+        }
+        return ids;
+    }
+
+    private boolean partitionExists(String partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition));
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+
+    /**
+     * Executa uma ação antes de cada commit (numerados a partir de 1), para simular
+     * falhas e gravações concorrentes entre os lotes
+     */
+    private static final class InterceptingTransactionManager extends DataSourceTransactionManager {
+
+        private final AtomicInteger commits = new AtomicInteger();
+        private IntConsumer beforeCommit = commit -> { };
+
+        InterceptingTransactionManager(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            beforeCommit.accept(commits.incrementAndGet());
+            super.doCommit(status);
+        }
+    }
+}
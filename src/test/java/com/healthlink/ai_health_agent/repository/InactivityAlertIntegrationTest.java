@@ -0,0 +1,214 @@
+package com.healthlink.ai_health_agent.repository;
+
+import com.healthlink.ai_health_agent.config.AlertRulesProperties;
+import com.healthlink.ai_health_agent.service.InactivityAlertService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Testes de integração do INSERT ... SELECT de InactivityAlertService (V13, V14)
+ * Foco no limite de dias por tenant (padrão, override, desativado, threshold NULL),
+ * no anti-join do cooldown e no tempo com 100 mil pacientes
+ * Ignorado quando não há Docker disponível
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class InactivityAlertIntegrationTest {
+
+    private static final int DEFAULT_DAYS = 7;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static InactivityAlertService service;
+
+    private int sequence;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            MigrationScripts.applyAll(statement);
+            // Colunas da entidade Alert (message, details), criadas em produção pelo ddl-auto=update
+            statement.execute("""
+                    ALTER TABLE alerts
+                        ADD COLUMN message TEXT,
+                        ADD COLUMN details TEXT,
+                        ALTER COLUMN title DROP NOT NULL,
+                        ALTER COLUMN description DROP NOT NULL
+                    """);
+        }
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        service = new InactivityAlertService(new NamedParameterJdbcTemplate(dataSource),
+                mock(ApplicationEventPublisher.class), new AlertRulesProperties(14, DEFAULT_DAYS, List.of()));
+    }
+
+    @BeforeEach
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE accounts CASCADE");
+    }
+
+    @Test
+    @DisplayName("Sem override deve usar os dias padrão (alerts.engine.inactivity-days)")
+    void shouldUseDefaultDays() {
+        UUID tenantId = insertAccount();
+        UUID inactive = insertPatient(tenantId, DEFAULT_DAYS);
+        insertPatient(tenantId, DEFAULT_DAYS - 1);
+
+        assertEquals(1, service.detectInactivePatients());
+        assertEquals(List.of(inactive), alertedPatients());
+    }
+
+    @Test
+    @DisplayName("Override do tenant deve substituir os dias padrão, inclusive para baixo do padrão")
+    void shouldUseTenantOverride() {
+        UUID stricter = insertAccount();
+        insertThreshold(stricter, 3.0, true);
+        UUID stricterPatient = insertPatient(stricter, 3);
+
+        UUID looser = insertAccount();
+        insertThreshold(looser, 30.0, true);
+        insertPatient(looser, 20);
+
+        assertEquals(1, service.detectInactivePatients());
+        assertEquals(List.of(stricterPatient), alertedPatients());
+    }
+
+    @Test
+    @DisplayName("Regra desativada no tenant não deve gerar alertas")
+    void shouldSkipDisabledTenant() {
+        UUID tenantId = insertAccount();
+        insertThreshold(tenantId, null, false);
+        insertPatient(tenantId, 30);
+
+        assertEquals(0, service.detectInactivePatients());
+    }
+
+    @Test
+    @DisplayName("Override ativo com threshold NULL deve manter os dias padrão")
+    void shouldFallBackToDefaultWhenThresholdIsNull() {
+        UUID tenantId = insertAccount();
+        insertThreshold(tenantId, null, true);
+        UUID inactive = insertPatient(tenantId, DEFAULT_DAYS);
+        insertPatient(tenantId, 2);
+
+        assertEquals(1, service.detectInactivePatients());
+        assertEquals(List.of(inactive), alertedPatients());
+    }
+
+    @Test
+    @DisplayName("Paciente com alerta de inatividade dentro do cooldown não deve ser alertado de novo")
+    void shouldRespectCooldown() {
+        UUID tenantId = insertAccount();
+        UUID recentlyAlerted = insertPatient(tenantId, 10);
+        UUID alertedLongAgo = insertPatient(tenantId, 10);
+        insertInactivityAlert(tenantId, recentlyAlerted, LocalDateTime.now().minusDays(2));
+        insertInactivityAlert(tenantId, alertedLongAgo, LocalDateTime.now().minusDays(8));
+
+        assertEquals(1, service.detectInactivePatients());
+        // Segunda execução no mesmo dia: todos dentro do cooldown
+        assertEquals(0, service.detectInactivePatients());
+        assertEquals(2, countAlerts(alertedLongAgo));
+        assertEquals(1, countAlerts(recentlyAlerted));
+    }
+
+    @Test
+    @DisplayName("Deve processar 100 mil pacientes em poucos segundos")
+    void shouldScaleToHundredThousandPatients() {
+        // 100 tenants x 1000 pacientes, 10% inativos; metade dos tenants com override de 3 dias
+        jdbcTemplate.execute("""
+                INSERT INTO accounts (id, cpf, name, email, type, status)
+                SELECT gen_random_uuid(), lpad(t::text, 11, '0'), 'Clínica ' || t, 'clinica' || t || '@example.com', 'B2B', 'ACTIVE'
+                FROM generate_series(1, 100) t
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO alert_thresholds (account_id, rule_name, threshold, enabled)
+                SELECT id, 'inactivity', 3, true FROM accounts WHERE cpf::int % 2 = 0
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO patients (account_id, whatsapp_number, name, last_interaction_at)
+                SELECT a.id, '55' || right(a.cpf, 4) || lpad(p::text, 6, '0'), 'Paciente ' || p,
+                       CASE WHEN p % 10 = 0 THEN now() - INTERVAL '10 days' ELSE now() - INTERVAL '1 hour' END
+                FROM accounts a CROSS JOIN generate_series(1, 1000) p
+                """);
+        jdbcTemplate.execute("ANALYZE patients");
+
+        long start = System.nanoTime();
+        int created = service.detectInactivePatients();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(10_000, created);
+        assertTrue(elapsedMillis < 5_000, "Detecção levou " + elapsedMillis + "ms");
+    }
+
+    private UUID insertAccount() {
+        int n = ++sequence;
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO accounts (id, cpf, name, email, type, status)
+                VALUES (?, ?, ?, ?, 'B2B', 'ACTIVE')
+                """, id, String.format("%011d", n), "Clínica " + n, "clinica" + n + "@example.com");
+        return id;
+    }
+
+    private UUID insertPatient(UUID tenantId, int daysInactive) {
+        int n = ++sequence;
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO patients (id, account_id, whatsapp_number, name, last_interaction_at)
+                VALUES (?, ?, ?, ?, ?)
+                """, id, tenantId, "55" + String.format("%09d", n), "Paciente " + n,
+                Timestamp.valueOf(LocalDateTime.now().minusDays(daysInactive).minusHours(1)));
+        return id;
+    }
+
+    private void insertThreshold(UUID tenantId, Double threshold, boolean enabled) {
+        jdbcTemplate.update("""
+                INSERT INTO alert_thresholds (account_id, rule_name, threshold, enabled)
+                VALUES (?, 'inactivity', ?, ?)
+                """, tenantId, threshold, enabled);
+    }
+
+    private void insertInactivityAlert(UUID tenantId, UUID patientId, LocalDateTime createdAt) {
+        jdbcTemplate.update("""
+                INSERT INTO alerts (account_id, patient_id, alert_type, severity, message, created_at, acknowledged)
+                VALUES (?, ?, 'INACTIVITY', 'MEDIUM', 'Paciente sem interagir', ?, false)
+                """, tenantId, patientId, Timestamp.valueOf(createdAt));
+    }
+
+    private List<UUID> alertedPatients() {
+        return jdbcTemplate.queryForList("SELECT patient_id FROM alerts WHERE alert_type = 'INACTIVITY'", UUID.class);
+    }
+
+    private int countAlerts(UUID patientId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM alerts WHERE patient_id = ? AND alert_type = 'INACTIVITY'", Integer.class, patientId);
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+}
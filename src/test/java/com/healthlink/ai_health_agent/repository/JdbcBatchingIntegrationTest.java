@@ -0,0 +1,141 @@
+package com.healthlink.ai_health_agent.repository;
+
+import com.healthlink.ai_health_agent.domain.entity.Account;
+import com.healthlink.ai_health_agent.domain.entity.CheckinSchedule;
+import com.healthlink.ai_health_agent.domain.entity.Patient;
+import com.healthlink.ai_health_agent.domain.enums.AccountStatus;
+import com.healthlink.ai_health_agent.domain.enums.AccountType;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mede, via estatísticas do Hibernate, quantos statements JDBC as escritas em massa executam
+ * com o batching configurado em application.properties (batch_size, order_inserts/updates)
+ * Ignorado quando não há Docker disponível
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class JdbcBatchingIntegrationTest {
+
+    private static final int ROWS = 500;
+    private static final int BATCH_SIZE = 50;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CheckinScheduleRepository scheduleRepository;
+
+    private Statistics statistics;
+    private Account account;
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        account = Account.builder()
+                .cpf("12345678901")
+                .name("Clínica")
+                .email("clinica@example.com")
+                .type(AccountType.B2B)
+                .status(AccountStatus.ACTIVE)
+                .build();
+        entityManager.persist(account);
+
+        patient = Patient.builder()
+                .account(account)
+                .whatsappNumber("5511999990000")
+                .name("Paciente")
+                .build();
+        entityManager.persist(patient);
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Inserts em massa devem ser enviados em lotes de batch_size")
+    void shouldBatchInserts() {
+        // Sem batching (lote de 1 statement) como referência
+        entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+        long unbatched = statementsToInsert(LocalDate.now());
+
+        entityManager.unwrap(Session.class).setJdbcBatchSize(null);
+        long batched = statementsToInsert(LocalDate.now().minusDays(1));
+
+        String measured = "INSERT de %d schedules: %d statements sem batching, %d com batching"
+                .formatted(ROWS, unbatched, batched);
+        assertEquals(ROWS, unbatched, measured);
+        assertEquals(ROWS / BATCH_SIZE, batched, measured);
+    }
+
+    @Test
+    @DisplayName("Reset diário deve executar um único UPDATE para todos os schedules")
+    void shouldResetDailyCountersWithSingleStatement() {
+        // Arrange
+        statementsToInsert(LocalDate.now().minusDays(1));
+        statistics.clear();
+
+        // Act
+        int reset = scheduleRepository.resetDailyCounters(LocalDate.now());
+
+        // Assert
+        assertEquals(ROWS, reset);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Persiste ROWS schedules e retorna o número de statements preparados no flush
+     */
+    private long statementsToInsert(LocalDate lastResetDate) {
+        entityManager.flush();
+        statistics.clear();
+
+        for (int i = 0; i < ROWS; i++) {
+            scheduleRepository.save(CheckinSchedule.builder()
+                    .account(account)
+                    .patient(patient)
+                    .scheduleType(CheckinSchedule.ScheduleType.DAILY)
+                    .timeOfDay(LocalTime.of(9, 0).plusMinutes(i % 60))
+                    .isActive(true)
+                    .maxMessagesPerDay(3)
+                    .messagesSentToday(2)
+                    .lastResetDate(lastResetDate)
+                    .build());
+        }
+        entityManager.flush();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,76 @@
+package com.healthlink.ai_health_agent.repository;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Aplica as migrações de db/migration em um banco de teste (Testcontainers), na ordem de versão
+ */
+final class MigrationScripts {
+
+    static final List<String> ALL = List.of(
+            "V1__create_base_tables.sql",
+            "V5__create_checkin_tables.sql",
+            "V6__create_token_usage_rollups.sql",
+            "V7__create_patient_daily_health.sql",
+            "V8__create_keyset_pagination_indexes.sql",
+            "V9__partition_chat_messages_and_health_logs.sql",
+            "V10__add_data_retention.sql",
+            "V11__align_indexes_with_queries.sql",
+            "V12__time_ordered_uuid_defaults.sql",
+            "V13__create_alert_thresholds.sql",
+            "V14__index_inactivity_detection.sql",
+            "V15__add_health_log_steps.sql"
+    );
+
+    private MigrationScripts() {
+    }
+
+    /**
+     * Aplica as migrações anteriores à versão informada (ex: "V9" aplica V1 a V8)
+     */
+    static void applyBefore(Statement statement, String version) throws IOException, SQLException {
+        apply(statement, ALL.subList(0, indexOf(version)));
+    }
+
+    /**
+     * Aplica as migrações a partir da versão informada (inclusive)
+     */
+    static void applyFrom(Statement statement, String version) throws IOException, SQLException {
+        apply(statement, ALL.subList(indexOf(version), ALL.size()));
+    }
+
+    static void applyAll(Statement statement) throws IOException, SQLException {
+        apply(statement, ALL);
+    }
+
+    private static void apply(Statement statement, List<String> files) throws IOException, SQLException {
+        for (String file : files) {
+            if (file.startsWith("V5__")) {
+                // V5 recria shedlock sem IF NOT EXISTS (em produção a tabela veio do baseline)
+                statement.execute("DROP TABLE IF EXISTS shedlock");
+            }
+            statement.execute(read(file));
+        }
+    }
+
+    private static int indexOf(String version) {
+        for (int i = 0; i < ALL.size(); i++) {
+            if (ALL.get(i).startsWith(version + "__")) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Migração não encontrada: " + version);
+    }
+
+    private static String read(String file) throws IOException {
+        return StreamUtils.copyToString(
+                new ClassPathResource("db/migration/" + file).getInputStream(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,177 @@
+package com.healthlink.ai_health_agent.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de integração do particionamento mensal (V9) em um PostgreSQL real (Testcontainers)
+ * Verifica a migração dos dados existentes e, via EXPLAIN, que as consultas por intervalo
+ * de datas dos repositories leem apenas as partições do período
+ * Ignorado quando não há Docker disponível
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PartitionPruningIntegrationTest {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'_y'yyyy'm'MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("\\b(chat_messages|health_logs)_y\\d{4}m\\d{2}\\b");
+
+    private static final UUID TENANT_ID = UUID.randomUUID();
+    private static final UUID PATIENT_ID = UUID.randomUUID();
+    private static final LocalDate LEGACY_MONTH = LocalDate.now().withDayOfMonth(1).minusMonths(6);
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            MigrationScripts.applyBefore(statement, "V9");
+
+            // Dados anteriores ao particionamento
+            statement.execute("INSERT INTO accounts (id, cpf, name, email, type, status) VALUES ('"
+                    + TENANT_ID + "', '12345678901', 'Clínica', 'clinica@example.com', 'B2B', 'ACTIVE')");
+            statement.execute("INSERT INTO patients (id, account_id, whatsapp_number, name) VALUES ('"
+                    + PATIENT_ID + "', '" + TENANT_ID + "', '5511999990000', 'Paciente')");
+            statement.execute("INSERT INTO chat_messages (account_id, patient_id, whatsapp_message_id, role, content, timestamp) VALUES ('"
+                    + TENANT_ID + "', '" + PATIENT_ID + "', 'wamid.legacy', 'USER', 'Oi', '" + LEGACY_MONTH.atTime(10, 0) + "')");
+            statement.execute("INSERT INTO health_logs (account_id, patient_id, timestamp, pain_level) VALUES ('"
+                    + TENANT_ID + "', '" + PATIENT_ID + "', '" + LEGACY_MONTH.atTime(10, 0) + "', 4)");
+
+            MigrationScripts.applyFrom(statement, "V9");
+
+            // Histórico de 2 anos: uma mensagem e um log por dia
+            LocalDate firstMonth = LocalDate.now().withDayOfMonth(1).minusMonths(24);
+            statement.execute("SELECT create_monthly_partitions('chat_messages', '" + firstMonth + "', 28)");
+            statement.execute("SELECT create_monthly_partitions('health_logs', '" + firstMonth + "', 28)");
+            statement.execute("""
+                    INSERT INTO chat_messages (account_id, patient_id, role, content, timestamp)
+                    SELECT '%s', '%s', 'USER', 'mensagem ' || d, d
+                    FROM generate_series(TIMESTAMP '%s', CURRENT_TIMESTAMP, INTERVAL '1 day') d
+                    """.formatted(TENANT_ID, PATIENT_ID, firstMonth.atStartOfDay()));
+            statement.execute("""
+                    INSERT INTO health_logs (account_id, patient_id, timestamp, pain_level)
+                    SELECT '%s', '%s', d, 5
+                    FROM generate_series(TIMESTAMP '%s', CURRENT_TIMESTAMP, INTERVAL '1 day') d
+                    """.formatted(TENANT_ID, PATIENT_ID, firstMonth.atStartOfDay()));
+            statement.execute("ANALYZE chat_messages");
+            statement.execute("ANALYZE health_logs");
+        }
+    }
+
+    @Test
+    @DisplayName("Deve migrar os dados existentes para as tabelas particionadas")
+    void shouldMigrateLegacyRows() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            assertEquals(1, count(statement, "SELECT COUNT(*) FROM chat_messages" + partitionSuffix(LEGACY_MONTH)
+                    + " WHERE whatsapp_message_id = 'wamid.legacy'"));
+            assertEquals(1, count(statement, "SELECT COUNT(*) FROM chat_message_receipts WHERE whatsapp_message_id = 'wamid.legacy'"));
+            assertEquals(1, count(statement, "SELECT COUNT(*) FROM pg_partitioned_table WHERE partrelid = 'health_logs'::regclass"));
+        }
+    }
+
+    @Test
+    @DisplayName("Consulta de mensagens por período deve ler apenas a partição do mês")
+    void shouldPruneChatMessagesByPeriod() throws SQLException {
+        LocalDate month = LocalDate.now().withDayOfMonth(1).minusMonths(5);
+
+        List<String> partitions = explainPartitions("""
+                SELECT cm.* FROM chat_messages cm
+                WHERE cm.patient_id = ? AND cm.account_id = ?
+                AND cm.timestamp BETWEEN ? AND ?
+                ORDER BY cm.timestamp ASC
+                """, month.atStartOfDay().plusDays(2), month.atStartOfDay().plusDays(12));
+
+        assertEquals(List.of("chat_messages" + partitionSuffix(month)), partitions);
+    }
+
+    @Test
+    @DisplayName("Consulta de logs por período deve ler apenas as partições do intervalo")
+    void shouldPruneHealthLogsByPeriod() throws SQLException {
+        LocalDate month = LocalDate.now().withDayOfMonth(1).minusMonths(3);
+
+        List<String> partitions = explainPartitions("""
+                SELECT h.* FROM health_logs h
+                WHERE h.patient_id = ? AND h.account_id = ?
+                AND h.timestamp BETWEEN ? AND ?
+                ORDER BY h.timestamp DESC
+                """, month.atStartOfDay().plusDays(20), month.plusMonths(1).atStartOfDay().plusDays(5));
+
+        assertEquals(List.of("health_logs" + partitionSuffix(month), "health_logs" + partitionSuffix(month.plusMonths(1))),
+                partitions.stream().sorted().toList());
+    }
+
+    @Test
+    @DisplayName("Criação de partições futuras deve ser idempotente")
+    void shouldCreateFuturePartitionsIdempotently() throws SQLException {
+        LocalDate future = LocalDate.now().withDayOfMonth(1).plusMonths(12);
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            assertEquals(2, count(statement, "SELECT create_monthly_partitions('chat_messages', '" + future + "', 2)"));
+            assertEquals(0, count(statement, "SELECT create_monthly_partitions('chat_messages', '" + future + "', 2)"));
+            // Tabelas não particionadas são ignoradas
+            assertEquals(0, count(statement, "SELECT create_monthly_partitions('alerts', '" + future + "', 2)"));
+        }
+    }
+
+    /**
+     * Executa EXPLAIN com parâmetros (como os repositories) e retorna as partições do plano
+     */
+    private static List<String> explainPartitions(String sql, LocalDateTime start, LocalDateTime end) throws SQLException {
+        List<String> partitions = new ArrayList<>();
+        try (Connection connection = connect();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            statement.setObject(1, PATIENT_ID);
+            statement.setObject(2, TENANT_ID);
+            statement.setTimestamp(3, Timestamp.valueOf(start));
+            statement.setTimestamp(4, Timestamp.valueOf(end));
+            try (ResultSet plan = statement.executeQuery()) {
+                while (plan.next()) {
+                    Matcher matcher = PARTITION_NAME.matcher(plan.getString(1));
+                    while (matcher.find()) {
+                        if (!partitions.contains(matcher.group())) {
+                            partitions.add(matcher.group());
+                        }
+                    }
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private static long count(Statement statement, String sql) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static String partitionSuffix(LocalDate month) {
+        return month.format(PARTITION_SUFFIX);
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+}
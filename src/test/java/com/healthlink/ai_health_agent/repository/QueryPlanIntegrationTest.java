@@ -0,0 +1,197 @@
+package com.healthlink.ai_health_agent.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Regressão de planos de execução das queries mais frequentes dos repositories (V11)
+ * Executa EXPLAIN com os mesmos filtros das queries JPQL e verifica que usam índice,
+ * sem Seq Scan, em um volume onde a leitura sequencial seria a alternativa
+ * Ignorado quando não há Docker disponível
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanIntegrationTest {
+
+    private static final int TENANTS = 20;
+    private static final int PATIENTS_PER_TENANT = 10;
+    private static final int DAYS = 60;
+
+    private static UUID tenantId;
+    private static UUID patientId;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @BeforeAll
+    static void migrateAndSeed() throws Exception {
+        LocalDate firstDay = LocalDate.now().minusDays(DAYS - 1);
+
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            MigrationScripts.applyAll(statement);
+            statement.execute("SELECT create_monthly_partitions('chat_messages', '" + firstDay + "', 4)");
+            statement.execute("SELECT create_monthly_partitions('health_logs', '" + firstDay + "', 4)");
+
+            statement.execute("""
+                    INSERT INTO accounts (id, cpf, name, email, type, status)
+                    SELECT gen_random_uuid(), lpad(t::text, 11, '0'), 'Clínica ' || t, 'clinica' || t || '@example.com', 'B2B', 'ACTIVE'
+                    FROM generate_series(1, %d) t
+                    """.formatted(TENANTS));
+            statement.execute("""
+                    INSERT INTO patients (account_id, whatsapp_number, name)
+                    SELECT a.id, '55' || a.cpf || p, 'Paciente ' || p
+                    FROM accounts a CROSS JOIN generate_series(1, %d) p
+                    """.formatted(PATIENTS_PER_TENANT));
+            statement.execute("""
+                    INSERT INTO checkin_schedules (account_id, patient_id, schedule_type, time_of_day)
+                    SELECT account_id, id, 'DAILY', TIME '09:00' FROM patients
+                    """);
+
+            // Por paciente: uma mensagem, um log e um check-in a cada 2 horas durante 60 dias
+            String series = "generate_series(TIMESTAMP '%s', TIMESTAMP '%s', INTERVAL '2 hours') ts"
+                    .formatted(firstDay.atStartOfDay(), LocalDate.now().atTime(23, 0));
+            statement.execute("""
+                    INSERT INTO chat_messages (account_id, patient_id, role, content, timestamp)
+                    SELECT p.account_id, p.id, 'USER', 'mensagem', ts FROM patients p CROSS JOIN %s
+                    """.formatted(series));
+            statement.execute("""
+                    INSERT INTO health_logs (account_id, patient_id, timestamp, pain_level, medication_taken)
+                    SELECT p.account_id, p.id, ts,
+                           CASE WHEN random() < 0.5 THEN (random() * 10)::int END,
+                           random() < 0.9
+                    FROM patients p CROSS JOIN %s
+                    """.formatted(series));
+            statement.execute("""
+                    INSERT INTO checkin_executions (schedule_id, account_id, patient_id, executed_at, status)
+                    SELECT s.id, s.account_id, s.patient_id, ts,
+                           CASE WHEN random() < 0.8 THEN 'SUCCESS' ELSE 'FAILED' END
+                    FROM checkin_schedules s CROSS JOIN %s
+                    """.formatted(series));
+
+            // VACUUM atualiza o visibility map (necessário para index-only scan)
+            statement.execute("VACUUM ANALYZE chat_messages");
+            statement.execute("VACUUM ANALYZE health_logs");
+            statement.execute("VACUUM ANALYZE checkin_executions");
+
+            try (ResultSet rs = statement.executeQuery("SELECT account_id, id FROM patients LIMIT 1")) {
+                rs.next();
+                tenantId = rs.getObject(1, UUID.class);
+                patientId = rs.getObject(2, UUID.class);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("countMessagesSentByTenant deve usar o índice parcial de execuções com sucesso")
+    void tenantDailyCountShouldUsePartialIndex() throws SQLException {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+
+        String plan = explain("""
+                SELECT COUNT(*) FROM checkin_executions ce
+                WHERE ce.account_id = ? AND ce.executed_at >= ? AND ce.executed_at < ?
+                AND ce.status = 'SUCCESS'
+                """, tenantId, today, today.plusDays(1));
+
+        assertTrue(plan.contains("idx_checkin_executions_account_success"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    @DisplayName("Mensagens do dia devem usar índice na partição do mês")
+    void messagesOfDayShouldUseIndex() throws SQLException {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+
+        String plan = explain("""
+                SELECT cm.* FROM chat_messages cm
+                WHERE cm.patient_id = ? AND cm.account_id = ?
+                AND cm.timestamp >= ? AND cm.timestamp < ?
+                ORDER BY cm.timestamp ASC
+                """, patientId, tenantId, today, today.plusDays(1));
+
+        assertTrue(plan.contains("Index Scan"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    @DisplayName("Logs do dia devem usar o índice (patient_id, account_id, timestamp)")
+    void logsOfDayShouldUseCompositeIndex() throws SQLException {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+
+        String plan = explain("""
+                SELECT h.* FROM health_logs h
+                WHERE h.patient_id = ? AND h.account_id = ?
+                AND h.timestamp >= ? AND h.timestamp < ?
+                ORDER BY h.timestamp DESC
+                """, patientId, tenantId, today, today.plusDays(1));
+
+        assertTrue(plan.contains("patient_id_account_id_timestamp_idx"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    @DisplayName("Média de dor deve ser respondida só pelo índice (index-only scan)")
+    void averagePainShouldUseIndexOnlyScan() throws SQLException {
+        LocalDateTime end = LocalDate.now().atStartOfDay();
+
+        String plan = explain("""
+                SELECT AVG(h.pain_level) FROM health_logs h
+                WHERE h.patient_id = ? AND h.account_id = ?
+                AND h.pain_level IS NOT NULL AND h.timestamp BETWEEN ? AND ?
+                """, patientId, tenantId, end.minusDays(30), end);
+
+        assertTrue(plan.contains("Index Only Scan"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    @DisplayName("Logs sem medicação devem usar índice")
+    void missedMedicationShouldUseIndex() throws SQLException {
+        String plan = explain("""
+                SELECT h.* FROM health_logs h
+                WHERE h.patient_id = ? AND h.account_id = ? AND h.medication_taken = false
+                ORDER BY h.timestamp DESC
+                """, patientId, tenantId);
+
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    /**
+     * Executa EXPLAIN com parâmetros (como os repositories) e retorna o plano em texto
+     */
+    private static String explain(String sql, Object... params) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = connect();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < params.length; i++) {
+                Object param = params[i];
+                statement.setObject(i + 1, param instanceof LocalDateTime dateTime ? Timestamp.valueOf(dateTime) : param);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+}
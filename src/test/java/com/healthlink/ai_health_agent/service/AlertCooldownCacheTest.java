@@ -0,0 +1,107 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.healthlink.ai_health_agent.config.AlertRulesProperties;
+import com.healthlink.ai_health_agent.domain.entity.Alert;
+import com.healthlink.ai_health_agent.repository.AlertRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para AlertCooldownCache
+ * Foco na reserva atômica do cooldown e na carga única do banco por par paciente/tipo
+ */
+class AlertCooldownCacheTest {
+
+    private static final Duration COOLDOWN = Duration.ofHours(24);
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 10, 9, 0);
+
+    private AlertRepository alertRepository;
+    private AlertCooldownCache cache;
+    private UUID tenantId;
+    private UUID patientId;
+
+    @BeforeEach
+    void setUp() {
+        alertRepository = mock(AlertRepository.class);
+        cache = new AlertCooldownCache(alertRepository, new AlertRulesProperties(14, 7, List.of()));
+        tenantId = UUID.randomUUID();
+        patientId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Deve consultar o banco uma única vez por par e suprimir alertas no cooldown sem acesso ao banco")
+    void shouldSeedOnceAndSuppressInMemory() {
+        assertTrue(cache.tryAcquire(tenantId, patientId, Alert.AlertType.HIGH_PAIN_LEVEL, COOLDOWN, NOW));
+        assertFalse(cache.tryAcquire(tenantId, patientId, Alert.AlertType.HIGH_PAIN_LEVEL, COOLDOWN, NOW.plusHours(1)));
+        assertFalse(cache.tryAcquire(tenantId, patientId, Alert.AlertType.HIGH_PAIN_LEVEL, COOLDOWN, NOW.plusHours(23)));
+        assertTrue(cache.tryAcquire(tenantId, patientId, Alert.AlertType.HIGH_PAIN_LEVEL, COOLDOWN, NOW.plusHours(25)));
+
+        verify(alertRepository, times(1)).findLastAlertAt(patientId, tenantId, Alert.AlertType.HIGH_PAIN_LEVEL);
+    }
+
+    @Test
+    @DisplayName("Alerta já persistido dentro do cooldown deve suprimir o novo alerta")
+    void shouldRespectPersistedAlert() {
+        when(alertRepository.findLastAlertAt(patientId, tenantId, Alert.AlertType.MEDICATION_SKIP))
+                .thenReturn(NOW.minusDays(1));
+
+        assertFalse(cache.tryAcquire(tenantId, patientId, Alert.AlertType.MEDICATION_SKIP, Duration.ofDays(3), NOW));
+        // Outro tipo tem cooldown próprio
+        assertTrue(cache.tryAcquire(tenantId, patientId, Alert.AlertType.HIGH_PAIN_LEVEL, COOLDOWN, NOW));
+    }
+
+    @Test
+    @DisplayName("Avaliações simultâneas do mesmo paciente devem reservar o cooldown uma única vez")
+    void shouldAcquireOnceUnderConcurrency() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.tryAcquire(tenantId, patientId, Alert.AlertType.HIGH_PAIN_LEVEL, COOLDOWN, NOW);
+                }));
+            }
+            start.countDown();
+
+            int acquired = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(5, TimeUnit.SECONDS)) {
+                    acquired++;
+                }
+            }
+            assertEquals(1, acquired);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Reserva liberada (alerta não criado) deve permitir nova tentativa")
+    void shouldReleaseReservation() {
+        assertTrue(cache.tryAcquire(tenantId, patientId, Alert.AlertType.SLEEP_DEPRIVATION, COOLDOWN, NOW));
+
+        cache.release(patientId, Alert.AlertType.SLEEP_DEPRIVATION, NOW);
+
+        assertTrue(cache.tryAcquire(tenantId, patientId, Alert.AlertType.SLEEP_DEPRIVATION, COOLDOWN, NOW.plusMinutes(1)));
+        verify(alertRepository, times(2)).findLastAlertAt(any(), any(), any());
+    }
+}
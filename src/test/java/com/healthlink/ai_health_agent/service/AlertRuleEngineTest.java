@@ -0,0 +1,248 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.healthlink.ai_health_agent.config.AlertRulesProperties;
+import com.healthlink.ai_health_agent.config.AlertRulesProperties.Metric;
+import com.healthlink.ai_health_agent.config.AlertRulesProperties.Operator;
+import com.healthlink.ai_health_agent.config.AlertRulesProperties.Rule;
+import com.healthlink.ai_health_agent.domain.entity.Alert;
+import com.healthlink.ai_health_agent.domain.event.HealthLogRecordedEvent;
+import com.healthlink.ai_health_agent.repository.HealthLogRepository;
+import com.healthlink.ai_health_agent.repository.HealthLogRepository.DailyWorstValues;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para AlertRuleEngine
+ * Foco nas janelas deslizantes e nos limites por tenant
+ * (sem banco: o histórico carregado sob demanda vem de um mock do HealthLogRepository)
+ */
+class AlertRuleEngineTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 10);
+
+    private static final Rule HIGH_PAIN = new Rule("high-pain", Alert.AlertType.HIGH_PAIN_LEVEL, Metric.PAIN_LEVEL,
+            Operator.GTE, 8, 1, 1, false, Alert.Severity.HIGH, 9.0, Duration.ofHours(24),
+            "Paciente {patient} reportou dor nível {value}");
+    private static final Rule MEDICATION_SKIP = new Rule("medication-skip", Alert.AlertType.MEDICATION_SKIP,
+            Metric.MEDICATION_MISSED, Operator.GTE, 1, 7, 3, false, Alert.Severity.HIGH, null, Duration.ofDays(3),
+            "Paciente {patient} não tomou medicação por {days} dias");
+    private static final Rule SLEEP_STREAK = new Rule("sleep-streak", Alert.AlertType.SLEEP_DEPRIVATION_STREAK,
+            Metric.SLEEP_HOURS, Operator.LT, 5, 3, 3, true, Alert.Severity.HIGH, null, Duration.ofDays(3),
+            "Paciente {patient} dormiu menos de 5 horas por {days} noites seguidas");
+
+    private HealthLogRepository healthLogRepository;
+    private AlertThresholdService thresholds;
+    private AlertRuleEngine engine;
+    private UUID tenantId;
+    private UUID patientId;
+
+    @BeforeEach
+    void setUp() {
+        AlertRulesProperties properties = new AlertRulesProperties(14, 7, List.of(HIGH_PAIN, MEDICATION_SKIP, SLEEP_STREAK));
+        thresholds = new AlertThresholdService(null, null, null, properties);
+        healthLogRepository = mock(HealthLogRepository.class);
+        engine = new AlertRuleEngine(healthLogRepository, thresholds, properties);
+        tenantId = UUID.randomUUID();
+        patientId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Dor alta deve disparar no próprio log, com CRITICAL a partir do limite crítico")
+    void shouldMatchHighPainWithEscalation() {
+        List<AlertRuleEngine.RuleMatch> high = engine.evaluate(log(TODAY, 8, null, null));
+        List<AlertRuleEngine.RuleMatch> critical = engine.evaluate(log(TODAY, 9, null, null));
+        List<AlertRuleEngine.RuleMatch> low = engine.evaluate(log(TODAY, 3, null, null));
+
+        assertEquals(Alert.Severity.HIGH, single(high).severity());
+        assertEquals(Alert.Severity.CRITICAL, single(critical).severity());
+        assertEquals("Paciente Maria reportou dor nível 9", single(critical).message("Maria"));
+        // O dia já teve dor 9, mas o gatilho é o log atual
+        assertTrue(low.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Medicação perdida deve disparar no terceiro dia distinto da janela de 7 dias")
+    void shouldCountMissedMedicationDaysInWindow() {
+        assertTrue(engine.evaluate(log(TODAY.minusDays(6), null, null, false)).isEmpty());
+        assertTrue(engine.evaluate(log(TODAY.minusDays(6), null, null, false)).isEmpty());
+        assertTrue(engine.evaluate(log(TODAY.minusDays(2), null, null, false)).isEmpty());
+        assertTrue(engine.evaluate(log(TODAY.minusDays(1), null, null, true)).isEmpty());
+
+        AlertRuleEngine.RuleMatch match = single(engine.evaluate(log(TODAY, null, null, false)));
+
+        assertEquals(MEDICATION_SKIP, match.rule());
+        assertEquals(3, match.days());
+    }
+
+    @Test
+    @DisplayName("Dias fora da janela não devem contar")
+    void shouldIgnoreDaysOutsideWindow() {
+        engine.evaluate(log(TODAY.minusDays(8), null, null, false));
+        engine.evaluate(log(TODAY.minusDays(7), null, null, false));
+
+        assertTrue(engine.evaluate(log(TODAY, null, null, false)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Sequência de noites mal dormidas deve exigir dias seguidos")
+    void shouldRequireConsecutiveDaysForStreak() {
+        engine.evaluate(log(TODAY.minusDays(3), null, 4.0, null));
+        engine.evaluate(log(TODAY.minusDays(2), null, 7.5, null));
+        engine.evaluate(log(TODAY.minusDays(1), null, 4.5, null));
+
+        assertTrue(engine.evaluate(log(TODAY, null, 3.5, null)).isEmpty());
+
+        AlertRuleEngine.RuleMatch match = single(engine.evaluate(log(TODAY.plusDays(1), null, 4.0, null)));
+        assertEquals(3, match.days());
+        assertEquals("{\"rule\": \"sleep-streak\", \"value\": 4, \"days\": 3}", match.details());
+    }
+
+    @Test
+    @DisplayName("Limites customizados devem valer apenas para o tenant")
+    void shouldApplyTenantThresholds() {
+        thresholds.replaceTenant(tenantId, List.of(
+                new AlertThresholdService.TenantOverride("high-pain", 6.0, 7.0, null, true),
+                new AlertThresholdService.TenantOverride("medication-skip", null, null, null, false),
+                new AlertThresholdService.TenantOverride("inactivity", 3.0, null, null, true)));
+
+        AlertRuleEngine.RuleMatch match = single(engine.evaluate(log(TODAY, 7, null, null)));
+        assertEquals(6.0, match.rule().threshold());
+        assertEquals(Alert.Severity.CRITICAL, match.severity());
+        assertEquals(3, thresholds.inactivityDays(tenantId).getAsInt());
+
+        // Regra desativada no tenant
+        engine.evaluate(log(TODAY.minusDays(2), null, null, false));
+        engine.evaluate(log(TODAY.minusDays(1), null, null, false));
+        assertTrue(engine.evaluate(log(TODAY, null, null, false)).isEmpty());
+
+        // Outro tenant continua com os padrões
+        UUID otherTenant = UUID.randomUUID();
+        assertTrue(engine.evaluate(new HealthLogRecordedEvent(otherTenant, UUID.randomUUID(), UUID.randomUUID(),
+                TODAY.atTime(9, 0), 7, null, null, null, "Paciente")).isEmpty());
+        assertEquals(7, thresholds.inactivityDays(otherTenant).getAsInt());
+
+        // Sem customizações o tenant volta aos padrões
+        thresholds.replaceTenant(tenantId, List.of());
+        assertTrue(engine.evaluate(log(TODAY, 7, null, null)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Limites inválidos para a regra devem manter os valores padrão")
+    void shouldIgnoreInvalidTenantThresholds() {
+        // min-days maior que a janela da regra (3)
+        thresholds.replaceTenant(tenantId, List.of(new AlertThresholdService.TenantOverride("sleep-streak", null, null, 5, true)));
+
+        assertEquals(SLEEP_STREAK, thresholds.rulesFor(tenantId).get(2));
+    }
+
+    @Test
+    @DisplayName("Lote importado deve ser avaliado uma vez, com o log mais severo dentro da janela como gatilho")
+    void shouldEvaluateImportedBatchOnce() {
+        List<AlertRuleEngine.RuleMatch> matches = engine.evaluateBatch(tenantId, patientId, List.of(
+                // Histórico fora da janela da regra de dor (1 dia): não gera alerta
+                log(TODAY.minusDays(30), 10, null, null),
+                log(TODAY.minusDays(2), null, 4.0, false),
+                log(TODAY.minusDays(1), null, 4.5, false),
+                log(TODAY, 8, 3.0, false),
+                log(TODAY, 9, null, null)), TODAY);
+
+        assertEquals(3, matches.size(), "Regras atingidas: " + matches);
+        AlertRuleEngine.RuleMatch pain = matches.get(0);
+        assertEquals(HIGH_PAIN, pain.rule());
+        assertEquals(Alert.Severity.CRITICAL, pain.severity());
+        assertEquals(3, matches.get(1).days());
+        assertEquals(3, matches.get(2).days());
+    }
+
+    @Test
+    @DisplayName("Lote apenas com histórico antigo deve alimentar a janela sem gerar alertas")
+    void shouldNotAlertOnHistoricalBatch() {
+        assertTrue(engine.evaluateBatch(tenantId, patientId, List.of(
+                log(TODAY.minusDays(40), 10, 2.0, false),
+                log(TODAY.minusDays(39), 10, 2.0, false),
+                log(TODAY.minusDays(38), 10, 2.0, false)), TODAY).isEmpty());
+
+        // Logs recentes do lote contam na janela para os logs seguintes
+        engine.evaluateBatch(tenantId, patientId, List.of(log(TODAY.minusDays(2), null, null, false)), TODAY);
+        engine.evaluate(log(TODAY.minusDays(1), null, null, false));
+        assertEquals(MEDICATION_SKIP, single(engine.evaluate(log(TODAY, null, null, false))).rule());
+    }
+
+    @Test
+    @DisplayName("Paciente sem janela na instância deve ter o histórico carregado do banco uma única vez")
+    void shouldSeedWindowFromDatabaseOnMiss() {
+        // Dias registrados por outra instância
+        when(healthLogRepository.findDailyWorstValues(eq(tenantId), eq(patientId), any())).thenReturn(List.of(
+                worstValues(TODAY.minusDays(3), true),
+                worstValues(TODAY.minusDays(1), true)));
+
+        AlertRuleEngine.RuleMatch match = single(engine.evaluate(log(TODAY, null, null, false)));
+        assertEquals(MEDICATION_SKIP, match.rule());
+        assertEquals(3, match.days());
+
+        engine.evaluate(log(TODAY, null, null, false));
+        verify(healthLogRepository, times(1)).findDailyWorstValues(eq(tenantId), eq(patientId), any());
+    }
+
+    @Test
+    @DisplayName("Regras de um único dia não devem consultar o banco")
+    void shouldNotSeedForSingleDayRules() {
+        thresholds.replaceTenant(tenantId, List.of(
+                new AlertThresholdService.TenantOverride("medication-skip", null, null, null, false),
+                new AlertThresholdService.TenantOverride("sleep-streak", null, null, null, false)));
+
+        assertEquals(HIGH_PAIN, single(engine.evaluate(log(TODAY, 8, null, null))).rule());
+        verifyNoInteractions(healthLogRepository);
+    }
+
+    private DailyWorstValues worstValues(LocalDate day, boolean medicationMissed) {
+        return new DailyWorstValues() {
+            @Override
+            public UUID getPatientId() {
+                return patientId;
+            }
+
+            @Override
+            public LocalDate getDay() {
+                return day;
+            }
+
+            @Override
+            public Integer getMaxPain() {
+                return null;
+            }
+
+            @Override
+            public Double getMinSleep() {
+                return null;
+            }
+
+            @Override
+            public Boolean getMedicationMissed() {
+                return medicationMissed;
+            }
+        };
+    }
+
+    private HealthLogRecordedEvent log(LocalDate day, Integer pain, Double sleepHours, Boolean medicationTaken) {
+        LocalDateTime timestamp = day.atTime(9, 0);
+        return new HealthLogRecordedEvent(tenantId, patientId, UUID.randomUUID(), timestamp,
+                pain, null, sleepHours, medicationTaken, "Maria");
+    }
+
+    private static AlertRuleEngine.RuleMatch single(List<AlertRuleEngine.RuleMatch> matches) {
+        assertEquals(1, matches.size(), "Regras atingidas: " + matches);
+        return matches.get(0);
+    }
+}
@@ -0,0 +1,148 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.healthlink.ai_health_agent.domain.entity.Alert;
+import com.healthlink.ai_health_agent.domain.event.AlertChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para AlertStreamService
+ * Foco na ordem de entrega por tenant e no replay a partir do Last-Event-ID
+ */
+class AlertStreamServiceTest {
+
+    private static final Pattern ID = Pattern.compile("id:(\\d+)");
+    private static final Pattern NAME = Pattern.compile("event:(\\w+)");
+
+    private ExecutorService executor;
+    private AlertStreamService service;
+    private UUID tenantId;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        service = new AlertStreamService(executor::execute, new SimpleMeterRegistry(), 3, Duration.ofMinutes(1)) {
+            @Override
+            SseEmitter createEmitter() {
+                return new RecordingEmitter();
+            }
+        };
+        tenantId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Eventos do tenant devem ser entregues na ordem dos IDs")
+    void shouldDeliverEventsInOrder() throws InterruptedException {
+        RecordingEmitter emitter = (RecordingEmitter) service.subscribe(tenantId, null);
+
+        for (int i = 0; i < 50; i++) {
+            service.onAlertChanged(event(tenantId));
+        }
+
+        emitter.awaitEvents(50);
+        assertEquals(LongStream.rangeClosed(1, 50).boxed().toList(), emitter.ids());
+    }
+
+    @Test
+    @DisplayName("Reconexão deve reenviar os eventos após o Last-Event-ID e continuar em ordem")
+    void shouldReplayFromLastEventId() throws InterruptedException {
+        RecordingEmitter first = (RecordingEmitter) service.subscribe(tenantId, null);
+        for (int i = 0; i < 4; i++) {
+            service.onAlertChanged(event(tenantId));
+        }
+        first.awaitEvents(4);
+
+        RecordingEmitter reconnected = (RecordingEmitter) service.subscribe(tenantId, 2L);
+        assertEquals(List.of(3L, 4L), reconnected.ids());
+
+        service.onAlertChanged(event(tenantId));
+        reconnected.awaitEvents(3);
+        assertEquals(List.of(3L, 4L, 5L), reconnected.ids());
+    }
+
+    @Test
+    @DisplayName("Last-Event-ID fora do buffer deve gerar evento resync")
+    void shouldRequestResyncWhenEventsWereDiscarded() {
+        service.subscribe(tenantId, null);
+        for (int i = 0; i < 5; i++) {
+            service.onAlertChanged(event(tenantId));
+        }
+
+        // Buffer de 3 eventos: mantém 3 a 5
+        RecordingEmitter reconnected = (RecordingEmitter) service.subscribe(tenantId, 1L);
+
+        assertEquals(List.of("resync"), reconnected.names);
+        assertTrue(reconnected.ids().isEmpty());
+    }
+
+    private static AlertChangedEvent event(UUID tenantId) {
+        return new AlertChangedEvent(tenantId, UUID.randomUUID(), UUID.randomUUID(), Alert.AlertType.HIGH_PAIN_LEVEL,
+                Alert.Severity.HIGH, "Dor alta", LocalDateTime.now(), AlertChangedEvent.Change.CREATED);
+    }
+
+    /**
+     * SseEmitter que registra os eventos enviados, com atraso aleatório para expor reordenações
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> names = new CopyOnWriteArrayList<>();
+        private final List<Long> ids = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> {
+                if (part.getData() instanceof String data) {
+                    text.append(data);
+                }
+            });
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Matcher name = NAME.matcher(text);
+            if (name.find()) {
+                names.add(name.group(1));
+            }
+            Matcher id = ID.matcher(text);
+            if (id.find()) {
+                ids.add(Long.parseLong(id.group(1)));
+            }
+        }
+
+        List<Long> ids() {
+            return List.copyOf(ids);
+        }
+
+        void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (ids.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.healthlink.ai_health_agent.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para DataRetentionService
+ * Foco no corte mensal da retenção e na escolha do arquivo de cada execução
+ */
+class DataRetentionServiceTest {
+
+    @TempDir
+    Path archiveDir;
+
+    @Test
+    @DisplayName("Corte deve ser o início do mês que contém hoje - retentionDays")
+    void cutoffShouldRoundDownToMonthStart() {
+        assertEquals(LocalDateTime.of(2026, 7, 1, 0, 0), DataRetentionService.cutoffFor(LocalDate.of(2026, 10, 19), 90));
+        assertEquals(LocalDateTime.of(2026, 10, 1, 0, 0), DataRetentionService.cutoffFor(LocalDate.of(2026, 10, 19), 18));
+        // Virada de ano
+        assertEquals(LocalDateTime.of(2025, 12, 1, 0, 0), DataRetentionService.cutoffFor(LocalDate.of(2026, 1, 5), 30));
+    }
+
+    @Test
+    @DisplayName("Mês já arquivado deve receber uma nova parte, sem sobrescrever as anteriores")
+    void shouldPickNextFreeArchivePart() throws IOException {
+        assertEquals(archiveDir.resolve("2026-03.ndjson.gz"), DataRetentionService.archivePart(archiveDir, "2026-03"));
+
+        Files.createFile(archiveDir.resolve("2026-03.ndjson.gz"));
+        assertEquals(archiveDir.resolve("2026-03.part2.ndjson.gz"), DataRetentionService.archivePart(archiveDir, "2026-03"));
+
+        Files.createFile(archiveDir.resolve("2026-03.part2.ndjson.gz"));
+        assertEquals(archiveDir.resolve("2026-03.part3.ndjson.gz"), DataRetentionService.archivePart(archiveDir, "2026-03"));
+    }
+}
@@ -0,0 +1,160 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthlink.ai_health_agent.domain.event.HealthLogsImportedEvent;
+import com.healthlink.ai_health_agent.dto.HealthLogImportResult;
+import com.healthlink.ai_health_agent.repository.AccountRepository;
+import com.healthlink.ai_health_agent.repository.PatientRepository;
+import com.healthlink.ai_health_agent.repository.PatientRepository.PatientIdentity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para HealthLogImportService
+ * Foco na validação em streaming, na checagem de posse por lote, nos rollups somados por
+ * paciente/dia e no evento único por paciente
+ */
+class HealthLogImportServiceTest {
+
+    private static final LocalDateTime YESTERDAY = LocalDateTime.now().minusDays(1).withNano(0);
+
+    private AccountRepository accountRepository;
+    private PatientRepository patientRepository;
+    private JdbcTemplate jdbcTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private HealthLogImportService service;
+
+    private UUID tenantId;
+    private UUID patientId;
+    private UUID foreignPatientId;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = mock(AccountRepository.class);
+        patientRepository = mock(PatientRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        service = new HealthLogImportService(accountRepository, patientRepository,
+                mock(PartitionMaintenanceService.class), jdbcTemplate,
+                mock(PlatformTransactionManager.class), new ObjectMapper().findAndRegisterModules(),
+                eventPublisher, 2);
+
+        tenantId = UUID.randomUUID();
+        patientId = UUID.randomUUID();
+        foreignPatientId = UUID.randomUUID();
+        when(accountRepository.existsById(tenantId)).thenReturn(true);
+        when(patientRepository.findIdentitiesByTenantIdAndIdIn(eq(tenantId), anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<UUID>>getArgument(1).contains(patientId)
+                        ? List.of(identity(patientId, "Maria"))
+                        : List.of());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar linhas inválidas sem interromper a importação e publicar um evento por paciente e lote")
+    void shouldImportValidLinesInChunks() {
+        HealthLogImportResult result = service.importNdjson(tenantId, ndjson(
+                entry(patientId, YESTERDAY, "\"sleepHours\":6.5,\"steps\":8200"),
+                "{nao e json",
+                entry(patientId, YESTERDAY.plusHours(1), "\"painLevel\":11"),
+                entry(patientId, YESTERDAY.plusHours(2), "\"painLevel\":3"),
+                "",
+                entry(foreignPatientId, YESTERDAY, "\"steps\":1000"),
+                entry(patientId, LocalDateTime.now().plusDays(2), "\"steps\":1000"),
+                entry(patientId, YESTERDAY.plusHours(3), "\"mood\":\"bem\"")));
+
+        assertEquals(3, result.getAccepted());
+        assertEquals(4, result.getRejected());
+        assertEquals(1, result.getPatients());
+        assertEquals(List.of(
+                "linha 2: JSON inválido",
+                "linha 3: painLevel deve estar entre 0 e 10",
+                "linha 7: timestamp no futuro",
+                // Posse verificada ao gravar o lote [6, 8], após a leitura da linha 7
+                "linha 6: paciente não encontrado no tenant: " + foreignPatientId), result.getErrors());
+
+        // Lotes gravados: [1, 4] e [8]; a posse é consultada só para pacientes ainda não vistos
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(HealthLogImportService.INSERT_HEALTH_LOG), anyList(), any(int[].class));
+        verify(patientRepository, times(2)).findIdentitiesByTenantIdAndIdIn(eq(tenantId), anyCollection());
+
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        HealthLogsImportedEvent first = (HealthLogsImportedEvent) events.getAllValues().get(0);
+        assertEquals(patientId, first.patientId());
+        assertEquals("Maria", first.patientName());
+        assertEquals(2, first.logs().size());
+    }
+
+    @Test
+    @DisplayName("Rollups devem somar apenas os logs inseridos, um upsert por paciente/dia")
+    @SuppressWarnings("unchecked")
+    void shouldAddChunkAggregatesToRollups() {
+        LocalDateTime day = YESTERDAY.toLocalDate().atTime(8, 0);
+        service.importNdjson(tenantId, ndjson(
+                entry(patientId, day, "\"painLevel\":3,\"mood\":\"bem\""),
+                entry(patientId, day.plusHours(2), "\"painLevel\":7,\"sleepHours\":6.0,\"mood\":\"bem\"")));
+
+        ArgumentCaptor<List<Object[]>> health = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(HealthLogImportService.ADD_DAILY_HEALTH), health.capture(), any(int[].class));
+        // tenant, paciente, dia, log_count, pain_min, pain_max, pain_sum, pain_count, sleep_sum, sleep_count, medicação
+        Object[] row = health.getValue().get(0);
+        assertEquals(1, health.getValue().size());
+        assertArrayEquals(new Object[]{2, 3, 7, 10L, 2, 6.0, 1, false}, Arrays.copyOfRange(row, 3, 11));
+
+        ArgumentCaptor<List<Object[]>> moods = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(HealthLogImportService.ADD_DAILY_MOOD), moods.capture(), any(int[].class));
+        assertEquals(1, moods.getValue().size());
+        assertEquals("bem", moods.getValue().get(0)[3]);
+        assertEquals(2, moods.getValue().get(0)[4]);
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção quando a account não existe")
+    void shouldRejectUnknownAccount() {
+        UUID unknownTenant = UUID.randomUUID();
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> service.importNdjson(unknownTenant, ndjson(entry(patientId, YESTERDAY, "\"steps\":1"))));
+        assertTrue(exception.getMessage().contains("não encontrada"));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static String entry(UUID patientId, LocalDateTime timestamp, String fields) {
+        return "{\"patientId\":\"" + patientId + "\",\"timestamp\":\"" + timestamp + "\"," + fields + "}";
+    }
+
+    private static InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static PatientIdentity identity(UUID id, String name) {
+        return new PatientIdentity() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
@@ -0,0 +1,139 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthlink.ai_health_agent.domain.entity.Account;
+import com.healthlink.ai_health_agent.domain.entity.HealthLog;
+import com.healthlink.ai_health_agent.domain.entity.Patient;
+import com.healthlink.ai_health_agent.domain.event.HealthLogRecordedEvent;
+import com.healthlink.ai_health_agent.dto.HealthStatsRequest;
+import com.healthlink.ai_health_agent.repository.AccountRepository;
+import com.healthlink.ai_health_agent.repository.HealthLogRepository;
+import com.healthlink.ai_health_agent.repository.PatientDailyHealthRepository;
+import com.healthlink.ai_health_agent.repository.PatientDailyMoodRepository;
+import com.healthlink.ai_health_agent.repository.PatientRepository;
+import com.healthlink.ai_health_agent.repository.PatientRepository.PatientIdentity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para HealthLogService
+ * Foco no caminho de escrita: checagem de posse em uma query e referências sem SELECT
+ */
+@ExtendWith(MockitoExtension.class)
+class HealthLogServiceTest {
+
+    @Mock
+    private HealthLogRepository healthLogRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private PatientDailyHealthRepository dailyHealthRepository;
+
+    @Mock
+    private PatientDailyMoodRepository dailyMoodRepository;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private HealthLogService healthLogService;
+
+    private UUID tenantId;
+    private UUID patientId;
+    private HealthStatsRequest request;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = UUID.randomUUID();
+        patientId = UUID.randomUUID();
+        request = new HealthStatsRequest();
+        request.setPainLevel(8);
+    }
+
+    @Test
+    @DisplayName("Deve gravar o log com referências, sem carregar paciente e account")
+    void shouldRecordWithReferences() {
+        // Arrange
+        when(patientRepository.findIdentityByIdAndTenantId(patientId, tenantId)).thenReturn(Optional.of(identity("Maria")));
+        when(accountRepository.getReferenceById(tenantId)).thenReturn(Account.builder().id(tenantId).build());
+        when(patientRepository.getReferenceById(patientId)).thenReturn(Patient.builder().id(patientId).build());
+        when(healthLogRepository.save(any(HealthLog.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        String result = healthLogService.recordHealthStats(tenantId, patientId, request);
+
+        // Assert
+        assertTrue(result.contains("dor nível 8"));
+        verify(patientRepository, never()).findById(any());
+        verify(accountRepository, never()).findById(any());
+
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        HealthLogRecordedEvent recorded = (HealthLogRecordedEvent) event.getValue();
+        assertEquals(tenantId, recorded.tenantId());
+        assertEquals(patientId, recorded.patientId());
+        assertEquals("Maria", recorded.patientName());
+    }
+
+    @Test
+    @DisplayName("Deve lançar SecurityException quando o paciente é de outro tenant")
+    void shouldRejectCrossTenantPatient() {
+        // Arrange
+        when(patientRepository.findIdentityByIdAndTenantId(patientId, tenantId)).thenReturn(Optional.empty());
+        when(patientRepository.existsById(patientId)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(SecurityException.class, () -> healthLogService.recordHealthStats(tenantId, patientId, request));
+        verify(healthLogRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção quando o paciente não existe")
+    void shouldRejectUnknownPatient() {
+        // Arrange
+        when(patientRepository.findIdentityByIdAndTenantId(patientId, tenantId)).thenReturn(Optional.empty());
+        when(patientRepository.existsById(patientId)).thenReturn(false);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> healthLogService.recordHealthStats(tenantId, patientId, request));
+        assertFalse(exception instanceof SecurityException);
+        assertTrue(exception.getMessage().contains("não encontrado"));
+    }
+
+    private PatientIdentity identity(String name) {
+        return new PatientIdentity() {
+            @Override
+            public UUID getId() {
+                return patientId;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
@@ -0,0 +1,160 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.healthlink.ai_health_agent.dto.HealthLogExportDTO;
+import com.healthlink.ai_health_agent.service.HistoryExportService.ExportFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para HistoryExportService
+ * Foco na escrita em streaming (sem materializar o histórico)
+ */
+class HistoryExportServiceTest {
+
+    private static final int MILLION = 1_000_000;
+
+    /**
+     * Máximo de linhas produzidas e ainda não escritas: só o buffer de escrita pode reter linhas
+     * (64 KB de buffer / ~200 bytes por linha = ~350 linhas)
+     */
+    private static final long MAX_ROWS_IN_FLIGHT = 2_000;
+
+    private HistoryExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new HistoryExportService(null, null, null, objectMapper);
+    }
+
+    @Test
+    @DisplayName("Deve exportar um milhão de linhas em NDJSON sem acumular o Stream em memória")
+    void shouldStreamMillionRowsWithBoundedMemory() throws IOException {
+        // Arrange
+        LineCountingOutputStream out = new LineCountingOutputStream();
+        AtomicLong produced = new AtomicLong();
+        AtomicLong maxInFlight = new AtomicLong();
+
+        Stream<HealthLogExportDTO> rows = IntStream.range(0, MILLION).mapToObj(i -> {
+            maxInFlight.accumulateAndGet(produced.incrementAndGet() - out.lines, Math::max);
+            return syntheticLog(i);
+        });
+
+        // Act
+        long count = exportService.writeRows(rows, ExportFormat.NDJSON, false,
+                HealthLogExportDTO.CSV_HEADER, HealthLogExportDTO::toCsvRow, out);
+
+        // Assert
+        assertEquals(MILLION, count);
+        assertEquals(MILLION, out.lines);
+        assertTrue(maxInFlight.get() <= MAX_ROWS_IN_FLIGHT,
+                "Linhas retidas antes da escrita: " + maxInFlight.get());
+    }
+
+    @Test
+    @DisplayName("Deve exportar um milhão de linhas em CSV com gzip")
+    void shouldStreamMillionRowsAsGzipCsv() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Stream<HealthLogExportDTO> rows = IntStream.range(0, MILLION).mapToObj(HistoryExportServiceTest::syntheticLog);
+
+        // Act
+        long count = exportService.writeRows(rows, ExportFormat.CSV, true,
+                HealthLogExportDTO.CSV_HEADER, HealthLogExportDTO::toCsvRow, out);
+
+        // Assert: cabeçalho + uma linha por registro
+        assertEquals(MILLION, count);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            long lines = 0;
+            int b;
+            byte[] buffer = new byte[8192];
+            while ((b = in.read(buffer)) > 0) {
+                for (int i = 0; i < b; i++) {
+                    if (buffer[i] == '\n') {
+                        lines++;
+                    }
+                }
+            }
+            assertEquals(MILLION + 1, lines);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve escapar vírgulas, aspas e quebras de linha no CSV")
+    void shouldEscapeCsvFields() throws IOException {
+        // Arrange
+        HealthLogExportDTO log = new HealthLogExportDTO(
+                UUID.fromString("00000000-0000-0000-0000-000000000001"),
+                LocalDateTime.of(2024, 3, 1, 8, 30),
+                5, "ansioso", null, 6.5, true, "Dipirona", null, null,
+                "dor \"forte\", pior à noite\nmelhorou com remédio");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exportService.writeRows(Stream.of(log), ExportFormat.CSV, false,
+                HealthLogExportDTO.CSV_HEADER, HealthLogExportDTO::toCsvRow, out);
+
+        // Assert
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertTrue(csv.startsWith(String.join(",", HealthLogExportDTO.CSV_HEADER) + "\n"));
+        assertTrue(csv.endsWith(
+                "2024-03-01T08:30,5,ansioso,,6.5,true,Dipirona,,,\"dor \"\"forte\"\", pior à noite\nmelhorou com remédio\"\n"));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar formato de exportação desconhecido")
+    void shouldRejectUnknownFormat() {
+        assertEquals(ExportFormat.CSV, ExportFormat.from("csv"));
+        assertThrows(IllegalArgumentException.class, () -> ExportFormat.from("xml"));
+    }
+
+    private static HealthLogExportDTO syntheticLog(int i) {
+        return new HealthLogExportDTO(
+                new UUID(0, i),
+                LocalDateTime.of(2020, 1, 1, 0, 0).plusMinutes(i),
+                i % 11, "bem", "bom", 7.0, i % 2 == 0, null, i % 10, i % 10, null);
+    }
+
+    /**
+     * Descarta os bytes e conta as linhas já escritas
+     */
+    private static final class LineCountingOutputStream extends OutputStream {
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                if (bytes[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthlink.ai_health_agent.dto.HealthStatsRequest;
+import com.healthlink.ai_health_agent.observability.MessageLifecycleMetrics;
+import com.healthlink.ai_health_agent.security.TenantContext;
+import com.healthlink.ai_health_agent.security.TenantContextHolder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.tool.ToolCallback;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para ToolRegistry
+ * Foco na execução paralela das funções de um turno, no tempo limite das consultas e na
+ * propagação explícita do TenantContext
+ */
+class ToolRegistryTest {
+
+    private ExecutorService executor;
+    private ToolRegistry registry;
+    private TenantContext context;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        MessageLifecycleMetrics metrics = new MessageLifecycleMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+        registry = new ToolRegistry(executor, metrics, new ObjectMapper(), Duration.ofSeconds(5));
+        context = new TenantContext(UUID.randomUUID(), "Maria", "5511999990000", UUID.randomUUID());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        TenantContextHolder.clear();
+    }
+
+    @Test
+    @DisplayName("Funções do mesmo turno devem rodar em paralelo, cada uma com o contexto do paciente")
+    void shouldRunToolCallsConcurrentlyWithContext() {
+        // Cada função só termina quando as duas estão em execução ao mesmo tempo
+        CountDownLatch running = new CountDownLatch(2);
+        registry.register("first", "Primeira", Void.class, unused -> awaitBoth(running))
+                .register("second", "Segunda", Void.class, unused -> awaitBoth(running));
+
+        ToolResponseMessage message = registry.executeToolCalls(List.of(
+                toolCall("1", "first", ""),
+                toolCall("2", "second", "{}")), context);
+
+        List<ToolResponseMessage.ToolResponse> responses = message.getResponses();
+        assertEquals(List.of("1", "2"), responses.stream().map(ToolResponseMessage.ToolResponse::id).toList());
+        responses.forEach(response -> assertEquals("Maria", response.responseData()));
+        assertNull(TenantContextHolder.getContext());
+    }
+
+    @Test
+    @DisplayName("Deve converter os argumentos e restaurar o contexto anterior da thread")
+    void shouldParseArgumentsAndRestoreContext() {
+        TenantContext callerContext = new TenantContext(UUID.randomUUID(), "Outro");
+        TenantContextHolder.setContext(callerContext);
+        registry.register("recordDailyHealthStats", "Registra", HealthStatsRequest.class,
+                request -> TenantContextHolder.getPatientName() + ": dor " + request.getPainLevel());
+
+        ToolResponseMessage message = registry.executeToolCalls(
+                List.of(toolCall("1", "recordDailyHealthStats", "{\"painLevel\": 7}")), context);
+
+        assertEquals("Maria: dor 7", message.getResponses().get(0).responseData());
+        assertSame(callerContext, TenantContextHolder.getContext());
+    }
+
+    @Test
+    @DisplayName("Função desconhecida ou com erro não deve interromper as demais do turno")
+    void shouldIsolateToolFailures() {
+        registry.register("broken", "Quebrada", Void.class, unused -> {
+                    throw new IllegalStateException("falha");
+                })
+                .register("ok", "Ok", Void.class, unused -> "ok");
+
+        List<String> results = registry.executeToolCalls(List.of(
+                        toolCall("1", "broken", ""),
+                        toolCall("2", "missing", ""),
+                        toolCall("3", "ok", "")), context)
+                .getResponses().stream().map(ToolResponseMessage.ToolResponse::responseData).toList();
+
+        assertEquals(List.of("Erro ao executar broken.", "Erro: função desconhecida missing.", "ok"), results);
+    }
+
+    @Test
+    @DisplayName("Só funções de consulta devem responder com erro ao exceder o tempo limite")
+    void shouldApplyTimeoutOnlyToReadOnlyTools() {
+        ToolRegistry shortTimeout = new ToolRegistry(executor,
+                new MessageLifecycleMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP),
+                new ObjectMapper(), Duration.ofMillis(50));
+        shortTimeout.registerReadOnly("slowQuery", "Consulta lenta", Void.class, unused -> sleep(300, "consulta"))
+                .register("slowWrite", "Gravação lenta", Void.class, unused -> sleep(300, "gravado"));
+
+        List<String> results = shortTimeout.executeToolCalls(List.of(
+                        toolCall("1", "slowQuery", ""),
+                        toolCall("2", "slowWrite", "")), context)
+                .getResponses().stream().map(ToolResponseMessage.ToolResponse::responseData).toList();
+
+        assertEquals(List.of("Erro: a função slowQuery excedeu o tempo limite.", "gravado"), results);
+    }
+
+    @Test
+    @DisplayName("Callback da definição deve executar a função com o contexto da thread atual")
+    void callbackShouldExecuteWithCurrentContext() {
+        registry.registerReadOnly("whoAmI", "Paciente atual", Void.class, unused -> TenantContextHolder.getPatientName());
+        TenantContextHolder.setContext(context);
+
+        ToolCallback callback = registry.chatOptions().getToolCallbacks().get(0);
+
+        assertEquals("Maria", callback.call("{}"));
+        assertSame(context, TenantContextHolder.getContext());
+    }
+
+    private static String sleep(long millis, String result) {
+        try {
+            Thread.sleep(millis);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrompido";
+        }
+    }
+
+    private static String awaitBoth(CountDownLatch running) {
+        running.countDown();
+        try {
+            return running.await(2, TimeUnit.SECONDS) ? TenantContextHolder.getPatientName() : "sequencial";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrompido";
+        }
+    }
+
+    private static AssistantMessage.ToolCall toolCall(String id, String name, String arguments) {
+        return new AssistantMessage.ToolCall(id, "function", name, arguments);
+    }
+}
@@ -0,0 +1,93 @@
+package com.healthlink.ai_health_agent.service;
+
+import com.healthlink.ai_health_agent.domain.event.HealthLogRecordedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para ToolResultCache
+ * Foco no reaproveitamento das respostas e na invalidação por novo HealthLog do paciente
+ */
+class ToolResultCacheTest {
+
+    private ToolResultCache cache;
+    private UUID tenantId;
+    private UUID patientId;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ToolResultCache(new SimpleMeterRegistry(), Duration.ofMinutes(2));
+        tenantId = UUID.randomUUID();
+        patientId = UUID.randomUUID();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Chamadas repetidas devem reutilizar a resposta, separada por função e por paciente")
+    void shouldReuseResultPerPatientAndTool() {
+        assertEquals("resposta 1", cache.get(tenantId, patientId, "getPainHistory", this::load));
+        assertEquals("resposta 1", cache.get(tenantId, patientId, "getPainHistory", this::load));
+        assertEquals("resposta 2", cache.get(tenantId, patientId, "checkMedicationToday", this::load));
+        assertEquals("resposta 3", cache.get(tenantId, UUID.randomUUID(), "getPainHistory", this::load));
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("Novo HealthLog do paciente deve invalidar as respostas dele")
+    void shouldInvalidateOnHealthLogRecorded() {
+        UUID otherPatient = UUID.randomUUID();
+        cache.get(tenantId, patientId, "checkMedicationToday", this::load);
+        cache.get(tenantId, otherPatient, "checkMedicationToday", this::load);
+
+        cache.onHealthLogRecorded(recorded(patientId));
+
+        assertEquals("resposta 3", cache.get(tenantId, patientId, "checkMedicationToday", this::load));
+        assertEquals("resposta 2", cache.get(tenantId, otherPatient, "checkMedicationToday", this::load));
+    }
+
+    @Test
+    @DisplayName("Resposta calculada durante uma invalidação não deve permanecer no cache")
+    void shouldNotKeepResultComputedDuringInvalidation() {
+        cache.get(tenantId, patientId, "getPainHistory", this::load);
+        cache.onHealthLogRecorded(recorded(patientId));
+
+        String stale = cache.get(tenantId, patientId, "getPainHistory", () -> {
+            cache.onHealthLogRecorded(recorded(patientId));
+            return load();
+        });
+
+        assertEquals("resposta 2", stale);
+        assertEquals("resposta 3", cache.get(tenantId, patientId, "getPainHistory", this::load));
+    }
+
+    @Test
+    @DisplayName("Respostas devem expirar após o TTL")
+    void shouldExpireAfterTtl() {
+        cache = new ToolResultCache(new SimpleMeterRegistry(), Duration.ZERO);
+
+        cache.get(tenantId, patientId, "getPainHistory", this::load);
+        cache.get(tenantId, patientId, "getPainHistory", this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    private String load() {
+        return "resposta " + loads.incrementAndGet();
+    }
+
+    private HealthLogRecordedEvent recorded(UUID patient) {
+        return new HealthLogRecordedEvent(tenantId, patient, UUID.randomUUID(), LocalDateTime.now(),
+                5, null, null, true, "Maria");
+    }
+}